@@ -0,0 +1,88 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.Order;
+import com.example.backend.entity.Ticket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 購入完了メール本文の生成のベンチマーク
+ *
+ * 事前コンパイルしたテンプレート（{@link PurchaseConfirmationTemplate}）と、
+ * 以前の String.format による生成（{@link LegacyPurchaseConfirmationHtml}）を同じ注文で比べます。
+ * 1通あたりの割り当て量は {@code -prof gc} を付けて確認します。
+ *
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="PurchaseConfirmationBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PurchaseConfirmationBenchmark {
+
+    private static final String FRONTEND_URL = "https://easel.example";
+
+    @Param({"1", "4"})
+    public int ticketCount;
+
+    private PurchaseConfirmationTemplate template;
+    private Order order;
+    private List<Ticket> tickets;
+    private Map<String, String> qrCodeSrcMap;
+    private Map<String, String> qrCodeCidMap;
+
+    @Setup
+    public void setUp() {
+        template = new PurchaseConfirmationTemplate(FRONTEND_URL);
+
+        order = new Order();
+        order.setId(12345L);
+        order.setCustomerName("山田 太郎");
+        order.setCustomerEmail("buyer@example.com");
+        order.setPerformanceDate("2025-01-01-14");
+        order.setPerformanceLabel("2025年1月1日 14:00");
+        order.setTotalAmount(14500);
+        order.setDiscountAmount(4500);
+        order.setCreatedAt(LocalDateTime.of(2025, 1, 1, 9, 5));
+
+        tickets = new ArrayList<>(ticketCount);
+        qrCodeSrcMap = new HashMap<>();
+        qrCodeCidMap = new HashMap<>();
+        for (int i = 0; i < ticketCount; i++) {
+            Ticket ticket = new Ticket(order, i % 2 == 0 ? Ticket.TicketType.GENERAL : Ticket.TicketType.RESERVED,
+                    i == 0);
+            String cid = "qr-" + ticket.getTicketCode();
+            tickets.add(ticket);
+            qrCodeSrcMap.put(ticket.getTicketCode(), "cid:" + cid);
+            qrCodeCidMap.put(ticket.getTicketCode(), cid);
+        }
+    }
+
+    @Benchmark
+    public String template() {
+        return template.render(order, tickets, qrCodeSrcMap);
+    }
+
+    @Benchmark
+    public String legacy() {
+        return LegacyPurchaseConfirmationHtml.buildPurchaseConfirmationHtml(order, tickets, qrCodeCidMap, FRONTEND_URL);
+    }
+}
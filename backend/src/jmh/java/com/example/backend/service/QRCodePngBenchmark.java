@@ -0,0 +1,60 @@
+package com.example.backend.service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * チケットQRコードのPNG生成のベンチマーク
+ *
+ * モジュール行列から直接1ビットPNGを書く経路（{@link QRCodeService#generateQRCodeImage(String, int, int)}）と、
+ * 従来の QRCodeWriter → MatrixToImageWriter → ImageIO の経路を同じ入力・サイズで比べます。
+ * 割り当て量は {@code -prof gc} を付けて確認します。
+ *
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="QRCodePngBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QRCodePngBenchmark {
+
+    private static final String TICKET_CODE = "3f2b8c1e-6d4a-4e8f-9b7a-2c5d1e0f9a84";
+
+    @Param({"200", "300"})
+    public int size;
+
+    private final QRCodeService qrCodeService = new QRCodeService();
+
+    @Benchmark
+    public byte[] pngEncoder() throws Exception {
+        return qrCodeService.generateQRCodeImage(TICKET_CODE, size, size);
+    }
+
+    @Benchmark
+    public byte[] imageIO() throws Exception {
+        BitMatrix bitMatrix = new QRCodeWriter().encode(TICKET_CODE, BarcodeFormat.QR_CODE, size, size);
+        BufferedImage image = MatrixToImageWriter.toBufferedImage(bitMatrix);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "PNG", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.backend.config;
+
+import java.util.List;
+
+/**
+ * Hibernate 2次キャッシュの領域名
+ *
+ * 領域ごとの件数上限・有効期限は resources/application.conf（Caffeine JCache）で設定します。
+ */
+public final class CacheRegions {
+
+    // エンティティ
+    public static final String PERFORMANCE = "performance";
+    public static final String NEWS = "news";
+    public static final String ADMIN_USER = "admin-user";
+
+    // クエリ結果
+    public static final String PERFORMANCE_QUERIES = "performance-queries";
+    public static final String NEWS_QUERIES = "news-queries";
+    public static final String ADMIN_USER_QUERIES = "admin-user-queries";
+
+    public static final List<String> ALL = List.of(
+            PERFORMANCE, NEWS, ADMIN_USER,
+            PERFORMANCE_QUERIES, NEWS_QUERIES, ADMIN_USER_QUERIES);
+
+    private CacheRegions() {
+    }
+}
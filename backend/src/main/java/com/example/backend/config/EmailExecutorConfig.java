@@ -0,0 +1,32 @@
+package com.example.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * メール送信用の実行プール設定
+ *
+ * SMTPの待ち時間が大半のため仮想スレッドで実行し、同時送信数と待ち行列の長さを上限で抑える。
+ * 待ち行列の空き分だけ送信待ち（email_outbox）から取り出すため、溢れた分はテーブルに残る。
+ */
+@Configuration
+public class EmailExecutorConfig {
+
+    @Bean(name = "emailExecutor")
+    public ThreadPoolTaskExecutor emailExecutor(
+            @Value("${app.mail.executor.max-in-flight:8}") int maxInFlight,
+            @Value("${app.mail.executor.queue-capacity:200}") int queueCapacity,
+            @Value("${app.mail.executor.await-termination-seconds:30}") int awaitTerminationSeconds) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxInFlight);
+        executor.setMaxPoolSize(maxInFlight);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadFactory(Thread.ofVirtual().name("email-", 0).factory());
+        // シャットダウン時は送信中のメールを待ってから終了する
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(awaitTerminationSeconds);
+        return executor;
+    }
+}
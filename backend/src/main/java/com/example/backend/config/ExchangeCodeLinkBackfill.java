@@ -0,0 +1,93 @@
+package com.example.backend.config;
+
+import com.example.backend.entity.ExchangeCode;
+import com.example.backend.entity.Order;
+import com.example.backend.repository.ExchangeCodeRepository;
+import com.example.backend.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 注文の引換券コード バックフィル
+ *
+ * order_exchange_codes 導入前の注文は引換券コードをカンマ区切りの文字列でしか持たないため、
+ * 起動時に中間テーブルへの紐付けを補完します。紐付け済みの注文は対象外なので何度実行しても安全です。
+ */
+@Configuration
+public class ExchangeCodeLinkBackfill {
+
+        private static final Logger logger = LoggerFactory.getLogger(ExchangeCodeLinkBackfill.class);
+
+        // 1トランザクションで処理する注文数
+        private static final int BATCH_SIZE = 500;
+
+        @Bean
+        CommandLineRunner backfillExchangeCodeLinks(OrderRepository orderRepository,
+                        ExchangeCodeRepository exchangeCodeRepository,
+                        PlatformTransactionManager transactionManager) {
+                return args -> {
+                        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+                        long afterId = 0;
+                        long linkedOrders = 0;
+                        while (true) {
+                                long cursor = afterId;
+                                // 注文 BATCH_SIZE 件ごとに短いトランザクションで更新する
+                                long[] result = transactionTemplate.execute(status -> {
+                                        List<Order> orders = orderRepository.findUnlinkedExchangeCodeOrders(
+                                                        cursor, Limit.of(BATCH_SIZE));
+                                        if (orders.isEmpty()) {
+                                                return new long[] {-1, 0};
+                                        }
+
+                                        Set<String> codes = new HashSet<>();
+                                        for (Order order : orders) {
+                                                for (String code : order.getExchangeCodeList()) {
+                                                        codes.add(code.trim().toUpperCase());
+                                                }
+                                        }
+                                        Map<String, ExchangeCode> byCode = new HashMap<>();
+                                        for (ExchangeCode exchangeCode : exchangeCodeRepository.findByCodeIn(codes)) {
+                                                byCode.put(exchangeCode.getCode(), exchangeCode);
+                                        }
+
+                                        long linked = 0;
+                                        for (Order order : orders) {
+                                                for (String code : order.getExchangeCodeList()) {
+                                                        ExchangeCode exchangeCode = byCode.get(code.trim().toUpperCase());
+                                                        if (exchangeCode != null) {
+                                                                order.getRedeemedExchangeCodes().add(exchangeCode);
+                                                        }
+                                                }
+                                                if (!order.getRedeemedExchangeCodes().isEmpty()) {
+                                                        linked++;
+                                                }
+                                        }
+                                        return new long[] {orders.get(orders.size() - 1).getId(), linked};
+                                });
+
+                                if (result == null || result[0] < 0) {
+                                        break;
+                                }
+                                afterId = result[0];
+                                linkedOrders += result[1];
+                        }
+
+                        if (linkedOrders > 0) {
+                                logger.info("Linked exchange codes of {} orders", linkedOrders);
+                        }
+                };
+        }
+}
@@ -0,0 +1,44 @@
+package com.example.backend.config;
+
+import com.example.backend.repository.NewsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * お知らせの公開日時 バックフィル
+ *
+ * お知らせ一覧のページ位置は（公開日時, ID）で表すため、公開日時のない行があると
+ * 次のページの位置を作れません（"null,ID" は不正な位置として 400 になる）。
+ * 公開日時が必須になる前に作られた行は、作成日時を持たないため、既存のお知らせで最も古い
+ * 公開日時で補完します（これまでどおり一覧の最後に並ぶ）。補完済みなら何もしないので何度実行しても安全です。
+ */
+@Configuration
+public class NewsPublishedAtBackfill {
+
+        private static final Logger logger = LoggerFactory.getLogger(NewsPublishedAtBackfill.class);
+
+        @Bean
+        CommandLineRunner backfillNewsPublishedAt(NewsRepository newsRepository,
+                        PlatformTransactionManager transactionManager) {
+                return args -> {
+                        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+                        Integer updated = transactionTemplate.execute(status -> {
+                                LocalDateTime earliest = newsRepository.findEarliestPublishedAt();
+                                return newsRepository.fillMissingPublishedAt(
+                                                earliest != null ? earliest : LocalDateTime.now());
+                        });
+
+                        if (updated != null && updated > 0) {
+                                logger.info("Filled missing published_at on {} news", updated);
+                        }
+                };
+        }
+}
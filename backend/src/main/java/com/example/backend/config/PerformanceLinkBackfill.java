@@ -0,0 +1,50 @@
+package com.example.backend.config;
+
+import com.example.backend.entity.Performance;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.PerformanceRepository;
+import com.example.backend.repository.TicketRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 注文・チケットの公演ID バックフィル
+ *
+ * performance_id 導入前の注文は公演日キー（例: 2025-01-01-14）しか持たないため、
+ * 起動時に公演ごとに紐付けを補完します。紐付け済みの行は対象外なので何度実行しても安全です。
+ */
+@Configuration
+public class PerformanceLinkBackfill {
+
+        private static final Logger logger = LoggerFactory.getLogger(PerformanceLinkBackfill.class);
+
+        @Bean
+        CommandLineRunner backfillPerformanceLinks(PerformanceRepository performanceRepository,
+                        OrderRepository orderRepository,
+                        TicketRepository ticketRepository,
+                        PlatformTransactionManager transactionManager) {
+                return args -> {
+                        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+                        for (Performance performance : performanceRepository.findAll()) {
+                                // 公演ごとに短いトランザクションで更新する
+                                int[] updated = transactionTemplate.execute(status -> new int[] {
+                                                orderRepository.linkPerformanceByDateKey(performance,
+                                                                performance.toOrderDateKey()),
+                                                ticketRepository.linkPerformanceFromOrders(performance)
+                                });
+
+                                if (updated != null && (updated[0] > 0 || updated[1] > 0)) {
+                                        logger.info("Linked performance {} ({}): orders={}, tickets={}",
+                                                        performance.getId(), performance.toOrderDateKey(),
+                                                        updated[0], updated[1]);
+                                }
+                        }
+                };
+        }
+}
@@ -0,0 +1,68 @@
+package com.example.backend.config;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * QRコード生成用の実行プール
+ *
+ * プール自体は Bean にせず、このクラスのフィールドとして持つ。
+ * Executor の Bean があると Spring Boot が既定の applicationTaskExecutor を作らなくなるため。
+ */
+@Component
+public class QRCodeExecutors {
+
+    private final ForkJoinPool renderPool;
+    private final ThreadPoolExecutor generateExecutor;
+
+    public QRCodeExecutors(@Value("${app.qrcode.render-parallelism:0}") int renderParallelism,
+                           @Value("${app.qrcode.generate.threads:0}") int generateThreads,
+                           @Value("${app.qrcode.generate.queue-capacity:16}") int generateQueueCapacity) {
+        int renderSize = renderParallelism > 0 ? renderParallelism : Runtime.getRuntime().availableProcessors();
+        this.renderPool = new ForkJoinPool(renderSize);
+
+        int generateSize = generateThreads > 0
+                ? generateThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+        AtomicInteger counter = new AtomicInteger();
+        this.generateExecutor = new ThreadPoolExecutor(generateSize, generateSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(generateQueueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "qrcode-generate-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 注文単位でQRコードをまとめて生成するためのプール
+     * 共通プールとは分離し、並列度を上限で抑える（0 の場合はCPUコア数）
+     */
+    public ForkJoinPool renderPool() {
+        return renderPool;
+    }
+
+    /**
+     * 公開QRコード生成API（/api/qrcode/generate）専用の実行プール
+     *
+     * スレッド数（既定はCPUコア数の1/4）・待ち行列を小さく固定し、溢れた分は RejectedExecutionException で
+     * 即座に拒否する。同時に使えるCPUをこの数で抑え、チケットのQRコード表示に残りを回す。
+     */
+    public ThreadPoolExecutor generateExecutor() {
+        return generateExecutor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderPool.shutdown();
+        generateExecutor.shutdown();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.backend.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Hibernate 2次キャッシュのメトリクス
+ *
+ * 領域ごとのヒット・ミス数とヒット率を公開します。
+ * - hibernate.cache.requests{region, result=hit|miss}
+ * - hibernate.cache.hit.ratio{region}
+ */
+@Component
+public class SecondLevelCacheMetrics {
+
+    private final Statistics statistics;
+
+    public SecondLevelCacheMetrics(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        for (String region : CacheRegions.ALL) {
+            FunctionCounter.builder("hibernate.cache.requests", this,
+                            metrics -> metrics.count(region, CacheRegionStatistics::getHitCount))
+                    .tag("region", region)
+                    .tag("result", "hit")
+                    .description("2次キャッシュのヒット数")
+                    .register(meterRegistry);
+            FunctionCounter.builder("hibernate.cache.requests", this,
+                            metrics -> metrics.count(region, CacheRegionStatistics::getMissCount))
+                    .tag("region", region)
+                    .tag("result", "miss")
+                    .description("2次キャッシュのミス数")
+                    .register(meterRegistry);
+            Gauge.builder("hibernate.cache.hit.ratio", this, metrics -> metrics.hitRatio(region))
+                    .tag("region", region)
+                    .description("2次キャッシュのヒット率")
+                    .register(meterRegistry);
+        }
+    }
+
+    private long count(String region, ToLongFunction<CacheRegionStatistics> counter) {
+        // 領域は最初に使われたときに作られるため、それまでは0
+        CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+        return regionStatistics != null ? counter.applyAsLong(regionStatistics) : 0;
+    }
+
+    private double hitRatio(String region) {
+        long hits = count(region, CacheRegionStatistics::getHitCount);
+        long total = hits + count(region, CacheRegionStatistics::getMissCount);
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
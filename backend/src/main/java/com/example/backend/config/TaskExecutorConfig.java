@@ -0,0 +1,24 @@
+package com.example.backend.config;
+
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * アプリケーション共通の実行プール設定
+ *
+ * 専用の Executor（emailExecutor）を Bean にしていると、Spring Boot は既定の applicationTaskExecutor を作らない。
+ * その場合、MVCの非同期処理（StreamingResponseBody のエクスポート等）はリクエストごとにスレッドを作る
+ * SimpleAsyncTaskExecutor で動いてしまうため、Boot と同じ名前・同じ設定（spring.task.execution.*）で明示的に定義する。
+ */
+@Configuration
+public class TaskExecutorConfig {
+
+    @Lazy
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.backend.controller;
+
+import com.example.backend.service.ArchiveService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 終了した公演の注文・チケットの退避API（管理者用）
+ *
+ * 通常は毎日定期実行されます。公演終了直後にすぐ退避したい場合などに手動で実行します。
+ */
+@RestController
+@RequestMapping("/api/admin/archive")
+public class ArchiveController {
+
+    private final ArchiveService archiveService;
+
+    public ArchiveController(ArchiveService archiveService) {
+        this.archiveService = archiveService;
+    }
+
+    /**
+     * 退避を実行
+     * POST /api/admin/archive/run
+     */
+    @PostMapping("/run")
+    public ResponseEntity<Map<String, Object>> run() {
+        Optional<ArchiveService.Result> result = archiveService.archiveFinishedPerformances();
+        if (result.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "success", false,
+                "error", "退避処理を実行中です"
+            ));
+        }
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "performances", result.get().performances(),
+            "orders", result.get().orders(),
+            "tickets", result.get().tickets(),
+            "exchangeCodes", result.get().exchangeCodes()
+        ));
+    }
+}
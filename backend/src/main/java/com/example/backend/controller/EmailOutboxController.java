@@ -0,0 +1,99 @@
+package com.example.backend.controller;
+
+import com.example.backend.entity.EmailOutbox;
+import com.example.backend.entity.EmailOutbox.Status;
+import com.example.backend.repository.EmailOutboxRepository;
+import com.example.backend.service.EmailOutboxService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * メール送信状況の管理API（管理者用）
+ * 
+ * 送信待ち・失敗したメールの確認と再送を行います。
+ */
+@RestController
+@RequestMapping("/api/admin/email-outbox")
+public class EmailOutboxController {
+
+    // 一覧の最大件数
+    private static final int LIST_LIMIT = 200;
+
+    private final EmailOutboxService emailOutboxService;
+    private final EmailOutboxRepository emailOutboxRepository;
+
+    public EmailOutboxController(EmailOutboxService emailOutboxService,
+                                 EmailOutboxRepository emailOutboxRepository) {
+        this.emailOutboxService = emailOutboxService;
+        this.emailOutboxRepository = emailOutboxRepository;
+    }
+
+    /**
+     * 送信状況の一覧を取得
+     * GET /api/admin/email-outbox?status=FAILED
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> list(@RequestParam(required = false) String status) {
+        Status filter = null;
+        if (status != null && !status.isEmpty()) {
+            try {
+                filter = Status.valueOf(status.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "error", "不正なステータスです: " + status
+                ));
+            }
+        }
+
+        List<EmailOutbox> entries = emailOutboxService.list(filter, LIST_LIMIT);
+
+        Map<String, Object> counts = new HashMap<>();
+        for (Status s : Status.values()) {
+            counts.put(s.name(), emailOutboxRepository.countByStatus(s));
+        }
+
+        return ResponseEntity.ok(Map.of(
+            "entries", entries,
+            "counts", counts
+        ));
+    }
+
+    /**
+     * 1件を再送
+     * POST /api/admin/email-outbox/{id}/replay
+     */
+    @PostMapping("/{id}/replay")
+    public ResponseEntity<Map<String, Object>> replay(@PathVariable Long id) {
+        Optional<EmailOutbox> replayed = emailOutboxService.replay(id);
+        if (replayed.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                "success", false,
+                "error", "再送できるメールが見つかりません"
+            ));
+        }
+
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "entry", replayed.get()
+        ));
+    }
+
+    /**
+     * 失敗したメールをすべて再送
+     * POST /api/admin/email-outbox/replay-failed
+     */
+    @PostMapping("/replay-failed")
+    public ResponseEntity<Map<String, Object>> replayFailed() {
+        int count = emailOutboxService.replayFailed();
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "count", count
+        ));
+    }
+}
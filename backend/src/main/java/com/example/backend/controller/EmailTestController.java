@@ -4,6 +4,7 @@ import com.example.backend.entity.Order;
 import com.example.backend.entity.Ticket;
 import com.example.backend.repository.OrderRepository;
 import com.example.backend.repository.TicketRepository;
+import com.example.backend.service.EmailOutboxService;
 import com.example.backend.service.EmailService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,14 +27,17 @@ public class EmailTestController {
     private static final Logger logger = LoggerFactory.getLogger(EmailTestController.class);
 
     private final EmailService emailService;
+    private final EmailOutboxService emailOutboxService;
     private final OrderRepository orderRepository;
     private final TicketRepository ticketRepository;
 
     public EmailTestController(
             EmailService emailService,
+            EmailOutboxService emailOutboxService,
             OrderRepository orderRepository,
             TicketRepository ticketRepository) {
         this.emailService = emailService;
+        this.emailOutboxService = emailOutboxService;
         this.orderRepository = orderRepository;
         this.ticketRepository = ticketRepository;
     }
@@ -96,9 +100,10 @@ public class EmailTestController {
         List<Ticket> tickets = ticketRepository.findByOrder(order);
 
         try {
-            emailService.sendPurchaseConfirmationEmail(order, tickets);
+            // 送信待ちに登録（失敗時は再送される）
+            emailOutboxService.enqueuePurchaseConfirmation(order);
             
-            logger.info("Resent email for order {} to {}", orderId, order.getCustomerEmail());
+            logger.info("Queued resend for order {} to {}", orderId, order.getCustomerEmail());
             
             return ResponseEntity.ok(Map.of(
                 "success", true,
@@ -2,9 +2,26 @@ package com.example.backend.controller;
 
 import com.example.backend.entity.ExchangeCode;
 import com.example.backend.repository.ExchangeCodeRepository;
+import com.example.backend.repository.TableRowEstimates;
+import com.example.backend.service.ExchangeCodeGenerator;
+import com.example.backend.service.ExchangeCodeIndex;
+import com.example.backend.service.ExchangeCodeIndex.Lookup;
+import com.example.backend.service.ExchangeCodeIndex.State;
+import com.example.backend.util.ExchangeCodeChecksum;
+import com.example.backend.util.KeysetCursor;
+import com.example.backend.util.KeysetPage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 @RestController
@@ -12,27 +29,62 @@ import java.util.*;
 @CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})
 public class ExchangeCodeController {
 
-    private final ExchangeCodeRepository exchangeCodeRepository;
+    // 一括生成（JSONで返す）の最大件数。それより多い場合は /generate でCSVを受け取る
+    private static final int BATCH_MAX_COUNT = 50;
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
 
-    public ExchangeCodeController(ExchangeCodeRepository exchangeCodeRepository) {
+    // 一括確認の最大件数
+    private static final int VALIDATE_BATCH_MAX = 100;
+
+    private static final String MALFORMED_MESSAGE = "コードに誤りがあります。入力内容をご確認ください";
+
+    private final ExchangeCodeRepository exchangeCodeRepository;
+    private final TableRowEstimates tableRowEstimates;
+    private final ExchangeCodeGenerator exchangeCodeGenerator;
+    private final ExchangeCodeIndex exchangeCodeIndex;
+
+    // チェック文字導入前の旧形式のコード（チェック文字なし）も受け付けるか
+    @Value("${app.exchange-code.allow-legacy:true}")
+    private boolean allowLegacyCodes;
+
+    public ExchangeCodeController(ExchangeCodeRepository exchangeCodeRepository,
+                                  TableRowEstimates tableRowEstimates,
+                                  ExchangeCodeGenerator exchangeCodeGenerator,
+                                  ExchangeCodeIndex exchangeCodeIndex) {
         this.exchangeCodeRepository = exchangeCodeRepository;
+        this.tableRowEstimates = tableRowEstimates;
+        this.exchangeCodeGenerator = exchangeCodeGenerator;
+        this.exchangeCodeIndex = exchangeCodeIndex;
     }
 
     /**
-     * 全引換券コード一覧を取得
-     * GET /api/exchange-codes
+     * 引換券コード一覧を取得（未使用を先に、その中で新しい順。キーセット方式のページング）
+     * GET /api/exchange-codes?after=2026-01-01T10:00,123,false&limit=100
+     * 
+     * 次のページの位置は X-Next-Cursor、総件数の概算は X-Total-Count-Estimate ヘッダーで返します。
      */
     @GetMapping
-    public ResponseEntity<List<ExchangeCode>> getAllCodes() {
-        List<ExchangeCode> codes = exchangeCodeRepository.findAll();
-        // 未使用を先に、その後作成日時順
-        codes.sort((a, b) -> {
-            if (a.isUsed() != b.isUsed()) {
-                return a.isUsed() ? 1 : -1;
-            }
-            return b.getCreatedAt().compareTo(a.getCreatedAt());
-        });
-        return ResponseEntity.ok(codes);
+    public ResponseEntity<List<ExchangeCode>> getAllCodes(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + KeysetPage.DEFAULT_LIMIT) int limit) {
+        KeysetCursor cursor;
+        try {
+            cursor = KeysetCursor.parse(after);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        int pageSize = KeysetPage.clampLimit(limit);
+        List<ExchangeCode> rows = cursor == null
+                ? exchangeCodeRepository.findAllByOrderByIsUsedAscCreatedAtDescIdDesc(Limit.of(pageSize + 1))
+                : exchangeCodeRepository.findPageAfter(Boolean.TRUE.equals(cursor.flag()),
+                        cursor.at(), cursor.id(), Limit.of(pageSize + 1));
+        return KeysetPage.response(rows, pageSize,
+                code -> new KeysetCursor(code.getCreatedAt(), code.getId(), code.isUsed()),
+                tableRowEstimates.estimate("exchange_codes"));
     }
 
     /**
@@ -45,6 +97,15 @@ public class ExchangeCodeController {
 
         String code = request.getCode().trim().toUpperCase();
 
+        // 形式チェック（チェック文字付きの形式のコードはチェック文字が正しいこと）
+        if (!ExchangeCodeChecksum.isPlausible(code, allowLegacyCodes)) {
+            response.put("success", false);
+            response.put("error", allowLegacyCodes
+                    ? "末尾のチェック文字が正しくありません"
+                    : "コードの形式が正しくありません（一括生成をご利用ください）");
+            return ResponseEntity.badRequest().body(response);
+        }
+
         // 重複チェック
         if (exchangeCodeRepository.existsByCode(code)) {
             response.put("success", false);
@@ -68,14 +129,9 @@ public class ExchangeCodeController {
     public ResponseEntity<Map<String, Object>> createBatch(@RequestBody BatchRequest request) {
         Map<String, Object> response = new HashMap<>();
 
-        int count = Math.min(request.getCount(), 50); // 最大50件
-        List<ExchangeCode> createdCodes = new ArrayList<>();
-
-        for (int i = 0; i < count; i++) {
-            String code = generateUniqueCode();
-            ExchangeCode exchangeCode = new ExchangeCode(code, request.getPerformerName());
-            createdCodes.add(exchangeCodeRepository.save(exchangeCode));
-        }
+        int count = Math.max(1, Math.min(request.getCount(), BATCH_MAX_COUNT));
+        ExchangeCodeGenerator.Generated generated = exchangeCodeGenerator.generate(request.getPerformerName(), count);
+        List<ExchangeCode> createdCodes = exchangeCodeRepository.findByCodeIn(generated.codeList());
 
         response.put("success", true);
         response.put("count", createdCodes.size());
@@ -84,22 +140,28 @@ public class ExchangeCodeController {
     }
 
     /**
-     * ユニークなコードを生成
+     * 引換券コードを大量に生成してCSVでダウンロード
+     * POST /api/exchange-codes/generate
+     * 
+     * リクエスト: { "performerName": "山田太郎", "count": 5000 }（最大100,000件）
+     * 全件の登録が完了してから書き出すため、CSVに載ったコードはすべて登録済みです。
      */
-    private String generateUniqueCode() {
-        String chars = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789"; // 紛らわしい文字を除外
-        Random random = new Random();
-        String code;
-
-        do {
-            StringBuilder sb = new StringBuilder();
-            for (int i = 0; i < 8; i++) {
-                sb.append(chars.charAt(random.nextInt(chars.length())));
-            }
-            code = sb.toString();
-        } while (exchangeCodeRepository.existsByCode(code));
+    @PostMapping("/generate")
+    public ResponseEntity<StreamingResponseBody> generate(@RequestBody BatchRequest request) {
+        if (request.getCount() < 1 || request.getCount() > ExchangeCodeGenerator.MAX_COUNT) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ExchangeCodeGenerator.Generated generated =
+                exchangeCodeGenerator.generate(request.getPerformerName(), request.getCount());
 
-        return code;
+        String filename = "exchange-codes-" + generated.getCreatedAt().format(FILE_TIMESTAMP) + ".csv";
+        return ResponseEntity.ok()
+                .contentType(TEXT_CSV)
+                .cacheControl(CacheControl.noStore())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(out -> exchangeCodeGenerator.writeCsv(generated, out));
     }
 
     /**
@@ -118,17 +180,23 @@ public class ExchangeCodeController {
 
         String code = request.getCode().trim().toUpperCase();
 
-        // コードが存在するかチェック
-        var exchangeCode = exchangeCodeRepository.findByCode(code);
+        // 打ち間違い（チェック文字の不一致など）はDBを引かずに返す
+        if (!ExchangeCodeChecksum.isPlausible(code, allowLegacyCodes)) {
+            response.put("valid", false);
+            response.put("message", MALFORMED_MESSAGE);
+            return ResponseEntity.ok(response);
+        }
 
-        if (exchangeCode.isEmpty()) {
+        // コードが存在するか・使用済みかチェック
+        Lookup lookup = lookup(List.of(code)).get(code);
+
+        if (lookup.state() == State.NOT_FOUND) {
             response.put("valid", false);
             response.put("message", "無効なコードです");
             return ResponseEntity.ok(response);
         }
 
-        // 使用済みかチェック
-        if (exchangeCode.get().isUsed()) {
+        if (lookup.state() == State.USED) {
             response.put("valid", false);
             response.put("message", "このコードは既に使用されています");
             return ResponseEntity.ok(response);
@@ -137,7 +205,7 @@ public class ExchangeCodeController {
         // 有効なコード
         response.put("valid", true);
         response.put("message", "有効なコードです");
-        response.put("performerName", exchangeCode.get().getPerformerName());
+        response.put("performerName", lookup.performerName());
         return ResponseEntity.ok(response);
     }
 
@@ -155,35 +223,51 @@ public class ExchangeCodeController {
             return ResponseEntity.ok(response);
         }
 
-        List<Map<String, Object>> results = request.getCodes().stream()
-                .map(code -> {
-                    Map<String, Object> result = new HashMap<>();
-                    result.put("code", code);
-
-                    if (code == null || code.trim().isEmpty()) {
-                        result.put("valid", false);
-                        result.put("message", "空のコードです");
-                        return result;
-                    }
-
-                    String normalizedCode = code.trim().toUpperCase();
-                    var exchangeCode = exchangeCodeRepository.findByCode(normalizedCode);
-
-                    if (exchangeCode.isEmpty()) {
-                        result.put("valid", false);
-                        result.put("message", "無効なコードです");
-                    } else if (exchangeCode.get().isUsed()) {
-                        result.put("valid", false);
-                        result.put("message", "使用済みのコードです");
-                    } else {
-                        result.put("valid", true);
-                        result.put("message", "有効");
-                        result.put("performerName", exchangeCode.get().getPerformerName());
-                    }
-
-                    return result;
-                })
-                .toList();
+        if (request.getCodes().size() > VALIDATE_BATCH_MAX) {
+            response.put("error", "一度に確認できるコードは" + VALIDATE_BATCH_MAX + "件までです");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        // 形式の正しいコードだけをまとめて照合する
+        List<String> plausibleCodes = new ArrayList<>();
+        for (String code : request.getCodes()) {
+            if (code != null && !code.trim().isEmpty()) {
+                String normalizedCode = code.trim().toUpperCase();
+                if (ExchangeCodeChecksum.isPlausible(normalizedCode, allowLegacyCodes)) {
+                    plausibleCodes.add(normalizedCode);
+                }
+            }
+        }
+        Map<String, Lookup> lookups = lookup(plausibleCodes);
+
+        List<Map<String, Object>> results = new ArrayList<>(request.getCodes().size());
+        for (String code : request.getCodes()) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("code", code);
+            results.add(result);
+
+            if (code == null || code.trim().isEmpty()) {
+                result.put("valid", false);
+                result.put("message", "空のコードです");
+                continue;
+            }
+
+            Lookup lookup = lookups.get(code.trim().toUpperCase());
+            if (lookup == null) {
+                result.put("valid", false);
+                result.put("message", MALFORMED_MESSAGE);
+            } else if (lookup.state() == State.NOT_FOUND) {
+                result.put("valid", false);
+                result.put("message", "無効なコードです");
+            } else if (lookup.state() == State.USED) {
+                result.put("valid", false);
+                result.put("message", "使用済みのコードです");
+            } else {
+                result.put("valid", true);
+                result.put("message", "有効");
+                result.put("performerName", lookup.performerName());
+            }
+        }
 
         long validCount = results.stream()
                 .filter(r -> Boolean.TRUE.equals(r.get("valid")))
@@ -194,6 +278,36 @@ public class ExchangeCodeController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * コードを照合（索引で判定できないコードだけ、まとめて1回のクエリでDBを確認）
+     *
+     * @param codes 正規化・形式チェック済みのコード
+     * @return コード → 照合結果（UNKNOWN は含まない）
+     */
+    private Map<String, Lookup> lookup(List<String> codes) {
+        Map<String, Lookup> results = new HashMap<>();
+        List<String> unknown = new ArrayList<>();
+        for (String code : codes) {
+            Lookup lookup = exchangeCodeIndex.lookup(code);
+            if (lookup.state() == State.UNKNOWN) {
+                unknown.add(code);
+            } else {
+                results.put(code, lookup);
+            }
+        }
+
+        if (!unknown.isEmpty()) {
+            for (String code : unknown) {
+                results.put(code, Lookup.NOT_FOUND);
+            }
+            for (ExchangeCode exchangeCode : exchangeCodeRepository.findByCodeIn(unknown)) {
+                results.put(exchangeCode.getCode(), new Lookup(
+                        exchangeCode.isUsed() ? State.USED : State.UNUSED, exchangeCode.getPerformerName()));
+            }
+        }
+        return results;
+    }
+
     // リクエストDTO
     public static class CreateRequest {
         private String code;
@@ -0,0 +1,126 @@
+package com.example.backend.controller;
+
+import com.example.backend.entity.Order.OrderStatus;
+import com.example.backend.service.ExportService;
+import com.example.backend.service.ExportService.Format;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 注文・チケットのエクスポートAPI（管理者用）
+ *
+ * 来場者リスト等の作成用に、注文・チケットをCSVまたはNDJSONでダウンロードします。
+ * データベースから読み出した行をそのまま送り出すため、件数が多くてもすぐにダウンロードが始まります。
+ * includeArchived=true を指定すると、退避済みの過去公演の分も含めます。
+ */
+@RestController
+@RequestMapping("/api/admin/export")
+public class ExportController {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @FunctionalInterface
+    private interface Exporter {
+        void export(Long performanceId, OrderStatus status, boolean includeArchived,
+                    Format format, OutputStream out) throws IOException;
+    }
+
+    /**
+     * 注文をエクスポート
+     * GET /api/admin/export/orders?performanceId=1&status=PAID&format=csv&includeArchived=true
+     */
+    @GetMapping("/orders")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(required = false) Long performanceId,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(defaultValue = "true") boolean gzip,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return export("orders", exportService::exportOrders, performanceId, status, includeArchived,
+                format, gzip, acceptEncoding);
+    }
+
+    /**
+     * チケットをエクスポート
+     * GET /api/admin/export/tickets?performanceId=1&status=PAID&format=ndjson
+     *
+     * status は注文のステータスで絞り込みます。
+     */
+    @GetMapping("/tickets")
+    public ResponseEntity<StreamingResponseBody> exportTickets(
+            @RequestParam(required = false) Long performanceId,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(defaultValue = "true") boolean gzip,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return export("tickets", exportService::exportTickets, performanceId, status, includeArchived,
+                format, gzip, acceptEncoding);
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(String name, Exporter exporter,
+                                                         Long performanceId, String statusParam, boolean includeArchived,
+                                                         String formatParam, boolean gzip, String acceptEncoding) {
+        Format format;
+        OrderStatus status;
+        try {
+            format = Format.valueOf(formatParam.toUpperCase(Locale.ROOT));
+            status = statusParam == null || statusParam.isBlank()
+                    ? null
+                    : OrderStatus.valueOf(statusParam.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // 圧縮はクライアントが対応している場合のみ（ブラウザは自動で展開する）
+        boolean compress = gzip && acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        StreamingResponseBody body = out -> {
+            if (compress) {
+                // syncFlush: 先頭行を圧縮器に溜め込まずにすぐ送り出す
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192, true);
+                exporter.export(performanceId, status, includeArchived, format, gzipOut);
+                gzipOut.finish();
+            } else {
+                exporter.export(performanceId, status, includeArchived, format, out);
+            }
+        };
+
+        String filename = name + "-" + LocalDateTime.now().format(FILE_TIMESTAMP)
+                + (format == Format.CSV ? ".csv" : ".ndjson");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format == Format.CSV ? TEXT_CSV : APPLICATION_NDJSON)
+                .cacheControl(CacheControl.noStore())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (compress) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+}
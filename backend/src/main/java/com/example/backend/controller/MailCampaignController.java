@@ -0,0 +1,132 @@
+package com.example.backend.controller;
+
+import com.example.backend.entity.MailCampaign;
+import com.example.backend.service.MailCampaignService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * お知らせメールの一斉配信API（管理者用）
+ * 
+ * 購入者へのお知らせメールの配信・進捗確認・中止・再開を行います。
+ */
+@RestController
+@RequestMapping("/api/admin/mail-campaigns")
+public class MailCampaignController {
+
+    // 一覧の最大件数
+    private static final int LIST_LIMIT = 100;
+
+    private final MailCampaignService mailCampaignService;
+
+    public MailCampaignController(MailCampaignService mailCampaignService) {
+        this.mailCampaignService = mailCampaignService;
+    }
+
+    /**
+     * 配信一覧を取得
+     * GET /api/admin/mail-campaigns
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> list() {
+        List<MailCampaign> campaigns = mailCampaignService.list(LIST_LIMIT);
+        return ResponseEntity.ok(Map.of(
+            "campaigns", campaigns
+        ));
+    }
+
+    /**
+     * 配信を作成して開始
+     * POST /api/admin/mail-campaigns
+     * 
+     * リクエスト: { "newsId": 1, "performanceId": 2 } または { "subject": "...", "body": "...", "performanceId": 2 }
+     * newsId を指定した場合は、お知らせのタイトル・本文で配信します。
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> create(@RequestBody Map<String, Object> request) {
+        Long newsId = toLong(request.get("newsId"));
+        Long performanceId = toLong(request.get("performanceId"));
+
+        MailCampaign campaign;
+        if (newsId != null) {
+            Optional<MailCampaign> created = mailCampaignService.createFromNews(newsId, performanceId);
+            if (created.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                    "success", false,
+                    "error", "お知らせが見つかりません"
+                ));
+            }
+            campaign = created.get();
+        } else {
+            String subject = (String) request.get("subject");
+            String body = (String) request.get("body");
+            if (subject == null || subject.isBlank() || body == null || body.isBlank()) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "error", "件名と本文を入力してください"
+                ));
+            }
+            campaign = mailCampaignService.create(subject.trim(), body, null, performanceId);
+        }
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
+            "success", true,
+            "campaign", campaign
+        ));
+    }
+
+    /**
+     * 配信を中止
+     * POST /api/admin/mail-campaigns/{id}/cancel
+     */
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<Map<String, Object>> cancel(@PathVariable Long id) {
+        Optional<MailCampaign> cancelled = mailCampaignService.cancel(id);
+        if (cancelled.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                "success", false,
+                "error", "中止できる配信が見つかりません"
+            ));
+        }
+
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "campaign", cancelled.get()
+        ));
+    }
+
+    /**
+     * 停止した配信を続きから再開
+     * POST /api/admin/mail-campaigns/{id}/resume
+     */
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<Map<String, Object>> resume(@PathVariable Long id) {
+        Optional<MailCampaign> resumed = mailCampaignService.resume(id);
+        if (resumed.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                "success", false,
+                "error", "再開できる配信が見つかりません"
+            ));
+        }
+
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "campaign", resumed.get()
+        ));
+    }
+
+    private static Long toLong(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof String text && !text.isBlank()) {
+            return Long.valueOf(text.trim());
+        }
+        return null;
+    }
+}
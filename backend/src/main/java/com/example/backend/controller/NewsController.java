@@ -2,6 +2,10 @@ package com.example.backend.controller;
 
 import com.example.backend.entity.News;
 import com.example.backend.repository.NewsRepository;
+import com.example.backend.repository.TableRowEstimates;
+import com.example.backend.util.KeysetCursor;
+import com.example.backend.util.KeysetPage;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.web.bind.annotation.*;
@@ -15,14 +19,42 @@ import java.util.List;
 public class NewsController {
 
     private final NewsRepository newsRepository;
+    private final TableRowEstimates tableRowEstimates;
 
-    public NewsController(NewsRepository newsRepository) {
+    public NewsController(NewsRepository newsRepository, TableRowEstimates tableRowEstimates) {
         this.newsRepository = newsRepository;
+        this.tableRowEstimates = tableRowEstimates;
     }
 
+    /**
+     * お知らせ一覧を取得（公開日時の新しい順）
+     * 
+     * limit を指定した場合はキーセット方式でページングします
+     * （GET /api/news?after=2026-01-01T10:00,12&limit=20）。
+     * 次のページの位置は X-Next-Cursor、総件数の概算は X-Total-Count-Estimate ヘッダーで返します。
+     */
     @GetMapping
-    public List<News> getAllNews() {
-        return newsRepository.findAllByOrderByPublishedAtDesc();
+    public ResponseEntity<List<News>> getAllNews(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        if (limit == null && after == null) {
+            return ResponseEntity.ok(newsRepository.findAllByOrderByPublishedAtDesc());
+        }
+
+        KeysetCursor cursor;
+        try {
+            cursor = KeysetCursor.parse(after);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        int pageSize = KeysetPage.clampLimit(limit != null ? limit : KeysetPage.DEFAULT_LIMIT);
+        List<News> rows = cursor == null
+                ? newsRepository.findAllByOrderByPublishedAtDescIdDesc(Limit.of(pageSize + 1))
+                : newsRepository.findPageAfter(cursor.at(), cursor.id(), Limit.of(pageSize + 1));
+        return KeysetPage.response(rows, pageSize,
+                news -> new KeysetCursor(news.getPublishedAt(), news.getId()),
+                tableRowEstimates.estimate("news"));
     }
 
     @GetMapping("/{id}")
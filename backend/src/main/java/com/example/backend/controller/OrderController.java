@@ -1,12 +1,25 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.OrderResponse;
 import com.example.backend.entity.Order;
 import com.example.backend.entity.Order.OrderStatus;
+import com.example.backend.entity.Ticket;
 import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.TableRowEstimates;
+import com.example.backend.repository.TicketRepository;
+import com.example.backend.service.OptimisticLockRetry;
+import com.example.backend.service.OrderSearchIndex;
+import com.example.backend.service.PerformanceInventoryService;
+import com.example.backend.util.KeysetCursor;
+import com.example.backend.util.KeysetPage;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,28 +29,99 @@ import java.util.Map;
 @CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})
 public class OrderController {
 
+    // 検索結果の件数（既定・上限）
+    private static final int SEARCH_DEFAULT_LIMIT = 50;
+    private static final int SEARCH_MAX_LIMIT = 200;
+
     private final OrderRepository orderRepository;
+    private final TicketRepository ticketRepository;
+    private final TableRowEstimates tableRowEstimates;
+    private final OrderSearchIndex orderSearchIndex;
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final PerformanceInventoryService performanceInventoryService;
 
-    public OrderController(OrderRepository orderRepository) {
+    public OrderController(OrderRepository orderRepository,
+                           TicketRepository ticketRepository,
+                           TableRowEstimates tableRowEstimates,
+                           OrderSearchIndex orderSearchIndex,
+                           OptimisticLockRetry optimisticLockRetry,
+                           PerformanceInventoryService performanceInventoryService) {
         this.orderRepository = orderRepository;
+        this.ticketRepository = ticketRepository;
+        this.tableRowEstimates = tableRowEstimates;
+        this.orderSearchIndex = orderSearchIndex;
+        this.optimisticLockRetry = optimisticLockRetry;
+        this.performanceInventoryService = performanceInventoryService;
     }
 
     /**
-     * 全注文一覧を取得
+     * 注文一覧を取得（新しい順、キーセット方式のページング）
+     * GET /api/orders?after=2026-01-01T10:00,123&limit=100
+     * 
+     * 次のページの位置は X-Next-Cursor、総件数の概算は X-Total-Count-Estimate ヘッダーで返します。
      */
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders() {
-        List<Order> orders = orderRepository.findAll();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<OrderResponse>> getAllOrders(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + KeysetPage.DEFAULT_LIMIT) int limit) {
+        KeysetCursor cursor;
+        try {
+            cursor = KeysetCursor.parse(after);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        int pageSize = KeysetPage.clampLimit(limit);
+        List<Order> rows = cursor == null
+                ? orderRepository.findAllByOrderByCreatedAtDescIdDesc(Limit.of(pageSize + 1))
+                : orderRepository.findPageAfter(cursor.at(), cursor.id(), Limit.of(pageSize + 1));
+        return KeysetPage.response(rows, pageSize,
+                order -> new KeysetCursor(order.getCreatedAt(), order.getId()),
+                tableRowEstimates.estimate("orders"),
+                this::toResponses);
+    }
+
+    /**
+     * 購入者名（かな）・メールアドレス・電話番号の部分一致で注文を検索（新しい順）
+     * GET /api/orders/search?q=やまだ&limit=50
+     * 
+     * 検索語は2文字以上。索引の準備中は503を返します。
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<OrderResponse>> searchOrders(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "" + SEARCH_DEFAULT_LIMIT) int limit) {
+        if (!orderSearchIndex.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        List<Long> ids = orderSearchIndex.search(q, Math.max(1, Math.min(limit, SEARCH_MAX_LIMIT)));
+        if (ids.isEmpty()) {
+            return ResponseEntity.ok(List.of());
+        }
+
+        // 索引の順（新しい順）に並べ直す
+        Map<Long, Order> found = new HashMap<>();
+        for (Order order : orderRepository.findAllById(ids)) {
+            found.put(order.getId(), order);
+        }
+        List<Order> orders = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Order order = found.get(id);
+            if (order != null) {
+                orders.add(order);
+            }
+        }
+        return ResponseEntity.ok(toResponses(orders));
     }
 
     /**
      * 注文詳細を取得
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Order> getOrderById(@PathVariable @NonNull Long id) {
-        return orderRepository.findById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<OrderResponse> getOrderById(@PathVariable @NonNull Long id) {
+        return orderRepository.findWithTicketsById(id)
+                .map(order -> ResponseEntity.ok(OrderResponse.from(order, order.getTickets())))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -45,9 +129,9 @@ public class OrderController {
      * Stripe Session IDで注文を検索
      */
     @GetMapping("/session/{sessionId}")
-    public ResponseEntity<Order> getOrderBySessionId(@PathVariable String sessionId) {
-        return orderRepository.findByStripeSessionId(sessionId)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<OrderResponse> getOrderBySessionId(@PathVariable String sessionId) {
+        return orderRepository.findWithTicketsByStripeSessionId(sessionId)
+                .map(order -> ResponseEntity.ok(OrderResponse.from(order, order.getTickets())))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -56,12 +140,9 @@ public class OrderController {
      * フロントエンド用: /api/orders/by-session/{sessionId}
      */
     @GetMapping("/by-session/{sessionId}")
-    public ResponseEntity<Order> getOrderWithTicketsBySessionId(@PathVariable String sessionId) {
-        return orderRepository.findByStripeSessionId(sessionId)
-                .map(order -> {
-                    // チケット情報は自動的にロードされる（@OneToMany）
-                    return ResponseEntity.ok(order);
-                })
+    public ResponseEntity<OrderResponse> getOrderWithTicketsBySessionId(@PathVariable String sessionId) {
+        return orderRepository.findWithTicketsByStripeSessionId(sessionId)
+                .map(order -> ResponseEntity.ok(OrderResponse.from(order, order.getTickets())))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -69,11 +150,11 @@ public class OrderController {
      * ステータスで注文を検索
      */
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<Order>> getOrdersByStatus(@PathVariable String status) {
+    public ResponseEntity<List<OrderResponse>> getOrdersByStatus(@PathVariable String status) {
         try {
             OrderStatus orderStatus = OrderStatus.valueOf(status.toUpperCase());
             List<Order> orders = orderRepository.findByStatus(orderStatus);
-            return ResponseEntity.ok(orders);
+            return ResponseEntity.ok(toResponses(orders));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -83,25 +164,55 @@ public class OrderController {
      * 公演日で注文を検索
      */
     @GetMapping("/performance/{date}")
-    public ResponseEntity<List<Order>> getOrdersByPerformanceDate(@PathVariable String date) {
+    public ResponseEntity<List<OrderResponse>> getOrdersByPerformanceDate(@PathVariable String date) {
         List<Order> orders = orderRepository.findByPerformanceDate(date);
-        return ResponseEntity.ok(orders);
+        return ResponseEntity.ok(toResponses(orders));
+    }
+
+    /**
+     * 引換券コードを使った注文を検索
+     * GET /api/orders/by-exchange-code/TEST001
+     */
+    @GetMapping("/by-exchange-code/{code}")
+    public ResponseEntity<List<OrderResponse>> getOrdersByExchangeCode(@PathVariable String code) {
+        List<Order> orders = orderRepository.findByRedeemedExchangeCode(code.trim().toUpperCase());
+        return ResponseEntity.ok(toResponses(orders));
+    }
+
+    /**
+     * 出演者の引換券を使った注文を検索（新しい順）
+     * GET /api/orders/by-performer?name=山田太郎&limit=100
+     */
+    @GetMapping("/by-performer")
+    public ResponseEntity<List<OrderResponse>> getOrdersByPerformer(
+            @RequestParam String name,
+            @RequestParam(defaultValue = "" + KeysetPage.DEFAULT_LIMIT) int limit) {
+        List<Order> orders = orderRepository.findByRedeemedPerformerName(name,
+                Limit.of(KeysetPage.clampLimit(limit)));
+        return ResponseEntity.ok(toResponses(orders));
     }
 
     /**
      * 注文ステータスを更新
+     * 決済完了の処理と同時に更新した場合は、注文を読み直して指定のステータスを反映し直す
+     * 支払い済みの注文をキャンセル・返金した場合は公演の販売済み数から戻す（支払い済みにした場合は加える）
      */
     @PutMapping("/{id}/status")
     public ResponseEntity<Map<String, Object>> updateOrderStatus(
             @PathVariable @NonNull Long id,
             @RequestBody StatusUpdateRequest request) {
 
+        return optimisticLockRetry.execute("order-status", () -> updateOrderStatusOnce(id, request));
+    }
+
+    private ResponseEntity<Map<String, Object>> updateOrderStatusOnce(@NonNull Long id, StatusUpdateRequest request) {
         Map<String, Object> response = new HashMap<>();
 
         return orderRepository.findById(id)
                 .map(order -> {
                     try {
                         OrderStatus newStatus = OrderStatus.valueOf(request.getStatus().toUpperCase());
+                        boolean wasPaid = order.getStatus() == OrderStatus.PAID;
 
                         switch (newStatus) {
                             case PAID:
@@ -118,9 +229,10 @@ public class OrderController {
                         }
 
                         orderRepository.save(order);
+                        adjustSold(order, wasPaid);
 
                         response.put("success", true);
-                        response.put("order", order);
+                        response.put("order", OrderResponse.from(order, ticketRepository.findByOrderId(id)));
                         return ResponseEntity.ok(response);
 
                     } catch (IllegalArgumentException e) {
@@ -136,34 +248,74 @@ public class OrderController {
                 });
     }
 
+    /**
+     * 支払い済みかどうかが変わった注文の席数を、公演の販売済み数に反映
+     */
+    private void adjustSold(Order order, boolean wasPaid) {
+        int direction = (order.getStatus() == OrderStatus.PAID ? 1 : 0) - (wasPaid ? 1 : 0);
+        if (direction == 0 || order.getPerformance() == null) {
+            return;
+        }
+        // 販売済み数の行がない公演は支払い済み注文から数え直すため、先にこの注文の状態を反映しておく
+        orderRepository.flush();
+        performanceInventoryService.adjust(order.getPerformance().getId(),
+                direction * order.getGeneralQuantity(), direction * order.getReservedQuantity());
+    }
+
     /**
      * 支払い完了した注文の統計情報
+     * 
+     * 注文を読み込まず、ステータスごとの集計を1回のクエリで取得します。
+     * 返金済み・キャンセル・支払い待ちの件数も合わせて返します。
      */
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getOrderStats() {
         Map<String, Object> stats = new HashMap<>();
 
-        List<Order> paidOrders = orderRepository.findByStatus(OrderStatus.PAID);
-
-        int totalOrders = paidOrders.size();
-        int totalRevenue = paidOrders.stream().mapToInt(Order::getTotalAmount).sum();
-        int totalTickets = paidOrders.stream()
-                .mapToInt(o -> o.getGeneralQuantity() + o.getReservedQuantity())
-                .sum();
-        int totalGeneralTickets = paidOrders.stream().mapToInt(Order::getGeneralQuantity).sum();
-        int totalReservedTickets = paidOrders.stream().mapToInt(Order::getReservedQuantity).sum();
-        int totalDiscountedTickets = paidOrders.stream().mapToInt(Order::getDiscountedGeneralCount).sum();
+        Map<OrderStatus, long[]> byStatus = new EnumMap<>(OrderStatus.class);
+        for (Object[] row : orderRepository.summarizeByStatus()) {
+            long[] totals = new long[5];
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] = row[i + 1] != null ? ((Number) row[i + 1]).longValue() : 0;
+            }
+            byStatus.put((OrderStatus) row[0], totals);
+        }
+        long[] paid = byStatus.getOrDefault(OrderStatus.PAID, new long[5]);
 
-        stats.put("totalOrders", totalOrders);
-        stats.put("totalRevenue", totalRevenue);
-        stats.put("totalTickets", totalTickets);
-        stats.put("totalGeneralTickets", totalGeneralTickets);
-        stats.put("totalReservedTickets", totalReservedTickets);
-        stats.put("totalDiscountedTickets", totalDiscountedTickets);
+        stats.put("totalOrders", paid[0]);
+        stats.put("totalRevenue", paid[1]);
+        stats.put("totalTickets", paid[2] + paid[3]);
+        stats.put("totalGeneralTickets", paid[2]);
+        stats.put("totalReservedTickets", paid[3]);
+        stats.put("totalDiscountedTickets", paid[4]);
+        stats.put("pendingOrders", byStatus.getOrDefault(OrderStatus.PENDING, new long[5])[0]);
+        stats.put("cancelledOrders", byStatus.getOrDefault(OrderStatus.CANCELLED, new long[5])[0]);
+        stats.put("refundedOrders", byStatus.getOrDefault(OrderStatus.REFUNDED, new long[5])[0]);
 
         return ResponseEntity.ok(stats);
     }
 
+    /**
+     * 注文一覧をレスポンスに変換
+     * 
+     * チケットは注文ごとではなく、一覧の注文分を1回のクエリでまとめて取得します。
+     */
+    private List<OrderResponse> toResponses(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> orderIds = orders.stream().map(Order::getId).toList();
+        Map<Long, List<Ticket>> ticketsByOrder = new HashMap<>();
+        for (Ticket ticket : ticketRepository.findByOrderIds(orderIds)) {
+            ticketsByOrder.computeIfAbsent(ticket.getOrder().getId(), key -> new ArrayList<>()).add(ticket);
+        }
+
+        return orders.stream()
+                .map(order -> OrderResponse.from(order, ticketsByOrder.getOrDefault(order.getId(), List.of())))
+                .toList();
+    }
+
     // リクエストDTO
     public static class StatusUpdateRequest {
         private String status;
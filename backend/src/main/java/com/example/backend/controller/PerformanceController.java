@@ -3,6 +3,15 @@ package com.example.backend.controller;
 import com.example.backend.entity.Performance;
 import com.example.backend.entity.Performance.SaleStatus;
 import com.example.backend.repository.PerformanceRepository;
+import com.example.backend.repository.TableRowEstimates;
+import com.example.backend.service.OptimisticLockRetry;
+import com.example.backend.service.PerformanceInventoryService;
+import com.example.backend.util.KeysetCursor;
+import com.example.backend.util.KeysetPage;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.web.bind.annotation.*;
@@ -18,18 +27,50 @@ import java.util.Map;
 public class PerformanceController {
 
     private final PerformanceRepository performanceRepository;
+    private final TableRowEstimates tableRowEstimates;
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final PerformanceInventoryService performanceInventoryService;
 
-    public PerformanceController(PerformanceRepository performanceRepository) {
+    public PerformanceController(PerformanceRepository performanceRepository,
+                                 TableRowEstimates tableRowEstimates,
+                                 OptimisticLockRetry optimisticLockRetry,
+                                 PerformanceInventoryService performanceInventoryService) {
         this.performanceRepository = performanceRepository;
+        this.tableRowEstimates = tableRowEstimates;
+        this.optimisticLockRetry = optimisticLockRetry;
+        this.performanceInventoryService = performanceInventoryService;
     }
 
     /**
      * 全公演一覧を取得
+     * 
+     * limit を指定した場合は登録の新しい順にキーセット方式でページングします
+     * （GET /api/performances?after=2026-01-01T10:00,12&limit=50）。
+     * 次のページの位置は X-Next-Cursor、総件数の概算は X-Total-Count-Estimate ヘッダーで返します。
      */
     @GetMapping
-    public ResponseEntity<List<Performance>> getAllPerformances() {
-        List<Performance> performances = performanceRepository.findAll();
-        return ResponseEntity.ok(performances);
+    public ResponseEntity<List<Performance>> getAllPerformances(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        if (limit == null && after == null) {
+            List<Performance> performances = performanceRepository.findAll();
+            return ResponseEntity.ok(performanceInventoryService.fill(performances));
+        }
+
+        KeysetCursor cursor;
+        try {
+            cursor = KeysetCursor.parse(after);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        int pageSize = KeysetPage.clampLimit(limit != null ? limit : KeysetPage.DEFAULT_LIMIT);
+        List<Performance> rows = cursor == null
+                ? performanceRepository.findAllByOrderByCreatedAtDescIdDesc(Limit.of(pageSize + 1))
+                : performanceRepository.findPageAfter(cursor.at(), cursor.id(), Limit.of(pageSize + 1));
+        return KeysetPage.response(performanceInventoryService.fill(rows), pageSize,
+                performance -> new KeysetCursor(performance.getCreatedAt(), performance.getId()),
+                tableRowEstimates.estimate("performances"));
     }
 
     /**
@@ -38,7 +79,7 @@ public class PerformanceController {
     @GetMapping("/{id}")
     public ResponseEntity<Performance> getPerformanceById(@PathVariable @NonNull Long id) {
         return performanceRepository.findById(id)
-                .map(ResponseEntity::ok)
+                .map(performance -> ResponseEntity.ok(performanceInventoryService.fill(performance)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -48,7 +89,7 @@ public class PerformanceController {
     @GetMapping("/volume/{volume}")
     public ResponseEntity<List<Performance>> getPerformancesByVolume(@PathVariable String volume) {
         List<Performance> performances = performanceRepository.findByVolume(volume);
-        return ResponseEntity.ok(performances);
+        return ResponseEntity.ok(performanceInventoryService.fill(performances));
     }
 
     /**
@@ -58,7 +99,7 @@ public class PerformanceController {
     public ResponseEntity<List<Performance>> getOnSalePerformances() {
         List<Performance> performances = performanceRepository
                 .findBySaleStatusOrderByPerformanceDateAsc(SaleStatus.ON_SALE);
-        return ResponseEntity.ok(performances);
+        return ResponseEntity.ok(performanceInventoryService.fill(performances));
     }
 
     /**
@@ -68,7 +109,7 @@ public class PerformanceController {
     public ResponseEntity<List<Performance>> getUpcomingPerformances() {
         List<Performance> performances = performanceRepository
                 .findByPerformanceDateGreaterThanEqualOrderByPerformanceDateAsc(LocalDate.now());
-        return ResponseEntity.ok(performances);
+        return ResponseEntity.ok(performanceInventoryService.fill(performances));
     }
 
     /**
@@ -77,6 +118,7 @@ public class PerformanceController {
     @GetMapping("/{id}/availability")
     public ResponseEntity<Map<String, Object>> getAvailability(@PathVariable @NonNull Long id) {
         return performanceRepository.findById(id)
+                .map(performanceInventoryService::fill)
                 .map(performance -> {
                     Map<String, Object> availability = new HashMap<>();
                     availability.put("performanceId", id);
@@ -100,6 +142,7 @@ public class PerformanceController {
 
     /**
      * 公演を更新（管理者用）
+     * version を指定した場合、編集中に他の更新があれば 409 を返す（上書きしない）
      */
     @PutMapping("/{id}")
     public ResponseEntity<Performance> updatePerformance(
@@ -108,6 +151,11 @@ public class PerformanceController {
 
         return performanceRepository.findById(id)
                 .map(performance -> {
+                    if (performanceData.getVersion() != null
+                            && !performanceData.getVersion().equals(performance.getVersion())) {
+                        optimisticLockRetry.recordConflict("Performance", "performance-update");
+                        return ResponseEntity.status(HttpStatus.CONFLICT).<Performance>build();
+                    }
                     performance.setTitle(performanceData.getTitle());
                     performance.setVolume(performanceData.getVolume());
                     performance.setPerformanceDate(performanceData.getPerformanceDate());
@@ -126,20 +174,30 @@ public class PerformanceController {
                     performance.setFlyerImageUrl(performanceData.getFlyerImageUrl());
                     performance.setDescription(performanceData.getDescription());
 
-                    Performance updated = performanceRepository.save(performance);
-                    return ResponseEntity.ok(updated);
+                    try {
+                        Performance updated = performanceRepository.save(performance);
+                        return ResponseEntity.ok(performanceInventoryService.fill(updated));
+                    } catch (OptimisticLockingFailureException e) {
+                        optimisticLockRetry.recordConflict("performance-update", e);
+                        return ResponseEntity.status(HttpStatus.CONFLICT).<Performance>build();
+                    }
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
     /**
      * 販売ステータスを更新（管理者用）
+     * 公演の編集と重なった場合は、公演を読み直して反映し直す
      */
     @PutMapping("/{id}/sale-status")
     public ResponseEntity<Map<String, Object>> updateSaleStatus(
             @PathVariable @NonNull Long id,
             @RequestBody SaleStatusRequest request) {
 
+        return optimisticLockRetry.execute("sale-status", () -> updateSaleStatusOnce(id, request));
+    }
+
+    private ResponseEntity<Map<String, Object>> updateSaleStatusOnce(@NonNull Long id, SaleStatusRequest request) {
         Map<String, Object> response = new HashMap<>();
 
         return performanceRepository.findById(id)
@@ -150,7 +208,7 @@ public class PerformanceController {
                         performanceRepository.save(performance);
 
                         response.put("success", true);
-                        response.put("performance", performance);
+                        response.put("performance", performanceInventoryService.fill(performance));
                         return ResponseEntity.ok(response);
                     } catch (IllegalArgumentException e) {
                         response.put("success", false);
@@ -167,11 +225,16 @@ public class PerformanceController {
 
     /**
      * 公演を削除（管理者用）
+     * 注文・チケットが紐付いている公演は外部キーで削除できないため 409 を返す
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletePerformance(@PathVariable @NonNull Long id) {
         if (performanceRepository.existsById(id)) {
-            performanceRepository.deleteById(id);
+            try {
+                performanceRepository.deleteById(id);
+            } catch (DataIntegrityViolationException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.notFound().build();
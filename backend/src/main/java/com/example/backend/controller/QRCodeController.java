@@ -1,15 +1,42 @@
 package com.example.backend.controller;
 
+import com.example.backend.config.QRCodeExecutors;
 import com.example.backend.entity.Ticket;
 import com.example.backend.repository.TicketRepository;
+import com.example.backend.security.ClientRateLimiter;
+import com.example.backend.security.QRCodeLinkSigner;
+import com.example.backend.service.QRCodeBlobStore;
+import com.example.backend.service.QRCodeCache;
+import com.example.backend.service.QRCodeFormat;
 import com.example.backend.service.QRCodeService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.channels.Channels;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * QRコード生成API
@@ -20,36 +47,146 @@ import java.util.Optional;
 @RequestMapping("/api/qrcode")
 public class QRCodeController {
 
+    /**
+     * チケットのQRコードはコードから一意に決まり変化しないため、長期間キャッシュさせる
+     */
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365))
+            .cachePrivate()
+            .immutable();
+
+    // 注文単位の一括生成のタイムアウト（秒）
+    private static final long ORDER_RENDER_TIMEOUT_SECONDS = 10;
+
+    // 公開QRコード生成のタイムアウト（秒）
+    private static final long GENERATE_TIMEOUT_SECONDS = 5;
+
     private final QRCodeService qrCodeService;
+    private final QRCodeCache qrCodeCache;
+    private final QRCodeBlobStore qrCodeBlobStore;
     private final TicketRepository ticketRepository;
+    private final ForkJoinPool qrCodeRenderPool;
+    private final ThreadPoolExecutor qrCodeGenerateExecutor;
+    private final ClientRateLimiter clientRateLimiter;
+    private final QRCodeLinkSigner qrCodeLinkSigner;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.qrcode.generate.max-text-length:512}")
+    private int generateMaxTextLength;
+
+    @Value("${app.qrcode.generate.max-size:600}")
+    private int generateMaxSize;
 
-    public QRCodeController(QRCodeService qrCodeService, TicketRepository ticketRepository) {
+    public QRCodeController(QRCodeService qrCodeService,
+                            QRCodeCache qrCodeCache,
+                            QRCodeBlobStore qrCodeBlobStore,
+                            TicketRepository ticketRepository,
+                            QRCodeExecutors qrCodeExecutors,
+                            ClientRateLimiter clientRateLimiter,
+                            QRCodeLinkSigner qrCodeLinkSigner,
+                            MeterRegistry meterRegistry) {
         this.qrCodeService = qrCodeService;
+        this.qrCodeCache = qrCodeCache;
+        this.qrCodeBlobStore = qrCodeBlobStore;
         this.ticketRepository = ticketRepository;
+        this.qrCodeRenderPool = qrCodeExecutors.renderPool();
+        this.qrCodeGenerateExecutor = qrCodeExecutors.generateExecutor();
+        this.clientRateLimiter = clientRateLimiter;
+        this.qrCodeLinkSigner = qrCodeLinkSigner;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
-     * チケットコードからQRコード画像を生成（PNG）
+     * チケットコードからQRコード画像を生成
      * 
-     * GET /api/qrcode/ticket/{ticketCode}
+     * GET /api/qrcode/ticket/{ticketCode}?format=png|svg|modules
+     * 
+     * フォーマットはクエリパラメータ、なければ Accept ヘッダーで決定します（デフォルトはPNG）。
+     * 発行時に事前生成済みの画像は保存ファイルから直接転送し、DB参照・生成を行いません。
      * 
      * @param ticketCode チケットコード
+     * @return QRコード画像
+     */
+    @GetMapping("/ticket/{ticketCode}")
+    @SuppressWarnings("null")
+    public ResponseEntity<StreamingResponseBody> getQRCodeByTicketCode(
+            @PathVariable String ticketCode,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        QRCodeFormat qrCodeFormat;
+        if (format != null) {
+            qrCodeFormat = QRCodeFormat.fromParameter(format);
+            if (qrCodeFormat == null) {
+                return ResponseEntity.badRequest().build();
+            }
+        } else {
+            qrCodeFormat = QRCodeFormat.fromAcceptHeader(accept);
+        }
+
+        try {
+            // ETagが一致すればDB参照・画像生成を行わずに304を返す
+            String etag = qrCodeCache.etag(ticketCode, qrCodeFormat, QRCodeService.DEFAULT_SIZE);
+            if (isNotModified(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .cacheControl(IMMUTABLE)
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .build();
+            }
+
+            TicketImage image = ticketImage(ticketCode, qrCodeFormat, QRCodeService.DEFAULT_SIZE);
+            if (image == null) {
+                return ResponseEntity.notFound().build();
+            }
+
+            return ResponseEntity.ok()
+                    .contentType(qrCodeFormat.getMediaType())
+                    .contentLength(image.length())
+                    .eTag(etag)
+                    .cacheControl(IMMUTABLE)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(image.body());
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * 署名付きURLからメール用のQRコード画像を取得
+     * 
+     * GET /api/qrcode/link/{ticketCode}?expires=...&signature=...
+     * 
+     * 購入完了メールに画像を添付せずURLで埋め込む場合に、メールクライアントが読み込むURLです。
+     * 署名が正しく期限内で、チケットが存在する（退避・削除されていない）場合のみ返します。
+     * 
+     * @param ticketCode チケットコード
+     * @param expires 有効期限（エポック秒）
+     * @param signature 署名
      * @return QRコード画像（PNG）
      */
-    @GetMapping(value = "/ticket/{ticketCode}", produces = MediaType.IMAGE_PNG_VALUE)
+    @GetMapping("/link/{ticketCode}")
     @SuppressWarnings("null")
-    public ResponseEntity<byte[]> getQRCodeByTicketCode(@PathVariable String ticketCode) {
+    public ResponseEntity<StreamingResponseBody> getQRCodeByLink(
+            @PathVariable String ticketCode,
+            @RequestParam long expires,
+            @RequestParam String signature) {
+        if (!qrCodeLinkSigner.verify(ticketCode, expires, signature)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
         try {
-            // チケットの存在確認
-            Optional<Ticket> ticketOpt = ticketRepository.findByTicketCode(ticketCode);
-            if (ticketOpt.isEmpty()) {
+            TicketImage image = ticketImage(ticketCode, QRCodeFormat.PNG, QRCodeService.EMAIL_SIZE);
+            if (image == null) {
                 return ResponseEntity.notFound().build();
             }
+            long remaining = Math.max(0, expires - Instant.now().getEpochSecond());
 
-            byte[] qrCodeImage = qrCodeService.generateQRCodeImage(ticketCode);
             return ResponseEntity.ok()
                     .contentType(MediaType.IMAGE_PNG)
-                    .body(qrCodeImage);
+                    .contentLength(image.length())
+                    .cacheControl(CacheControl.maxAge(Duration.ofSeconds(remaining)).cachePrivate())
+                    .body(image.body());
 
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -76,13 +213,13 @@ public class QRCodeController {
             }
 
             Ticket ticket = ticketOpt.get();
-            String qrCodeBase64 = qrCodeService.generateQRCodeBase64(ticketCode);
 
-            if (qrCodeBase64 == null) {
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
-                    "error", "QRコードの生成に失敗しました"
-                ));
+            // 画像はキャッシュを利用（使用状況はレスポンスに含むため毎回DBから取得）
+            byte[] qrCodeImage = qrCodeCache.get(ticketCode, QRCodeFormat.PNG, QRCodeService.DEFAULT_SIZE);
+            if (qrCodeImage == null) {
+                qrCodeImage = renderAndCache(ticketCode, QRCodeFormat.PNG);
             }
+            String qrCodeBase64 = "data:image/png;base64," + Base64.getEncoder().encodeToString(qrCodeImage);
 
             return ResponseEntity.ok(Map.of(
                 "ticketCode", ticketCode,
@@ -98,26 +235,218 @@ public class QRCodeController {
         }
     }
 
+    /**
+     * 注文の全チケットのQRコードを一括取得
+     * 
+     * GET /api/qrcode/order/{sessionId}?format=png|svg
+     * 
+     * チケットコードは1クエリでまとめて取得し、キャッシュにないものだけを専用プールで並列生成します。
+     * 
+     * @param sessionId Stripe Session ID
+     * @return JSON { "tickets": [ { "ticketCode", "ticketType", "qrCode": "data:..." } ] }
+     */
+    @GetMapping("/order/{sessionId}")
+    public ResponseEntity<Map<String, Object>> getQRCodesByOrder(
+            @PathVariable String sessionId,
+            @RequestParam(required = false, defaultValue = "png") String format) {
+        QRCodeFormat qrCodeFormat = QRCodeFormat.fromParameter(format);
+        if (qrCodeFormat == null || qrCodeFormat == QRCodeFormat.MODULES) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "formatには png または svg を指定してください"
+            ));
+        }
+
+        List<Object[]> rows = ticketRepository.findTicketCodesByStripeSessionId(sessionId);
+        if (rows.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                "error", "チケットが見つかりません"
+            ));
+        }
+
+        List<Callable<String>> tasks = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            String ticketCode = (String) row[0];
+            tasks.add(() -> {
+                byte[] data = qrCodeCache.get(ticketCode, qrCodeFormat, QRCodeService.DEFAULT_SIZE);
+                if (data == null) {
+                    data = renderAndCache(ticketCode, qrCodeFormat);
+                }
+                return "data:" + qrCodeFormat.getMediaType() + ";base64,"
+                        + Base64.getEncoder().encodeToString(data);
+            });
+        }
+
+        try {
+            List<Future<String>> results = qrCodeRenderPool.invokeAll(
+                    tasks, ORDER_RENDER_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            List<Map<String, Object>> tickets = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                tickets.add(Map.of(
+                    "ticketCode", rows.get(i)[0],
+                    "ticketType", rows.get(i)[1].toString(),
+                    "qrCode", results.get(i).get()
+                ));
+            }
+
+            return ResponseEntity.ok(Map.of(
+                "sessionId", sessionId,
+                "ticketCount", tickets.size(),
+                "tickets", tickets
+            ));
+
+        } catch (CancellationException e) {
+            // タイムアウトまでに終わらなかった生成は invokeAll が取り消す
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
+                "error", "QRコードの生成がタイムアウトしました"
+            ));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
+                "error", "QRコードの生成が中断されました"
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                "error", "QRコードの生成中にエラーが発生しました"
+            ));
+        }
+    }
+
     /**
      * 任意のテキストからQRコード画像を生成（テスト用）
      * 
-     * GET /api/qrcode/generate?text=hello
+     * GET /api/qrcode/generate?text=hello&size=300
+     * 
+     * 認証不要の公開APIのため、以下の制限をかけます。
+     * - 接続元ごとのレート制限（超過時は429 + Retry-After）
+     * - テキスト長・画像サイズの上限（超過時は400）
+     * - 専用の小さな実行プールで生成し、待ち行列が埋まっていれば429で即座に拒否
      * 
      * @param text エンコードするテキスト
+     * @param size 画像の幅・高さ（ピクセル）
      * @return QRコード画像（PNG）
      */
     @GetMapping(value = "/generate", produces = MediaType.IMAGE_PNG_VALUE)
     @SuppressWarnings("null")
-    public ResponseEntity<byte[]> generateQRCode(@RequestParam String text) {
+    public ResponseEntity<byte[]> generateQRCode(
+            @RequestParam String text,
+            @RequestParam(required = false, defaultValue = "" + QRCodeService.DEFAULT_SIZE) int size,
+            HttpServletRequest request) {
+        if (!clientRateLimiter.tryAcquire(request)) {
+            rejected("rate_limit").increment();
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(clientRateLimiter.retryAfterSeconds(request)))
+                    .build();
+        }
+
+        if (text.isEmpty() || text.length() > generateMaxTextLength || size <= 0 || size > generateMaxSize) {
+            rejected("too_large").increment();
+            return ResponseEntity.badRequest().build();
+        }
+
+        Future<byte[]> future;
+        try {
+            future = qrCodeGenerateExecutor.submit(() -> qrCodeService.generateQRCodeImage(text, size, size));
+        } catch (RejectedExecutionException e) {
+            rejected("queue_full").increment();
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        }
+
         try {
-            byte[] qrCodeImage = qrCodeService.generateQRCodeImage(text);
+            byte[] qrCodeImage = future.get(GENERATE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
             return ResponseEntity.ok()
                     .contentType(MediaType.IMAGE_PNG)
                     .body(qrCodeImage);
 
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected("timeout").increment();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
 
+    // ============================================
+    // ヘルパーメソッド
+    // ============================================
+
+    /**
+     * チケットのQRコード画像のレスポンス本文
+     */
+    private record TicketImage(StreamingResponseBody body, long length) {
+    }
+
+    /**
+     * チケットのQRコード画像を キャッシュ → 保存ファイル → 生成 の順に取得
+     * 
+     * 保存ファイル（追記のみ）とキャッシュはチケットの退避・削除やロールバックでは消えないため、
+     * 先にチケットの存在を確認してから返します。
+     * 
+     * @return レスポンス本文（チケットが存在しない場合はnull）
+     */
+    private TicketImage ticketImage(String ticketCode, QRCodeFormat format, int size) throws Exception {
+        if (!ticketRepository.existsByTicketCode(ticketCode)) {
+            return null;
+        }
+
+        byte[] cached = qrCodeCache.get(ticketCode, format, size);
+        if (cached != null) {
+            return new TicketImage(out -> out.write(cached), cached.length);
+        }
+
+        QRCodeBlobStore.Location stored = qrCodeBlobStore.locate(ticketCode, format, size);
+        if (stored != null) {
+            // 保存ファイルからレスポンスへ直接転送
+            return new TicketImage(out -> qrCodeBlobStore.transferTo(stored, Channels.newChannel(out)),
+                    stored.length());
+        }
+
+        byte[] rendered = qrCodeBlobStore.getOrRender(ticketCode, format, size);
+        qrCodeCache.put(ticketCode, format, size, rendered);
+        return new TicketImage(out -> out.write(rendered), rendered.length);
+    }
+
+    /**
+     * チケットのQRコードを保存ファイルから取得（なければ生成して保存）し、キャッシュに登録
+     */
+    private byte[] renderAndCache(String ticketCode, QRCodeFormat format) throws Exception {
+        byte[] data = qrCodeBlobStore.getOrRender(ticketCode, format, QRCodeService.DEFAULT_SIZE);
+        qrCodeCache.put(ticketCode, format, QRCodeService.DEFAULT_SIZE, data);
+        return data;
+    }
+
+    /**
+     * 公開QRコード生成APIの拒否数カウンター
+     */
+    private Counter rejected(String reason) {
+        return Counter.builder("qrcode.generate.rejected")
+                .tag("reason", reason)
+                .description("公開QRコード生成APIで拒否したリクエスト数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * If-None-Match ヘッダーがETagに一致するか判定
+     *
+     * ETagはチケットの存在を確認する前に比べるため、「*」（何らかの版があれば一致）は扱わない
+     * （存在しないコードに304を返さない）。
+     */
+    private static boolean isNotModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals(etag) || value.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.backend.controller;
+
+import com.example.backend.service.PerformerReportService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * 集計API（管理者用）
+ */
+@RestController
+@RequestMapping("/api/admin/reports")
+public class ReportController {
+
+    private final PerformerReportService performerReportService;
+
+    public ReportController(PerformerReportService performerReportService) {
+        this.performerReportService = performerReportService;
+    }
+
+    /**
+     * 出演者別の引換券の発行数・使用数と、引換券を使った注文の売上
+     * GET /api/admin/reports/performers
+     */
+    @GetMapping("/performers")
+    public ResponseEntity<Map<String, Object>> performers() {
+        PerformerReportService.Report report = performerReportService.performers();
+        return ResponseEntity.ok(Map.of(
+            "performers", report.performers(),
+            "generatedAt", report.generatedAt()
+        ));
+    }
+}
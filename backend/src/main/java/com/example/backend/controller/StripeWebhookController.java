@@ -1,13 +1,11 @@
 package com.example.backend.controller;
 
-import com.example.backend.entity.ExchangeCode;
 import com.example.backend.entity.Order;
 import com.example.backend.entity.Ticket;
-import com.example.backend.entity.Ticket.TicketType;
-import com.example.backend.repository.ExchangeCodeRepository;
 import com.example.backend.repository.OrderRepository;
 import com.example.backend.repository.TicketRepository;
-import com.example.backend.service.EmailService;
+import com.example.backend.service.OrderFulfillmentService;
+import com.example.backend.service.QRCodeBlobStore;
 import com.stripe.exception.SignatureVerificationException;
 import com.stripe.model.Event;
 import com.stripe.model.checkout.Session;
@@ -21,7 +19,6 @@ import org.springframework.lang.NonNull;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -38,22 +35,22 @@ public class StripeWebhookController {
     private static final Logger logger = LoggerFactory.getLogger(StripeWebhookController.class);
 
     private final OrderRepository orderRepository;
-    private final ExchangeCodeRepository exchangeCodeRepository;
     private final TicketRepository ticketRepository;
-    private final EmailService emailService;
+    private final OrderFulfillmentService orderFulfillmentService;
+    private final QRCodeBlobStore qrCodeBlobStore;
 
     @Value("${stripe.webhook.secret:}")
     private String webhookSecret;
 
     public StripeWebhookController(
             OrderRepository orderRepository,
-            ExchangeCodeRepository exchangeCodeRepository,
             TicketRepository ticketRepository,
-            EmailService emailService) {
+            OrderFulfillmentService orderFulfillmentService,
+            QRCodeBlobStore qrCodeBlobStore) {
         this.orderRepository = orderRepository;
-        this.exchangeCodeRepository = exchangeCodeRepository;
         this.ticketRepository = ticketRepository;
-        this.emailService = emailService;
+        this.orderFulfillmentService = orderFulfillmentService;
+        this.qrCodeBlobStore = qrCodeBlobStore;
     }
 
     // ============================================
@@ -178,120 +175,14 @@ public class StripeWebhookController {
 
     /**
      * セッション完了の処理
+     * 注文の更新・チケット発行・メール登録は1トランザクションで行い、
+     * コミット後に発行したチケットのQRコードを事前生成します。
      */
-    @Transactional
     public void processCompletedSession(String sessionId, String paymentIntentId) {
-        logger.info("Processing completed session: {}", sessionId);
-
-        // 注文を検索
-        Optional<Order> orderOpt = orderRepository.findByStripeSessionId(sessionId);
-
-        if (orderOpt.isEmpty()) {
-            logger.error("Order not found for session: {}", sessionId);
-            return;
-        }
-
-        Order order = orderOpt.get();
-
-        // 既に支払い済みの場合はスキップ
-        if (order.getStatus() == Order.OrderStatus.PAID) {
-            logger.info("Order already paid: {}", order.getId());
-            return;
+        List<Ticket> tickets = orderFulfillmentService.fulfill(sessionId, paymentIntentId);
+        if (!tickets.isEmpty()) {
+            qrCodeBlobStore.prerenderAsync(tickets.stream().map(Ticket::getTicketCode).toList());
         }
-
-        // 1. 注文ステータスを更新
-        order.markAsPaid(paymentIntentId);
-        orderRepository.save(order);
-        logger.info("Order marked as paid: {}", order.getId());
-
-        // 2. 引換券コードを使用済みにする
-        markExchangeCodesAsUsed(order);
-
-        // 3. チケットを発行
-        List<Ticket> tickets = issueTickets(order);
-
-        // 4. 購入完了メールを送信
-        sendPurchaseConfirmationEmail(order, tickets);
-
-        logger.info("Order processing completed: {}", order.getId());
-    }
-
-    /**
-     * 購入完了メールを送信
-     */
-    private void sendPurchaseConfirmationEmail(Order order, List<Ticket> tickets) {
-        try {
-            emailService.sendPurchaseConfirmationEmail(order, tickets);
-            logger.info("Purchase confirmation email queued for: {}", order.getCustomerEmail());
-        } catch (Exception e) {
-            // メール送信の失敗は注文処理には影響させない
-            logger.error("Failed to queue purchase confirmation email: {}", e.getMessage());
-        }
-    }
-
-    /**
-     * 引換券コードを使用済みにする
-     */
-    private void markExchangeCodesAsUsed(Order order) {
-        List<String> codes = order.getExchangeCodeList();
-        if (codes.isEmpty()) {
-            return;
-        }
-
-        for (String code : codes) {
-            String normalizedCode = code.trim().toUpperCase();
-            if (normalizedCode.isEmpty()) {
-                continue;
-            }
-
-            Optional<ExchangeCode> exchangeCodeOpt = exchangeCodeRepository.findByCode(normalizedCode);
-            if (exchangeCodeOpt.isPresent()) {
-                ExchangeCode exchangeCode = exchangeCodeOpt.get();
-                if (!exchangeCode.isUsed()) {
-                    exchangeCode.markAsUsed(order.getId());
-                    exchangeCodeRepository.save(exchangeCode);
-                    logger.info("Exchange code marked as used: {}", normalizedCode);
-                }
-            }
-        }
-    }
-
-    /**
-     * チケットを発行
-     * @return 発行されたチケットのリスト
-     */
-    private List<Ticket> issueTickets(Order order) {
-        List<Ticket> tickets = new ArrayList<>();
-        int discountedCount = order.getDiscountedGeneralCount();
-        int issuedDiscountedCount = 0;
-
-        // 一般席チケットを発行
-        for (int i = 0; i < order.getGeneralQuantity(); i++) {
-            boolean isExchanged = issuedDiscountedCount < discountedCount;
-            Ticket ticket = new Ticket(order, TicketType.GENERAL, isExchanged);
-            tickets.add(ticket);
-            if (isExchanged) {
-                issuedDiscountedCount++;
-            }
-        }
-
-        // 指定席チケットを発行
-        for (int i = 0; i < order.getReservedQuantity(); i++) {
-            Ticket ticket = new Ticket(order, TicketType.RESERVED, false);
-            tickets.add(ticket);
-        }
-
-        // 保存
-        ticketRepository.saveAll(tickets);
-        logger.info("Issued {} tickets for order {}", tickets.size(), order.getId());
-
-        // チケットコードをログ出力（デバッグ用）
-        for (Ticket ticket : tickets) {
-            logger.debug("Ticket issued: code={}, type={}, exchanged={}",
-                    ticket.getTicketCode(), ticket.getTicketType(), ticket.isExchanged());
-        }
-
-        return tickets;
     }
 
     // ============================================
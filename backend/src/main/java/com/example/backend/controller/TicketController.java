@@ -1,7 +1,9 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.CheckInTicketResponse;
 import com.example.backend.entity.Ticket;
 import com.example.backend.repository.TicketRepository;
+import com.example.backend.service.OptimisticLockRetry;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -21,9 +23,11 @@ import java.util.Optional;
 public class TicketController {
 
     private final TicketRepository ticketRepository;
+    private final OptimisticLockRetry optimisticLockRetry;
 
-    public TicketController(TicketRepository ticketRepository) {
+    public TicketController(TicketRepository ticketRepository, OptimisticLockRetry optimisticLockRetry) {
         this.ticketRepository = ticketRepository;
+        this.optimisticLockRetry = optimisticLockRetry;
     }
 
     /**
@@ -44,7 +48,7 @@ public class TicketController {
             return ResponseEntity.badRequest().body(response);
         }
 
-        Optional<Ticket> ticketOpt = ticketRepository.findByTicketCode(request.getTicketCode());
+        Optional<Ticket> ticketOpt = ticketRepository.findWithOrderByTicketCode(request.getTicketCode());
 
         if (ticketOpt.isEmpty()) {
             response.put("valid", false);
@@ -59,14 +63,14 @@ public class TicketController {
             response.put("valid", false);
             response.put("error", "このチケットは既に使用済みです");
             response.put("usedAt", ticket.getUsedAt());
-            response.put("ticket", buildTicketInfo(ticket));
+            response.put("ticket", CheckInTicketResponse.from(ticket));
             return ResponseEntity.ok(response);
         }
 
         // 有効なチケット
         response.put("valid", true);
         response.put("message", "有効なチケットです");
-        response.put("ticket", buildTicketInfo(ticket));
+        response.put("ticket", CheckInTicketResponse.from(ticket));
         
         return ResponseEntity.ok(response);
     }
@@ -77,19 +81,27 @@ public class TicketController {
      * POST /api/tickets/check-in
      * Body: { "ticketCode": "uuid" }
      * 
+     * 同じチケットを複数の入口で同時に読み取った場合は、後の処理が競合で読み直し、
+     * 「既に使用済み」として返します。
+     * 
      * @return 処理結果
      */
     @PostMapping("/check-in")
     public ResponseEntity<Map<String, Object>> checkIn(@RequestBody CheckInRequest request) {
-        Map<String, Object> response = new HashMap<>();
-
         if (request.getTicketCode() == null || request.getTicketCode().trim().isEmpty()) {
+            Map<String, Object> response = new HashMap<>();
             response.put("success", false);
             response.put("error", "チケットコードが指定されていません");
             return ResponseEntity.badRequest().body(response);
         }
 
-        Optional<Ticket> ticketOpt = ticketRepository.findByTicketCode(request.getTicketCode());
+        return optimisticLockRetry.execute("check-in", () -> checkInOnce(request.getTicketCode()));
+    }
+
+    private ResponseEntity<Map<String, Object>> checkInOnce(String ticketCode) {
+        Map<String, Object> response = new HashMap<>();
+
+        Optional<Ticket> ticketOpt = ticketRepository.findWithOrderByTicketCode(ticketCode);
 
         if (ticketOpt.isEmpty()) {
             response.put("success", false);
@@ -104,7 +116,7 @@ public class TicketController {
             response.put("success", false);
             response.put("error", "このチケットは既に使用済みです");
             response.put("usedAt", ticket.getUsedAt());
-            response.put("ticket", buildTicketInfo(ticket));
+            response.put("ticket", CheckInTicketResponse.from(ticket));
             return ResponseEntity.ok(response);
         }
 
@@ -115,7 +127,7 @@ public class TicketController {
 
         response.put("success", true);
         response.put("message", "入場を受け付けました");
-        response.put("ticket", buildTicketInfo(ticket));
+        response.put("ticket", CheckInTicketResponse.from(ticket));
         response.put("checkedInAt", ticket.getUsedAt());
 
         return ResponseEntity.ok(response);
@@ -197,31 +209,51 @@ public class TicketController {
         return ResponseEntity.ok(stats);
     }
 
-    // ============================================
-    // ヘルパーメソッド
-    // ============================================
+    /**
+     * 公演ごとの入場統計
+     * 
+     * GET /api/tickets/stats/performance/{performanceId}
+     * 
+     * @return 公演の統計情報
+     */
+    @GetMapping("/stats/performance/{performanceId}")
+    public ResponseEntity<Map<String, Object>> getPerformanceStats(@PathVariable Long performanceId) {
+        Map<String, Object> stats = new HashMap<>();
 
-    private Map<String, Object> buildTicketInfo(Ticket ticket) {
-        Map<String, Object> info = new HashMap<>();
-        info.put("id", ticket.getId());
-        info.put("ticketCode", ticket.getTicketCode());
-        info.put("ticketType", ticket.getTicketType().toString());
-        info.put("isExchanged", ticket.isExchanged());
-        info.put("isUsed", ticket.isUsed());
-        info.put("usedAt", ticket.getUsedAt());
-        info.put("createdAt", ticket.getCreatedAt());
-        
-        // 注文情報
-        if (ticket.getOrder() != null) {
-            Map<String, Object> orderInfo = new HashMap<>();
-            orderInfo.put("id", ticket.getOrder().getId());
-            orderInfo.put("customerName", ticket.getOrder().getCustomerName());
-            orderInfo.put("performanceLabel", ticket.getOrder().getPerformanceLabel());
-            orderInfo.put("performanceDate", ticket.getOrder().getPerformanceDate());
-            info.put("order", orderInfo);
+        long generalTotal = 0;
+        long generalUsed = 0;
+        long reservedTotal = 0;
+        long reservedUsed = 0;
+
+        // (performance_id, is_used, ticket_type) インデックスのみで集計
+        for (Object[] row : ticketRepository.countByPerformanceIdGroupByTypeAndUsed(performanceId)) {
+            Ticket.TicketType type = (Ticket.TicketType) row[0];
+            boolean used = (Boolean) row[1];
+            long count = (Long) row[2];
+
+            if (type == Ticket.TicketType.GENERAL) {
+                generalTotal += count;
+                if (used) {
+                    generalUsed += count;
+                }
+            } else {
+                reservedTotal += count;
+                if (used) {
+                    reservedUsed += count;
+                }
+            }
         }
-        
-        return info;
+
+        stats.put("performanceId", performanceId);
+        stats.put("totalTickets", generalTotal + reservedTotal);
+        stats.put("usedTickets", generalUsed + reservedUsed);
+        stats.put("unusedTickets", (generalTotal + reservedTotal) - (generalUsed + reservedUsed));
+        stats.put("generalTotal", generalTotal);
+        stats.put("generalUsed", generalUsed);
+        stats.put("reservedTotal", reservedTotal);
+        stats.put("reservedUsed", reservedUsed);
+
+        return ResponseEntity.ok(stats);
     }
 
     // ============================================
@@ -2,8 +2,10 @@ package com.example.backend.controller;
 
 import com.example.backend.entity.ExchangeCode;
 import com.example.backend.entity.Order;
+import com.example.backend.entity.Performance;
 import com.example.backend.repository.ExchangeCodeRepository;
 import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.PerformanceRepository;
 import com.stripe.Stripe;
 import com.stripe.exception.StripeException;
 import com.stripe.model.checkout.Session;
@@ -15,6 +17,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -50,6 +54,7 @@ public class TicketPaymentController {
     // ============================================
     private final OrderRepository orderRepository;
     private final ExchangeCodeRepository exchangeCodeRepository;
+    private final PerformanceRepository performanceRepository;
 
     @Value("${stripe.api.key}")
     private String stripeApiKey;
@@ -59,9 +64,11 @@ public class TicketPaymentController {
 
     public TicketPaymentController(
             OrderRepository orderRepository,
-            ExchangeCodeRepository exchangeCodeRepository) {
+            ExchangeCodeRepository exchangeCodeRepository,
+            PerformanceRepository performanceRepository) {
         this.orderRepository = orderRepository;
         this.exchangeCodeRepository = exchangeCodeRepository;
+        this.performanceRepository = performanceRepository;
     }
 
     @PostConstruct
@@ -201,6 +208,7 @@ public class TicketPaymentController {
             order.setStripeSessionId(session.getId());
             order.setPerformanceDate(request.getDate());
             order.setPerformanceLabel(request.getDateLabel());
+            order.setPerformance(resolvePerformance(request.getDate()));
             order.setGeneralQuantity(request.getGeneralQuantity());
             order.setReservedQuantity(request.getReservedQuantity());
             order.setGeneralPrice(GENERAL_PRICE);
@@ -213,12 +221,9 @@ public class TicketPaymentController {
             order.setCustomerPhone(request.getPhone());
             order.setStatus(Order.OrderStatus.PENDING);
 
-            // 引換券コードをカンマ区切りで保存
+            // 引換券コードを注文に紐付け（order_exchange_codes）
             if (!validExchangeCodes.isEmpty()) {
-                List<String> codes = validExchangeCodes.stream()
-                        .map(ExchangeCode::getCode)
-                        .toList();
-                order.setExchangeCodeList(codes);
+                order.setRedeemedExchangeCodes(validExchangeCodes);
             }
 
             orderRepository.save(order);
@@ -286,6 +291,26 @@ public class TicketPaymentController {
         return ValidationResult.valid();
     }
 
+    /**
+     * 公演日キー（例: 2025-01-01-14）から公演を解決
+     * 見つからない場合は null（旧形式の日付でも注文自体は受け付ける）
+     */
+    private Performance resolvePerformance(String dateKey) {
+        if (dateKey == null || dateKey.length() < 10) {
+            return null;
+        }
+        try {
+            LocalDate date = LocalDate.parse(dateKey.substring(0, 10));
+            return performanceRepository.findByPerformanceDate(date).stream()
+                    .filter(p -> dateKey.equals(p.toOrderDateKey()))
+                    .findFirst()
+                    .orElse(null);
+        } catch (DateTimeParseException e) {
+            logger.warn("Unrecognized performance date key: {}", dateKey);
+            return null;
+        }
+    }
+
     private boolean isValidEmail(String email) {
         return email != null && email.matches("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$");
     }
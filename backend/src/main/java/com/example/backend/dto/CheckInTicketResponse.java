@@ -0,0 +1,52 @@
+package com.example.backend.dto;
+
+import com.example.backend.entity.Order;
+import com.example.backend.entity.Ticket;
+import com.example.backend.entity.Ticket.TicketType;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+
+/**
+ * 入場チェック用のチケット情報（注文の概要付き）
+ */
+public record CheckInTicketResponse(
+        Long id,
+        String ticketCode,
+        TicketType ticketType,
+        @JsonProperty("isExchanged") boolean isExchanged,
+        @JsonProperty("isUsed") boolean isUsed,
+        LocalDateTime usedAt,
+        LocalDateTime createdAt,
+        OrderSummary order) {
+
+    public record OrderSummary(
+            Long id,
+            String customerName,
+            String performanceLabel,
+            String performanceDate,
+            Long performanceId) {
+    }
+
+    /**
+     * @param ticket 注文を取得済みのチケット
+     */
+    public static CheckInTicketResponse from(Ticket ticket) {
+        Order order = ticket.getOrder();
+        OrderSummary summary = order == null ? null : new OrderSummary(
+                order.getId(),
+                order.getCustomerName(),
+                order.getPerformanceLabel(),
+                order.getPerformanceDate(),
+                order.getPerformanceId());
+        return new CheckInTicketResponse(
+                ticket.getId(),
+                ticket.getTicketCode(),
+                ticket.getTicketType(),
+                ticket.isExchanged(),
+                ticket.isUsed(),
+                ticket.getUsedAt(),
+                ticket.getCreatedAt(),
+                summary);
+    }
+}
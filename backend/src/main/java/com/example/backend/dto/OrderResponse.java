@@ -0,0 +1,68 @@
+package com.example.backend.dto;
+
+import com.example.backend.entity.Order;
+import com.example.backend.entity.Order.OrderStatus;
+import com.example.backend.entity.Ticket;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 注文のレスポンス
+ *
+ * エンティティを直接返すと、シリアライズ時に未取得のチケットが読み込まれるため、
+ * 取得済みのチケットを渡して組み立てます。
+ */
+public record OrderResponse(
+        Long id,
+        String stripeSessionId,
+        Long performanceId,
+        String performanceDate,
+        String performanceLabel,
+        int generalQuantity,
+        int reservedQuantity,
+        int generalPrice,
+        int reservedPrice,
+        int discountedGeneralCount,
+        int discountAmount,
+        List<String> exchangeCodeList,
+        int totalAmount,
+        int totalTicketCount,
+        String customerName,
+        String customerEmail,
+        String customerPhone,
+        OrderStatus status,
+        LocalDateTime createdAt,
+        LocalDateTime paidAt,
+        LocalDateTime cancelledAt,
+        List<TicketResponse> tickets) {
+
+    /**
+     * @param tickets 注文のチケット（取得済みのもの）
+     */
+    public static OrderResponse from(Order order, List<Ticket> tickets) {
+        return new OrderResponse(
+                order.getId(),
+                order.getStripeSessionId(),
+                order.getPerformanceId(),
+                order.getPerformanceDate(),
+                order.getPerformanceLabel(),
+                order.getGeneralQuantity(),
+                order.getReservedQuantity(),
+                order.getGeneralPrice(),
+                order.getReservedPrice(),
+                order.getDiscountedGeneralCount(),
+                order.getDiscountAmount(),
+                order.getExchangeCodeList(),
+                order.getTotalAmount(),
+                order.getTotalTicketCount(),
+                order.getCustomerName(),
+                order.getCustomerEmail(),
+                order.getCustomerPhone(),
+                order.getStatus(),
+                order.getCreatedAt(),
+                order.getPaidAt(),
+                order.getCancelledAt(),
+                tickets.stream().map(TicketResponse::from).toList());
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.backend.dto;
+
+import com.example.backend.entity.Ticket;
+import com.example.backend.entity.Ticket.TicketType;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+
+/**
+ * チケットのレスポンス
+ */
+public record TicketResponse(
+        Long id,
+        String ticketCode,
+        TicketType ticketType,
+        @JsonProperty("isExchanged") boolean isExchanged,
+        @JsonProperty("isUsed") boolean isUsed,
+        LocalDateTime usedAt,
+        LocalDateTime createdAt) {
+
+    public static TicketResponse from(Ticket ticket) {
+        return new TicketResponse(
+                ticket.getId(),
+                ticket.getTicketCode(),
+                ticket.getTicketType(),
+                ticket.isExchanged(),
+                ticket.isUsed(),
+                ticket.getUsedAt(),
+                ticket.getCreatedAt());
+    }
+}
@@ -1,10 +1,15 @@
 package com.example.backend.entity;
 
+import com.example.backend.config.CacheRegions;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "admin_users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.ADMIN_USER)
 public class AdminUser {
 
     @Id
@@ -0,0 +1,164 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * メール送信待ち（アウトボックス）
+ *
+ * 送信したいメールをチケット発行と同じトランザクションで記録し、
+ * 送信処理（EmailOutboxService）が後から取り出して送信します。
+ * SMTPが落ちていても記録は残るため、復旧後に再送されます。
+ */
+@Entity
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_status_next", columnList = "status, next_attempt_at")
+})
+public class EmailOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private EmailType type;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(nullable = false, length = 255)
+    private String recipient;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    public enum EmailType {
+        PURCHASE_CONFIRMATION // 購入完了メール
+    }
+
+    public enum Status {
+        PENDING, // 送信待ち（再送待ちを含む）
+        SENDING, // 送信中
+        SENT,    // 送信済み
+        FAILED   // 再送上限に達して失敗
+    }
+
+    public EmailOutbox() {
+    }
+
+    public EmailOutbox(EmailType type, Long orderId, String recipient) {
+        this.type = type;
+        this.orderId = orderId;
+        this.recipient = recipient;
+        this.status = Status.PENDING;
+        this.nextAttemptAt = LocalDateTime.now();
+        this.createdAt = LocalDateTime.now();
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public EmailType getType() {
+        return type;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public LocalDateTime getSentAt() {
+        return sentAt;
+    }
+
+    // 送信済みにする
+    public void markAsSent() {
+        this.status = Status.SENT;
+        this.attempts++;
+        this.sentAt = LocalDateTime.now();
+        this.lastError = null;
+    }
+
+    // 送信失敗を記録（再送上限に達していれば FAILED、そうでなければ nextAttemptAt に再送）
+    public void markAsFailed(String error, LocalDateTime nextAttemptAt, int maxAttempts) {
+        this.attempts++;
+        this.lastError = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+        if (attempts >= maxAttempts) {
+            this.status = Status.FAILED;
+        } else {
+            this.status = Status.PENDING;
+            this.nextAttemptAt = nextAttemptAt;
+        }
+    }
+
+    // 管理画面からの再送（試行回数をリセットしてすぐに送信待ちに戻す）
+    public void replay() {
+        this.status = Status.PENDING;
+        this.attempts = 0;
+        this.nextAttemptAt = LocalDateTime.now();
+    }
+}
@@ -1,10 +1,15 @@
 package com.example.backend.entity;
 
+import com.example.backend.service.ExchangeCodeIndexListener;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "exchange_codes")
+@Table(name = "exchange_codes", indexes = {
+    @Index(name = "idx_exchange_code_used_created_id", columnList = "is_used, created_at, id"),
+    @Index(name = "idx_exchange_code_performer_used", columnList = "performer_name, is_used")
+})
+@EntityListeners(ExchangeCodeIndexListener.class)
 public class ExchangeCode {
 
     @Id
@@ -29,6 +34,11 @@ public class ExchangeCode {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    // 楽観ロック用の版（同時更新の検知）
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     public ExchangeCode() {
     }
 
@@ -103,6 +113,10 @@ public class ExchangeCode {
         this.createdAt = createdAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     // コードを使用済みにする
     public void markAsUsed(Long orderId) {
         this.isUsed = true;
@@ -0,0 +1,189 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * お知らせメールの一斉配信
+ *
+ * 支払い済みの注文の購入者（公演を指定した場合はその公演の購入者）へ同じ内容のメールを送ります。
+ * 注文ID順に送信し、送信済みの位置（lastOrderId）を記録するため、再起動後は続きから再開します。
+ */
+@Entity
+@Table(name = "mail_campaigns")
+public class MailCampaign {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 255)
+    private String subject;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    // お知らせから作成した場合のお知らせID
+    @Column(name = "news_id")
+    private Long newsId;
+
+    // 配信対象の公演（nullの場合は全公演）
+    @Column(name = "performance_id")
+    private Long performanceId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.PENDING;
+
+    // 送信済みの位置（この注文IDまで処理済み）
+    @Column(name = "last_order_id", nullable = false)
+    private long lastOrderId = 0;
+
+    @Column(name = "sent_count", nullable = false)
+    private int sentCount = 0;
+
+    // 同じメールアドレスへの重複としてスキップした件数
+    @Column(name = "duplicate_count", nullable = false)
+    private int duplicateCount = 0;
+
+    @Column(name = "failed_count", nullable = false)
+    private int failedCount = 0;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public enum Status {
+        PENDING,   // 配信待ち
+        RUNNING,   // 配信中
+        COMPLETED, // 完了
+        CANCELLED, // 中止
+        FAILED     // 送信できずに停止（再開可能）
+    }
+
+    public MailCampaign() {
+    }
+
+    public MailCampaign(String subject, String body, Long newsId, Long performanceId) {
+        this.subject = subject;
+        this.body = body;
+        this.newsId = newsId;
+        this.performanceId = performanceId;
+        this.status = Status.PENDING;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public Long getNewsId() {
+        return newsId;
+    }
+
+    public Long getPerformanceId() {
+        return performanceId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getLastOrderId() {
+        return lastOrderId;
+    }
+
+    public int getSentCount() {
+        return sentCount;
+    }
+
+    public int getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    // 配信を開始する
+    public void markAsRunning() {
+        this.status = Status.RUNNING;
+        this.lastError = null;
+        if (startedAt == null) {
+            startedAt = LocalDateTime.now();
+        }
+    }
+
+    // 配信を完了する
+    public void markAsCompleted() {
+        this.status = Status.COMPLETED;
+        this.completedAt = LocalDateTime.now();
+    }
+
+    // 送信できずに停止する（送信済みの位置は変えない）
+    public void markAsFailed(String error) {
+        this.status = Status.FAILED;
+        this.lastError = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+
+    // 停止したものを配信待ちに戻す
+    public void resume() {
+        this.status = Status.PENDING;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.CANCELLED;
+    }
+}
@@ -1,10 +1,17 @@
 package com.example.backend.entity;
 
+import com.example.backend.config.CacheRegions;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "news")
+@Table(name = "news", indexes = {
+    @Index(name = "idx_news_published_id", columnList = "published_at, id")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.NEWS)
 public class News {
 
     @Id
@@ -32,6 +39,15 @@ public class News {
         this.category = category;
     }
 
+    // 一覧のページ位置（公開日時, ID）に使うため、公開日時は必ず持たせる
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        if (publishedAt == null) {
+            publishedAt = LocalDateTime.now();
+        }
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -1,11 +1,15 @@
 package com.example.backend.entity;
 
+import com.example.backend.service.OrderSearchIndexListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * 注文Entity
@@ -18,8 +22,11 @@ import java.util.List;
     @Index(name = "idx_order_stripe_session", columnList = "stripe_session_id"),
     @Index(name = "idx_order_status", columnList = "status"),
     @Index(name = "idx_order_customer_email", columnList = "customer_email"),
-    @Index(name = "idx_order_performance_date", columnList = "performance_date")
+    @Index(name = "idx_order_performance_date", columnList = "performance_date"),
+    @Index(name = "idx_order_performance_status", columnList = "performance_id, status"),
+    @Index(name = "idx_order_created_id", columnList = "created_at, id")
 })
+@EntityListeners(OrderSearchIndexListener.class)
 public class Order {
 
   @Id
@@ -46,6 +53,14 @@ public class Order {
   @Column(name = "performance_label", length = 100)
   private String performanceLabel;
 
+  /**
+   * 公演との関連（performanceDate から解決。旧データはバックフィルで補完）
+   */
+  @JsonIgnore
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "performance_id")
+  private Performance performance;
+
   // ============================================
   // チケット情報
   // ============================================
@@ -72,8 +87,9 @@ public class Order {
   @Column(name = "discount_amount")
   private int discountAmount = 0;
 
+  // 表示用の控え（カンマ区切り）。コード・出演者からの検索は redeemedExchangeCodes を使う
   @Column(name = "exchange_codes", length = 500)
-  private String exchangeCodes; // カンマ区切りで保存
+  private String exchangeCodes;
 
   // ============================================
   // 金額
@@ -116,6 +132,14 @@ public class Order {
   @Column(name = "cancelled_at")
   private LocalDateTime cancelledAt;
 
+  // ============================================
+  // 楽観ロック（決済完了・管理画面の更新の同時実行の検知）
+  // ============================================
+
+  @Version
+  @Column(nullable = false, columnDefinition = "bigint default 0")
+  private Long version;
+
   // ============================================
   // リレーション
   // ============================================
@@ -126,6 +150,18 @@ public class Order {
   @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
   private List<Ticket> tickets = new ArrayList<>();
 
+  /**
+   * 注文で使用した引換券コード（中間テーブル order_exchange_codes）
+   * 「コードXを使った注文」「出演者Yの引換券を使った注文」を両方向の索引で引けるようにする
+   */
+  @JsonIgnore
+  @ManyToMany(fetch = FetchType.LAZY)
+  @JoinTable(name = "order_exchange_codes",
+      joinColumns = @JoinColumn(name = "order_id"),
+      inverseJoinColumns = @JoinColumn(name = "exchange_code_id"),
+      indexes = @Index(name = "idx_order_exchange_codes_code_order", columnList = "exchange_code_id, order_id"))
+  private Set<ExchangeCode> redeemedExchangeCodes = new HashSet<>();
+
   // ============================================
   // コンストラクタ
   // ============================================
@@ -224,6 +260,15 @@ public class Order {
     }
   }
 
+  /**
+   * 使用する引換券コードをセット（中間テーブルと表示用の控えの両方）
+   */
+  public void setRedeemedExchangeCodes(List<ExchangeCode> codes) {
+    this.redeemedExchangeCodes.clear();
+    this.redeemedExchangeCodes.addAll(codes);
+    setExchangeCodeList(codes.stream().map(ExchangeCode::getCode).toList());
+  }
+
   // Getters and Setters
   public Long getId() {
     return id;
@@ -265,6 +310,18 @@ public class Order {
     this.performanceLabel = performanceLabel;
   }
 
+  public Performance getPerformance() {
+    return performance;
+  }
+
+  public void setPerformance(Performance performance) {
+    this.performance = performance;
+  }
+
+  public Long getPerformanceId() {
+    return performance != null ? performance.getId() : null;
+  }
+
   public int getGeneralQuantity() {
     return generalQuantity;
   }
@@ -385,6 +442,10 @@ public class Order {
     this.cancelledAt = cancelledAt;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
   public List<Ticket> getTickets() {
     return tickets;
   }
@@ -393,6 +454,10 @@ public class Order {
     this.tickets = tickets;
   }
 
+  public Set<ExchangeCode> getRedeemedExchangeCodes() {
+    return redeemedExchangeCodes;
+  }
+
   // ============================================
   // toString
   // ============================================
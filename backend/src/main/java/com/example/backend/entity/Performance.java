@@ -1,12 +1,19 @@
 package com.example.backend.entity;
 
+import com.example.backend.config.CacheRegions;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "performances")
+@Table(name = "performances", indexes = {
+    @Index(name = "idx_performance_created_id", columnList = "created_at, id")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.PERFORMANCE)
 public class Performance {
 
     @Id
@@ -53,10 +60,19 @@ public class Performance {
     @Column(name = "reserved_capacity")
     private int reservedCapacity = 0;
 
-    @Column(name = "general_sold")
+    // 旧来の販売済み数の列（NOT NULL のため作成時に 0 を入れるだけで、更新・参照はしない）
+    @Column(name = "general_sold", updatable = false)
+    private int legacyGeneralSold = 0;
+
+    @Column(name = "reserved_sold", updatable = false)
+    private int legacyReservedSold = 0;
+
+    // 販売済み数は決済のたびに変わるため公演の行には保存しない
+    // （performance_inventory から PerformanceInventoryService がレスポンス用に詰める）
+    @Transient
     private int generalSold = 0;
 
-    @Column(name = "reserved_sold")
+    @Transient
     private int reservedSold = 0;
 
     // 販売状態
@@ -85,6 +101,11 @@ public class Performance {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // 楽観ロック用の版（同時更新の検知）
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     public Performance() {
     }
 
@@ -129,6 +150,11 @@ public class Performance {
         return getGeneralRemaining() <= 0 && getReservedRemaining() <= 0;
     }
 
+    // 注文に保存される公演日キー（例: 2025-01-01-14）
+    public String toOrderDateKey() {
+        return String.format("%s-%02d", performanceDate, performanceTime.getHour());
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -306,6 +332,15 @@ public class Performance {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    // 更新リクエストで、編集画面を開いたときの版を受け取る
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // 販売ステータス
     public enum SaleStatus {
         NOT_ON_SALE,    // 未販売
@@ -0,0 +1,40 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * 公演ごとの販売済み数
+ *
+ * 決済のたびに更新されるため、管理画面で編集し二次キャッシュに載せている公演（performances）とは別の表に置きます。
+ * 決済で公演の版が進んで編集が競合したり、公演の一覧のキャッシュが無効になったりしません。
+ * 更新は {@link com.example.backend.service.PerformanceInventoryService} が行の値に直接加算します。
+ */
+@Entity
+@Table(name = "performance_inventory")
+public class PerformanceInventory {
+
+    @Id
+    @Column(name = "performance_id")
+    private Long performanceId;
+
+    @Column(name = "general_sold", nullable = false)
+    private int generalSold = 0;
+
+    @Column(name = "reserved_sold", nullable = false)
+    private int reservedSold = 0;
+
+    protected PerformanceInventory() {
+    }
+
+    public Long getPerformanceId() {
+        return performanceId;
+    }
+
+    public int getGeneralSold() {
+        return generalSold;
+    }
+
+    public int getReservedSold() {
+        return reservedSold;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.backend.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -14,7 +15,8 @@ import java.util.UUID;
 @Table(name = "tickets", indexes = {
     @Index(name = "idx_ticket_code", columnList = "ticket_code"),
     @Index(name = "idx_ticket_order", columnList = "order_id"),
-    @Index(name = "idx_ticket_type", columnList = "ticket_type")
+    @Index(name = "idx_ticket_type", columnList = "ticket_type"),
+    @Index(name = "idx_ticket_performance_used_type", columnList = "performance_id, is_used, ticket_type")
 })
 public class Ticket {
 
@@ -29,6 +31,15 @@ public class Ticket {
     @JoinColumn(name = "order_id", nullable = false)
     private Order order;
 
+    /**
+     * 公演との関連（注文の公演を発行時に複製）
+     * 公演単位の集計を orders を経由せずに行うため
+     */
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "performance_id")
+    private Performance performance;
+
     /**
      * チケットコード（ユニーク）
      * UUID形式で自動生成
@@ -71,6 +82,13 @@ public class Ticket {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    /**
+     * 楽観ロック用の版（入場処理の同時実行の検知）
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     /**
      * チケット種別の列挙型
      */
@@ -91,6 +109,7 @@ public class Ticket {
      */
     public Ticket(Order order, TicketType ticketType) {
         this.order = order;
+        this.performance = order != null ? order.getPerformance() : null;
         this.ticketCode = generateTicketCode();
         this.ticketType = ticketType;
         this.isExchanged = false;
@@ -103,6 +122,7 @@ public class Ticket {
      */
     public Ticket(Order order, TicketType ticketType, boolean isExchanged) {
         this.order = order;
+        this.performance = order != null ? order.getPerformance() : null;
         this.ticketCode = generateTicketCode();
         this.ticketType = ticketType;
         this.isExchanged = isExchanged;
@@ -172,6 +192,18 @@ public class Ticket {
         this.order = order;
     }
 
+    public Performance getPerformance() {
+        return performance;
+    }
+
+    public void setPerformance(Performance performance) {
+        this.performance = performance;
+    }
+
+    public Long getPerformanceId() {
+        return performance != null ? performance.getId() : null;
+    }
+
     public String getTicketCode() {
         return ticketCode;
     }
@@ -220,6 +252,10 @@ public class Ticket {
         this.createdAt = createdAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     // ============================================
     // toString
     // ============================================
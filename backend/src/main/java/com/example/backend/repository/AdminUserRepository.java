@@ -1,7 +1,11 @@
 package com.example.backend.repository;
 
+import com.example.backend.config.CacheRegions;
 import com.example.backend.entity.AdminUser;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,6 +13,11 @@ import java.util.Optional;
 @Repository
 public interface AdminUserRepository extends JpaRepository<AdminUser, Long> {
 
+    // JWT認証で管理APIの呼び出しごとに使うため、クエリ結果もキャッシュする
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.ADMIN_USER_QUERIES)
+    })
     Optional<AdminUser> findByEmail(String email);
 
     boolean existsByEmail(String email);
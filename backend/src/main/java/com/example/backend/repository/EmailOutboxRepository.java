@@ -0,0 +1,62 @@
+package com.example.backend.repository;
+
+import com.example.backend.entity.EmailOutbox;
+import com.example.backend.entity.EmailOutbox.Status;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // 送信時刻を過ぎた送信待ちを古い順に取得
+    List<EmailOutbox> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+            Status status, LocalDateTime now, Limit limit);
+
+    // ステータスで検索（管理画面用、新しい順）
+    List<EmailOutbox> findByStatusOrderByIdDesc(Status status, Limit limit);
+
+    // 全件（管理画面用、新しい順）
+    List<EmailOutbox> findAllByOrderByIdDesc(Limit limit);
+
+    // 注文のメール
+    List<EmailOutbox> findByOrderIdOrderByIdDesc(Long orderId);
+
+    long countByStatus(Status status);
+
+    /**
+     * 送信待ちを送信中にする（複数インスタンスで同じ行を送らないよう、更新できた場合のみ送信する）
+     *
+     * @return 更新件数（0 の場合は他で取得済み）
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox e SET e.status = com.example.backend.entity.EmailOutbox.Status.SENDING, " +
+            "e.updatedAt = :now WHERE e.id = :id AND e.status = com.example.backend.entity.EmailOutbox.Status.PENDING")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * 送信中のまま止まった行（送信中にプロセスが落ちた場合など）を送信待ちに戻す
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox e SET e.status = com.example.backend.entity.EmailOutbox.Status.PENDING " +
+            "WHERE e.status = com.example.backend.entity.EmailOutbox.Status.SENDING AND e.updatedAt < :cutoff")
+    int releaseStale(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * 送信中の行を送信待ちに戻す（シャットダウン時に未着手だったもの）
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox e SET e.status = com.example.backend.entity.EmailOutbox.Status.PENDING " +
+            "WHERE e.id IN :ids AND e.status = com.example.backend.entity.EmailOutbox.Status.SENDING")
+    int release(@Param("ids") List<Long> ids);
+}
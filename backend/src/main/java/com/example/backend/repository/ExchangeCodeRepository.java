@@ -1,9 +1,14 @@
 package com.example.backend.repository;
 
 import com.example.backend.entity.ExchangeCode;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,12 +24,28 @@ public interface ExchangeCodeRepository extends JpaRepository<ExchangeCode, Long
     // 出演者名で検索
     List<ExchangeCode> findByPerformerName(String performerName);
 
+    // 複数のコードをまとめて検索
+    List<ExchangeCode> findByCodeIn(Collection<String> codes);
+
     // 未使用のコード一覧
     List<ExchangeCode> findByIsUsedFalse();
 
     // 使用済みのコード一覧
     List<ExchangeCode> findByIsUsedTrue();
 
+    // 一覧の先頭ページ（未使用を先に、その中で新しい順）
+    List<ExchangeCode> findAllByOrderByIsUsedAscCreatedAtDescIdDesc(Limit limit);
+
+    // 一覧の続きのページ（前のページの最後の行より後）
+    @Query("SELECT c FROM ExchangeCode c WHERE " +
+           "(c.isUsed = :used AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id))) " +
+           "OR (:used = false AND c.isUsed = true) " +
+           "ORDER BY c.isUsed ASC, c.createdAt DESC, c.id DESC")
+    List<ExchangeCode> findPageAfter(@Param("used") boolean used,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") long id,
+                                     Limit limit);
+
     // コードが存在するかチェック
     boolean existsByCode(String code);
 
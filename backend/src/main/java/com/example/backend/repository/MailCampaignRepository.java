@@ -0,0 +1,55 @@
+package com.example.backend.repository;
+
+import com.example.backend.entity.MailCampaign;
+import com.example.backend.entity.MailCampaign.Status;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MailCampaignRepository extends JpaRepository<MailCampaign, Long> {
+
+    // 全件（管理画面用、新しい順）
+    List<MailCampaign> findAllByOrderByIdDesc(Limit limit);
+
+    // 起動時に再開する配信（古い順）
+    List<MailCampaign> findByStatusInOrderByIdAsc(List<Status> statuses);
+
+    @Query("SELECT c.status FROM MailCampaign c WHERE c.id = :id")
+    Status findStatusById(@Param("id") Long id);
+
+    /**
+     * 送信済みの位置と件数を記録（チェックポイント）
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MailCampaign c SET c.lastOrderId = :lastOrderId, c.sentCount = :sentCount, " +
+            "c.duplicateCount = :duplicateCount, c.failedCount = :failedCount, c.updatedAt = :now " +
+            "WHERE c.id = :id")
+    int checkpoint(@Param("id") Long id,
+                   @Param("lastOrderId") long lastOrderId,
+                   @Param("sentCount") int sentCount,
+                   @Param("duplicateCount") int duplicateCount,
+                   @Param("failedCount") int failedCount,
+                   @Param("now") LocalDateTime now);
+
+    /**
+     * 未完了の配信を中止（送信中のチェックポイントで記録した位置と件数は書き換えない）
+     *
+     * @return 中止した件数（見つからない・完了済みの場合は0）
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MailCampaign c SET c.status = com.example.backend.entity.MailCampaign.Status.CANCELLED, " +
+            "c.completedAt = :now, c.updatedAt = :now " +
+            "WHERE c.id = :id AND c.status NOT IN (com.example.backend.entity.MailCampaign.Status.COMPLETED, " +
+            "com.example.backend.entity.MailCampaign.Status.CANCELLED)")
+    int cancel(@Param("id") Long id, @Param("now") LocalDateTime now);
+}
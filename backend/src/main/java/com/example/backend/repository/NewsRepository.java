@@ -1,13 +1,43 @@
 package com.example.backend.repository;
 
+import com.example.backend.config.CacheRegions;
 import com.example.backend.entity.News;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface NewsRepository extends JpaRepository<News, Long> {
+    // 公開ページのお知らせ一覧（クエリ結果をキャッシュ）
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.NEWS_QUERIES)
+    })
     List<News> findAllByOrderByPublishedAtDesc();
-}
 
+    // 一覧の先頭ページ（公開日時の新しい順）
+    List<News> findAllByOrderByPublishedAtDescIdDesc(Limit limit);
+
+    // 一覧の続きのページ（前のページの最後の行より後）
+    @Query("SELECT n FROM News n WHERE n.publishedAt < :publishedAt " +
+           "OR (n.publishedAt = :publishedAt AND n.id < :id) ORDER BY n.publishedAt DESC, n.id DESC")
+    List<News> findPageAfter(@Param("publishedAt") LocalDateTime publishedAt, @Param("id") long id, Limit limit);
+
+    // 最も古い公開日時（移行用）
+    @Query("SELECT MIN(n.publishedAt) FROM News n")
+    LocalDateTime findEarliestPublishedAt();
+
+    // 公開日時のないお知らせを補完（移行用）
+    @Modifying
+    @Query("UPDATE News n SET n.publishedAt = :publishedAt WHERE n.publishedAt IS NULL")
+    int fillMissingPublishedAt(@Param("publishedAt") LocalDateTime publishedAt);
+}
@@ -2,7 +2,13 @@ package com.example.backend.repository;
 
 import com.example.backend.entity.Order;
 import com.example.backend.entity.Order.OrderStatus;
+import com.example.backend.entity.Performance;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -15,12 +21,28 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     // Stripe Session IDで検索
     Optional<Order> findByStripeSessionId(String stripeSessionId);
 
+    // Stripe Session IDで検索（チケットも同じクエリで取得）
+    @EntityGraph(attributePaths = "tickets")
+    Optional<Order> findWithTicketsByStripeSessionId(String stripeSessionId);
+
+    // IDで検索（チケットも同じクエリで取得）
+    @EntityGraph(attributePaths = "tickets")
+    Optional<Order> findWithTicketsById(Long id);
+
     // Stripe Payment Intent IDで検索
     Optional<Order> findByStripePaymentIntentId(String stripePaymentIntentId);
 
     // ステータスで検索
     List<Order> findByStatus(OrderStatus status);
 
+    /**
+     * ステータスごとの件数・売上・枚数（管理画面の集計用）
+     * @return [OrderStatus, Long(件数), Long(売上), Long(一般), Long(指定席), Long(引換券適用)] の配列
+     */
+    @Query("SELECT o.status, COUNT(o), SUM(o.totalAmount), SUM(o.generalQuantity), SUM(o.reservedQuantity), " +
+           "SUM(o.discountedGeneralCount) FROM Order o GROUP BY o.status")
+    List<Object[]> summarizeByStatus();
+
     // 顧客メールで検索
     List<Order> findByCustomerEmail(String customerEmail);
 
@@ -30,13 +52,58 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     // ステータスと公演日で検索
     List<Order> findByStatusAndPerformanceDate(OrderStatus status, String performanceDate);
 
+    // 公演未紐付けの注文を公演日キーで公演に紐付け（バックフィル用）
+    @Modifying
+    @Query("UPDATE Order o SET o.performance = :performance, o.version = o.version + 1 WHERE o.performance IS NULL AND o.performanceDate = :dateKey")
+    int linkPerformanceByDateKey(@Param("performance") Performance performance, @Param("dateKey") String dateKey);
+
     // 期間内の注文を検索
     List<Order> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
 
+    // 一覧の先頭ページ（新しい順）
+    List<Order> findAllByOrderByCreatedAtDescIdDesc(Limit limit);
+
+    // 一覧の続きのページ（新しい順、前のページの最後の行より後）
+    @Query("SELECT o FROM Order o WHERE o.createdAt < :createdAt " +
+           "OR (o.createdAt = :createdAt AND o.id < :id) ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") long id, Limit limit);
+
     // 支払い完了した注文を作成日時順で取得
     List<Order> findByStatusOrderByCreatedAtDesc(OrderStatus status);
 
     // 顧客メールとステータスで検索
     List<Order> findByCustomerEmailAndStatus(String customerEmail, OrderStatus status);
+
+    // 引換券コードを使った注文（中間テーブルの exchange_code_id 側の索引で引く）
+    @Query("SELECT o FROM Order o JOIN o.redeemedExchangeCodes c WHERE c.code = :code ORDER BY o.id DESC")
+    List<Order> findByRedeemedExchangeCode(@Param("code") String code);
+
+    // 出演者の引換券を使った注文（新しい順）
+    @Query("SELECT DISTINCT o FROM Order o JOIN o.redeemedExchangeCodes c " +
+           "WHERE c.performerName = :performerName ORDER BY o.id DESC")
+    List<Order> findByRedeemedPerformerName(@Param("performerName") String performerName, Limit limit);
+
+    // 引換券コードが中間テーブルに未登録の注文（移行用、注文ID順）
+    // コレクションを fetch すると件数制限がメモリ上で行われるため、紐付けは読み込まない（どの注文も空）
+    @Query("SELECT o FROM Order o WHERE o.exchangeCodes IS NOT NULL AND o.redeemedExchangeCodes IS EMPTY " +
+           "AND o.id > :afterId ORDER BY o.id")
+    List<Order> findUnlinkedExchangeCodeOrders(@Param("afterId") long afterId, Limit limit);
+
+    /**
+     * 一斉配信の宛先を注文ID順に1ページ分取得 [注文ID, 顧客メール]
+     * 呼び出し側は最後の注文IDを次の afterId にして読み進める
+     *
+     * @param performanceId 公演ID（nullの場合は全公演）
+     * @param afterId       この注文IDより後から
+     * @param untilId       この注文IDまで
+     */
+    @Query("SELECT o.id, o.customerEmail FROM Order o WHERE o.status = :status " +
+           "AND (:performanceId IS NULL OR o.performance.id = :performanceId) " +
+           "AND o.id > :afterId AND o.id <= :untilId ORDER BY o.id")
+    List<Object[]> findRecipients(@Param("status") OrderStatus status,
+                                  @Param("performanceId") Long performanceId,
+                                  @Param("afterId") long afterId,
+                                  @Param("untilId") long untilId,
+                                  Limit limit);
 }
 
@@ -0,0 +1,10 @@
+package com.example.backend.repository;
+
+import com.example.backend.entity.PerformanceInventory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+// 更新は PerformanceInventoryService が行の値に直接加算する（読み取り専用で使う）
+@Repository
+public interface PerformanceInventoryRepository extends JpaRepository<PerformanceInventory, Long> {
+}
@@ -1,35 +1,86 @@
 package com.example.backend.repository;
 
+import com.example.backend.config.CacheRegions;
 import com.example.backend.entity.Performance;
 import com.example.backend.entity.Performance.SaleStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PerformanceRepository extends JpaRepository<Performance, Long> {
 
+    // 公演一覧・販売状況は公開ページのほぼすべてのリクエストで読まれ、変更は1日に数回のため、
+    // 以下の検索はクエリ結果をキャッシュする（公演の更新時にHibernateが自動で無効化する）
+
+    // 全件（公開ページの公演一覧）
+    @Override
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.PERFORMANCE_QUERIES)
+    })
+    List<Performance> findAll();
+
     // ボリュームで検索
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.PERFORMANCE_QUERIES)
+    })
     List<Performance> findByVolume(String volume);
 
     // 販売ステータスで検索
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.PERFORMANCE_QUERIES)
+    })
     List<Performance> findBySaleStatus(SaleStatus saleStatus);
 
     // 販売中の公演を取得
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.PERFORMANCE_QUERIES)
+    })
     List<Performance> findBySaleStatusOrderByPerformanceDateAsc(SaleStatus saleStatus);
 
     // 公演日で検索
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.PERFORMANCE_QUERIES)
+    })
     List<Performance> findByPerformanceDate(LocalDate performanceDate);
 
     // 公演日以降の公演を取得
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.PERFORMANCE_QUERIES)
+    })
     List<Performance> findByPerformanceDateGreaterThanEqualOrderByPerformanceDateAsc(LocalDate date);
 
     // ボリュームと公演日で検索
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.PERFORMANCE_QUERIES)
+    })
     Optional<Performance> findByVolumeAndPerformanceDate(String volume, LocalDate performanceDate);
 
+    // 一覧の先頭ページ（登録の新しい順）
+    List<Performance> findAllByOrderByCreatedAtDescIdDesc(Limit limit);
+
+    // 一覧の続きのページ（前のページの最後の行より後）
+    @Query("SELECT p FROM Performance p WHERE p.createdAt < :createdAt " +
+           "OR (p.createdAt = :createdAt AND p.id < :id) ORDER BY p.createdAt DESC, p.id DESC")
+    List<Performance> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") long id, Limit limit);
+
     // タイトルで検索
     List<Performance> findByTitleContaining(String title);
 }
@@ -0,0 +1,63 @@
+package com.example.backend.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * テーブル件数の概算
+ *
+ * 一覧の総件数表示用に、COUNT(*) で全行を数える代わりに
+ * MySQL の統計情報（information_schema.TABLES.TABLE_ROWS）を返します。
+ * InnoDB の値は概算で、数十%ずれることがあります。統計情報がないDBではnullを返します。
+ */
+@Repository
+public class TableRowEstimates {
+
+    private static final Logger logger = LoggerFactory.getLogger(TableRowEstimates.class);
+
+    // 統計情報の再取得間隔（ミリ秒）
+    private static final long TTL_MILLIS = 60_000;
+
+    private record Estimate(Long rows, long fetchedAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Estimate> cache = new ConcurrentHashMap<>();
+
+    public TableRowEstimates(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * テーブルの件数の概算を取得
+     *
+     * @param table テーブル名
+     * @return 概算件数（取得できない場合はnull）
+     */
+    public Long estimate(String table) {
+        long now = System.currentTimeMillis();
+        Estimate cached = cache.get(table);
+        if (cached != null && now - cached.fetchedAt() < TTL_MILLIS) {
+            return cached.rows();
+        }
+
+        Long rows = null;
+        try {
+            List<Long> result = jdbcTemplate.queryForList(
+                    "SELECT TABLE_ROWS FROM information_schema.TABLES " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?", Long.class, table);
+            rows = result.isEmpty() ? null : result.get(0);
+        } catch (DataAccessException e) {
+            logger.debug("Row estimate is not available for {}: {}", table, e.getMessage());
+        }
+        cache.put(table, new Estimate(rows, now));
+        return rows;
+    }
+}
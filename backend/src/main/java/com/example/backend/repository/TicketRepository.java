@@ -1,13 +1,17 @@
 package com.example.backend.repository;
 
 import com.example.backend.entity.Order;
+import com.example.backend.entity.Performance;
 import com.example.backend.entity.Ticket;
 import com.example.backend.entity.Ticket.TicketType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,6 +30,12 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
      */
     Optional<Ticket> findByTicketCode(String ticketCode);
 
+    /**
+     * チケットコードで検索（注文も同じクエリで取得）
+     */
+    @EntityGraph(attributePaths = "order")
+    Optional<Ticket> findWithOrderByTicketCode(String ticketCode);
+
     /**
      * 注文IDで検索
      */
@@ -36,6 +46,19 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
      */
     List<Ticket> findByOrder(Order order);
 
+    /**
+     * 複数の注文のチケットをまとめて取得（一覧の注文ごとにクエリを発行しないため）
+     */
+    @Query("SELECT t FROM Ticket t WHERE t.order.id IN :orderIds ORDER BY t.id")
+    List<Ticket> findByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Stripe Session IDから注文のチケットコードと種別を取得
+     * @return [String(ticketCode), TicketType] の配列（発行順）
+     */
+    @Query("SELECT t.ticketCode, t.ticketType FROM Ticket t WHERE t.order.stripeSessionId = :sessionId ORDER BY t.id")
+    List<Object[]> findTicketCodesByStripeSessionId(@Param("sessionId") String sessionId);
+
     // ============================================
     // チケット種別検索
     // ============================================
@@ -159,5 +182,34 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
      */
     @Query("SELECT COUNT(t) FROM Ticket t WHERE t.order.performanceDate = :performanceDate AND t.order.status = 'PAID'")
     long countTotalTicketsByPerformanceDate(@Param("performanceDate") String performanceDate);
-}
 
+    // ============================================
+    // 公演ID検索（performance_id の複合インデックスを利用）
+    // ============================================
+
+    /**
+     * 公演の使用済みチケット数をカウント
+     */
+    @Query("SELECT COUNT(t) FROM Ticket t WHERE t.performance.id = :performanceId AND t.isUsed = true")
+    long countUsedTicketsByPerformanceId(@Param("performanceId") Long performanceId);
+
+    /**
+     * 公演のチケット数を種別・使用状況ごとにカウント
+     * @return [TicketType, Boolean(isUsed), Long(count)] の配列
+     */
+    @Query("SELECT t.ticketType, t.isUsed, COUNT(t) FROM Ticket t WHERE t.performance.id = :performanceId GROUP BY t.ticketType, t.isUsed")
+    List<Object[]> countByPerformanceIdGroupByTypeAndUsed(@Param("performanceId") Long performanceId);
+
+    /**
+     * 公演の総チケット数をカウント（PAID注文のみ）
+     */
+    @Query("SELECT COUNT(t) FROM Ticket t WHERE t.performance.id = :performanceId AND t.order.status = 'PAID'")
+    long countTotalTicketsByPerformanceId(@Param("performanceId") Long performanceId);
+
+    /**
+     * 公演未紐付けのチケットに注文の公演を反映（バックフィル用）
+     */
+    @Modifying
+    @Query("UPDATE Ticket t SET t.performance = :performance, t.version = t.version + 1 WHERE t.performance IS NULL AND t.order.id IN (SELECT o.id FROM Order o WHERE o.performance = :performance)")
+    int linkPerformanceFromOrders(@Param("performance") Performance performance);
+}
@@ -0,0 +1,64 @@
+package com.example.backend.security;
+
+import com.example.backend.util.TokenBucket;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * クライアント単位のレート制限
+ *
+ * 接続元IPアドレスごとにトークンバケットを持ち、公開APIの呼び出し回数を制限します。
+ * リバースプロキシ配下では server.forward-headers-strategy を設定し、
+ * getRemoteAddr() が実際のクライアントを返すようにしてください。
+ *
+ * バケットは最後の利用から満杯に戻るまでの時間が過ぎたら破棄し（破棄しても制限は変わらない）、
+ * 保持数が上限を超えた場合は使われていないものから破棄します。
+ */
+@Component
+public class ClientRateLimiter {
+
+    // 保持するクライアント数の上限
+    private static final int MAX_CLIENTS = 10_000;
+
+    private final Cache<String, TokenBucket> buckets;
+    private final double capacity;
+    private final double refillPerSecond;
+
+    public ClientRateLimiter(@Value("${app.qrcode.generate.rate-limit.burst:10}") double capacity,
+                             @Value("${app.qrcode.generate.rate-limit.per-second:1}") double refillPerSecond) {
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+        long refillMillis = (long) Math.ceil(capacity / refillPerSecond * 1000);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(MAX_CLIENTS)
+                .expireAfterAccess(Duration.ofMillis(Math.max(1, refillMillis)))
+                .build();
+    }
+
+    /**
+     * リクエストを1回分消費
+     *
+     * @return 制限内であればtrue
+     */
+    public boolean tryAcquire(HttpServletRequest request) {
+        return buckets.get(request.getRemoteAddr(),
+                key -> new TokenBucket(capacity, refillPerSecond)).tryAcquire();
+    }
+
+    /**
+     * 次のリクエストが可能になるまでの秒数（Retry-After 用）
+     */
+    public long retryAfterSeconds(HttpServletRequest request) {
+        TokenBucket bucket = buckets.getIfPresent(request.getRemoteAddr());
+        if (bucket == null) {
+            return 0;
+        }
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(bucket.nanosUntilAvailable()) + 1);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.backend.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * QRコード画像URLの署名
+ *
+ * メールに埋め込むQRコード画像のURLに有効期限と HMAC-SHA256 の署名を付け、
+ * 署名が正しく期限内のリクエストだけに画像を返すために使います。
+ * 署名対象は「チケットコード:有効期限（エポック秒）」です。
+ */
+@Component
+public class QRCodeLinkSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+
+    public QRCodeLinkSigner(
+            @Value("${app.qrcode.link.secret:${jwt.secret:easel-admin-secret-key-must-be-at-least-256-bits-long}}") String secret) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    /**
+     * 署名を生成
+     *
+     * @param ticketCode チケットコード
+     * @param expires    有効期限（エポック秒）
+     * @return URLセーフなBase64の署名
+     */
+    public String sign(String ticketCode, long expires) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac(ticketCode, expires));
+    }
+
+    /**
+     * 署名と有効期限を検証
+     *
+     * @return 署名が正しく、期限切れでない場合はtrue
+     */
+    public boolean verify(String ticketCode, long expires, String signature) {
+        if (signature == null || expires < Instant.now().getEpochSecond()) {
+            return false;
+        }
+        byte[] actual;
+        try {
+            actual = Base64.getUrlDecoder().decode(signature);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        // 比較にかかる時間から署名を推測されないよう、一定時間で比較する
+        return MessageDigest.isEqual(mac(ticketCode, expires), actual);
+    }
+
+    private byte[] mac(String ticketCode, long expires) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal((ticketCode + ":" + expires).getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.backend.security;
 
+import com.example.backend.util.KeysetCursor;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -35,6 +37,10 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // ストリーミング応答（StreamingResponseBody）の完了時の再ディスパッチ。
+                        // 認可は最初のリクエストで済んでおり、JWTフィルターは再実行されないため許可する
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // 公開API（認証不要）
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/webhook/**").permitAll()
@@ -60,7 +66,10 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.POST, "/api/exchange-codes").hasAnyRole("ADMIN", "SUPER_ADMIN")
                         .requestMatchers(HttpMethod.POST, "/api/exchange-codes/batch")
                         .hasAnyRole("ADMIN", "SUPER_ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/exchange-codes/generate")
+                        .hasAnyRole("ADMIN", "SUPER_ADMIN")
                         .requestMatchers("/api/admin/**").hasAnyRole("ADMIN", "SUPER_ADMIN")
+                        .requestMatchers("/actuator/metrics/**").hasAnyRole("ADMIN", "SUPER_ADMIN")
 
                         // その他は認証不要
                         .anyRequest().permitAll())
@@ -76,7 +85,8 @@ public class SecurityConfig {
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
         configuration.setAllowCredentials(true);
-        configuration.setExposedHeaders(List.of("Authorization"));
+        configuration.setExposedHeaders(List.of("Authorization", "Content-Disposition",
+                KeysetCursor.NEXT_CURSOR_HEADER, KeysetCursor.TOTAL_ESTIMATE_HEADER));
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/api/**", configuration);
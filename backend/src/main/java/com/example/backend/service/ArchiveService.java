@@ -0,0 +1,296 @@
+package com.example.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 終了した公演の注文・チケットの退避
+ *
+ * 公演日から一定日数が過ぎた公演の注文・チケット・使用済み引換券コード（と注文との紐付け）を
+ * 退避用テーブル（orders_archive / tickets_archive / exchange_codes_archive / order_exchange_codes_archive）へ移します。
+ * 通常の処理（購入・入場チェック・集計）は現在の公演しか参照しないため、
+ * 元のテーブルとインデックスを小さく保ち、バッファプールに収まるようにします。
+ *
+ * - 注文 batchSize 件ごとに1トランザクションで移動（ロックの保持時間を短くする）
+ * - 退避用テーブルは初回実行時に元のテーブルと同じ定義で作成し、列の追加にも追従する
+ * - 退避したデータは管理画面のエクスポート（includeArchived=true）で参照できる
+ * - 退避後、支払い済みの注文に残っていないチケットのQRコードを保存ファイルから取り除く（払い戻し分も含む）
+ */
+@Service
+public class ArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveService.class);
+
+    private static final String ARCHIVE_SUFFIX = "_archive";
+
+    private static final String LIVE_TICKET_CODES_SQL =
+            "SELECT t.ticket_code FROM tickets t JOIN orders o ON o.id = t.order_id WHERE o.status = 'PAID'";
+
+    // 退避対象のテーブル（作成・列の同期の順）
+    private static final List<String> TABLES = List.of(
+            "orders", "tickets", "exchange_codes", "order_exchange_codes");
+
+    /**
+     * 1回の実行結果
+     */
+    public record Result(int performances, long orders, long tickets, long exchangeCodes) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate batchTransaction;
+    private final OrderSearchIndex orderSearchIndex;
+    private final ExchangeCodeIndex exchangeCodeIndex;
+    private final QRCodeBlobStore qrCodeBlobStore;
+
+    @Value("${app.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.archive.after-days:30}")
+    private int afterDays;
+
+    @Value("${app.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.archive.batch-pause-ms:200}")
+    private long batchPauseMs;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // 退避用テーブルの列（元のテーブルと同じ順）
+    private final Map<String, String> columnLists = new LinkedHashMap<>();
+    private volatile boolean archiveTablesReady = false;
+
+    public ArchiveService(JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          OrderSearchIndex orderSearchIndex,
+                          ExchangeCodeIndex exchangeCodeIndex,
+                          QRCodeBlobStore qrCodeBlobStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.orderSearchIndex = orderSearchIndex;
+        this.exchangeCodeIndex = exchangeCodeIndex;
+        this.qrCodeBlobStore = qrCodeBlobStore;
+    }
+
+    /**
+     * 定期実行（既定: 毎日4:30）
+     */
+    @Scheduled(cron = "${app.archive.cron:0 30 4 * * *}")
+    public void runScheduled() {
+        if (!enabled) {
+            return;
+        }
+        archiveFinishedPerformances();
+    }
+
+    /**
+     * 終了した公演の注文を退避
+     *
+     * @return 実行結果（他の退避処理が実行中の場合は空）
+     */
+    public Optional<Result> archiveFinishedPerformances() {
+        if (!running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        try {
+            ensureArchiveTables();
+
+            LocalDate cutoff = LocalDate.now().minusDays(afterDays);
+            List<Long> performanceIds = jdbcTemplate.queryForList(
+                    "SELECT p.id FROM performances p WHERE p.performance_date < ? " +
+                    "AND EXISTS (SELECT 1 FROM orders o WHERE o.performance_id = p.id) " +
+                    "ORDER BY p.performance_date, p.id",
+                    Long.class, cutoff);
+
+            long[] totals = new long[3];
+            for (Long performanceId : performanceIds) {
+                archivePerformance(performanceId, totals);
+            }
+
+            Result result = new Result(performanceIds.size(), totals[0], totals[1], totals[2]);
+            if (!performanceIds.isEmpty()) {
+                logger.info("Archived {} performances: {} orders, {} tickets, {} exchange codes",
+                        result.performances(), result.orders(), result.tickets(), result.exchangeCodes());
+            }
+            compactQRCodeStore();
+            return Optional.of(result);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 支払い済みの注文に残っているチケット以外のQRコードを保存ファイルから取り除く
+     */
+    private void compactQRCodeStore() {
+        Set<String> liveCodes = new HashSet<>();
+        jdbcTemplate.query(LIVE_TICKET_CODES_SQL, rs -> {
+            liveCodes.add(rs.getString(1));
+        });
+        try {
+            qrCodeBlobStore.compact(liveCodes);
+        } catch (IOException e) {
+            // 失敗しても元のファイルはそのまま使える
+            logger.error("Failed to compact QR code store", e);
+        }
+    }
+
+    /**
+     * 退避用テーブルが存在するか（エクスポートで退避分も読むかの判定用）
+     */
+    public boolean hasArchive() {
+        if (archiveTablesReady) {
+            return true;
+        }
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?",
+                Integer.class, "orders" + ARCHIVE_SUFFIX);
+        return count != null && count > 0;
+    }
+
+    // ============================================
+    // 公演単位の退避
+    // ============================================
+
+    private void archivePerformance(Long performanceId, long[] totals) {
+        while (true) {
+            List<Long> orderIds = jdbcTemplate.queryForList(
+                    "SELECT id FROM orders WHERE performance_id = ? ORDER BY id LIMIT ?",
+                    Long.class, performanceId, batchSize);
+            if (orderIds.isEmpty()) {
+                return;
+            }
+
+            List<String> movedCodes = new ArrayList<>();
+            long[] moved = batchTransaction.execute(status -> moveBatch(orderIds, movedCodes));
+            totals[0] += moved[0];
+            totals[1] += moved[1];
+            totals[2] += moved[2];
+
+            // 退避した注文・引換券コードは索引から外す（JDBCで削除したためエンティティリスナーは呼ばれない）
+            for (Long orderId : orderIds) {
+                orderSearchIndex.remove(orderId);
+            }
+            for (String code : movedCodes) {
+                exchangeCodeIndex.remove(code);
+            }
+
+            if (orderIds.size() < batchSize) {
+                return;
+            }
+            if (!pause()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 注文1バッチ分を退避用テーブルへ移動（同一トランザクション内で複製 → 削除）
+     *
+     * @param movedCodes 退避した引換券コードを追加する
+     * @return [注文数, チケット数, 引換券コード数]
+     */
+    private long[] moveBatch(List<Long> orderIds, List<String> movedCodes) {
+        String in = String.join(",", Collections.nCopies(orderIds.size(), "?"));
+        Object[] ids = orderIds.toArray();
+
+        String linkFilter = "WHERE order_id IN (" + in + ")";
+        // バッチ外の（未払いのまま残った）注文からも紐付いているコードは元のテーブルに残す
+        String codeFilter = "WHERE is_used = TRUE AND order_id IN (" + in + ") " +
+                "AND NOT EXISTS (SELECT 1 FROM order_exchange_codes l " +
+                "WHERE l.exchange_code_id = exchange_codes.id AND l.order_id NOT IN (" + in + "))";
+        Object[] codeIds = new Object[ids.length * 2];
+        System.arraycopy(ids, 0, codeIds, 0, ids.length);
+        System.arraycopy(ids, 0, codeIds, ids.length, ids.length);
+        String ticketFilter = "WHERE order_id IN (" + in + ")";
+        String orderFilter = "WHERE id IN (" + in + ")";
+
+        movedCodes.addAll(jdbcTemplate.queryForList(
+                "SELECT code FROM exchange_codes " + codeFilter, String.class, codeIds));
+
+        // 既に退避済みの行があれば（手動での復元後など）元のテーブルの内容で置き換える
+        copy("order_exchange_codes", linkFilter, ids);
+        copy("exchange_codes", codeFilter, codeIds);
+        copy("tickets", ticketFilter, ids);
+        copy("orders", orderFilter, ids);
+
+        // 紐付け → 引換券コード・チケット → 注文の順（外部キーの参照元から消す）
+        jdbcTemplate.update("DELETE FROM order_exchange_codes " + linkFilter, ids);
+        long codes = jdbcTemplate.update("DELETE FROM exchange_codes " + codeFilter, codeIds);
+        long tickets = jdbcTemplate.update("DELETE FROM tickets " + ticketFilter, ids);
+        long orders = jdbcTemplate.update("DELETE FROM orders " + orderFilter, ids);
+        return new long[] {orders, tickets, codes};
+    }
+
+    private void copy(String table, String filter, Object[] ids) {
+        String columns = columnLists.get(table);
+        jdbcTemplate.update("REPLACE INTO " + table + ARCHIVE_SUFFIX + " (" + columns + ") " +
+                "SELECT " + columns + " FROM " + table + " " + filter, ids);
+    }
+
+    private boolean pause() {
+        if (batchPauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(batchPauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // ============================================
+    // 退避用テーブルの作成・列の同期
+    // ============================================
+
+    /**
+     * 退避用テーブルを元のテーブルと同じ定義で作成し、後から追加された列を反映
+     */
+    private void ensureArchiveTables() {
+        for (String table : TABLES) {
+            String archive = table + ARCHIVE_SUFFIX;
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + archive + " LIKE " + table);
+
+            List<Map<String, Object>> columns = jdbcTemplate.queryForList(
+                    "SELECT COLUMN_NAME, COLUMN_TYPE FROM information_schema.COLUMNS " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? ORDER BY ORDINAL_POSITION", table);
+            Set<String> archived = new HashSet<>(jdbcTemplate.queryForList(
+                    "SELECT COLUMN_NAME FROM information_schema.COLUMNS " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?", String.class, archive));
+
+            List<String> names = new ArrayList<>(columns.size());
+            for (Map<String, Object> column : columns) {
+                String name = (String) column.get("COLUMN_NAME");
+                if (!archived.contains(name)) {
+                    // 退避済みの行には値がないためNULL許容で追加する
+                    jdbcTemplate.execute("ALTER TABLE " + archive + " ADD COLUMN `" + name + "` "
+                            + column.get("COLUMN_TYPE") + " NULL");
+                    logger.info("Added column {} to {}", name, archive);
+                }
+                names.add("`" + name + "`");
+            }
+            columnLists.put(table, String.join(", ", names));
+        }
+        archiveTablesReady = true;
+    }
+}
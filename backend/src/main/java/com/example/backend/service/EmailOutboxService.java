@@ -0,0 +1,327 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.EmailOutbox;
+import com.example.backend.entity.EmailOutbox.EmailType;
+import com.example.backend.entity.EmailOutbox.Status;
+import com.example.backend.entity.Order;
+import com.example.backend.entity.Ticket;
+import com.example.backend.repository.EmailOutboxRepository;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.TicketRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * メール送信待ち（アウトボックス）の管理サービス
+ * 
+ * 注文処理のトランザクション内で送信待ちを登録し、定期的に取り出してメール送信用の実行プールで送信します。
+ * 送信に失敗した場合は指数バックオフで再送し、上限回数に達したものは FAILED として管理画面から再送できます。
+ */
+@Service
+public class EmailOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxService.class);
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final OrderRepository orderRepository;
+    private final TicketRepository ticketRepository;
+    private final EmailService emailService;
+    private final SmtpTransportPool smtpTransportPool;
+    private final ThreadPoolTaskExecutor emailExecutor;
+    private final Counter retryCounter;
+    private final Counter failedCounter;
+
+    // シャットダウン開始後は新たに取り出さない
+    private volatile boolean shuttingDown = false;
+
+    @Value("${app.mail.outbox.batch-size:20}")
+    private int batchSize;
+
+    // 1つのSMTP接続でまとめて送信する件数
+    @Value("${app.mail.smtp.batch-size:10}")
+    private int smtpBatchSize;
+
+    @Value("${app.mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.backoff-initial-seconds:30}")
+    private long backoffInitialSeconds;
+
+    @Value("${app.mail.outbox.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds;
+
+    @Value("${app.mail.outbox.stale-after-minutes:10}")
+    private long staleAfterMinutes;
+
+    public EmailOutboxService(EmailOutboxRepository emailOutboxRepository,
+                              OrderRepository orderRepository,
+                              TicketRepository ticketRepository,
+                              EmailService emailService,
+                              SmtpTransportPool smtpTransportPool,
+                              @Qualifier("emailExecutor") ThreadPoolTaskExecutor emailExecutor,
+                              MeterRegistry meterRegistry) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.orderRepository = orderRepository;
+        this.ticketRepository = ticketRepository;
+        this.emailService = emailService;
+        this.smtpTransportPool = smtpTransportPool;
+        this.emailExecutor = emailExecutor;
+
+        this.retryCounter = Counter.builder("email.outbox.retries")
+                .description("送信に失敗して再送予定にしたメール数")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("email.outbox.failed")
+                .description("再送上限に達して送信を諦めたメール数")
+                .register(meterRegistry);
+        Gauge.builder("email.outbox.pending", emailOutboxRepository, r -> r.countByStatus(Status.PENDING))
+                .description("送信待ちのメール数（再送待ちを含む）")
+                .register(meterRegistry);
+    }
+
+    // ============================================
+    // 登録
+    // ============================================
+
+    /**
+     * 購入完了メールを送信待ちに登録
+     * 呼び出し元のトランザクションに参加するため、チケット発行がロールバックされれば登録も取り消されます
+     */
+    @Transactional
+    public EmailOutbox enqueuePurchaseConfirmation(Order order) {
+        EmailOutbox entry = new EmailOutbox(EmailType.PURCHASE_CONFIRMATION, order.getId(), order.getCustomerEmail());
+        return emailOutboxRepository.save(entry);
+    }
+
+    // ============================================
+    // 送信
+    // ============================================
+
+    /**
+     * 送信時刻を過ぎた送信待ちを取り出して送信キューに登録
+     * 取り出すのは送信キューの空き分だけで、溢れた分はテーブルに残したまま次回に回します。
+     * 取り出したものは smtpBatchSize 件ずつまとめ、1つのSMTP接続で続けて送信します。
+     */
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:5000}")
+    public void dispatch() {
+        if (shuttingDown) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int released = emailOutboxRepository.releaseStale(now.minusMinutes(staleAfterMinutes));
+        if (released > 0) {
+            logger.warn("Released {} stale email outbox entries", released);
+        }
+
+        int room = emailExecutor.getThreadPoolExecutor().getQueue().remainingCapacity();
+        if (room <= 0) {
+            return;
+        }
+
+        List<EmailOutbox> due = emailOutboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                Status.PENDING, now, Limit.of((int) Math.min((long) room * smtpBatchSize, batchSize)));
+
+        List<Long> batch = new ArrayList<>(smtpBatchSize);
+        for (EmailOutbox entry : due) {
+            // 他のインスタンスが先に取り出していればスキップ
+            if (emailOutboxRepository.claim(entry.getId(), now) == 0) {
+                continue;
+            }
+            batch.add(entry.getId());
+            if (batch.size() >= smtpBatchSize) {
+                if (!submit(batch)) {
+                    return;
+                }
+                batch = new ArrayList<>(smtpBatchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            submit(batch);
+        }
+    }
+
+    /**
+     * 送信キューに登録（満杯の場合は送信待ちに戻す）
+     * 
+     * @return 登録できた場合はtrue
+     */
+    private boolean submit(List<Long> outboxIds) {
+        try {
+            emailExecutor.execute(new OutboxTask(outboxIds));
+            return true;
+        } catch (TaskRejectedException e) {
+            emailOutboxRepository.release(outboxIds);
+            return false;
+        }
+    }
+
+    /**
+     * 送信待ちをまとめて送信し、結果を記録（メール送信用の実行プールで実行）
+     */
+    void deliver(List<Long> outboxIds) {
+        List<EmailOutbox> entries = emailOutboxRepository.findAllById(outboxIds);
+
+        List<EmailOutbox> sending = new ArrayList<>(entries.size());
+        List<MimeMessage> messages = new ArrayList<>(entries.size());
+        for (EmailOutbox entry : entries) {
+            try {
+                Order order = orderRepository.findById(entry.getOrderId())
+                        .orElseThrow(() -> new IllegalStateException("Order not found: " + entry.getOrderId()));
+                List<Ticket> tickets = ticketRepository.findByOrderId(order.getId());
+                messages.add(emailService.createPurchaseConfirmation(order, tickets));
+                sending.add(entry);
+            } catch (Exception e) {
+                recordFailure(entry, e);
+            }
+        }
+
+        if (!messages.isEmpty()) {
+            List<Exception> results = smtpTransportPool.sendAll(messages);
+            for (int i = 0; i < sending.size(); i++) {
+                EmailOutbox entry = sending.get(i);
+                if (results.get(i) == null) {
+                    entry.markAsSent();
+                    logger.info("Purchase confirmation email sent to: {} (order {})",
+                            entry.getRecipient(), entry.getOrderId());
+                } else {
+                    recordFailure(entry, results.get(i));
+                }
+            }
+        }
+
+        emailOutboxRepository.saveAll(entries);
+    }
+
+    /**
+     * 送信失敗を記録（再送上限に達していれば FAILED）
+     */
+    private void recordFailure(EmailOutbox entry, Exception e) {
+        Duration delay = backoff(entry.getAttempts() + 1);
+        entry.markAsFailed(e.getMessage(), LocalDateTime.now().plus(delay), maxAttempts);
+
+        if (entry.getStatus() == Status.FAILED) {
+            failedCounter.increment();
+            logger.error("Giving up email outbox {} (order {}) after {} attempts: {}",
+                    entry.getId(), entry.getOrderId(), entry.getAttempts(), e.getMessage());
+        } else {
+            retryCounter.increment();
+            logger.warn("Email outbox {} (order {}) failed (attempt {}), retrying in {}s: {}",
+                    entry.getId(), entry.getOrderId(), entry.getAttempts(), delay.toSeconds(), e.getMessage());
+        }
+    }
+
+    /**
+     * 再送までの待ち時間（初回から倍々で増やし、上限で頭打ち。同時再送が重ならないよう最大20%ずらす）
+     */
+    private Duration backoff(int attempt) {
+        long seconds = backoffInitialSeconds << Math.min(attempt - 1, 20);
+        seconds = Math.min(seconds, backoffMaxSeconds);
+        long jitter = (long) (seconds * 0.2 * ThreadLocalRandom.current().nextDouble());
+        return Duration.ofSeconds(seconds + jitter);
+    }
+
+    /**
+     * シャットダウン時の後始末
+     * 送信中のものは実行プールの終了待ちで送り切り、未着手のものは送信待ちに戻して次回起動時に送信します
+     */
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+
+        List<Runnable> pending = new ArrayList<>();
+        emailExecutor.getThreadPoolExecutor().getQueue().drainTo(pending);
+
+        List<Long> ids = new ArrayList<>();
+        for (Runnable task : pending) {
+            if (task instanceof OutboxTask outboxTask) {
+                ids.addAll(outboxTask.outboxIds);
+            }
+        }
+        if (!ids.isEmpty()) {
+            emailOutboxRepository.release(ids);
+            logger.info("Returned {} queued email(s) to the outbox on shutdown", ids.size());
+        }
+    }
+
+    // ============================================
+    // 管理画面
+    // ============================================
+
+    /**
+     * 送信待ち一覧を取得（新しい順）
+     * 
+     * @param status ステータス（nullの場合は全件）
+     */
+    public List<EmailOutbox> list(Status status, int limit) {
+        if (status == null) {
+            return emailOutboxRepository.findAllByOrderByIdDesc(Limit.of(limit));
+        }
+        return emailOutboxRepository.findByStatusOrderByIdDesc(status, Limit.of(limit));
+    }
+
+    /**
+     * 1件を再送
+     * 
+     * @return 再送対象（見つからない・送信中の場合は空）
+     */
+    @Transactional
+    public Optional<EmailOutbox> replay(Long id) {
+        Optional<EmailOutbox> entryOpt = emailOutboxRepository.findById(id);
+        if (entryOpt.isEmpty() || entryOpt.get().getStatus() == Status.SENDING) {
+            return Optional.empty();
+        }
+        EmailOutbox entry = entryOpt.get();
+        entry.replay();
+        return Optional.of(emailOutboxRepository.save(entry));
+    }
+
+    /**
+     * 失敗したものをすべて再送
+     * 
+     * @return 再送対象の件数
+     */
+    @Transactional
+    public int replayFailed() {
+        List<EmailOutbox> failed = emailOutboxRepository.findByStatusOrderByIdDesc(Status.FAILED, Limit.unlimited());
+        failed.forEach(EmailOutbox::replay);
+        emailOutboxRepository.saveAll(failed);
+        return failed.size();
+    }
+
+    /**
+     * まとめて送信する送信待ちのタスク
+     * シャットダウン時に未着手のものを送信待ちに戻せるよう、IDを保持しておく
+     */
+    private final class OutboxTask implements Runnable {
+        private final List<Long> outboxIds;
+
+        OutboxTask(List<Long> outboxIds) {
+            this.outboxIds = outboxIds;
+        }
+
+        @Override
+        public void run() {
+            deliver(outboxIds);
+        }
+    }
+}
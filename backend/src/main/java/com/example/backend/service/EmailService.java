@@ -2,23 +2,33 @@ package com.example.backend.service;
 
 import com.example.backend.entity.Order;
 import com.example.backend.entity.Ticket;
+import com.example.backend.security.QRCodeLinkSigner;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.activation.DataSource;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import jakarta.mail.util.ByteArrayDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriComponentsBuilder;
 
-import java.time.format.DateTimeFormatter;
+import java.io.UnsupportedEncodingException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * メール送信サービス
@@ -30,8 +40,16 @@ public class EmailService {
 
     private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
 
+    // 公演日の時間帯（公演日キーは日本時間）
+    private static final ZoneId PERFORMANCE_ZONE = ZoneId.of("Asia/Tokyo");
+
     private final JavaMailSender mailSender;
     private final QRCodeService qrCodeService;
+    private final QRCodeBlobStore qrCodeBlobStore;
+    private final ThreadPoolTaskExecutor emailExecutor;
+    private final SmtpTransportPool smtpTransportPool;
+    private final PurchaseConfirmationTemplate purchaseConfirmationTemplate;
+    private final QRCodeLinkSigner qrCodeLinkSigner;
 
     @Value("${spring.mail.username}")
     private String fromEmail;
@@ -39,12 +57,46 @@ public class EmailService {
     @Value("${app.mail.from-name:easel}")
     private String fromName;
 
-    @Value("${app.frontend.url:http://localhost:5173}")
-    private String frontendUrl;
+    @Value("${app.backend.url:http://localhost:8080}")
+    private String backendUrl;
+
+    // QRコードの埋め込み方法: inline（画像を添付） / link（署名付きURL） / auto（枚数で切り替え）
+    @Value("${app.mail.qrcode.mode:inline}")
+    private String qrCodeMode;
+
+    @Value("${app.mail.qrcode.auto-inline-max-tickets:4}")
+    private int qrCodeAutoInlineMaxTickets;
 
-    public EmailService(JavaMailSender mailSender, QRCodeService qrCodeService) {
+    // 公演日が分からない注文（テスト送信・旧形式の公演日）の有効期限（時間）
+    @Value("${app.mail.qrcode.link-ttl-hours:72}")
+    private long qrCodeLinkTtlHours;
+
+    // 公演日の翌日0時からの猶予（時間）
+    @Value("${app.mail.qrcode.link-grace-hours:24}")
+    private long qrCodeLinkGraceHours;
+
+    public EmailService(JavaMailSender mailSender,
+                        QRCodeService qrCodeService,
+                        QRCodeBlobStore qrCodeBlobStore,
+                        @Qualifier("emailExecutor") ThreadPoolTaskExecutor emailExecutor,
+                        SmtpTransportPool smtpTransportPool,
+                        PurchaseConfirmationTemplate purchaseConfirmationTemplate,
+                        QRCodeLinkSigner qrCodeLinkSigner,
+                        MeterRegistry meterRegistry) {
         this.mailSender = mailSender;
         this.qrCodeService = qrCodeService;
+        this.qrCodeBlobStore = qrCodeBlobStore;
+        this.emailExecutor = emailExecutor;
+        this.smtpTransportPool = smtpTransportPool;
+        this.purchaseConfirmationTemplate = purchaseConfirmationTemplate;
+        this.qrCodeLinkSigner = qrCodeLinkSigner;
+
+        Gauge.builder("email.queue.depth", emailExecutor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("送信待ちのメール数")
+                .register(meterRegistry);
+        Gauge.builder("email.in.flight", emailExecutor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("送信中のメール数")
+                .register(meterRegistry);
     }
 
     // ============================================
@@ -52,397 +104,173 @@ public class EmailService {
     // ============================================
 
     /**
-     * 購入完了メールを送信
+     * 購入完了メールを非同期で送信（テスト送信用）
+     * 
+     * 送信失敗時の再送は行いません。実際の注文のメールは EmailOutboxService 経由で送信してください。
      */
-    @Async
-    @SuppressWarnings("null")
     public void sendPurchaseConfirmationEmail(Order order, List<Ticket> tickets) {
+        try {
+            emailExecutor.execute(() -> {
+                try {
+                    sendPurchaseConfirmation(order, tickets);
+                } catch (Exception e) {
+                    logger.error("Failed to send purchase confirmation email: {}", e.getMessage(), e);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            logger.warn("Email queue is full, dropping test email");
+        }
+    }
+
+    /**
+     * 購入完了メールを送信（呼び出したスレッドで送信し、完了まで待つ）
+     * 
+     * @throws MessagingException SMTPへの送信に失敗した場合
+     * @throws IllegalStateException 送信先・送信元が設定されていない場合
+     */
+    public void sendPurchaseConfirmation(Order order, List<Ticket> tickets)
+            throws MessagingException, UnsupportedEncodingException {
+        smtpTransportPool.send(createPurchaseConfirmation(order, tickets));
+        logger.info("Purchase confirmation email sent to: {}", order.getCustomerEmail());
+    }
+
+    /**
+     * 購入完了メールを作成（送信はしない）
+     * まとめて送信する場合は SmtpTransportPool#sendAll に渡してください
+     * 
+     * @throws IllegalStateException 送信先・送信元が設定されていない場合
+     */
+    @SuppressWarnings("null")
+    public MimeMessage createPurchaseConfirmation(Order order, List<Ticket> tickets)
+            throws MessagingException, UnsupportedEncodingException {
         if (order == null || order.getCustomerEmail() == null) {
-            logger.warn("Cannot send email: order or customer email is null");
-            return;
+            throw new IllegalStateException("Cannot send email: order or customer email is null");
         }
         
         if (fromEmail == null || fromEmail.isEmpty()) {
-            logger.warn("Cannot send email: fromEmail is not configured");
-            return;
+            throw new IllegalStateException("Cannot send email: fromEmail is not configured");
         }
 
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
 
-            String senderName = fromName != null ? fromName : "easel";
-            helper.setFrom(fromEmail, senderName);
-            helper.setTo(order.getCustomerEmail());
-            helper.setSubject("【easel】チケット購入完了のお知らせ");
-            
-            // QRコード画像を生成してCIDマップを作成
-            Map<String, String> qrCodeCidMap = new HashMap<>();
+        String senderName = fromName != null ? fromName : "easel";
+        helper.setFrom(fromEmail, senderName);
+        helper.setTo(order.getCustomerEmail());
+        helper.setSubject("【easel】チケット購入完了のお知らせ");
+        
+        Map<String, String> qrCodeSrcMap = new HashMap<>();
+        if (useQRCodeLinks(tickets.size())) {
+            // 画像は添付せず、署名付きURLで埋め込む（画像はメールクライアントが開いたときに取得される）
+            long expires = qrCodeLinkExpires(order);
             for (Ticket ticket : tickets) {
-                try {
-                    byte[] qrCodeImage = qrCodeService.generateQRCodeImageForEmail(ticket.getTicketCode());
-                    if (qrCodeImage != null) {
-                        String cid = "qr_" + ticket.getId();
-                        qrCodeCidMap.put(ticket.getTicketCode(), cid);
-                        
-                        // インライン画像として添付
-                        DataSource dataSource = new ByteArrayDataSource(qrCodeImage, "image/png");
-                        helper.addInline(cid, dataSource);
-                    }
-                } catch (Exception e) {
-                    logger.warn("Failed to generate QR code for ticket {}: {}", 
-                            ticket.getTicketCode(), e.getMessage());
-                }
+                qrCodeSrcMap.put(ticket.getTicketCode(), qrCodeLinkUrl(ticket.getTicketCode(), expires));
             }
-            
-            helper.setText(buildPurchaseConfirmationHtml(order, tickets, qrCodeCidMap), true);
-
-            mailSender.send(message);
-            logger.info("Purchase confirmation email sent to: {}", order.getCustomerEmail());
+            helper.setText(purchaseConfirmationTemplate.render(order, tickets, qrCodeSrcMap), true);
+            return message;
+        }
 
-        } catch (MessagingException e) {
-            logger.error("Failed to send purchase confirmation email to {}: {}", 
-                    order.getCustomerEmail(), e.getMessage(), e);
-        } catch (Exception e) {
-            logger.error("Unexpected error sending email to {}: {}", 
-                    order.getCustomerEmail(), e.getMessage(), e);
+        // QRコード画像をインライン画像として添付
+        for (Ticket ticket : tickets) {
+            try {
+                // 発行済みチケットは事前生成済みの画像を使う（テスト送信など未保存のものはその場で生成）
+                byte[] qrCodeImage = ticket.getId() != null
+                        ? qrCodeBlobStore.getOrRender(ticket.getTicketCode(), QRCodeFormat.PNG, QRCodeService.EMAIL_SIZE)
+                        : qrCodeService.generateQRCodeImageForEmail(ticket.getTicketCode());
+                if (qrCodeImage != null) {
+                    String cid = "qr_" + ticket.getId();
+                    qrCodeSrcMap.put(ticket.getTicketCode(), "cid:" + cid);
+                    
+                    // インライン画像として添付
+                    DataSource dataSource = new ByteArrayDataSource(qrCodeImage, "image/png");
+                    helper.addInline(cid, dataSource);
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to generate QR code for ticket {}: {}", 
+                        ticket.getTicketCode(), e.getMessage());
+            }
         }
+        
+        helper.setText(purchaseConfirmationTemplate.render(order, tickets, qrCodeSrcMap), true);
+
+        return message;
     }
 
     /**
-     * 購入完了メールのHTML本文を生成
+     * QRコードを署名付きURLで埋め込むか判定
+     * auto の場合は、添付するとメールが大きくなる枚数の注文だけURLにする
      */
-    private String buildPurchaseConfirmationHtml(Order order, List<Ticket> tickets, Map<String, String> qrCodeCidMap) {
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy年M月d日 HH:mm");
-        
-        // チケット種別ごとに分類
-        List<Ticket> generalTickets = tickets.stream()
-                .filter(t -> t.getTicketType() == Ticket.TicketType.GENERAL)
-                .collect(Collectors.toList());
-        List<Ticket> reservedTickets = tickets.stream()
-                .filter(t -> t.getTicketType() == Ticket.TicketType.RESERVED)
-                .collect(Collectors.toList());
-
-        StringBuilder ticketHtml = new StringBuilder();
+    private boolean useQRCodeLinks(int ticketCount) {
+        return switch (qrCodeMode.trim().toLowerCase()) {
+            case "link" -> true;
+            case "auto" -> ticketCount > qrCodeAutoInlineMaxTickets;
+            default -> false;
+        };
+    }
 
-        if (!generalTickets.isEmpty()) {
-            ticketHtml.append(buildTicketSection("一般席（自由席）", generalTickets, qrCodeCidMap));
-        }
-        if (!reservedTickets.isEmpty()) {
-            ticketHtml.append(buildTicketSection("指定席", reservedTickets, qrCodeCidMap));
-        }
+    /**
+     * 署名付きURLの有効期限（エポック秒）
+     * 当日にメールを提示して入場するため、公演日の終わり＋猶予まで有効にする（送信から最低 link-ttl-hours）
+     */
+    private long qrCodeLinkExpires(Order order) {
+        Instant minimum = Instant.now().plus(Duration.ofHours(qrCodeLinkTtlHours));
+        LocalDate performanceDate = performanceDate(order.getPerformanceDate());
+        if (performanceDate == null) {
+            return minimum.getEpochSecond();
+        }
+        Instant afterPerformance = performanceDate.plusDays(1).atStartOfDay(PERFORMANCE_ZONE).toInstant()
+                .plus(Duration.ofHours(qrCodeLinkGraceHours));
+        return (afterPerformance.isAfter(minimum) ? afterPerformance : minimum).getEpochSecond();
+    }
 
-        return """
-<!DOCTYPE html>
-<html lang="ja">
-<head>
-    <meta charset="UTF-8">
-    <meta name="viewport" content="width=device-width, initial-scale=1.0">
-    <style>
-        body {
-            font-family: -apple-system, BlinkMacSystemFont, 'Segoe UI', Roboto, 'Helvetica Neue', Arial, sans-serif;
-            line-height: 1.6;
-            color: #334155;
-            background-color: #f8fafc;
-            margin: 0;
-            padding: 0;
-        }
-        .container {
-            max-width: 600px;
-            margin: 0 auto;
-            padding: 20px;
-        }
-        .card {
-            background: #ffffff;
-            border-radius: 12px;
-            box-shadow: 0 1px 3px rgba(0,0,0,0.1);
-            overflow: hidden;
-        }
-        .header {
-            background: linear-gradient(135deg, #1e293b 0%, #334155 100%);
-            color: #ffffff;
-            padding: 32px 24px;
-            text-align: center;
-        }
-        .header h1 {
-            margin: 0;
-            font-size: 24px;
-            font-weight: 600;
-        }
-        .header p {
-            margin: 8px 0 0;
-            opacity: 0.9;
-            font-size: 14px;
-        }
-        .content {
-            padding: 24px;
-        }
-        .greeting {
-            font-size: 16px;
-            margin-bottom: 24px;
-        }
-        .info-section {
-            background: #f8fafc;
-            border-radius: 8px;
-            padding: 16px;
-            margin-bottom: 20px;
-        }
-        .info-section h3 {
-            margin: 0 0 12px;
-            font-size: 14px;
-            color: #64748b;
-            font-weight: 500;
-            text-transform: uppercase;
-            letter-spacing: 0.5px;
-        }
-        .info-row {
-            display: flex;
-            justify-content: space-between;
-            padding: 8px 0;
-            border-bottom: 1px solid #e2e8f0;
-        }
-        .info-row:last-child {
-            border-bottom: none;
-        }
-        .info-label {
-            color: #64748b;
-            font-size: 14px;
-        }
-        .info-value {
-            font-weight: 500;
-            color: #1e293b;
-            font-size: 14px;
-        }
-        .ticket-section {
-            margin-bottom: 20px;
-        }
-        .ticket-section h3 {
-            margin: 0 0 12px;
-            font-size: 14px;
-            color: #64748b;
-            font-weight: 500;
-            text-transform: uppercase;
-            letter-spacing: 0.5px;
-        }
-        .ticket-card {
-            background: #f8fafc;
-            border: 1px solid #e2e8f0;
-            border-radius: 8px;
-            padding: 16px;
-            margin-bottom: 12px;
-        }
-        .qr-code-container {
-            text-align: center;
-            margin: 16px 0;
-        }
-        .qr-code-image {
-            width: 160px;
-            height: 160px;
-            border: 1px solid #e2e8f0;
-            border-radius: 8px;
-            padding: 8px;
-            background: white;
-        }
-        .ticket-code {
-            font-family: 'SF Mono', Monaco, 'Courier New', monospace;
-            font-size: 11px;
-            color: #64748b;
-            background: #ffffff;
-            padding: 8px 12px;
-            border-radius: 4px;
-            border: 1px dashed #cbd5e1;
-            word-break: break-all;
-            text-align: center;
-        }
-        .ticket-badge {
-            display: inline-block;
-            font-size: 11px;
-            padding: 2px 8px;
-            border-radius: 4px;
-            margin-bottom: 8px;
-        }
-        .badge-general {
-            background: #dbeafe;
-            color: #1d4ed8;
-        }
-        .badge-reserved {
-            background: #f3e8ff;
-            color: #7c3aed;
-        }
-        .badge-exchanged {
-            background: #fef3c7;
-            color: #b45309;
-            margin-left: 4px;
-        }
-        .total-section {
-            background: #1e293b;
-            color: #ffffff;
-            padding: 16px;
-            border-radius: 8px;
-            margin-top: 20px;
-        }
-        .total-row {
-            display: flex;
-            justify-content: space-between;
-            align-items: center;
-        }
-        .total-label {
-            font-size: 14px;
-            opacity: 0.9;
-        }
-        .total-value {
-            font-size: 24px;
-            font-weight: 600;
-        }
-        .discount {
-            color: #4ade80;
-            font-size: 13px;
-            text-align: right;
-            margin-top: 4px;
-        }
-        .notice {
-            background: #fefce8;
-            border: 1px solid #fde047;
-            border-radius: 8px;
-            padding: 16px;
-            margin-top: 20px;
-            font-size: 13px;
-            color: #854d0e;
-        }
-        .notice strong {
-            display: block;
-            margin-bottom: 8px;
-        }
-        .footer {
-            text-align: center;
-            padding: 24px;
-            color: #64748b;
-            font-size: 12px;
+    /**
+     * 公演日キー（例: 2025-01-01-14）の日付部分（読めない場合は null）
+     */
+    private static LocalDate performanceDate(String dateKey) {
+        if (dateKey == null || dateKey.length() < 10) {
+            return null;
         }
-        .footer a {
-            color: #3b82f6;
-            text-decoration: none;
+        try {
+            return LocalDate.parse(dateKey.substring(0, 10));
+        } catch (DateTimeParseException e) {
+            return null;
         }
-    </style>
-</head>
-<body>
-    <div class="container">
-        <div class="card">
-            <div class="header">
-                <h1>ご購入ありがとうございます</h1>
-                <p>チケットの購入が完了しました</p>
-            </div>
-            
-            <div class="content">
-                <p class="greeting">
-                    %s 様<br><br>
-                    この度はチケットをご購入いただき、誠にありがとうございます。<br>
-                    下記の内容をご確認ください。
-                </p>
-
-                <div class="info-section">
-                    <h3>注文情報</h3>
-                    <div class="info-row">
-                        <span class="info-label">注文番号</span>
-                        <span class="info-value">#%d</span>
-                    </div>
-                    <div class="info-row">
-                        <span class="info-label">購入日時</span>
-                        <span class="info-value">%s</span>
-                    </div>
-                    <div class="info-row">
-                        <span class="info-label">公演日</span>
-                        <span class="info-value">%s</span>
-                    </div>
-                </div>
-
-                %s
-
-                <div class="total-section">
-                    <div class="total-row">
-                        <span class="total-label">お支払い金額</span>
-                        <span class="total-value">¥%s</span>
-                    </div>
-                    %s
-                </div>
+    }
 
-                <div class="notice">
-                    <strong>⚠️ ご注意</strong>
-                    <ul style="margin: 0; padding-left: 20px;">
-                        <li>このメールに記載されたチケットコードは入場時に必要です</li>
-                        <li>チケットコードは他の方に共有しないでください</li>
-                        <li>当日は本メールをご提示ください</li>
-                    </ul>
-                </div>
-            </div>
-            
-            <div class="footer">
-                <p>
-                    ご不明点がございましたら、お問い合わせください。<br>
-                    <a href="%s">easel 公式サイト</a>
-                </p>
-                <p>© easel</p>
-            </div>
-        </div>
-    </div>
-</body>
-</html>
-""".formatted(
-                order.getCustomerName(),
-                order.getId(),
-                order.getCreatedAt().format(dateFormatter),
-                order.getPerformanceLabel() != null ? order.getPerformanceLabel() : order.getPerformanceDate(),
-                ticketHtml.toString(),
-                String.format("%,d", order.getTotalAmount()),
-                order.getDiscountAmount() > 0 
-                    ? String.format("<div class=\"discount\">（引換券適用: -¥%,d）</div>", order.getDiscountAmount())
-                    : "",
-                frontendUrl
-        );
+    /**
+     * メール用QRコード画像の署名付きURLを生成
+     */
+    private String qrCodeLinkUrl(String ticketCode, long expires) {
+        return UriComponentsBuilder.fromHttpUrl(backendUrl)
+                .path("/api/qrcode/link/{ticketCode}")
+                .queryParam("expires", expires)
+                .queryParam("signature", qrCodeLinkSigner.sign(ticketCode, expires))
+                .buildAndExpand(ticketCode)
+                .encode()
+                .toUriString();
     }
 
+    // ============================================
+    // お知らせメール
+    // ============================================
+
     /**
-     * チケットセクションのHTMLを生成
+     * お知らせメール（一斉配信用のテキストメール）を作成（送信はしない）
+     * 
+     * @throws IllegalStateException 送信元が設定されていない場合
      */
-    private String buildTicketSection(String sectionTitle, List<Ticket> tickets, Map<String, String> qrCodeCidMap) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("<div class=\"ticket-section\">");
-        sb.append("<h3>").append(sectionTitle).append(" (").append(tickets.size()).append("枚)</h3>");
-        
-        for (Ticket ticket : tickets) {
-            String badgeClass = ticket.getTicketType() == Ticket.TicketType.GENERAL 
-                    ? "badge-general" : "badge-reserved";
-            String badgeText = ticket.getTicketType() == Ticket.TicketType.GENERAL 
-                    ? "一般席" : "指定席";
-            
-            sb.append("<div class=\"ticket-card\">");
-            
-            // バッジ
-            sb.append("<div style=\"margin-bottom: 12px;\">");
-            sb.append("<span class=\"ticket-badge ").append(badgeClass).append("\">")
-              .append(badgeText).append("</span>");
-            if (ticket.isExchanged()) {
-                sb.append("<span class=\"ticket-badge badge-exchanged\">引換券使用</span>");
-            }
-            sb.append("</div>");
-            
-            // QRコード画像を表示
-            String cid = qrCodeCidMap.get(ticket.getTicketCode());
-            if (cid != null) {
-                sb.append("<div class=\"qr-code-container\">");
-                sb.append("<img src=\"cid:").append(cid).append("\" ")
-                  .append("alt=\"QRコード\" ")
-                  .append("class=\"qr-code-image\" />");
-                sb.append("</div>");
-            }
-            
-            // チケットコード（テキスト）
-            sb.append("<div class=\"ticket-code\">").append(ticket.getTicketCode()).append("</div>");
-            sb.append("</div>");
+    public MimeMessage createAnnouncement(String to, String subject, String body)
+            throws MessagingException, UnsupportedEncodingException {
+        if (fromEmail == null || fromEmail.isEmpty()) {
+            throw new IllegalStateException("Cannot send email: fromEmail is not configured");
         }
-        
-        sb.append("</div>");
-        return sb.toString();
+
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
+        helper.setFrom(fromEmail, fromName != null ? fromName : "easel");
+        helper.setTo(to);
+        helper.setSubject("【easel】" + subject);
+        helper.setText(body, false);
+        return message;
     }
 }
-
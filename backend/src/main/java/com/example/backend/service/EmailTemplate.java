@@ -0,0 +1,162 @@
+package com.example.backend.service;
+
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * 事前にコンパイルしたメールテンプレート
+ *
+ * テンプレート中の {{slot}} を起動時に解析し、固定部分の文字列と差し込み位置（enum）の並びに分解します。
+ * 描画時は固定部分をそのまま連結し、差し込み位置だけを呼び出し側が書き込みます。
+ * テンプレートにない・enumにない差し込み位置は読み込み時にエラーにします。
+ *
+ * @param <S> 差し込み位置の種類
+ */
+final class EmailTemplate<S extends Enum<S>> {
+
+    private static final String SLOT_OPEN = "{{";
+    private static final String SLOT_CLOSE = "}}";
+
+    /**
+     * 差し込み位置への書き込み
+     */
+    @FunctionalInterface
+    interface SlotWriter<S> {
+        void write(S slot, StringBuilder out);
+    }
+
+    // segments[i] の後に slots[i] を書き込む（segments は slots より1つ多い）
+    private final String[] segments;
+    private final List<S> slots;
+    private final int staticLength;
+
+    private EmailTemplate(String[] segments, List<S> slots) {
+        this.segments = segments;
+        this.slots = slots;
+        int length = 0;
+        for (String segment : segments) {
+            length += segment.length();
+        }
+        this.staticLength = length;
+    }
+
+    /**
+     * クラスパス上のテンプレートを読み込んで解析
+     *
+     * @param resource  テンプレートのパス（例: templates/mail/purchase-confirmation.html）
+     * @param slotType  差し込み位置のenum（定数名の camelCase 表記をテンプレートに書く）
+     */
+    static <S extends Enum<S>> EmailTemplate<S> load(String resource, Class<S> slotType) {
+        String text;
+        try (InputStream in = new ClassPathResource(resource).getInputStream()) {
+            text = new String(in.readAllBytes(), StandardCharsets.UTF_8).stripTrailing();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load email template: " + resource, e);
+        }
+        return parse(resource, text, slotType);
+    }
+
+    static <S extends Enum<S>> EmailTemplate<S> parse(String name, String text, Class<S> slotType) {
+        List<String> segments = new ArrayList<>();
+        List<S> slots = new ArrayList<>();
+        EnumSet<S> unused = EnumSet.allOf(slotType);
+
+        int position = 0;
+        while (true) {
+            int open = text.indexOf(SLOT_OPEN, position);
+            if (open < 0) {
+                segments.add(text.substring(position));
+                break;
+            }
+            int close = text.indexOf(SLOT_CLOSE, open + SLOT_OPEN.length());
+            if (close < 0) {
+                throw new IllegalStateException("Unclosed slot in email template " + name + " at " + open);
+            }
+            String slotName = text.substring(open + SLOT_OPEN.length(), close).trim();
+            S slot = findSlot(slotType, slotName);
+            if (slot == null) {
+                throw new IllegalStateException("Unknown slot '" + slotName + "' in email template " + name);
+            }
+            segments.add(text.substring(position, open));
+            slots.add(slot);
+            unused.remove(slot);
+            position = close + SLOT_CLOSE.length();
+        }
+
+        if (!unused.isEmpty()) {
+            throw new IllegalStateException("Email template " + name + " is missing slots: " + unused);
+        }
+        return new EmailTemplate<>(segments.toArray(new String[0]), List.copyOf(slots));
+    }
+
+    /**
+     * テンプレートを描画して追記
+     */
+    void render(StringBuilder out, SlotWriter<S> writer) {
+        out.ensureCapacity(out.length() + staticLength);
+        for (int i = 0; i < slots.size(); i++) {
+            out.append(segments[i]);
+            writer.write(slots.get(i), out);
+        }
+        out.append(segments[segments.length - 1]);
+    }
+
+    /**
+     * 固定部分の合計文字数（出力バッファの初期サイズの目安）
+     */
+    int staticLength() {
+        return staticLength;
+    }
+
+    /**
+     * HTMLとして特殊な文字をエスケープして追記
+     */
+    static void appendEscaped(StringBuilder out, String value) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private static <S extends Enum<S>> S findSlot(Class<S> slotType, String slotName) {
+        for (S slot : slotType.getEnumConstants()) {
+            if (toCamelCase(slot.name()).equals(slotName)) {
+                return slot;
+            }
+        }
+        return null;
+    }
+
+    // CUSTOMER_NAME -> customerName
+    private static String toCamelCase(String constant) {
+        StringBuilder sb = new StringBuilder(constant.length());
+        boolean upper = false;
+        for (int i = 0; i < constant.length(); i++) {
+            char c = constant.charAt(i);
+            if (c == '_') {
+                upper = true;
+            } else {
+                sb.append(upper ? c : Character.toLowerCase(c));
+                upper = false;
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,313 @@
+package com.example.backend.service;
+
+import com.example.backend.util.ExchangeCodeChecksum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 引換券コードの一括生成
+ *
+ * 出演者ごとに数千〜数万件のコードを1回の処理で生成・登録します。
+ * - 乱数は SecureRandom（コードを推測されないように）
+ * - 重複は登録済みコードを読み込んだ整列済み long 配列との照合でメモリ上で除く（1コード8バイト）
+ * - 登録はJDBCのバッチ挿入（1,000件ごと）で、全件を1トランザクションで登録する
+ *
+ * コードは紛らわしい文字（I, O, 0, 1）を除いた32文字から8文字と、末尾のチェック文字1文字（{@link ExchangeCodeChecksum}）。
+ * 1文字5ビットなので、コードは本体8文字の40ビットの整数と1対1に対応します。
+ */
+@Service
+public class ExchangeCodeGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExchangeCodeGenerator.class);
+
+    // 1回に生成できる最大件数
+    public static final int MAX_COUNT = 100_000;
+
+    private static final int BITS_PER_CHAR = 5;
+
+    private static final int PAYLOAD_LENGTH = ExchangeCodeChecksum.PAYLOAD_LENGTH;
+
+    private static final long CODE_MASK = (1L << (BITS_PER_CHAR * PAYLOAD_LENGTH)) - 1;
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private static final int FETCH_SIZE = 1000;
+
+    // 読み込み後に手動登録されたコードと重複した場合の再試行回数
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO exchange_codes (code, performer_name, is_used, created_at) VALUES (?, ?, FALSE, ?)";
+
+    /**
+     * 生成結果（コードは40ビット整数の昇順）
+     */
+    public static final class Generated {
+
+        private final String performerName;
+        private final LocalDateTime createdAt;
+        private final long[] codes;
+
+        private Generated(String performerName, LocalDateTime createdAt, long[] codes) {
+            this.performerName = performerName;
+            this.createdAt = createdAt;
+            this.codes = codes;
+        }
+
+        public String getPerformerName() {
+            return performerName;
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        public int size() {
+            return codes.length;
+        }
+
+        public String code(int index) {
+            return decode(codes[index]);
+        }
+
+        public List<String> codeList() {
+            List<String> list = new ArrayList<>(codes.length);
+            for (long code : codes) {
+                list.add(decode(code));
+            }
+            return list;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ArchiveService archiveService;
+    private final ExchangeCodeIndex exchangeCodeIndex;
+    private final SecureRandom random = new SecureRandom();
+
+    // 同時に実行すると互いの生成分を重複チェックできないため、1件ずつ処理する
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public ExchangeCodeGenerator(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 ArchiveService archiveService,
+                                 ExchangeCodeIndex exchangeCodeIndex) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archiveService = archiveService;
+        this.exchangeCodeIndex = exchangeCodeIndex;
+    }
+
+    /**
+     * コードを生成して登録
+     *
+     * @param performerName 出演者名
+     * @param count 件数（1〜{@link #MAX_COUNT}）
+     */
+    public Generated generate(String performerName, int count) {
+        if (count < 1 || count > MAX_COUNT) {
+            throw new IllegalArgumentException("count must be between 1 and " + MAX_COUNT);
+        }
+
+        lock.lock();
+        try {
+            for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+                long startedAt = System.currentTimeMillis();
+                long[] existing = loadExistingCodes();
+                long[] codes = draw(count, existing);
+                LocalDateTime createdAt = LocalDateTime.now();
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(codes, performerName, createdAt));
+                    // JDBCで登録したためエンティティリスナーは呼ばれない
+                    for (long code : codes) {
+                        exchangeCodeIndex.put(decode(code), false, performerName);
+                    }
+                    logger.info("Generated {} exchange codes for {} in {}ms",
+                            count, performerName, System.currentTimeMillis() - startedAt);
+                    return new Generated(performerName, createdAt, codes);
+                } catch (DuplicateKeyException e) {
+                    logger.warn("Exchange code collided with a concurrent insert (attempt {}/{})",
+                            attempt, MAX_ATTEMPTS);
+                }
+            }
+            throw new IllegalStateException("Failed to generate unique exchange codes");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 生成結果をCSV（code, performerName）で書き出し
+     */
+    public void writeCsv(Generated generated, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8192);
+        StringWriter performer = new StringWriter();
+        ExportService.writeCsvText(performer, generated.getPerformerName());
+        String suffix = "," + performer + "\r\n";
+
+        writer.write(ExportService.UTF8_BOM);
+        writer.write("code,performerName\r\n");
+        char[] buffer = new char[ExchangeCodeChecksum.CODE_LENGTH];
+        for (long code : generated.codes) {
+            decode(code, buffer);
+            writer.write(buffer);
+            writer.write(suffix);
+        }
+        writer.flush();
+    }
+
+    // ============================================
+    // 生成と重複除去
+    // ============================================
+
+    /**
+     * 登録済み（退避済みを含む）のコードのうち、生成するコードと同じ形式のものを昇順で読み込む
+     */
+    private long[] loadExistingCodes() {
+        LongArray codes = new LongArray();
+        RowCallbackHandler collect = rs -> {
+            long code = encode(rs.getString(1));
+            if (code >= 0) {
+                codes.add(code);
+            }
+        };
+        jdbcTemplate.query(streaming("SELECT code FROM exchange_codes"), collect);
+        if (archiveService.hasArchive()) {
+            jdbcTemplate.query(streaming("SELECT code FROM exchange_codes_archive"), collect);
+        }
+        long[] sorted = codes.toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static PreparedStatementCreator streaming(String sql) {
+        return con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        };
+    }
+
+    /**
+     * 重複のないコードを count 件（昇順）
+     */
+    private long[] draw(int count, long[] existing) {
+        long[] codes = new long[count];
+        int size = 0;
+        while (size < count) {
+            for (int i = size; i < count; i++) {
+                codes[i] = random.nextLong() & CODE_MASK;
+            }
+            Arrays.sort(codes);
+            int unique = 0;
+            for (int i = 0; i < count; i++) {
+                long code = codes[i];
+                if ((unique > 0 && codes[unique - 1] == code) || Arrays.binarySearch(existing, code) >= 0) {
+                    continue;
+                }
+                codes[unique++] = code;
+            }
+            // 除いた分は配列の末尾で引き直す（昇順は次の並べ替えで保たれる）
+            size = unique;
+        }
+        return codes;
+    }
+
+    private void insert(long[] codes, String performerName, LocalDateTime createdAt) {
+        Timestamp timestamp = Timestamp.valueOf(createdAt);
+        for (int from = 0; from < codes.length; from += INSERT_BATCH_SIZE) {
+            int offset = from;
+            int size = Math.min(INSERT_BATCH_SIZE, codes.length - from);
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setString(1, decode(codes[offset + i]));
+                    ps.setString(2, performerName);
+                    ps.setTimestamp(3, timestamp);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return size;
+                }
+            });
+        }
+    }
+
+    // ============================================
+    // コード ⇔ 40ビット整数
+    // ============================================
+
+    /**
+     * @return 本体の40ビット整数（チェック文字付きの正しいコードでない場合は -1）
+     */
+    static long encode(String code) {
+        if (!ExchangeCodeChecksum.isValid(code)) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < PAYLOAD_LENGTH; i++) {
+            value = (value << BITS_PER_CHAR) | ExchangeCodeChecksum.indexOf(code.charAt(i));
+        }
+        return value;
+    }
+
+    static String decode(long value) {
+        char[] chars = new char[ExchangeCodeChecksum.CODE_LENGTH];
+        decode(value, chars);
+        return new String(chars);
+    }
+
+    private static void decode(long value, char[] chars) {
+        for (int i = PAYLOAD_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ExchangeCodeChecksum.ALPHABET.charAt((int) (value & 0x1F));
+            value >>>= BITS_PER_CHAR;
+        }
+        chars[PAYLOAD_LENGTH] = ExchangeCodeChecksum.checkCharacter(chars, PAYLOAD_LENGTH);
+    }
+
+    /**
+     * long の可変長配列（登録済みコードの読み込み用）
+     */
+    private static final class LongArray {
+
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size + (size >> 1));
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.backend.service;
+
+import com.example.backend.util.BloomFilter;
+import com.example.backend.util.ExchangeCodeChecksum;
+import com.example.backend.util.IndexRebuilder;
+import com.example.backend.util.LongHashSet;
+import com.example.backend.util.LongIntHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 引換券コードのインメモリ索引（コードの確認用）
+ *
+ * 公開の確認API（/api/exchange-codes/validate, validate-batch）は推測したコードを
+ * 大量に送られやすいため、DBを引かずに答えられるようにします。
+ * - ブルームフィルター: 存在しないコードを即座に判定（偽陽性率 1%）
+ * - コード → (使用済みか, 出演者) の対応表: コードの64bitハッシュをキーに int 1つで保持
+ *
+ * 起動時にDBから構築し（{@link IndexRebuilder}）、以降は {@link ExchangeCodeIndexListener}（作成・使用済み）と
+ * {@link ExchangeCodeGenerator}（一括生成）、{@link ArchiveService}（退避）が反映します。
+ *
+ * フィルターが「ない」と答えたコードを NOT_FOUND と断定するのは、チェック文字付きのコードだけです。
+ * チェック文字付きのコードはこのアプリが作成・一括生成し、必ず上記の経路で索引に入る前提です
+ * （アプリは1台で動かし、DBを直接更新してチェック文字付きのコードを追加しないこと）。
+ * 旧形式のコードはSQLで直接投入されることがあるため、フィルターにない場合も UNKNOWN とし、
+ * 対応表にないのにフィルターが「あるかもしれない」と答えたコード（偽陽性）と同じく呼び出し側がDBで確認します。
+ */
+@Component
+public class ExchangeCodeIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExchangeCodeIndex.class);
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    // フィルターの最小の想定件数（コードの追加に備えて余裕を持たせる）
+    private static final int MIN_CAPACITY = 100_000;
+
+    private static final int MISSING = -1;
+
+    /**
+     * 照合結果
+     */
+    public enum State {
+        // 存在しない
+        NOT_FOUND,
+        // 未使用
+        UNUSED,
+        // 使用済み
+        USED,
+        // 索引では判定できない（DBで確認する）
+        UNKNOWN
+    }
+
+    public record Lookup(State state, String performerName) {
+
+        public static final Lookup NOT_FOUND = new Lookup(State.NOT_FOUND, null);
+        public static final Lookup UNKNOWN = new Lookup(State.UNKNOWN, null);
+    }
+
+    /**
+     * 再構築中の登録・更新・削除（removed が true の場合は削除）
+     */
+    private record Update(long hash, boolean used, String performerName, boolean removed) {
+
+        void applyTo(Table table) {
+            if (removed) {
+                table.remove(hash);
+            } else {
+                table.put(hash, used, performerName);
+            }
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final IndexRebuilder<Table, Update> rebuilder = new IndexRebuilder<>(lock);
+
+    // 再構築時に差し替えるため、読み書きはロック内で行う
+    private Table table = new Table(MIN_CAPACITY);
+
+    private volatile boolean ready = false;
+
+    // 登録・更新・削除のたびに増える（集計結果のキャッシュの無効化用）
+    private final AtomicLong version = new AtomicLong();
+
+    public ExchangeCodeIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 起動時にDBから索引を構築
+     *
+     * 構築中も照合・更新は今の表で続け、構築が終わったら差し替えます
+     * （DBから読んだ古い行で、構築中に使用済みになったコードを未使用に戻さない）。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        IndexRebuilder.Result<Table> result = rebuilder.rebuild(() -> {
+            Table built = new Table(MIN_CAPACITY);
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(
+                        "SELECT code, is_used, performer_name FROM exchange_codes");
+                ps.setFetchSize(1000);
+                return ps;
+            }, (RowCallbackHandler) rs -> built.put(LongHashSet.hash64(rs.getString(1)),
+                    rs.getBoolean(2), rs.getString(3)));
+            return built;
+        }, (built, update) -> update.applyTo(built), built -> table = built);
+
+        ready = true;
+        version.incrementAndGet();
+        Table built = result.table();
+        logger.info("Exchange code index built: {} codes, {} performers ({} updates replayed) in {}ms",
+                built.entries.size(), built.performers.size() - 1, result.replayed(),
+                System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * 索引の構築が完了しているか
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 索引の版（コードが変わるたびに増える）
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * コードを照合
+     *
+     * @param code 正規化済み（前後の空白除去・大文字）のコード
+     */
+    public Lookup lookup(String code) {
+        if (!ready) {
+            return Lookup.UNKNOWN;
+        }
+        long hash = LongHashSet.hash64(code);
+        lock.readLock().lock();
+        try {
+            if (!table.filter.mightContain(hash)) {
+                // 旧形式のコードは索引を通さずに追加されている場合があるためDBで確認する
+                return ExchangeCodeChecksum.hasChecksumFormat(code) ? Lookup.NOT_FOUND : Lookup.UNKNOWN;
+            }
+            int value = table.entries.get(hash, MISSING);
+            if (value == MISSING) {
+                return Lookup.UNKNOWN;
+            }
+            String performer = table.performers.get(value >>> 1);
+            return new Lookup((value & 1) != 0 ? State.USED : State.UNUSED,
+                    performer.isEmpty() ? null : performer);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * コードを登録・更新
+     */
+    public void put(String code, boolean used, String performerName) {
+        long hash = LongHashSet.hash64(code);
+        rebuilder.update(new Update(hash, used, performerName, false), () -> table.put(hash, used, performerName));
+        version.incrementAndGet();
+    }
+
+    /**
+     * コードを削除（フィルターからは消せないため、以降の照合は UNKNOWN としてDBで確認する）
+     */
+    public void remove(String code) {
+        long hash = LongHashSet.hash64(code);
+        rebuilder.update(new Update(hash, false, null, true), () -> table.remove(hash));
+        version.incrementAndGet();
+    }
+
+    /**
+     * フィルター・対応表・出演者名の一式（スレッドセーフではない）
+     */
+    private static final class Table {
+
+        private BloomFilter filter;
+        // コードのハッシュ → (出演者の番号 << 1 | 使用済み)
+        private final LongIntHashMap entries;
+        // 出演者名（番号 0 は出演者なし）
+        private final List<String> performers = new ArrayList<>(List.of(""));
+        private final Map<String, Integer> performerIds = new HashMap<>();
+
+        Table(int capacity) {
+            this.filter = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+            this.entries = new LongIntHashMap(capacity);
+        }
+
+        void put(long hash, boolean used, String performerName) {
+            entries.put(hash, performerId(performerName) << 1 | (used ? 1 : 0));
+            if (entries.size() > filter.expectedInsertions()) {
+                rebuildFilter();
+            }
+            filter.put(hash);
+        }
+
+        void remove(long hash) {
+            entries.remove(hash);
+        }
+
+        private int performerId(String performerName) {
+            if (performerName == null || performerName.isEmpty()) {
+                return 0;
+            }
+            Integer id = performerIds.get(performerName);
+            if (id == null) {
+                id = performers.size();
+                performers.add(performerName);
+                performerIds.put(performerName, id);
+            }
+            return id;
+        }
+
+        /**
+         * 想定件数を超えたら2倍の大きさで作り直す（偽陽性率を保つため）
+         */
+        private void rebuildFilter() {
+            BloomFilter grown = new BloomFilter(Math.max(MIN_CAPACITY, entries.size() * 2), FALSE_POSITIVE_RATE);
+            entries.forEachKey(grown::put);
+            filter = grown;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.ExchangeCode;
+import com.example.backend.util.AfterCommit;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+/**
+ * 引換券コードの作成・使用を索引に反映するエンティティリスナー
+ *
+ * ロールバックされた変更が索引に残らないよう、トランザクション内ではコミット後に反映します。
+ */
+@Component
+public class ExchangeCodeIndexListener {
+
+    private final ExchangeCodeIndex exchangeCodeIndex;
+
+    public ExchangeCodeIndexListener(ExchangeCodeIndex exchangeCodeIndex) {
+        this.exchangeCodeIndex = exchangeCodeIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(ExchangeCode exchangeCode) {
+        String code = exchangeCode.getCode();
+        boolean used = exchangeCode.isUsed();
+        String performerName = exchangeCode.getPerformerName();
+        AfterCommit.run(() -> exchangeCodeIndex.put(code, used, performerName));
+    }
+
+    @PostRemove
+    public void onRemove(ExchangeCode exchangeCode) {
+        String code = exchangeCode.getCode();
+        AfterCommit.run(() -> exchangeCodeIndex.remove(code));
+    }
+}
@@ -0,0 +1,382 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.Order.OrderStatus;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 注文・チケットのエクスポート
+ *
+ * エンティティを経由せず、前方向専用のJDBCカーソルから1行ずつ読み出して
+ * そのまま出力ストリームに書き出します。件数に関わらずメモリ使用量は一定です。
+ * MySQLでは接続URLの useCursorFetch=true とフェッチサイズの指定でサーバー側カーソルになります。
+ *
+ * includeArchived を指定した場合は、{@link ArchiveService} が退避した過去公演の分を先に書き出し、
+ * 続けて現在のテーブルの分を書き出します（ヘッダーは1回だけ）。
+ */
+@Service
+public class ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    // Excelで開いたときに文字化けしないよう、CSVの先頭にBOMを付ける
+    static final String UTF8_BOM = "\uFEFF";
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private enum Type {
+        TEXT, NUMBER, BOOLEAN, DATE_TIME
+    }
+
+    private record Column(String name, Type type) {
+    }
+
+    private static final List<Column> ORDER_COLUMNS = List.of(
+            new Column("id", Type.NUMBER),
+            new Column("status", Type.TEXT),
+            new Column("performanceId", Type.NUMBER),
+            new Column("performanceDate", Type.TEXT),
+            new Column("performanceLabel", Type.TEXT),
+            new Column("customerName", Type.TEXT),
+            new Column("customerEmail", Type.TEXT),
+            new Column("customerPhone", Type.TEXT),
+            new Column("generalQuantity", Type.NUMBER),
+            new Column("reservedQuantity", Type.NUMBER),
+            new Column("discountAmount", Type.NUMBER),
+            new Column("totalAmount", Type.NUMBER),
+            new Column("createdAt", Type.DATE_TIME),
+            new Column("paidAt", Type.DATE_TIME));
+
+    private static final String ORDER_SQL =
+            "SELECT o.id, o.status, o.performance_id, o.performance_date, o.performance_label, " +
+            "o.customer_name, o.customer_email, o.customer_phone, o.general_quantity, o.reserved_quantity, " +
+            "o.discount_amount, o.total_amount, o.created_at, o.paid_at " +
+            "FROM %s o";
+
+    private static final List<Column> TICKET_COLUMNS = List.of(
+            new Column("id", Type.NUMBER),
+            new Column("ticketCode", Type.TEXT),
+            new Column("ticketType", Type.TEXT),
+            new Column("isExchanged", Type.BOOLEAN),
+            new Column("isUsed", Type.BOOLEAN),
+            new Column("usedAt", Type.DATE_TIME),
+            new Column("orderId", Type.NUMBER),
+            new Column("orderStatus", Type.TEXT),
+            new Column("performanceId", Type.NUMBER),
+            new Column("performanceDate", Type.TEXT),
+            new Column("performanceLabel", Type.TEXT),
+            new Column("customerName", Type.TEXT),
+            new Column("customerEmail", Type.TEXT));
+
+    private static final String TICKET_SQL =
+            "SELECT t.id, t.ticket_code, t.ticket_type, t.is_exchanged, t.is_used, t.used_at, " +
+            "o.id, o.status, t.performance_id, o.performance_date, o.performance_label, " +
+            "o.customer_name, o.customer_email " +
+            "FROM %s t JOIN %s o ON o.id = t.order_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ArchiveService archiveService;
+    private final int fetchSize;
+
+    public ExportService(DataSource dataSource,
+                         ArchiveService archiveService,
+                         @Value("${app.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.archiveService = archiveService;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * 注文をエクスポート
+     *
+     * @param performanceId 公演ID（nullの場合は全公演）
+     * @param status 注文ステータス（nullの場合は全ステータス）
+     * @param includeArchived 退避済みの注文も含めるか
+     */
+    public long exportOrders(Long performanceId, OrderStatus status, boolean includeArchived,
+                             Format format, OutputStream out) throws IOException {
+        List<String> queries = new ArrayList<>(2);
+        if (includeArchived && archiveService.hasArchive()) {
+            queries.add(String.format(ORDER_SQL, "orders_archive"));
+        }
+        queries.add(String.format(ORDER_SQL, "orders"));
+        return export(queries, "o.performance_id", "o.status", "o.id",
+                ORDER_COLUMNS, performanceId, status, format, out);
+    }
+
+    /**
+     * チケットをエクスポート
+     *
+     * @param performanceId 公演ID（nullの場合は全公演）
+     * @param status 注文ステータス（nullの場合は全ステータス）
+     * @param includeArchived 退避済みの注文のチケットも含めるか
+     */
+    public long exportTickets(Long performanceId, OrderStatus status, boolean includeArchived,
+                              Format format, OutputStream out) throws IOException {
+        List<String> queries = new ArrayList<>(2);
+        if (includeArchived && archiveService.hasArchive()) {
+            queries.add(String.format(TICKET_SQL, "tickets_archive", "orders_archive"));
+        }
+        queries.add(String.format(TICKET_SQL, "tickets", "orders"));
+        return export(queries, "t.performance_id", "o.status", "t.id",
+                TICKET_COLUMNS, performanceId, status, format, out);
+    }
+
+    /**
+     * @param baseQueries 順に書き出すクエリ（WHERE句なし）。退避分は現在の分より古いためIDの昇順が保たれる
+     */
+    private long export(List<String> baseQueries, String performanceColumn, String statusColumn, String idColumn,
+                        List<Column> columns, Long performanceId, OrderStatus status,
+                        Format format, OutputStream out) throws IOException {
+        StringBuilder filter = new StringBuilder();
+        List<Object> params = new ArrayList<>(2);
+        if (performanceId != null) {
+            filter.append(params.isEmpty() ? " WHERE " : " AND ").append(performanceColumn).append(" = ?");
+            params.add(performanceId);
+        }
+        if (status != null) {
+            filter.append(params.isEmpty() ? " WHERE " : " AND ").append(statusColumn).append(" = ?");
+            params.add(status.name());
+        }
+        filter.append(" ORDER BY ").append(idColumn);
+
+        RowWriter writer = format == Format.NDJSON ? new NdjsonWriter(out, columns) : new CsvWriter(out, columns);
+        long[] count = {0};
+        try {
+            writer.begin();
+            // 1行目はすぐに送り出し、以降はバッファが埋まるごとに送る
+            writer.flush();
+            for (String baseQuery : baseQueries) {
+                jdbcTemplate.query(cursor(baseQuery + filter, params), (RowCallbackHandler) rs -> {
+                    try {
+                        writer.row(rs);
+                        if (++count[0] == 1) {
+                            writer.flush();
+                        }
+                    } catch (IOException e) {
+                        // クライアントの切断。カーソルはJdbcTemplateが閉じる
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            writer.end();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        logger.info("Exported {} rows ({})", count[0], format);
+        return count[0];
+    }
+
+    private PreparedStatementCreator cursor(String query, List<Object> params) {
+        return con -> {
+            PreparedStatement ps = con.prepareStatement(query,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return ps;
+        };
+    }
+
+    /**
+     * CSVの文字列項目を書き出し（RFC 4180の引用符付け）
+     */
+    static void writeCsvText(Writer writer, String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        // 表計算ソフトで数式として解釈されないよう、記号で始まる値の前に ' を付ける
+        char first = value.charAt(0);
+        boolean formula = first == '=' || first == '+' || first == '-' || first == '@'
+                || first == '\t' || first == '\r';
+        boolean quote = formula;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        if (formula) {
+            writer.write('\'');
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    // ============================================
+    // 出力形式
+    // ============================================
+
+    private interface RowWriter {
+
+        void begin() throws IOException;
+
+        void row(ResultSet rs) throws IOException, SQLException;
+
+        void flush() throws IOException;
+
+        void end() throws IOException;
+    }
+
+    /**
+     * CSV（RFC 4180）
+     */
+    private static final class CsvWriter implements RowWriter {
+
+        private final Writer writer;
+        private final List<Column> columns;
+
+        CsvWriter(OutputStream out, List<Column> columns) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8192);
+            this.columns = columns;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            writer.write(UTF8_BOM);
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(columns.get(i).name());
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void row(ResultSet rs) throws IOException, SQLException {
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                int index = i + 1;
+                switch (columns.get(i).type()) {
+                    case NUMBER -> {
+                        long value = rs.getLong(index);
+                        if (!rs.wasNull()) {
+                            writer.write(Long.toString(value));
+                        }
+                    }
+                    case BOOLEAN -> writer.write(rs.getBoolean(index) ? "true" : "false");
+                    case DATE_TIME -> {
+                        LocalDateTime value = rs.getObject(index, LocalDateTime.class);
+                        if (value != null) {
+                            writer.write(DATE_TIME.format(value));
+                        }
+                    }
+                    case TEXT -> writeCsvText(writer, rs.getString(index));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void end() throws IOException {
+            writer.flush();
+        }
+    }
+
+    /**
+     * NDJSON（1行1オブジェクト）
+     */
+    private static final class NdjsonWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+        private final List<Column> columns;
+
+        NdjsonWriter(OutputStream out, List<Column> columns) throws IOException {
+            this.generator = JSON_FACTORY.createGenerator(out);
+            // 呼び出し元のストリームは閉じない
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(null);
+            this.columns = columns;
+        }
+
+        @Override
+        public void begin() {
+        }
+
+        @Override
+        public void row(ResultSet rs) throws IOException, SQLException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.size(); i++) {
+                Column column = columns.get(i);
+                int index = i + 1;
+                generator.writeFieldName(column.name());
+                switch (column.type()) {
+                    case NUMBER -> {
+                        long value = rs.getLong(index);
+                        if (rs.wasNull()) {
+                            generator.writeNull();
+                        } else {
+                            generator.writeNumber(value);
+                        }
+                    }
+                    case BOOLEAN -> generator.writeBoolean(rs.getBoolean(index));
+                    case DATE_TIME -> {
+                        LocalDateTime value = rs.getObject(index, LocalDateTime.class);
+                        generator.writeString(value != null ? DATE_TIME.format(value) : null);
+                    }
+                    case TEXT -> generator.writeString(rs.getString(index));
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+
+        @Override
+        public void end() throws IOException {
+            generator.close();
+        }
+    }
+}
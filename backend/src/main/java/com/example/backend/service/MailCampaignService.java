@@ -0,0 +1,419 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.MailCampaign;
+import com.example.backend.entity.MailCampaign.Status;
+import com.example.backend.entity.News;
+import com.example.backend.entity.Order.OrderStatus;
+import com.example.backend.repository.MailCampaignRepository;
+import com.example.backend.repository.NewsRepository;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.util.LongHashSet;
+import com.example.backend.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * お知らせメールの一斉配信サービス
+ * 
+ * 支払い済み注文の宛先を注文ID順に1ページずつ読み出し（全件をメモリに載せない）、
+ * 同じメールアドレスへの重複を除いて、購入完了メールより低い送信レートで送ります。
+ * smtpBatchSize 件送るごとに送信済みの位置を記録するため、再起動後は続きから再開します。
+ */
+@Service
+public class MailCampaignService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MailCampaignService.class);
+
+    // 重複判定用セットの初期サイズ
+    private static final int EXPECTED_RECIPIENTS = 1024;
+
+    // 宛先を1回のクエリで読む件数
+    private static final int RECIPIENT_PAGE_SIZE = 500;
+
+    private final MailCampaignRepository mailCampaignRepository;
+    private final OrderRepository orderRepository;
+    private final NewsRepository newsRepository;
+    private final EmailService emailService;
+    private final SmtpTransportPool smtpTransportPool;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate checkpointTransaction;
+    private final TokenBucket rateLimiter;
+    private final MeterRegistry meterRegistry;
+
+    // 配信は1件ずつ順番に実行する
+    private final ExecutorService runner;
+
+    private volatile boolean shuttingDown = false;
+
+    @Value("${app.mail.smtp.batch-size:10}")
+    private int smtpBatchSize;
+
+    @Value("${app.frontend.url:http://localhost:5173}")
+    private String frontendUrl;
+
+    public MailCampaignService(MailCampaignRepository mailCampaignRepository,
+                               OrderRepository orderRepository,
+                               NewsRepository newsRepository,
+                               EmailService emailService,
+                               SmtpTransportPool smtpTransportPool,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.mail.campaign.rate-limit.per-second:2}") double ratePerSecond) {
+        this.mailCampaignRepository = mailCampaignRepository;
+        this.orderRepository = orderRepository;
+        this.newsRepository = newsRepository;
+        this.emailService = emailService;
+        this.smtpTransportPool = smtpTransportPool;
+        this.meterRegistry = meterRegistry;
+
+        // 宛先は1ページごとに短い読み取り専用のトランザクションで読む（送信中は接続を持たない）
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // チェックポイントは呼び出し元のトランザクションとは別にすぐに確定させる
+        this.checkpointTransaction = new TransactionTemplate(transactionManager);
+        this.checkpointTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // 購入完了メールの送信枠を残すため、SMTP全体の制限とは別に低いレートで送る
+        this.rateLimiter = new TokenBucket(1, ratePerSecond);
+
+        this.runner = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "mail-campaign");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // ============================================
+    // 作成・操作
+    // ============================================
+
+    /**
+     * 配信を作成して開始
+     * 
+     * @param performanceId 配信対象の公演（nullの場合は全公演の購入者）
+     */
+    public MailCampaign create(String subject, String body, Long newsId, Long performanceId) {
+        MailCampaign campaign = mailCampaignRepository.save(new MailCampaign(subject, body, newsId, performanceId));
+        submit(campaign.getId());
+        return campaign;
+    }
+
+    /**
+     * お知らせから配信を作成して開始
+     * 
+     * @return 作成した配信（お知らせが見つからない場合は空）
+     */
+    public Optional<MailCampaign> createFromNews(Long newsId, Long performanceId) {
+        Optional<News> newsOpt = newsRepository.findById(newsId);
+        if (newsOpt.isEmpty()) {
+            return Optional.empty();
+        }
+        News news = newsOpt.get();
+        String body = (news.getContent() != null ? news.getContent() : "")
+                + "\n\n詳しくは公式サイトをご覧ください。\n" + frontendUrl + "/news/" + news.getId();
+        return Optional.of(create(news.getTitle(), body, newsId, performanceId));
+    }
+
+    /**
+     * 配信を中止（送信中の場合は次の区切りで止まる）
+     * 
+     * @return 中止した配信（見つからない・完了済みの場合は空）
+     */
+    public Optional<MailCampaign> cancel(Long id) {
+        // 送信中のチェックポイントを上書きしないよう、状態だけを更新する
+        if (mailCampaignRepository.cancel(id, LocalDateTime.now()) == 0) {
+            return Optional.empty();
+        }
+        return mailCampaignRepository.findById(id);
+    }
+
+    /**
+     * 送信できずに停止した配信を続きから再開
+     * 
+     * @return 再開した配信（見つからない・停止中でない場合は空）
+     */
+    public Optional<MailCampaign> resume(Long id) {
+        Optional<MailCampaign> campaignOpt = mailCampaignRepository.findById(id);
+        if (campaignOpt.isEmpty() || campaignOpt.get().getStatus() != Status.FAILED) {
+            return Optional.empty();
+        }
+        MailCampaign campaign = campaignOpt.get();
+        campaign.resume();
+        campaign = mailCampaignRepository.save(campaign);
+        submit(campaign.getId());
+        return Optional.of(campaign);
+    }
+
+    /**
+     * 配信一覧を取得（新しい順）
+     */
+    public List<MailCampaign> list(int limit) {
+        return mailCampaignRepository.findAllByOrderByIdDesc(Limit.of(limit));
+    }
+
+    // ============================================
+    // 起動・停止
+    // ============================================
+
+    /**
+     * 前回の起動中に終わらなかった配信を再開
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        List<MailCampaign> campaigns = mailCampaignRepository.findByStatusInOrderByIdAsc(
+                List.of(Status.PENDING, Status.RUNNING));
+        for (MailCampaign campaign : campaigns) {
+            logger.info("Resuming mail campaign {} after order {}", campaign.getId(), campaign.getLastOrderId());
+            submit(campaign.getId());
+        }
+    }
+
+    /**
+     * シャットダウン時は送信中の区切りで止める（状態は RUNNING のまま残り、次回起動時に再開）
+     */
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        runner.shutdownNow();
+        try {
+            runner.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void submit(Long campaignId) {
+        runner.execute(() -> run(campaignId));
+    }
+
+    // ============================================
+    // 配信
+    // ============================================
+
+    /**
+     * 配信の結果
+     */
+    private enum Outcome {
+        COMPLETED, // 最後まで送信した
+        STOPPED,   // 中止・シャットダウンで止めた
+        FAILED     // SMTPに送信できずに止めた
+    }
+
+    /**
+     * 配信の進捗（チェックポイントとして記録する値）
+     */
+    private static final class Progress {
+        long lastOrderId;
+        int sent;
+        int duplicates;
+        int failed;
+        String error;
+
+        Progress(MailCampaign campaign) {
+            this.lastOrderId = campaign.getLastOrderId();
+            this.sent = campaign.getSentCount();
+            this.duplicates = campaign.getDuplicateCount();
+            this.failed = campaign.getFailedCount();
+        }
+    }
+
+    void run(Long campaignId) {
+        MailCampaign campaign = mailCampaignRepository.findById(campaignId).orElse(null);
+        if (campaign == null
+                || (campaign.getStatus() != Status.PENDING && campaign.getStatus() != Status.RUNNING)) {
+            return;
+        }
+        campaign.markAsRunning();
+        campaign = mailCampaignRepository.save(campaign);
+
+        Progress progress = new Progress(campaign);
+        Long performanceId = campaign.getPerformanceId();
+        Outcome outcome;
+        try {
+            LongHashSet seen = new LongHashSet(EXPECTED_RECIPIENTS);
+
+            // 再開時は送信済みの範囲の宛先を重複判定用に読み直す（送信はしない）
+            long afterId = 0;
+            while (afterId < progress.lastOrderId) {
+                List<Object[]> page = recipients(performanceId, afterId, progress.lastOrderId);
+                for (Object[] row : page) {
+                    seen.add(recipientKey((String) row[1]));
+                }
+                if (page.size() < RECIPIENT_PAGE_SIZE) {
+                    break;
+                }
+                afterId = (Long) page.get(page.size() - 1)[0];
+            }
+
+            outcome = send(campaign, performanceId, seen, progress);
+        } catch (Exception e) {
+            logger.error("Mail campaign {} failed: {}", campaignId, e.getMessage(), e);
+            progress.error = e.getMessage();
+            outcome = Outcome.FAILED;
+        }
+
+        // 管理画面からの中止を上書きしないよう、最新の状態を読み直してから記録する
+        MailCampaign latest = mailCampaignRepository.findById(campaignId).orElse(null);
+        if (latest == null || latest.getStatus() != Status.RUNNING) {
+            return;
+        }
+        if (outcome == Outcome.COMPLETED) {
+            latest.markAsCompleted();
+            logger.info("Mail campaign {} completed: {} sent, {} duplicates, {} failed",
+                    campaignId, progress.sent, progress.duplicates, progress.failed);
+        } else if (outcome == Outcome.FAILED) {
+            latest.markAsFailed(progress.error);
+        } else {
+            return;
+        }
+        mailCampaignRepository.save(latest);
+    }
+
+    /**
+     * 宛先の1ページ分（注文ID順）
+     */
+    private List<Object[]> recipients(Long performanceId, long afterId, long untilId) {
+        return readOnlyTransaction.execute(status -> orderRepository.findRecipients(
+                OrderStatus.PAID, performanceId, afterId, untilId, Limit.of(RECIPIENT_PAGE_SIZE)));
+    }
+
+    /**
+     * 宛先をページ単位で読み進めながら smtpBatchSize 件ずつ送信
+     */
+    private Outcome send(MailCampaign campaign, Long performanceId, LongHashSet seen, Progress progress) {
+        List<String> batch = new ArrayList<>(smtpBatchSize);
+        long batchLastOrderId = progress.lastOrderId;
+
+        List<Object[]> page;
+        do {
+            page = recipients(performanceId, batchLastOrderId, Long.MAX_VALUE);
+            for (Object[] row : page) {
+                long orderId = (Long) row[0];
+                String email = (String) row[1];
+
+                if (seen.add(recipientKey(email))) {
+                    batch.add(email);
+                } else {
+                    progress.duplicates++;
+                    counter("duplicate").increment();
+                }
+                batchLastOrderId = orderId;
+
+                if (batch.size() >= smtpBatchSize) {
+                    Outcome outcome = flush(campaign, batch, batchLastOrderId, progress);
+                    if (outcome != null) {
+                        return outcome;
+                    }
+                    batch.clear();
+                }
+            }
+        } while (page.size() == RECIPIENT_PAGE_SIZE);
+
+        Outcome outcome = flush(campaign, batch, batchLastOrderId, progress);
+        return outcome != null ? outcome : Outcome.COMPLETED;
+    }
+
+    /**
+     * 1区切り分を送信してチェックポイントを記録
+     * 
+     * @return 続行する場合はnull、止める場合はその結果
+     */
+    private Outcome flush(MailCampaign campaign, List<String> batch, long batchLastOrderId, Progress progress) {
+        if (!batch.isEmpty()) {
+            List<MimeMessage> messages = new ArrayList<>(batch.size());
+            for (String recipient : batch) {
+                try {
+                    messages.add(emailService.createAnnouncement(recipient, campaign.getSubject(), campaign.getBody()));
+                } catch (Exception e) {
+                    logger.warn("Failed to create campaign email to {}: {}", recipient, e.getMessage());
+                    progress.failed++;
+                    counter("failed").increment();
+                }
+            }
+
+            try {
+                for (int i = 0; i < messages.size(); i++) {
+                    rateLimiter.acquire();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Outcome.STOPPED;
+            }
+
+            List<Exception> results = messages.isEmpty() ? List.of() : smtpTransportPool.sendAll(messages);
+            int sent = 0;
+            Exception connectionError = null;
+            for (Exception result : results) {
+                if (result == null) {
+                    sent++;
+                } else if (!(result instanceof SendFailedException)) {
+                    connectionError = result;
+                }
+            }
+
+            // 1通も送れずSMTP自体の問題と思われる場合は、位置を進めずに止める（再開時にこの区切りから送り直す）
+            if (sent == 0 && connectionError != null) {
+                logger.error("Mail campaign {} stopped after order {}: {}",
+                        campaign.getId(), progress.lastOrderId, connectionError.getMessage());
+                progress.error = connectionError.getMessage();
+                return Thread.currentThread().isInterrupted() ? Outcome.STOPPED : Outcome.FAILED;
+            }
+
+            progress.sent += sent;
+            progress.failed += results.size() - sent;
+            counter("sent").increment(sent);
+            counter("failed").increment(results.size() - sent);
+        }
+
+        progress.lastOrderId = batchLastOrderId;
+        checkpointTransaction.executeWithoutResult(status -> mailCampaignRepository.checkpoint(
+                campaign.getId(), progress.lastOrderId, progress.sent, progress.duplicates, progress.failed,
+                LocalDateTime.now()));
+
+        if (shuttingDown || Thread.currentThread().isInterrupted()) {
+            return Outcome.STOPPED;
+        }
+        if (checkpointTransaction.execute(status -> mailCampaignRepository.findStatusById(campaign.getId()))
+                != Status.RUNNING) {
+            logger.info("Mail campaign {} cancelled after order {}", campaign.getId(), progress.lastOrderId);
+            return Outcome.STOPPED;
+        }
+        return null;
+    }
+
+    /**
+     * 重複判定用のキー（大文字小文字・前後の空白の違いは同じ宛先とみなす）
+     */
+    private static long recipientKey(String email) {
+        return LongHashSet.hash64(email.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private Counter counter(String result) {
+        return Counter.builder("email.campaign.recipients")
+                .tag("result", result)
+                .description("一斉配信の宛先の処理件数")
+                .register(meterRegistry);
+    }
+}
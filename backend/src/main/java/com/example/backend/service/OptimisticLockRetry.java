@@ -0,0 +1,125 @@
+package com.example.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * 楽観ロックの競合時の再実行
+ *
+ * Performance / Order / Ticket / ExchangeCode は @Version で更新を検知します。
+ * 同じ行を同時に更新すると後からコミットした側が競合で失敗するため、
+ * 処理全体を新しいトランザクションで読み直してやり直します。
+ * - 再実行は最大 app.optimistic-lock.max-attempts 回
+ * - 待ち時間は試行ごとに倍にし、0〜上限の間でばらつかせる（同時に失敗した処理が同時にやり直さないように）
+ * - 競合はエンティティごとに optimistic.lock.conflicts{entity, operation} で数える
+ *
+ * 呼び出し時にトランザクションが既に開始している場合は、やり直しても同じトランザクション内で
+ * 失敗するだけなので、再実行せずにそのまま1回実行します。
+ */
+@Component
+public class OptimisticLockRetry {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticLockRetry.class);
+
+    private static final String CONFLICT_METRIC = "optimistic.lock.conflicts";
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.optimistic-lock.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${app.optimistic-lock.backoff-ms:20}")
+    private long backoffMillis;
+
+    @Value("${app.optimistic-lock.max-backoff-ms:500}")
+    private long maxBackoffMillis;
+
+    public OptimisticLockRetry(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 処理をトランザクション内で実行し、楽観ロックの競合時はやり直す
+     *
+     * @param operation 処理名（ログ・メトリクス用）
+     * @param action 処理（やり直しに備えて、エンティティは毎回この中で読み込むこと）
+     * @throws OptimisticLockingFailureException 最大回数やり直しても競合した場合
+     */
+    public <T> T execute(String operation, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                recordConflict(operation, e);
+                throw e;
+            }
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                recordConflict(operation, e);
+                if (attempt >= maxAttempts) {
+                    logger.error("Optimistic lock conflict on {} not resolved after {} attempts", operation, attempt);
+                    throw e;
+                }
+                logger.info("Optimistic lock conflict on {} (attempt {}/{}), retrying", operation, attempt, maxAttempts);
+                backoff(attempt);
+            }
+        }
+    }
+
+    /**
+     * 再実行しない処理（管理画面の編集など）での競合を記録
+     */
+    public void recordConflict(String operation, OptimisticLockingFailureException e) {
+        recordConflict(entityName(e), operation);
+    }
+
+    /**
+     * 送られてきた版が古かった場合の競合を記録
+     */
+    public void recordConflict(String entity, String operation) {
+        Counter.builder(CONFLICT_METRIC)
+                .tag("entity", entity)
+                .tag("operation", operation)
+                .description("楽観ロックの競合数")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String entityName(OptimisticLockingFailureException e) {
+        if (e instanceof ObjectOptimisticLockingFailureException objectFailure
+                && objectFailure.getPersistentClassName() != null) {
+            String className = objectFailure.getPersistentClassName();
+            return className.substring(className.lastIndexOf('.') + 1);
+        }
+        return "unknown";
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+}
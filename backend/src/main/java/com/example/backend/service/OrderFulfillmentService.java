@@ -0,0 +1,193 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.ExchangeCode;
+import com.example.backend.entity.Order;
+import com.example.backend.entity.Performance;
+import com.example.backend.entity.Ticket;
+import com.example.backend.entity.Ticket.TicketType;
+import com.example.backend.repository.ExchangeCodeRepository;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.TicketRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 決済完了後の注文処理サービス
+ * 
+ * 注文の支払い済み化・引換券コードの使用済み化・公演の販売済み数の加算・チケット発行・
+ * 購入完了メールの登録を1つのトランザクションで行います。
+ * 同じ注文の処理や同じ引換券コードの使用が同時に起きた場合は、{@link OptimisticLockRetry} で
+ * 読み直してやり直します。販売済み数は公演の行ではなく {@link PerformanceInventoryService} で加算するため、
+ * 同じ公演の決済同士は競合しません。
+ */
+@Service
+public class OrderFulfillmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderFulfillmentService.class);
+
+    private final OrderRepository orderRepository;
+    private final ExchangeCodeRepository exchangeCodeRepository;
+    private final TicketRepository ticketRepository;
+    private final EmailOutboxService emailOutboxService;
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final PerformanceInventoryService performanceInventoryService;
+
+    public OrderFulfillmentService(
+            OrderRepository orderRepository,
+            ExchangeCodeRepository exchangeCodeRepository,
+            TicketRepository ticketRepository,
+            EmailOutboxService emailOutboxService,
+            OptimisticLockRetry optimisticLockRetry,
+            PerformanceInventoryService performanceInventoryService) {
+        this.orderRepository = orderRepository;
+        this.exchangeCodeRepository = exchangeCodeRepository;
+        this.ticketRepository = ticketRepository;
+        this.emailOutboxService = emailOutboxService;
+        this.optimisticLockRetry = optimisticLockRetry;
+        this.performanceInventoryService = performanceInventoryService;
+    }
+
+    /**
+     * 決済完了した注文を処理
+     * 
+     * @return 発行されたチケットのリスト（注文が見つからない・処理済みの場合は空）
+     */
+    public List<Ticket> fulfill(String sessionId, String paymentIntentId) {
+        logger.info("Processing completed session: {}", sessionId);
+        return optimisticLockRetry.execute("fulfillment", () -> fulfillOnce(sessionId, paymentIntentId));
+    }
+
+    private List<Ticket> fulfillOnce(String sessionId, String paymentIntentId) {
+
+        // 注文を検索
+        Optional<Order> orderOpt = orderRepository.findByStripeSessionId(sessionId);
+
+        if (orderOpt.isEmpty()) {
+            logger.error("Order not found for session: {}", sessionId);
+            return List.of();
+        }
+
+        Order order = orderOpt.get();
+
+        // 既に支払い済みの場合はスキップ
+        if (order.getStatus() == Order.OrderStatus.PAID) {
+            logger.info("Order already paid: {}", order.getId());
+            return List.of();
+        }
+
+        // 1. 注文ステータスを更新
+        order.markAsPaid(paymentIntentId);
+        orderRepository.save(order);
+        logger.info("Order marked as paid: {}", order.getId());
+
+        // 2. 引換券コードを使用済みにする
+        markExchangeCodesAsUsed(order);
+
+        // 3. 公演の販売済み数を加算
+        addSold(order);
+
+        // 4. チケットを発行
+        List<Ticket> tickets = issueTickets(order);
+
+        // 5. 購入完了メールを登録（送信はコミット後に EmailOutboxService が行う）
+        emailOutboxService.enqueuePurchaseConfirmation(order);
+
+        logger.info("Order processing completed: {}", order.getId());
+        return tickets;
+    }
+
+    /**
+     * 引換券コードを使用済みにする
+     */
+    private void markExchangeCodesAsUsed(Order order) {
+        if (!order.getRedeemedExchangeCodes().isEmpty()) {
+            for (ExchangeCode exchangeCode : order.getRedeemedExchangeCodes()) {
+                if (!exchangeCode.isUsed()) {
+                    exchangeCode.markAsUsed(order.getId());
+                    logger.info("Exchange code marked as used: {}", exchangeCode.getCode());
+                }
+            }
+            return;
+        }
+
+        // 中間テーブルへの移行前に作成された注文は、表示用の控えからコードを引いて紐付ける
+        List<String> codes = order.getExchangeCodeList();
+        if (codes.isEmpty()) {
+            return;
+        }
+
+        for (String code : codes) {
+            String normalizedCode = code.trim().toUpperCase();
+            if (normalizedCode.isEmpty()) {
+                continue;
+            }
+
+            Optional<ExchangeCode> exchangeCodeOpt = exchangeCodeRepository.findByCode(normalizedCode);
+            if (exchangeCodeOpt.isPresent()) {
+                ExchangeCode exchangeCode = exchangeCodeOpt.get();
+                order.getRedeemedExchangeCodes().add(exchangeCode);
+                if (!exchangeCode.isUsed()) {
+                    exchangeCode.markAsUsed(order.getId());
+                    exchangeCodeRepository.save(exchangeCode);
+                    logger.info("Exchange code marked as used: {}", normalizedCode);
+                }
+            }
+        }
+    }
+
+    /**
+     * 公演の販売済み数を加算（公演が紐付いていない旧形式の注文は対象外）
+     */
+    private void addSold(Order order) {
+        Performance performance = order.getPerformance();
+        if (performance == null) {
+            return;
+        }
+        // 販売済み数の行がない公演は支払い済み注文から数え直すため、先にこの注文の状態を反映しておく
+        orderRepository.flush();
+        performanceInventoryService.adjust(performance.getId(), order.getGeneralQuantity(), order.getReservedQuantity());
+    }
+
+    /**
+     * チケットを発行
+     * @return 発行されたチケットのリスト
+     */
+    private List<Ticket> issueTickets(Order order) {
+        List<Ticket> tickets = new ArrayList<>();
+        int discountedCount = order.getDiscountedGeneralCount();
+        int issuedDiscountedCount = 0;
+
+        // 一般席チケットを発行
+        for (int i = 0; i < order.getGeneralQuantity(); i++) {
+            boolean isExchanged = issuedDiscountedCount < discountedCount;
+            Ticket ticket = new Ticket(order, TicketType.GENERAL, isExchanged);
+            tickets.add(ticket);
+            if (isExchanged) {
+                issuedDiscountedCount++;
+            }
+        }
+
+        // 指定席チケットを発行
+        for (int i = 0; i < order.getReservedQuantity(); i++) {
+            Ticket ticket = new Ticket(order, TicketType.RESERVED, false);
+            tickets.add(ticket);
+        }
+
+        // 保存
+        ticketRepository.saveAll(tickets);
+        logger.info("Issued {} tickets for order {}", tickets.size(), order.getId());
+
+        // チケットコードをログ出力（デバッグ用）
+        for (Ticket ticket : tickets) {
+            logger.debug("Ticket issued: code={}, type={}, exchanged={}",
+                    ticket.getTicketCode(), ticket.getTicketType(), ticket.isExchanged());
+        }
+
+        return tickets;
+    }
+}
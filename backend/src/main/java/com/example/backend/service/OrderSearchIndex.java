@@ -0,0 +1,351 @@
+package com.example.backend.service;
+
+import com.example.backend.util.IndexRebuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 注文検索用のインメモリ索引（管理画面用）
+ *
+ * 購入者名・メールアドレス・電話番号の部分一致検索を、DBを走査せずに行います。
+ * 正規化した文字列の2文字組（bigram）・3文字組（trigram）ごとに注文IDの昇順リストを持ち、
+ * 検索語のn文字組のリストを突き合わせた候補を、元の文字列で部分一致確認します。
+ *
+ * 正規化:
+ * - 全角英数・半角カナはNFKCで統一し、英字は小文字に揃える
+ * - カタカナはひらがなに揃える（「ヤマダ」で「やまだ」もヒットする）
+ * - 空白とハイフンは無視する（電話番号は数字のみ）
+ *
+ * 起動時にDBから構築し（{@link IndexRebuilder}）、以降は {@link OrderSearchIndexListener} が
+ * 注文の登録・更新・削除を反映します。
+ */
+@Component
+public class OrderSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderSearchIndex.class);
+
+    // 検索語の最小文字数（正規化後）。1文字の索引は持たない
+    public static final int MIN_QUERY_LENGTH = 2;
+
+    // 項目の区切り（正規化で取り除かれる制御文字なので検索語には現れない）
+    static final char FIELD_SEPARATOR = '\u0001';
+
+    private static final long TRIGRAM_TAG = 1L << 48;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final IndexRebuilder<Table, Update> rebuilder = new IndexRebuilder<>(lock);
+
+    // 再構築時に差し替えるため、読み書きはロック内で行う
+    private Table table = new Table();
+
+    private volatile boolean ready = false;
+
+    /**
+     * 再構築中の登録・更新（document）・削除（documentがnull）
+     */
+    private record Update(int id, String document) {
+    }
+
+    /**
+     * 検索対象文字列と転置リストの一式（スレッドセーフではない）
+     *
+     * @param documents 注文ID → 正規化済みの検索対象文字列
+     * @param postings  bigram・trigram → 注文IDの昇順リスト
+     */
+    private record Table(Map<Integer, String> documents, Map<Long, IntList> postings) {
+
+        Table() {
+            this(new HashMap<>(), new HashMap<>());
+        }
+
+        void apply(Update update) {
+            if (update.document() == null) {
+                unindex(this, update.id());
+            } else {
+                index(this, update.id(), update.document());
+            }
+        }
+    }
+
+    public OrderSearchIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 起動時にDBから索引を構築
+     *
+     * 構築中も検索・更新は今の表で続け、構築が終わったら差し替えます。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        IndexRebuilder.Result<Table> result = rebuilder.rebuild(() -> {
+            Table built = new Table();
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(
+                        "SELECT id, customer_name, customer_email, customer_phone FROM orders ORDER BY id");
+                ps.setFetchSize(1000);
+                return ps;
+            }, (RowCallbackHandler) rs -> index(built, Math.toIntExact(rs.getLong(1)),
+                    document(rs.getString(2), rs.getString(3), rs.getString(4))));
+            return built;
+        }, Table::apply, built -> table = built);
+
+        ready = true;
+        logger.info("Order search index built: {} orders, {} grams ({} updates replayed) in {}ms",
+                result.table().documents().size(), result.table().postings().size(), result.replayed(),
+                System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * 索引の構築が完了しているか
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 注文を登録・更新
+     */
+    public void put(long orderId, String customerName, String customerEmail, String customerPhone) {
+        int id = Math.toIntExact(orderId);
+        String document = document(customerName, customerEmail, customerPhone);
+
+        rebuilder.update(new Update(id, document), () -> index(table, id, document));
+    }
+
+    /**
+     * 注文を削除
+     */
+    public void remove(long orderId) {
+        int id = Math.toIntExact(orderId);
+        rebuilder.update(new Update(id, null), () -> unindex(table, id));
+    }
+
+    private static void index(Table table, int id, String document) {
+        String previous = table.documents().put(id, document);
+        if (document.equals(previous)) {
+            // ステータス変更など、検索対象が変わらない更新
+            return;
+        }
+        if (previous != null) {
+            removeGrams(table.postings(), previous, id);
+        }
+        addGrams(table.postings(), document, id);
+    }
+
+    private static void unindex(Table table, int id) {
+        String previous = table.documents().remove(id);
+        if (previous != null) {
+            removeGrams(table.postings(), previous, id);
+        }
+    }
+
+    /**
+     * 部分一致で検索
+     *
+     * @param query 検索語（名前・かな・メールアドレス・電話番号の一部）
+     * @param limit 最大件数
+     * @return 一致した注文ID（新しい順）。検索語が短すぎる場合は空
+     */
+    public List<Long> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.length() < MIN_QUERY_LENGTH || limit <= 0) {
+            return Collections.emptyList();
+        }
+        // 3文字以上はtrigramで絞り込む（bigramより候補が大幅に少ない）
+        long[] queryGrams = grams(normalized, Math.min(normalized.length(), 3));
+
+        lock.readLock().lock();
+        try {
+            IntList[] lists = new IntList[queryGrams.length];
+            for (int i = 0; i < queryGrams.length; i++) {
+                lists[i] = table.postings().get(queryGrams[i]);
+                if (lists[i] == null) {
+                    return Collections.emptyList();
+                }
+            }
+            // 件数の少ないリストから候補を取り、残りのリストは二分探索で確認する
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+            List<Long> result = new ArrayList<>(Math.min(limit, lists[0].size));
+            IntList smallest = lists[0];
+            for (int i = smallest.size - 1; i >= 0 && result.size() < limit; i--) {
+                int id = smallest.values[i];
+                if (containsAll(lists, id) && table.documents().get(id).contains(normalized)) {
+                    result.add((long) id);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean containsAll(IntList[] lists, int id) {
+        for (int i = 1; i < lists.length; i++) {
+            if (!lists[i].contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ============================================
+    // 正規化とn文字組
+    // ============================================
+
+    private static String document(String customerName, String customerEmail, String customerPhone) {
+        return normalize(customerName) + FIELD_SEPARATOR
+                + normalize(customerEmail) + FIELD_SEPARATOR
+                + digits(customerPhone);
+    }
+
+    static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isWhitespace(c) || Character.isISOControl(c)
+                    || c == '-' || c == '\u2010' || c == '\u2011' || c == '\u2212') {
+                continue;
+            }
+            // カタカナ（ァ〜ヶ）→ ひらがな
+            if (c >= '\u30A1' && c <= '\u30F6') {
+                c = (char) (c - 0x60);
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static String digits(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFKC);
+        StringBuilder sb = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (c >= '0' && c <= '9') {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 文字列に含まれるn文字組（重複なし、区切りをまたぐものは除く）
+     * bigramとtrigramは同じ表に入れるため、trigramには上位ビットに目印を付ける
+     */
+    static long[] grams(String text, int n) {
+        long[] grams = new long[Math.max(0, text.length() - n + 1)];
+        int count = 0;
+        for (int i = 0; i + n <= text.length(); i++) {
+            long key = n == 3 ? TRIGRAM_TAG : 0;
+            boolean separated = false;
+            for (int k = 0; k < n; k++) {
+                char c = text.charAt(i + k);
+                separated |= c == FIELD_SEPARATOR;
+                key |= (long) c << (16 * (n - 1 - k));
+            }
+            if (!separated) {
+                grams[count++] = key;
+            }
+        }
+        Arrays.sort(grams, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || grams[unique - 1] != grams[i]) {
+                grams[unique++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, unique);
+    }
+
+    private static void addGrams(Map<Long, IntList> postings, String document, int id) {
+        for (int n = 2; n <= 3; n++) {
+            for (long gram : grams(document, n)) {
+                postings.computeIfAbsent(gram, key -> new IntList()).add(id);
+            }
+        }
+    }
+
+    private static void removeGrams(Map<Long, IntList> postings, String document, int id) {
+        for (int n = 2; n <= 3; n++) {
+            for (long gram : grams(document, n)) {
+                IntList list = postings.get(gram);
+                if (list != null && list.remove(id) && list.size == 0) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    /**
+     * 昇順に並んだint（注文ID）の可変長リスト
+     */
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            // 注文IDは通常昇順に追加されるため末尾への追加が大半
+            if (size > 0 && values[size - 1] >= value) {
+                int index = Arrays.binarySearch(values, 0, size, value);
+                if (index >= 0) {
+                    return;
+                }
+                insert(-index - 1, value);
+                return;
+            }
+            insert(size, value);
+        }
+
+        private void insert(int index, int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size + (size >> 1) + 1);
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = value;
+            size++;
+        }
+
+        boolean remove(int value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(int value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.Order;
+import com.example.backend.util.AfterCommit;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+/**
+ * 注文の変更を検索索引に反映するエンティティリスナー
+ *
+ * ロールバックされた変更が索引に残らないよう、トランザクション内ではコミット後に反映します。
+ */
+@Component
+public class OrderSearchIndexListener {
+
+    private final OrderSearchIndex orderSearchIndex;
+
+    public OrderSearchIndexListener(OrderSearchIndex orderSearchIndex) {
+        this.orderSearchIndex = orderSearchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Order order) {
+        long id = order.getId();
+        String name = order.getCustomerName();
+        String email = order.getCustomerEmail();
+        String phone = order.getCustomerPhone();
+        AfterCommit.run(() -> orderSearchIndex.put(id, name, email, phone));
+    }
+
+    @PostRemove
+    public void onRemove(Order order) {
+        long id = order.getId();
+        AfterCommit.run(() -> orderSearchIndex.remove(id));
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.Performance;
+import com.example.backend.entity.PerformanceInventory;
+import com.example.backend.repository.PerformanceInventoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 公演の販売済み数（performance_inventory）
+ *
+ * 決済完了で加算し、支払い済みの注文をキャンセル・返金したら減算します。
+ * 同じ公演の決済が同時に起きても競合しないよう、行を読まずに {@code SET general_sold = general_sold + ?} で更新します。
+ * 行がない公演（導入前の公演・新しい公演）は、支払い済み注文から数え直して作ります。
+ *
+ * 更新はJPAではなくJDBCで行います（同時に行を作ろうとして主キーが重複した場合に、
+ * 呼び出し側のトランザクションをロールバック専用にせず加算に切り替えるため）。
+ */
+@Service
+public class PerformanceInventoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceInventoryService.class);
+
+    private static final String ADD_SQL =
+            "UPDATE performance_inventory SET general_sold = general_sold + ?, reserved_sold = reserved_sold + ? " +
+            "WHERE performance_id = ?";
+
+    private static final String SEED_SQL =
+            "INSERT INTO performance_inventory (performance_id, general_sold, reserved_sold) " +
+            "SELECT ?, COALESCE(SUM(general_quantity), 0), COALESCE(SUM(reserved_quantity), 0) " +
+            "FROM orders WHERE performance_id = ? AND status = 'PAID'";
+
+    private static final String SEED_ALL_SQL =
+            "INSERT INTO performance_inventory (performance_id, general_sold, reserved_sold) " +
+            "SELECT p.id, COALESCE(SUM(o.general_quantity), 0), COALESCE(SUM(o.reserved_quantity), 0) " +
+            "FROM performances p LEFT JOIN orders o ON o.performance_id = p.id AND o.status = 'PAID' " +
+            "WHERE NOT EXISTS (SELECT 1 FROM performance_inventory i WHERE i.performance_id = p.id) " +
+            "GROUP BY p.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PerformanceInventoryRepository performanceInventoryRepository;
+
+    public PerformanceInventoryService(JdbcTemplate jdbcTemplate,
+                                       PerformanceInventoryRepository performanceInventoryRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.performanceInventoryRepository = performanceInventoryRepository;
+    }
+
+    /**
+     * 起動時に、行がない公演の販売済み数を支払い済み注文から作る
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedMissing() {
+        try {
+            int seeded = jdbcTemplate.update(SEED_ALL_SQL);
+            if (seeded > 0) {
+                logger.info("Seeded sold counts for {} performances from paid orders", seeded);
+            }
+        } catch (DuplicateKeyException e) {
+            // 起動直後の決済が先に行を作った（残りは次の決済・次回起動時に作られる）
+            logger.warn("Sold count seeding raced with a payment: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 販売済み数を増減
+     *
+     * 呼び出し側のトランザクション内で、注文の状態をDBに反映（flush）してから呼ぶこと。
+     * 行がない場合は支払い済み注文から数え直して作る（その注文の増減も含まれるため、改めて加算はしない）。
+     *
+     * @param general  一般席の増減（キャンセル・返金は負数）
+     * @param reserved 指定席の増減
+     */
+    public void adjust(Long performanceId, int general, int reserved) {
+        if (general == 0 && reserved == 0) {
+            return;
+        }
+        if (jdbcTemplate.update(ADD_SQL, general, reserved, performanceId) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(SEED_SQL, performanceId, performanceId);
+        } catch (DuplicateKeyException e) {
+            // 同時に別の決済が行を作った（その時点でコミット済みの注文だけを数えているので、この注文の分を加える）
+            jdbcTemplate.update(ADD_SQL, general, reserved, performanceId);
+        }
+    }
+
+    /**
+     * 公演に販売済み数を詰める（レスポンス用。まとめて1回のクエリで取得）
+     */
+    public <T extends Collection<Performance>> T fill(T performances) {
+        if (performances.isEmpty()) {
+            return performances;
+        }
+        List<Long> ids = performances.stream().map(Performance::getId).toList();
+        Map<Long, PerformanceInventory> inventories = new HashMap<>();
+        for (PerformanceInventory inventory : performanceInventoryRepository.findAllById(ids)) {
+            inventories.put(inventory.getPerformanceId(), inventory);
+        }
+        for (Performance performance : performances) {
+            PerformanceInventory inventory = inventories.get(performance.getId());
+            performance.setGeneralSold(inventory != null ? inventory.getGeneralSold() : 0);
+            performance.setReservedSold(inventory != null ? inventory.getReservedSold() : 0);
+        }
+        return performances;
+    }
+
+    public Performance fill(Performance performance) {
+        fill(List.of(performance));
+        return performance;
+    }
+}
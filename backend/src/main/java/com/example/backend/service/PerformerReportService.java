@@ -0,0 +1,157 @@
+package com.example.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 出演者別の引換券集計（出演者への支払い用）
+ *
+ * 出演者ごとに、発行した引換券の数（使用済み・未使用）と、支払い済み注文で使われた引換券を集計します。
+ * - 引換券の数は exchange_codes の (performer_name, is_used) 索引だけで GROUP BY する
+ * - 注文は order_exchange_codes から引く
+ * - 退避済みの注文・引換券も含める
+ *
+ * 出演者への割り当ては引換券1枚単位です。引換券1枚で一般席1枚が無料になるため、
+ * 出演者には自分のコードで無料にした一般席の枚数と、その定価（注文時の一般席の単価）の合計を割り当てます。
+ * 同じ注文の有料の一般席・指定席はどの出演者にも割り当てません
+ * （複数の出演者のコードを使った注文でも、注文全体を各出演者に重ねて数えない）。
+ * 注文の件数は、その出演者のコードを1枚以上使った注文の数です。
+ *
+ * 集計結果は保持しておき、引換券コードが変わったとき（{@link ExchangeCodeIndex#version()} が進んだとき）か
+ * 一定時間が過ぎたとき（注文のキャンセル等の反映用）に作り直します。
+ */
+@Service
+public class PerformerReportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformerReportService.class);
+
+    private static final String CODE_COUNT_SQL =
+            "SELECT performer_name, COUNT(*), SUM(CASE WHEN is_used THEN 1 ELSE 0 END) " +
+            "FROM %s GROUP BY performer_name";
+
+    // order_exchange_codes の1行 = 使われた引換券1枚 = 無料にした一般席1枚
+    private static final String ORDER_SQL =
+            "SELECT c.performer_name, COUNT(DISTINCT o.id), COUNT(*), SUM(o.general_price) " +
+            "FROM order_exchange_codes oc " +
+            "JOIN exchange_codes c ON c.id = oc.exchange_code_id " +
+            "JOIN orders o ON o.id = oc.order_id " +
+            "WHERE o.status = 'PAID' " +
+            "GROUP BY c.performer_name";
+
+    // 退避済みの注文の引換券は、他の注文とも紐付いていた場合は元のテーブルに残っている
+    private static final String ARCHIVED_ORDER_SQL =
+            "SELECT l.performer_name, COUNT(DISTINCT l.order_id), COUNT(*), SUM(l.general_price) FROM (" +
+            "SELECT COALESCE(ca.performer_name, cl.performer_name) AS performer_name, " +
+            "o.id AS order_id, o.general_price " +
+            "FROM order_exchange_codes_archive oc " +
+            "JOIN orders_archive o ON o.id = oc.order_id " +
+            "LEFT JOIN exchange_codes_archive ca ON ca.id = oc.exchange_code_id " +
+            "LEFT JOIN exchange_codes cl ON cl.id = oc.exchange_code_id " +
+            "WHERE o.status = 'PAID') l " +
+            "GROUP BY l.performer_name";
+
+    /**
+     * 出演者1人分の集計
+     *
+     * @param paidOrders     この出演者のコードを使った支払い済み注文の数
+     * @param tickets        この出演者のコードで無料にした一般席の枚数（= 使われたコードの数）
+     * @param discountAmount その一般席の定価の合計
+     */
+    public record PerformerSummary(String performerName,
+                                   long issuedCodes,
+                                   long usedCodes,
+                                   long unusedCodes,
+                                   long paidOrders,
+                                   long tickets,
+                                   long discountAmount) {
+    }
+
+    public record Report(List<PerformerSummary> performers, LocalDateTime generatedAt) {
+    }
+
+    private record Cached(long version, long computedAtMillis, Report report) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ExchangeCodeIndex exchangeCodeIndex;
+    private final ArchiveService archiveService;
+
+    @Value("${app.report.performers.max-age-seconds:300}")
+    private long maxAgeSeconds;
+
+    private volatile Cached cached;
+
+    public PerformerReportService(JdbcTemplate jdbcTemplate,
+                                  ExchangeCodeIndex exchangeCodeIndex,
+                                  ArchiveService archiveService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.exchangeCodeIndex = exchangeCodeIndex;
+        this.archiveService = archiveService;
+    }
+
+    /**
+     * 出演者別の集計（出演者名順）
+     */
+    public Report performers() {
+        // 集計中にコードが変わった場合は、次の呼び出しで作り直される
+        long version = exchangeCodeIndex.version();
+        Cached current = cached;
+        if (current != null && current.version() == version
+                && System.currentTimeMillis() - current.computedAtMillis() < maxAgeSeconds * 1000) {
+            return current.report();
+        }
+
+        long startedAt = System.currentTimeMillis();
+        Report report = compute();
+        cached = new Cached(version, startedAt, report);
+        logger.info("Performer report computed: {} performers in {}ms",
+                report.performers().size(), System.currentTimeMillis() - startedAt);
+        return report;
+    }
+
+    private Report compute() {
+        // 出演者名 → [発行, 使用済み, 注文, 無料の一般席, その定価]（出演者なしは空文字）
+        Map<String, long[]> totals = new TreeMap<>();
+        boolean archived = archiveService.hasArchive();
+
+        RowCallbackHandler codes = rs -> {
+            long[] row = totals.computeIfAbsent(key(rs.getString(1)), k -> new long[5]);
+            row[0] += rs.getLong(2);
+            row[1] += rs.getLong(3);
+        };
+        jdbcTemplate.query(String.format(CODE_COUNT_SQL, "exchange_codes"), codes);
+        if (archived) {
+            jdbcTemplate.query(String.format(CODE_COUNT_SQL, "exchange_codes_archive"), codes);
+        }
+
+        RowCallbackHandler orders = rs -> {
+            long[] row = totals.computeIfAbsent(key(rs.getString(1)), k -> new long[5]);
+            row[2] += rs.getLong(2);
+            row[3] += rs.getLong(3);
+            row[4] += rs.getLong(4);
+        };
+        jdbcTemplate.query(ORDER_SQL, orders);
+        if (archived) {
+            jdbcTemplate.query(ARCHIVED_ORDER_SQL, orders);
+        }
+
+        List<PerformerSummary> performers = new ArrayList<>(totals.size());
+        totals.forEach((name, row) -> performers.add(new PerformerSummary(
+                name.isEmpty() ? null : name, row[0], row[1], row[0] - row[1], row[2], row[3], row[4])));
+        return new Report(performers, LocalDateTime.now());
+    }
+
+    private static String key(String performerName) {
+        return performerName == null ? "" : performerName;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.Order;
+import com.example.backend.entity.Ticket;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 購入完了メールのHTMLテンプレート
+ *
+ * テンプレートは起動時に1回だけ読み込んで解析し、CSSは各要素の style 属性に展開済みです。
+ * 描画は固定部分の長さから見積もった大きさのバッファに書き込むため、途中での拡張がほとんど起きません。
+ * （メール送信は仮想スレッドで1件ごとに新しいスレッドになるため、スレッドごとのバッファは再利用されない）
+ */
+@Component
+public class PurchaseConfirmationTemplate {
+
+    private static final String TEMPLATE = "templates/mail/purchase-confirmation.html";
+    private static final String TICKET_TEMPLATE = "templates/mail/purchase-confirmation-ticket.html";
+
+    private static final DateTimeFormatter PURCHASED_AT_FORMAT = DateTimeFormatter.ofPattern("yyyy年M月d日 HH:mm");
+
+    private static final String SECTION_OPEN = "<div style=\"margin-bottom: 20px;\">"
+            + "<h3 style=\"margin: 0 0 12px; font-size: 14px; color: #64748b; font-weight: 500; "
+            + "text-transform: uppercase; letter-spacing: 0.5px;\">";
+    private static final String SECTION_CLOSE = "</div>";
+
+    private static final String BADGE_GENERAL = "background: #dbeafe; color: #1d4ed8;";
+    private static final String BADGE_RESERVED = "background: #f3e8ff; color: #7c3aed;";
+    private static final String BADGE_EXCHANGED = "<span style=\"display: inline-block; font-size: 11px; "
+            + "padding: 2px 8px; border-radius: 4px; margin-bottom: 8px; background: #fef3c7; color: #b45309; "
+            + "margin-left: 4px;\">引換券使用</span>";
+    private static final String QR_CODE_OPEN = "<div style=\"text-align: center; margin: 16px 0;\">";
+    private static final String QR_CODE_CLOSE = "</div>";
+    private static final String QR_IMAGE_OPEN = "<img src=\"";
+    private static final String QR_IMAGE_CLOSE = "\" alt=\"QRコード\" width=\"160\" height=\"160\" "
+            + "style=\"width: 160px; height: 160px; border: 1px solid #e2e8f0; border-radius: 8px; "
+            + "padding: 8px; background: white;\" />";
+    private static final String DISCOUNT_OPEN = "<div style=\"color: #4ade80; font-size: 13px; text-align: right; "
+            + "margin-top: 4px;\">（引換券適用: -¥";
+    private static final String DISCOUNT_CLOSE = "）</div>";
+
+    /**
+     * 本文の差し込み位置
+     */
+    enum Slot {
+        CUSTOMER_NAME, ORDER_ID, PURCHASED_AT, PERFORMANCE, TICKETS, TOTAL_AMOUNT, DISCOUNT, FRONTEND_URL
+    }
+
+    /**
+     * チケット1枚分の差し込み位置
+     */
+    enum TicketSlot {
+        BADGE_STYLE, BADGE_TEXT, EXCHANGED_BADGE, QR_CODE, TICKET_CODE
+    }
+
+    private final EmailTemplate<Slot> template;
+    private final EmailTemplate<TicketSlot> ticketTemplate;
+    private final String frontendUrl;
+
+    public PurchaseConfirmationTemplate(@Value("${app.frontend.url:http://localhost:5173}") String frontendUrl) {
+        this.template = EmailTemplate.load(TEMPLATE, Slot.class);
+        this.ticketTemplate = EmailTemplate.load(TICKET_TEMPLATE, TicketSlot.class);
+        this.frontendUrl = frontendUrl;
+    }
+
+    /**
+     * 購入完了メールのHTML本文を生成
+     *
+     * @param qrCodeSrcMap チケットコード → QRコード画像の src（"cid:..." または署名付きURL。画像がないチケットは含めない）
+     */
+    public String render(Order order, List<Ticket> tickets, Map<String, String> qrCodeSrcMap) {
+        // 差し込む値の分として、チケット1枚分の余裕を持たせる
+        StringBuilder out = new StringBuilder(template.staticLength()
+                + (tickets.size() + 1) * ticketTemplate.staticLength());
+        template.render(out, (slot, sb) -> {
+            switch (slot) {
+                case CUSTOMER_NAME -> EmailTemplate.appendEscaped(sb, order.getCustomerName());
+                case ORDER_ID -> sb.append(order.getId());
+                case PURCHASED_AT -> PURCHASED_AT_FORMAT.formatTo(order.getCreatedAt(), sb);
+                case PERFORMANCE -> EmailTemplate.appendEscaped(sb, order.getPerformanceLabel() != null
+                        ? order.getPerformanceLabel() : order.getPerformanceDate());
+                case TICKETS -> {
+                    appendSection(sb, "一般席（自由席）", Ticket.TicketType.GENERAL, tickets, qrCodeSrcMap);
+                    appendSection(sb, "指定席", Ticket.TicketType.RESERVED, tickets, qrCodeSrcMap);
+                }
+                case TOTAL_AMOUNT -> appendGrouped(sb, order.getTotalAmount());
+                case DISCOUNT -> {
+                    if (order.getDiscountAmount() > 0) {
+                        sb.append(DISCOUNT_OPEN);
+                        appendGrouped(sb, order.getDiscountAmount());
+                        sb.append(DISCOUNT_CLOSE);
+                    }
+                }
+                case FRONTEND_URL -> EmailTemplate.appendEscaped(sb, frontendUrl);
+            }
+        });
+        return out.toString();
+    }
+
+    /**
+     * 指定した種別のチケットのセクションを追記（該当するチケットがなければ何もしない）
+     */
+    private void appendSection(StringBuilder out, String sectionTitle, Ticket.TicketType type,
+                               List<Ticket> tickets, Map<String, String> qrCodeSrcMap) {
+        int count = 0;
+        for (Ticket ticket : tickets) {
+            if (ticket.getTicketType() == type) {
+                count++;
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+
+        out.append(SECTION_OPEN).append(sectionTitle).append(" (").append(count).append("枚)</h3>");
+        for (Ticket ticket : tickets) {
+            if (ticket.getTicketType() != type) {
+                continue;
+            }
+            ticketTemplate.render(out, (slot, sb) -> {
+                switch (slot) {
+                    case BADGE_STYLE -> sb.append(type == Ticket.TicketType.GENERAL ? BADGE_GENERAL : BADGE_RESERVED);
+                    case BADGE_TEXT -> sb.append(type == Ticket.TicketType.GENERAL ? "一般席" : "指定席");
+                    case EXCHANGED_BADGE -> {
+                        if (ticket.isExchanged()) {
+                            sb.append(BADGE_EXCHANGED);
+                        }
+                    }
+                    case QR_CODE -> {
+                        String src = qrCodeSrcMap.get(ticket.getTicketCode());
+                        if (src != null) {
+                            appendQRCode(sb, src);
+                        }
+                    }
+                    case TICKET_CODE -> EmailTemplate.appendEscaped(sb, ticket.getTicketCode());
+                }
+            });
+        }
+        out.append(SECTION_CLOSE);
+    }
+
+    /**
+     * QRコード画像を追記
+     * URLで埋め込む場合は、外部画像を表示しないメールクライアントでも開けるようリンクにする
+     */
+    private static void appendQRCode(StringBuilder out, String src) {
+        boolean linked = !src.startsWith("cid:");
+        out.append(QR_CODE_OPEN);
+        if (linked) {
+            out.append("<a href=\"");
+            EmailTemplate.appendEscaped(out, src);
+            out.append("\">");
+        }
+        out.append(QR_IMAGE_OPEN);
+        EmailTemplate.appendEscaped(out, src);
+        out.append(QR_IMAGE_CLOSE);
+        if (linked) {
+            out.append("</a>");
+        }
+        out.append(QR_CODE_CLOSE);
+    }
+
+    /**
+     * 3桁区切りで数値を追記（String.format("%,d") と同じ表記）
+     */
+    static void appendGrouped(StringBuilder out, long value) {
+        if (value < 0) {
+            out.append('-');
+            value = -value;
+        }
+        String digits = Long.toString(value);
+        int head = digits.length() % 3;
+        if (head == 0) {
+            head = 3;
+        }
+        out.append(digits, 0, head);
+        for (int i = head; i < digits.length(); i += 3) {
+            out.append(',').append(digits, i, i + 3);
+        }
+    }
+}
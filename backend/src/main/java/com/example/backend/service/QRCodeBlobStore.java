@@ -0,0 +1,490 @@
+package com.example.backend.service;
+
+import com.example.backend.util.AfterCommit;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 発行済みチケットのQRコード保存領域
+ *
+ * チケット発行時にバックグラウンドでQRコードを生成し、追記専用のファイルに保存します。
+ * メール送信・Web表示の両方がここから読み出すため、1枚のQRコードの生成は1回で済みます。
+ *
+ * ファイル形式（レコードを先頭から順に追記）:
+ * <pre>
+ *   BLOB: 'B' | SHA-256(32byte) | 長さ(int) | データ
+ *   KEY : 'K' | キー長(short) | キー(UTF-8) | SHA-256(32byte)
+ * </pre>
+ * データは内容のハッシュで管理し（同一内容は1回だけ保存）、キーはハッシュを参照します。
+ * オフセットの索引はメモリ上に持ち、起動時にファイルを走査して再構築します。
+ * 読み出しはメモリマップ経由、HTTP応答は FileChannel.transferTo で転送します
+ * （データ全体の byte[] は確保しない。転送先はレスポンスの出力ストリームをラップしたチャネルのため、
+ * カーネル内のゼロコピーにはならず、JDK内部の一時バッファを経由してコピーされる）。
+ *
+ * 追記専用のため、払い戻し・退避で不要になったチケットの分は {@link #compact(Set)} で取り除きます。
+ * 残すデータだけを別ファイルに書き出してから差し替え、差し替え前に取得した保存位置は古いファイルを読み続けます。
+ */
+@Component
+public class QRCodeBlobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(QRCodeBlobStore.class);
+
+    private static final byte RECORD_BLOB = 'B';
+    private static final byte RECORD_KEY = 'K';
+    private static final int HASH_LENGTH = 32;
+
+    /**
+     * 発行時に事前生成するバリアント（Web表示用PNG・SVG、メール用PNG）
+     */
+    private static final List<Variant> PRERENDERED = List.of(
+            new Variant(QRCodeFormat.PNG, QRCodeService.DEFAULT_SIZE),
+            new Variant(QRCodeFormat.SVG, QRCodeService.DEFAULT_SIZE),
+            new Variant(QRCodeFormat.PNG, QRCodeService.EMAIL_SIZE));
+
+    /**
+     * ファイル上のデータ位置（取得した時点のファイルを指す）
+     */
+    public static final class Location {
+
+        private final Segment segment;
+        private final long offset;
+        private final int length;
+
+        private Location(Segment segment, long offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public long offset() {
+            return offset;
+        }
+
+        public int length() {
+            return length;
+        }
+    }
+
+    private record Variant(QRCodeFormat format, int size) {
+    }
+
+    /**
+     * 保存ファイル1つ分（チャネル・メモリマップ・索引）
+     */
+    private static final class Segment {
+
+        final FileChannel channel;
+        final Map<String, Location> keyIndex = new ConcurrentHashMap<>();
+        final Map<String, Location> blobIndex = new ConcurrentHashMap<>();
+        final Object mapLock = new Object();
+        volatile MappedByteBuffer mapped;
+
+        Segment(FileChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    private final QRCodeService qrCodeService;
+    private final Path path;
+
+    private volatile Segment segment;
+    // 圧縮で差し替えた古いファイル（転送中の応答のため、次の圧縮・終了時まで閉じない）
+    private Segment retired;
+    private ExecutorService prerenderExecutor;
+
+    public QRCodeBlobStore(QRCodeService qrCodeService,
+                           @Value("${app.qrcode.store.path:./data/qrcode-blobs.dat}") String path) {
+        this.qrCodeService = qrCodeService;
+        this.path = Path.of(path);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        segment = new Segment(FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        rebuildIndex(segment);
+
+        prerenderExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "qrcode-prerender");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        logger.info("QR code store opened: {} ({} keys, {} bytes)",
+                path, segment.keyIndex.size(), segment.channel.size());
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (prerenderExecutor != null) {
+            prerenderExecutor.shutdown();
+            try {
+                prerenderExecutor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            closeRetired();
+            if (segment != null) {
+                segment.channel.close();
+            }
+        }
+    }
+
+    // ============================================
+    // 事前生成
+    // ============================================
+
+    /**
+     * チケットのQRコードをバックグラウンドで生成して保存
+     * トランザクション内で呼ばれた場合は、コミット後に開始する（ロールバックされたチケットは保存しない）
+     *
+     * @param ticketCodes 発行したチケットコード
+     */
+    public void prerenderAsync(List<String> ticketCodes) {
+        List<String> codes = List.copyOf(ticketCodes);
+        AfterCommit.run(() -> submitPrerender(codes));
+    }
+
+    private void submitPrerender(List<String> codes) {
+        prerenderExecutor.execute(() -> {
+            for (String code : codes) {
+                for (Variant variant : PRERENDERED) {
+                    try {
+                        getOrRender(code, variant.format(), variant.size());
+                    } catch (Exception e) {
+                        logger.warn("Failed to prerender QR code {} ({}): {}",
+                                code, variant.format().variant(variant.size()), e.getMessage());
+                    }
+                }
+            }
+            logger.debug("Prerendered QR codes for {} tickets", codes.size());
+        });
+    }
+
+    /**
+     * 保存済みのQRコードを取得し、なければ生成して保存
+     */
+    public byte[] getOrRender(String code, QRCodeFormat format, int size) throws Exception {
+        byte[] data = read(code, format, size);
+        if (data == null) {
+            data = qrCodeService.generate(code, format, size);
+            synchronized (this) {
+                append(segment, key(code, format, size), data);
+            }
+        }
+        return data;
+    }
+
+    // ============================================
+    // 読み出し
+    // ============================================
+
+    /**
+     * 保存位置を取得
+     *
+     * @return 保存位置（未保存の場合はnull）
+     */
+    public Location locate(String code, QRCodeFormat format, int size) {
+        return segment.keyIndex.get(key(code, format, size));
+    }
+
+    /**
+     * 保存済みのQRコードを読み出し
+     *
+     * @return データのバイト列（未保存の場合はnull）
+     */
+    public byte[] read(String code, QRCodeFormat format, int size) throws IOException {
+        Location location = locate(code, format, size);
+        return location == null ? null : read(location);
+    }
+
+    private static byte[] read(Location location) throws IOException {
+        byte[] data = new byte[location.length()];
+        ByteBuffer view = view(location);
+        if (view != null) {
+            view.get(data);
+        } else {
+            readFully(location.segment.channel, ByteBuffer.wrap(data), location.offset());
+        }
+        return data;
+    }
+
+    /**
+     * 保存済みのデータをチャネルへ転送（データ全体を byte[] に読み込まない）
+     */
+    public void transferTo(Location location, WritableByteChannel target) throws IOException {
+        FileChannel channel = location.segment.channel;
+        long position = location.offset();
+        long remaining = location.length();
+        while (remaining > 0) {
+            long transferred = channel.transferTo(position, remaining, target);
+            if (transferred <= 0) {
+                throw new IOException("Failed to transfer QR code data at offset " + position);
+            }
+            position += transferred;
+            remaining -= transferred;
+        }
+    }
+
+    /**
+     * メモリマップ上のデータ領域を取得
+     * ファイルが伸びてマップ範囲外になった場合は再マップします
+     *
+     * @return データ領域（2GBを超えてマップできない場合はnull）
+     */
+    private static ByteBuffer view(Location location) throws IOException {
+        Segment segment = location.segment;
+        long end = location.offset() + location.length();
+        MappedByteBuffer current = segment.mapped;
+        if (current == null || end > current.capacity()) {
+            synchronized (segment.mapLock) {
+                current = segment.mapped;
+                if (current == null || end > current.capacity()) {
+                    long size = segment.channel.size();
+                    if (size > Integer.MAX_VALUE) {
+                        return null;
+                    }
+                    current = segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                    segment.mapped = current;
+                }
+            }
+        }
+        return current.slice((int) location.offset(), location.length());
+    }
+
+    // ============================================
+    // 書き込み
+    // ============================================
+
+    /**
+     * キーとデータを追記（呼び出し側で this を同期すること）
+     */
+    private static Location append(Segment segment, String key, byte[] data) throws IOException {
+        Location existing = segment.keyIndex.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        byte[] hash = sha256(data);
+        String hashKey = HexFormat.of().formatHex(hash);
+        Location location = segment.blobIndex.get(hashKey);
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+
+        FileChannel channel = segment.channel;
+        long position = channel.size();
+        int blobLength = location == null ? 1 + HASH_LENGTH + 4 + data.length : 0;
+        ByteBuffer buffer = ByteBuffer.allocate(blobLength + 1 + 2 + keyBytes.length + HASH_LENGTH);
+
+        if (location == null) {
+            buffer.put(RECORD_BLOB).put(hash).putInt(data.length).put(data);
+            location = new Location(segment, position + 1 + HASH_LENGTH + 4, data.length);
+        }
+        buffer.put(RECORD_KEY).putShort((short) keyBytes.length).put(keyBytes).put(hash);
+        buffer.flip();
+
+        long writePosition = position;
+        while (buffer.hasRemaining()) {
+            writePosition += channel.write(buffer, writePosition);
+        }
+
+        segment.blobIndex.put(hashKey, location);
+        segment.keyIndex.put(key, location);
+        return location;
+    }
+
+    // ============================================
+    // 圧縮
+    // ============================================
+
+    /**
+     * 指定したチケット以外のQRコードを取り除いてファイルを作り直す
+     *
+     * 残すデータを隣の一時ファイルに書き出してから差し替える（書き出し中の追記は待たせる）。
+     * 取り除いたチケットのQRコードが後で要求された場合は、生成し直して追記される。
+     *
+     * @param liveTicketCodes 残すチケットコード
+     * @return 取り除いたキーの数
+     */
+    public synchronized int compact(Set<String> liveTicketCodes) throws IOException {
+        closeRetired();
+        Segment current = segment;
+
+        List<Map.Entry<String, Location>> live = new ArrayList<>();
+        int dropped = 0;
+        for (Map.Entry<String, Location> entry : current.keyIndex.entrySet()) {
+            if (liveTicketCodes.contains(codeOf(entry.getKey()))) {
+                live.add(entry);
+            } else {
+                dropped++;
+            }
+        }
+        if (dropped == 0) {
+            return 0;
+        }
+
+        // 元のファイルと同じ順に書き出す
+        live.sort(Comparator.comparingLong(entry -> entry.getValue().offset()));
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        Segment next = new Segment(FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        try {
+            for (Map.Entry<String, Location> entry : live) {
+                append(next, entry.getKey(), read(entry.getValue()));
+            }
+            next.channel.force(true);
+            // 開いているチャネルは移動後も同じファイルを指す
+            Files.move(compacted, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            next.channel.close();
+            Files.deleteIfExists(compacted);
+            throw e;
+        }
+
+        long before = current.channel.size();
+        segment = next;
+        retired = current;
+        logger.info("Compacted QR code store: removed {} keys, {} -> {} bytes",
+                dropped, before, next.channel.size());
+        return dropped;
+    }
+
+    private void closeRetired() throws IOException {
+        if (retired != null) {
+            retired.channel.close();
+            retired = null;
+        }
+    }
+
+    // ============================================
+    // 索引の再構築
+    // ============================================
+
+    /**
+     * ファイルを先頭から走査して索引を再構築
+     * 書き込み途中で終わった末尾のレコードは切り詰めます
+     */
+    private static void rebuildIndex(Segment segment) throws IOException {
+        FileChannel channel = segment.channel;
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(1 + HASH_LENGTH + 4);
+
+        while (position < size) {
+            header.clear().limit(1);
+            if (!readFully(channel, header, position)) {
+                break;
+            }
+            byte type = header.get(0);
+
+            if (type == RECORD_BLOB) {
+                header.clear().limit(1 + HASH_LENGTH + 4);
+                if (!readFully(channel, header, position)) {
+                    break;
+                }
+                byte[] hash = new byte[HASH_LENGTH];
+                header.position(1);
+                header.get(hash);
+                int length = header.getInt();
+                long dataOffset = position + 1 + HASH_LENGTH + 4;
+                if (length < 0 || dataOffset + length > size) {
+                    break;
+                }
+                segment.blobIndex.put(HexFormat.of().formatHex(hash), new Location(segment, dataOffset, length));
+                position = dataOffset + length;
+
+            } else if (type == RECORD_KEY) {
+                ByteBuffer keyLength = ByteBuffer.allocate(2);
+                if (!readFully(channel, keyLength, position + 1)) {
+                    break;
+                }
+                int length = Short.toUnsignedInt(keyLength.getShort(0));
+                ByteBuffer record = ByteBuffer.allocate(length + HASH_LENGTH);
+                if (!readFully(channel, record, position + 3)) {
+                    break;
+                }
+                String key = new String(record.array(), 0, length, StandardCharsets.UTF_8);
+                String hashKey = HexFormat.of().formatHex(record.array(), length, length + HASH_LENGTH);
+                Location location = segment.blobIndex.get(hashKey);
+                if (location != null) {
+                    segment.keyIndex.put(key, location);
+                }
+                position += 3 + length + HASH_LENGTH;
+
+            } else {
+                break;
+            }
+        }
+
+        if (position < size) {
+            logger.warn("Truncating incomplete QR code store records: {} -> {} bytes", size, position);
+            channel.truncate(position);
+        }
+    }
+
+    /**
+     * 指定位置からバッファが埋まるまで読み込み
+     *
+     * @return ファイル末尾に達して埋まらなかった場合はfalse
+     */
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long current = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, current);
+            if (read < 0) {
+                return false;
+            }
+            current += read;
+        }
+        buffer.flip();
+        return true;
+    }
+
+    private static String key(String code, QRCodeFormat format, int size) {
+        return code + ":" + format.variant(size);
+    }
+
+    private static String codeOf(String key) {
+        return key.substring(0, key.lastIndexOf(':'));
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.backend.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 生成済みQRコード画像のキャッシュ
+ *
+ * チケットコード・フォーマット・サイズをキーに、生成済みのバイト列を保持します。
+ * 上限はエントリ数ではなく合計バイト数で管理し、超過時は最も古く参照されたものから破棄します（LRU）。
+ */
+@Component
+public class QRCodeCache {
+
+    /**
+     * 画像フォーマットのバージョン
+     * 描画結果が変わる変更を入れた場合は上げること（ETagが変わり、クライアントのキャッシュが更新される）
+     */
+    private static final String RENDER_VERSION = "v2";
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long currentBytes = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public QRCodeCache(@Value("${app.qrcode.cache.max-bytes:16777216}") long maxBytes,
+                       MeterRegistry meterRegistry) {
+        this.maxBytes = maxBytes;
+
+        FunctionCounter.builder("qrcode.cache.requests", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .description("QRコード画像キャッシュのヒット数")
+                .register(meterRegistry);
+        FunctionCounter.builder("qrcode.cache.requests", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .description("QRコード画像キャッシュのミス数")
+                .register(meterRegistry);
+        Gauge.builder("qrcode.cache.hit.ratio", this, QRCodeCache::hitRatio)
+                .description("QRコード画像キャッシュのヒット率")
+                .register(meterRegistry);
+        Gauge.builder("qrcode.cache.size", this, QRCodeCache::currentBytes)
+                .baseUnit("bytes")
+                .description("QRコード画像キャッシュの使用メモリ")
+                .register(meterRegistry);
+        Gauge.builder("qrcode.cache.entries", this, QRCodeCache::entryCount)
+                .description("QRコード画像キャッシュのエントリ数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * キャッシュから画像を取得
+     *
+     * @return 生成済みのバイト列（キャッシュにない場合はnull）
+     */
+    public byte[] get(String code, QRCodeFormat format, int size) {
+        byte[] image;
+        synchronized (entries) {
+            image = entries.get(key(code, format, size));
+        }
+        if (image != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return image;
+    }
+
+    /**
+     * 画像をキャッシュに登録
+     * 上限を超える場合は古いものから破棄します
+     */
+    public void put(String code, QRCodeFormat format, int size, byte[] image) {
+        if (image == null || image.length > maxBytes) {
+            return;
+        }
+        synchronized (entries) {
+            byte[] previous = entries.put(key(code, format, size), image);
+            if (previous != null) {
+                currentBytes -= previous.length;
+            }
+            currentBytes += image.length;
+
+            var iterator = entries.entrySet().iterator();
+            while (currentBytes > maxBytes && iterator.hasNext()) {
+                Map.Entry<String, byte[]> eldest = iterator.next();
+                currentBytes -= eldest.getValue().length;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 強いETagを生成
+     * QRコードはコード・フォーマット・サイズから一意に決まるため、画像を生成せずに算出できます
+     *
+     * @return 引用符付きのETag（例: "v2-png300-3f2a..."）
+     */
+    public String etag(String code, QRCodeFormat format, int size) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(code.getBytes(StandardCharsets.UTF_8));
+            return "\"" + RENDER_VERSION + "-" + format.variant(size) + "-" + HexFormat.of().formatHex(hash, 0, 12) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public double hitRatio() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    public long currentBytes() {
+        synchronized (entries) {
+            return currentBytes;
+        }
+    }
+
+    public int entryCount() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static String key(String code, QRCodeFormat format, int size) {
+        return code + ":" + format.variant(size);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.backend.service;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * QRコードの出力フォーマット
+ */
+public enum QRCodeFormat {
+
+    /** PNG画像（デフォルト・メール埋め込み用） */
+    PNG("png", MediaType.IMAGE_PNG),
+
+    /** SVG（ブラウザ表示用。解像度に依存せず軽量） */
+    SVG("svg", MediaType.valueOf("image/svg+xml")),
+
+    /**
+     * モジュールビットマップ（独自バイナリ形式）
+     * ヘッダー: 'Q' 'R' バージョン(1byte) モジュール数(2byte, BE) クワイエットゾーン(1byte)
+     * 本体: 行ごとに MSB ファーストで詰めたビット列（1 = 暗、行末はバイト境界までパディング）
+     */
+    MODULES("modules", MediaType.valueOf("application/x-qr-modules"));
+
+    private final String parameterValue;
+    private final MediaType mediaType;
+
+    QRCodeFormat(String parameterValue, MediaType mediaType) {
+        this.parameterValue = parameterValue;
+        this.mediaType = mediaType;
+    }
+
+    public String getParameterValue() {
+        return parameterValue;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * キャッシュ・保存用のバリアント名
+     * PNG以外はサイズに依存しないため、サイズを含めない
+     *
+     * @param size PNGの幅・高さ（ピクセル）
+     * @return バリアント名（例: png300, svg）
+     */
+    public String variant(int size) {
+        return this == PNG ? parameterValue + size : parameterValue;
+    }
+
+    /**
+     * クエリパラメータの値からフォーマットを取得
+     *
+     * @return 該当するフォーマット（不明な値の場合はnull）
+     */
+    public static QRCodeFormat fromParameter(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (QRCodeFormat format : values()) {
+            if (format.parameterValue.equalsIgnoreCase(value.trim())) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Acceptヘッダーからフォーマットを選択
+     *
+     * image/* などのワイルドカード指定では PNG を返します。
+     * SVG / モジュール形式は明示的に要求され、かつ PNG より低い品質値でない場合のみ選択します。
+     */
+    public static QRCodeFormat fromAcceptHeader(String accept) {
+        if (accept == null || accept.isEmpty()) {
+            return PNG;
+        }
+
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return PNG;
+        }
+
+        double pngQuality = 0.0;
+        double svgQuality = 0.0;
+        double modulesQuality = 0.0;
+        for (MediaType mediaType : mediaTypes) {
+            double quality = mediaType.getQualityValue();
+            if (mediaType.equalsTypeAndSubtype(MODULES.mediaType)) {
+                modulesQuality = Math.max(modulesQuality, quality);
+            } else if (mediaType.equalsTypeAndSubtype(SVG.mediaType)) {
+                svgQuality = Math.max(svgQuality, quality);
+            } else if (mediaType.equalsTypeAndSubtype(PNG.mediaType)) {
+                pngQuality = Math.max(pngQuality, quality);
+            }
+        }
+
+        if (modulesQuality > 0 && modulesQuality >= Math.max(pngQuality, svgQuality)) {
+            return MODULES;
+        }
+        if (svgQuality > 0 && svgQuality >= pngQuality) {
+            return SVG;
+        }
+        return PNG;
+    }
+}
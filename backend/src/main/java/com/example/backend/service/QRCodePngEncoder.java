@@ -0,0 +1,212 @@
+package com.example.backend.service;
+
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * QRコード専用のPNGエンコーダー
+ *
+ * モジュール行列から 1bit グレースケールのPNGを直接書き出します。
+ * BufferedImage（32bit ARGB）や ImageIO を経由しないため、画像1枚あたりの割り当てが
+ * 出力PNGと、プールから借りて再利用する作業領域だけで済みます。
+ *
+ * 作業領域はスレッドごとではなく上限付きのプールで共有します（メール送信は仮想スレッドで
+ * 1件ごとに新しいスレッドになるため）。プールに戻せなかった作業領域は Deflater をすぐに解放します。
+ *
+ * レイアウト（クワイエットゾーン、拡大倍率、余白の配置）は ZXing の QRCodeWriter と同じです。
+ */
+final class QRCodePngEncoder {
+
+    // クワイエットゾーン（モジュール数）: QRCodeWriter のデフォルトと同じ
+    static final int QUIET_ZONE = 4;
+
+    private static final byte[] SIGNATURE = {
+            (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'
+    };
+    private static final byte[] IHDR = "IHDR".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] IDAT = "IDAT".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] IEND = "IEND".getBytes(StandardCharsets.US_ASCII);
+
+    // プールに保持する作業領域の数（同時にエンコードする数がこれを超えた分は使い捨て）
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+    private static final BlockingQueue<Workspace> POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private QRCodePngEncoder() {
+    }
+
+    /**
+     * モジュール行列をPNGにエンコード
+     *
+     * @param modules QRコードのモジュール行列（1 = 暗）
+     * @param width   出力幅（ピクセル）
+     * @param height  出力高さ（ピクセル）
+     * @return PNG画像のバイト列
+     */
+    static byte[] encode(ByteMatrix modules, int width, int height) {
+        int inputWidth = modules.getWidth();
+        int inputHeight = modules.getHeight();
+        int qrWidth = inputWidth + QUIET_ZONE * 2;
+        int qrHeight = inputHeight + QUIET_ZONE * 2;
+        int outputWidth = Math.max(width, qrWidth);
+        int outputHeight = Math.max(height, qrHeight);
+
+        int multiple = Math.min(outputWidth / qrWidth, outputHeight / qrHeight);
+        int leftPadding = (outputWidth - inputWidth * multiple) / 2;
+        int topPadding = (outputHeight - inputHeight * multiple) / 2;
+
+        // 1行 = フィルタ種別(1byte) + 8ピクセル/byte
+        int rowLength = 1 + (outputWidth + 7) / 8;
+
+        Workspace ws = acquire();
+        try {
+            byte[] whiteRow = ws.whiteRow(rowLength);
+            byte[] row = ws.row(rowLength);
+            Deflater deflater = ws.deflater;
+            ByteArrayOutputStream idat = ws.idat;
+            deflater.reset();
+            idat.reset();
+
+            for (int y = 0; y < topPadding; y++) {
+                deflate(deflater, whiteRow, rowLength, ws.buffer, idat);
+            }
+
+            for (int inputY = 0; inputY < inputHeight; inputY++) {
+                System.arraycopy(whiteRow, 0, row, 0, rowLength);
+                for (int inputX = 0, outputX = leftPadding; inputX < inputWidth; inputX++, outputX += multiple) {
+                    if (modules.get(inputX, inputY) == 1) {
+                        for (int x = outputX; x < outputX + multiple; x++) {
+                            row[1 + (x >> 3)] &= (byte) ~(0x80 >>> (x & 7));
+                        }
+                    }
+                }
+                // 縦方向の拡大は同じ行を繰り返し書き込む
+                for (int i = 0; i < multiple; i++) {
+                    deflate(deflater, row, rowLength, ws.buffer, idat);
+                }
+            }
+
+            for (int y = topPadding + inputHeight * multiple; y < outputHeight; y++) {
+                deflate(deflater, whiteRow, rowLength, ws.buffer, idat);
+            }
+
+            deflater.finish();
+            while (!deflater.finished()) {
+                int n = deflater.deflate(ws.buffer);
+                idat.write(ws.buffer, 0, n);
+            }
+
+            ByteArrayOutputStream png = new ByteArrayOutputStream(idat.size() + 64);
+            png.writeBytes(SIGNATURE);
+
+            byte[] header = new byte[13];
+            putInt(header, 0, outputWidth);
+            putInt(header, 4, outputHeight);
+            header[8] = 1;  // ビット深度
+            header[9] = 0;  // カラータイプ: グレースケール
+            header[10] = 0; // 圧縮方式
+            header[11] = 0; // フィルタ方式
+            header[12] = 0; // インターレースなし
+            writeChunk(png, IHDR, header, header.length, ws.crc);
+            writeChunk(png, IDAT, ws.idatBytes(), idat.size(), ws.crc);
+            writeChunk(png, IEND, new byte[0], 0, ws.crc);
+
+            return png.toByteArray();
+        } finally {
+            release(ws);
+        }
+    }
+
+    private static Workspace acquire() {
+        Workspace ws = POOL.poll();
+        return ws != null ? ws : new Workspace();
+    }
+
+    private static void release(Workspace ws) {
+        if (!POOL.offer(ws)) {
+            ws.deflater.end();
+        }
+    }
+
+    private static void deflate(Deflater deflater, byte[] data, int length, byte[] buffer,
+                                ByteArrayOutputStream out) {
+        deflater.setInput(data, 0, length);
+        while (!deflater.needsInput()) {
+            int n = deflater.deflate(buffer);
+            out.write(buffer, 0, n);
+        }
+    }
+
+    private static void writeChunk(ByteArrayOutputStream out, byte[] type, byte[] data, int length, CRC32 crc) {
+        byte[] word = new byte[4];
+        putInt(word, 0, length);
+        out.writeBytes(word);
+        out.writeBytes(type);
+        out.write(data, 0, length);
+
+        crc.reset();
+        crc.update(type);
+        crc.update(data, 0, length);
+        putInt(word, 0, (int) crc.getValue());
+        out.writeBytes(word);
+    }
+
+    private static void putInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+
+    /**
+     * プールで再利用する作業領域
+     */
+    private static final class Workspace {
+        final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        final CRC32 crc = new CRC32();
+        final byte[] buffer = new byte[8192];
+        final ExposedByteArrayOutputStream idat = new ExposedByteArrayOutputStream(4096);
+        private byte[] row = new byte[0];
+        private byte[] whiteRow = new byte[0];
+
+        byte[] row(int length) {
+            if (row.length < length) {
+                row = new byte[length];
+            }
+            return row;
+        }
+
+        byte[] whiteRow(int length) {
+            if (whiteRow.length < length) {
+                whiteRow = new byte[length];
+                Arrays.fill(whiteRow, (byte) 0xFF);
+                whiteRow[0] = 0; // フィルタなし
+            }
+            return whiteRow;
+        }
+
+        byte[] idatBytes() {
+            return idat.buffer();
+        }
+    }
+
+    /**
+     * 内部バッファをコピーせずに参照できる ByteArrayOutputStream
+     */
+    private static final class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+        ExposedByteArrayOutputStream(int size) {
+            super(size);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+    }
+}
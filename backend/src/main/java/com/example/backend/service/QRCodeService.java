@@ -1,18 +1,15 @@
 package com.example.backend.service;
 
-import com.google.zxing.BarcodeFormat;
 import com.google.zxing.WriterException;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 
 /**
@@ -26,8 +23,10 @@ public class QRCodeService {
     private static final Logger logger = LoggerFactory.getLogger(QRCodeService.class);
 
     // QRコードのサイズ（ピクセル）
-    private static final int DEFAULT_WIDTH = 300;
-    private static final int DEFAULT_HEIGHT = 300;
+    public static final int DEFAULT_SIZE = 300;
+    public static final int EMAIL_SIZE = 200;
+    private static final int DEFAULT_WIDTH = DEFAULT_SIZE;
+    private static final int DEFAULT_HEIGHT = DEFAULT_SIZE;
 
     /**
      * チケットコードからQRコード画像（PNG）をバイト配列で生成
@@ -54,15 +53,115 @@ public class QRCodeService {
     public byte[] generateQRCodeImage(String ticketCode, int width, int height) 
             throws IOException, WriterException {
         
-        QRCodeWriter qrCodeWriter = new QRCodeWriter();
-        BitMatrix bitMatrix = qrCodeWriter.encode(ticketCode, BarcodeFormat.QR_CODE, width, height);
-        
-        BufferedImage bufferedImage = MatrixToImageWriter.toBufferedImage(bitMatrix);
-        
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        ImageIO.write(bufferedImage, "PNG", outputStream);
-        
-        return outputStream.toByteArray();
+        // モジュール行列から1bit PNGを直接生成（BufferedImage / ImageIO を経由しない）
+        ByteMatrix modules = encodeModules(ticketCode);
+        return QRCodePngEncoder.encode(modules, width, height);
+    }
+
+    /**
+     * 指定フォーマットでQRコードを生成
+     * 
+     * @param text エンコードするテキスト
+     * @param format 出力フォーマット
+     * @param size PNGの幅・高さ（ピクセル）。SVG / モジュール形式では無視
+     * @return 生成データのバイト列
+     * @throws IOException 画像生成エラー
+     * @throws WriterException QRコード生成エラー
+     */
+    public byte[] generate(String text, QRCodeFormat format, int size) throws IOException, WriterException {
+        return switch (format) {
+            case PNG -> generateQRCodeImage(text, size, size);
+            case SVG -> generateQRCodeSvg(text);
+            case MODULES -> generateQRCodeModules(text);
+        };
+    }
+
+    /**
+     * QRコードをSVGで生成
+     * 横方向に連続する暗モジュールを1つの矩形にまとめたパスを出力します
+     * 
+     * @param text エンコードするテキスト
+     * @return SVG（UTF-8）のバイト列
+     * @throws WriterException QRコード生成エラー
+     */
+    public byte[] generateQRCodeSvg(String text) throws WriterException {
+        ByteMatrix modules = encodeModules(text);
+        int quietZone = QRCodePngEncoder.QUIET_ZONE;
+        int dimension = modules.getWidth() + quietZone * 2;
+
+        StringBuilder svg = new StringBuilder(4096);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 ")
+           .append(dimension).append(' ').append(dimension)
+           .append("\" shape-rendering=\"crispEdges\">")
+           .append("<rect width=\"100%\" height=\"100%\" fill=\"#fff\"/>")
+           .append("<path fill=\"#000\" d=\"");
+
+        for (int y = 0; y < modules.getHeight(); y++) {
+            int x = 0;
+            while (x < modules.getWidth()) {
+                if (modules.get(x, y) != 1) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < modules.getWidth() && modules.get(x, y) == 1) {
+                    x++;
+                }
+                int run = x - start;
+                svg.append('M').append(start + quietZone).append(' ').append(y + quietZone)
+                   .append('h').append(run).append("v1h-").append(run).append('z');
+            }
+        }
+
+        svg.append("\"/></svg>");
+        return svg.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * QRコードをモジュールビットマップ形式で生成
+     * 形式は {@link QRCodeFormat#MODULES} を参照
+     * 
+     * @param text エンコードするテキスト
+     * @return モジュールビットマップのバイト列
+     * @throws WriterException QRコード生成エラー
+     */
+    public byte[] generateQRCodeModules(String text) throws WriterException {
+        ByteMatrix modules = encodeModules(text);
+        int dimension = modules.getWidth();
+        int rowBytes = (dimension + 7) / 8;
+
+        byte[] data = new byte[6 + rowBytes * dimension];
+        data[0] = 'Q';
+        data[1] = 'R';
+        data[2] = 1; // フォーマットバージョン
+        data[3] = (byte) (dimension >>> 8);
+        data[4] = (byte) dimension;
+        data[5] = (byte) QRCodePngEncoder.QUIET_ZONE;
+
+        for (int y = 0; y < dimension; y++) {
+            int rowOffset = 6 + y * rowBytes;
+            for (int x = 0; x < dimension; x++) {
+                if (modules.get(x, y) == 1) {
+                    data[rowOffset + (x >> 3)] |= (byte) (0x80 >>> (x & 7));
+                }
+            }
+        }
+        return data;
+    }
+
+    /**
+     * テキストをQRコードのモジュール行列にエンコード
+     * 誤り訂正レベルは QRCodeWriter のデフォルトと同じ L
+     * 
+     * @param text エンコードするテキスト
+     * @return モジュール行列（1 = 暗、クワイエットゾーンは含まない）
+     * @throws WriterException QRコード生成エラー
+     */
+    public ByteMatrix encodeModules(String text) throws WriterException {
+        if (text == null || text.isEmpty()) {
+            throw new IllegalArgumentException("Found empty contents");
+        }
+        return Encoder.encode(text, ErrorCorrectionLevel.L).getMatrix();
     }
 
     /**
@@ -92,7 +191,7 @@ public class QRCodeService {
      */
     public byte[] generateQRCodeImageForEmail(String ticketCode) {
         try {
-            return generateQRCodeImage(ticketCode, 200, 200);
+            return generateQRCodeImage(ticketCode, EMAIL_SIZE, EMAIL_SIZE);
         } catch (Exception e) {
             logger.error("Failed to generate QR code for email: {}", ticketCode, e);
             return null;
@@ -0,0 +1,302 @@
+package com.example.backend.service;
+
+import com.example.backend.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SMTP接続プール
+ *
+ * 認証済みのSMTP接続を使い回し、1通ごとの TCP接続・STARTTLS・AUTH を省きます。
+ * - 同時接続数はプロバイダの制限に合わせて上限で抑える
+ * - 1接続あたりの送信数が上限に達したら接続し直す
+ * - 送信速度はトークンバケットで全接続合計を制限する
+ * - 切断されていた場合は接続し直して1回だけ再送する
+ */
+@Component
+public class SmtpTransportPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(SmtpTransportPool.class);
+
+    // この時間以上使っていない接続は、使う前に生存確認（NOOP）する
+    private static final long VALIDATE_AFTER_IDLE_MILLIS = 10_000;
+
+    private final JavaMailSenderImpl mailSender;
+    private final MeterRegistry meterRegistry;
+    private final TokenBucket rateLimiter;
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledTransport> idle = new LinkedBlockingDeque<>();
+    private final int maxMessagesPerConnection;
+    private final long maxIdleMillis;
+    private final long borrowTimeoutMillis;
+    private final Counter connectCounter;
+
+    private volatile boolean closed = false;
+
+    public SmtpTransportPool(JavaMailSenderImpl mailSender,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.mail.smtp.max-connections:2}") int maxConnections,
+                             @Value("${app.mail.smtp.max-messages-per-connection:100}") int maxMessagesPerConnection,
+                             @Value("${app.mail.smtp.max-idle-seconds:60}") long maxIdleSeconds,
+                             @Value("${app.mail.smtp.borrow-timeout-seconds:30}") long borrowTimeoutSeconds,
+                             @Value("${app.mail.smtp.rate-limit.burst:10}") double rateLimitBurst,
+                             @Value("${app.mail.smtp.rate-limit.per-second:5}") double rateLimitPerSecond) {
+        this.mailSender = mailSender;
+        this.meterRegistry = meterRegistry;
+        this.permits = new Semaphore(maxConnections, true);
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.maxIdleMillis = TimeUnit.SECONDS.toMillis(maxIdleSeconds);
+        this.borrowTimeoutMillis = TimeUnit.SECONDS.toMillis(borrowTimeoutSeconds);
+        this.rateLimiter = new TokenBucket(rateLimitBurst, rateLimitPerSecond);
+
+        this.connectCounter = Counter.builder("email.smtp.connects")
+                .description("SMTPサーバーへの接続回数")
+                .register(meterRegistry);
+        Gauge.builder("email.smtp.connections.idle", idle, LinkedBlockingDeque::size)
+                .description("待機中のSMTP接続数")
+                .register(meterRegistry);
+    }
+
+    // ============================================
+    // 送信
+    // ============================================
+
+    /**
+     * 1通を送信
+     *
+     * @throws MessagingException 送信に失敗した場合
+     */
+    public void send(MimeMessage message) throws MessagingException {
+        Exception error = sendAll(List.of(message)).get(0);
+        if (error instanceof MessagingException messagingException) {
+            throw messagingException;
+        }
+        if (error != null) {
+            throw new MessagingException(error.getMessage(), error);
+        }
+    }
+
+    /**
+     * 複数通を1つの接続でまとめて送信
+     *
+     * 1通の失敗で残りを止めることはしません。
+     *
+     * @return 各メッセージの送信結果（同じ順序。成功はnull、失敗はその例外）
+     */
+    public List<Exception> sendAll(List<MimeMessage> messages) {
+        List<Exception> results = new ArrayList<>(messages.size());
+
+        PooledTransport connection;
+        try {
+            connection = borrow();
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            for (int i = 0; i < messages.size(); i++) {
+                results.add(e);
+            }
+            return results;
+        }
+
+        boolean reusable = true;
+        try {
+            for (MimeMessage message : messages) {
+                Timer.Sample sample = Timer.start(meterRegistry);
+                Exception error = null;
+                try {
+                    rateLimiter.acquire();
+                    sendOne(connection, message);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    error = e;
+                } catch (Exception e) {
+                    error = e;
+                }
+                sample.stop(Timer.builder("email.send")
+                        .tag("result", error == null ? "success" : "failure")
+                        .description("メール送信の所要時間")
+                        .register(meterRegistry));
+                results.add(error);
+
+                if (Thread.currentThread().isInterrupted()) {
+                    // 残りは送らずに失敗として返す
+                    while (results.size() < messages.size()) {
+                        results.add(new InterruptedException("Interrupted while sending"));
+                    }
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            reusable = false;
+            throw e;
+        } finally {
+            release(connection, reusable && connection.connected);
+        }
+        return results;
+    }
+
+    private void sendOne(PooledTransport connection, MimeMessage message) throws MessagingException {
+        if (message.getSentDate() == null) {
+            message.setSentDate(new Date());
+        }
+        message.saveChanges();
+
+        ensureConnected(connection);
+        try {
+            connection.transport.sendMessage(message, message.getAllRecipients());
+        } catch (SendFailedException e) {
+            // 宛先の拒否など。接続自体は使えるため再接続しない
+            throw e;
+        } catch (MessagingException e) {
+            // 接続が切れていた可能性があるため、接続し直して1回だけ再送する
+            logger.info("SMTP send failed ({}), reconnecting and retrying once", e.getMessage());
+            reconnect(connection);
+            connection.transport.sendMessage(message, message.getAllRecipients());
+        }
+        connection.sentCount++;
+        connection.lastUsed = System.currentTimeMillis();
+    }
+
+    // ============================================
+    // 接続の貸し出し・返却
+    // ============================================
+
+    private PooledTransport borrow() throws MessagingException, InterruptedException {
+        if (closed) {
+            throw new MessagingException("SMTP transport pool is closed");
+        }
+        if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            throw new MessagingException("Timed out waiting for an SMTP connection");
+        }
+        PooledTransport connection = idle.pollFirst();
+        if (connection == null) {
+            try {
+                connection = new PooledTransport(mailSender.getSession().getTransport("smtp"));
+            } catch (MessagingException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+        return connection;
+    }
+
+    private void release(PooledTransport connection, boolean reusable) {
+        try {
+            if (reusable && !closed) {
+                idle.offerFirst(connection);
+            } else {
+                close(connection);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 送信前に接続状態を確認し、必要なら接続し直す
+     * isConnected() はNOOPを送るため、しばらく使っていない接続に対してだけ呼ぶ
+     */
+    private void ensureConnected(PooledTransport connection) throws MessagingException {
+        if (!connection.connected) {
+            connect(connection);
+        } else if (connection.sentCount >= maxMessagesPerConnection) {
+            reconnect(connection);
+        } else if (System.currentTimeMillis() - connection.lastUsed > VALIDATE_AFTER_IDLE_MILLIS
+                && !connection.transport.isConnected()) {
+            reconnect(connection);
+        }
+    }
+
+    private void reconnect(PooledTransport connection) throws MessagingException {
+        close(connection);
+        connect(connection);
+    }
+
+    private void connect(PooledTransport connection) throws MessagingException {
+        String username = StringUtils.hasLength(mailSender.getUsername()) ? mailSender.getUsername() : null;
+        String password = StringUtils.hasLength(mailSender.getPassword()) ? mailSender.getPassword() : null;
+        connection.transport.connect(mailSender.getHost(), mailSender.getPort(), username, password);
+        connection.connected = true;
+        connection.sentCount = 0;
+        connection.lastUsed = System.currentTimeMillis();
+        connectCounter.increment();
+    }
+
+    private void close(PooledTransport connection) {
+        connection.connected = false;
+        try {
+            connection.transport.close();
+        } catch (MessagingException e) {
+            logger.debug("Failed to close SMTP connection: {}", e.getMessage());
+        }
+    }
+
+    // ============================================
+    // 後始末
+    // ============================================
+
+    /**
+     * 長時間使われていない接続を閉じる
+     */
+    @Scheduled(fixedDelayString = "${app.mail.smtp.evict-interval-ms:30000}")
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        List<PooledTransport> expired = new ArrayList<>();
+        // 返却は先頭に積むため、古いものは末尾にある
+        PooledTransport last;
+        while ((last = idle.peekLast()) != null && now - last.lastUsed > maxIdleMillis) {
+            if (idle.removeLastOccurrence(last)) {
+                expired.add(last);
+            }
+        }
+        expired.forEach(this::close);
+        if (!expired.isEmpty()) {
+            logger.debug("Closed {} idle SMTP connection(s)", expired.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        PooledTransport connection;
+        while ((connection = idle.pollFirst()) != null) {
+            close(connection);
+        }
+    }
+
+    /**
+     * プール内の接続
+     */
+    private static final class PooledTransport {
+        final Transport transport;
+        boolean connected = false;
+        int sentCount = 0;
+        long lastUsed = System.currentTimeMillis();
+
+        PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
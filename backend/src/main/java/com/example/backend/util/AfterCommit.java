@@ -0,0 +1,32 @@
+package com.example.backend.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * トランザクションのコミット後に処理を実行
+ *
+ * ロールバックされた変更をメモリ上の索引などに反映しないために使います。
+ * トランザクション外で呼ばれた場合はその場で実行します。
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    /**
+     * コミット後に実行（トランザクション外ならすぐに実行）
+     */
+    public static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
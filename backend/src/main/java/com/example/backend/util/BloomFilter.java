@@ -0,0 +1,61 @@
+package com.example.backend.util;
+
+/**
+ * ブルームフィルター
+ *
+ * 「含まれていない」ことを少ないメモリで確実に判定します（含まれている判定は偽陽性あり）。
+ * 要素は {@link LongHashSet#hash64(String)} などの64bitハッシュで追加・照合し、
+ * その上位・下位32bitからk個の位置を作ります（double hashing）。
+ * 削除はできません。スレッドセーフではありません。
+ */
+public class BloomFilter {
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final int expectedInsertions;
+
+    /**
+     * @param expectedInsertions 想定する要素数
+     * @param falsePositiveRate  想定する要素数のときの偽陽性率（0 &lt; rate &lt; 1）
+     */
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("expectedInsertions must be positive and 0 < falsePositiveRate < 1");
+        }
+        // m = -n ln p / (ln 2)^2, k = m / n ln 2
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new long[(int) ((Math.max(64, m) + 63) >>> 6)];
+        this.bitCount = (long) bits.length << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    public void put(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            bits[(int) (index >>> 6)] |= 1L << index;
+        }
+    }
+
+    /**
+     * @return 含まれている可能性があればtrue（falseなら確実に含まれていない）
+     */
+    public boolean mightContain(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int expectedInsertions() {
+        return expectedInsertions;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.backend.util;
+
+import java.util.Arrays;
+
+/**
+ * 引換券コードのチェック文字（Luhn mod 32）
+ *
+ * 紛らわしい文字（I, O, 0, 1）を除いた32文字のアルファベット上でLuhnのmod N法を使い、
+ * コードの末尾1文字をチェック文字にします。1文字の打ち間違いと、隣り合う2文字の入れ替えの
+ * ほとんどを、DBを引かずに検出できます。
+ *
+ * チェック文字付きのコードは {@link #CODE_LENGTH} 文字（本体8文字 + チェック文字1文字）です。
+ * それ以外の長さのコードはチェック文字導入前の旧形式として扱います。
+ */
+public final class ExchangeCodeChecksum {
+
+    public static final String ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
+
+    // 本体の文字数
+    public static final int PAYLOAD_LENGTH = 8;
+
+    // チェック文字を含めた文字数
+    public static final int CODE_LENGTH = PAYLOAD_LENGTH + 1;
+
+    // コードの最大長（exchange_codes.code の列長）
+    public static final int MAX_LENGTH = 50;
+
+    private static final int N = ALPHABET.length();
+
+    // 文字 → アルファベット上の位置（対象外の文字は -1）
+    private static final int[] INDEX = new int[128];
+
+    static {
+        Arrays.fill(INDEX, -1);
+        for (int i = 0; i < N; i++) {
+            INDEX[ALPHABET.charAt(i)] = i;
+        }
+    }
+
+    private ExchangeCodeChecksum() {
+    }
+
+    /**
+     * 文字のアルファベット上の位置（対象外の文字は -1）
+     */
+    public static int indexOf(char c) {
+        return c < INDEX.length ? INDEX[c] : -1;
+    }
+
+    /**
+     * 本体 chars[0, length) に対するチェック文字
+     */
+    public static char checkCharacter(char[] chars, int length) {
+        int factor = 2;
+        int sum = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            int addend = factor * indexOf(chars[i]);
+            factor = factor == 2 ? 1 : 2;
+            sum += addend / N + addend % N;
+        }
+        return ALPHABET.charAt((N - sum % N) % N);
+    }
+
+    /**
+     * 本体にチェック文字を付ける
+     */
+    public static String append(String payload) {
+        char[] chars = Arrays.copyOf(payload.toCharArray(), payload.length() + 1);
+        chars[payload.length()] = checkCharacter(chars, payload.length());
+        return new String(chars);
+    }
+
+    /**
+     * チェック文字付きの形式（{@link #CODE_LENGTH} 文字・対象の文字のみ）か
+     */
+    public static boolean hasChecksumFormat(String code) {
+        if (code == null || code.length() != CODE_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < CODE_LENGTH; i++) {
+            if (indexOf(code.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * チェック文字が正しいか（チェック文字付きの形式でない場合はfalse）
+     */
+    public static boolean isValid(String code) {
+        if (!hasChecksumFormat(code)) {
+            return false;
+        }
+        int factor = 1;
+        int sum = 0;
+        for (int i = CODE_LENGTH - 1; i >= 0; i--) {
+            int addend = factor * indexOf(code.charAt(i));
+            factor = factor == 2 ? 1 : 2;
+            sum += addend / N + addend % N;
+        }
+        return sum % N == 0;
+    }
+
+    /**
+     * 存在し得るコードか（DBを引く前の形式チェック）
+     *
+     * @param code 正規化済み（前後の空白除去・大文字）のコード
+     * @param allowLegacy チェック文字導入前の旧形式のコードも受け付けるか
+     */
+    public static boolean isPlausible(String code, boolean allowLegacy) {
+        if (code == null || code.isEmpty() || code.length() > MAX_LENGTH) {
+            return false;
+        }
+        if (hasChecksumFormat(code)) {
+            return isValid(code);
+        }
+        return allowLegacy;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.backend.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * インメモリ索引の再構築（別の表に構築してから差し替え）
+ *
+ * 構築中も今の表で照合・更新を続けられるよう、新しい表はロックの外で構築します。
+ * 構築中に届いた更新は記録しておき、差し替える直前に新しい表へ再適用します
+ * （DBから読んだ古い行で、構築中の新しい更新を上書きしない）。
+ *
+ * @param <T> 表の型
+ * @param <U> 更新の型
+ */
+public final class IndexRebuilder<T, U> {
+
+    /**
+     * 構築結果
+     *
+     * @param table    差し替えた表
+     * @param replayed 再適用した更新の件数
+     */
+    public record Result<T>(T table, int replayed) {
+    }
+
+    private final Lock writeLock;
+
+    // 再構築中に届いた更新（再構築中でなければnull）。書き込みロック内で読み書きする
+    private List<U> pendingUpdates;
+
+    /**
+     * @param lock 索引の読み書きに使うロック（更新と差し替えは書き込みロックで行う）
+     */
+    public IndexRebuilder(ReadWriteLock lock) {
+        this.writeLock = lock.writeLock();
+    }
+
+    /**
+     * 今の表に更新を反映（再構築中なら再適用のために記録する）
+     *
+     * @param update         記録する更新
+     * @param applyToCurrent 今の表への反映（書き込みロック内で実行する）
+     */
+    public void update(U update, Runnable applyToCurrent) {
+        writeLock.lock();
+        try {
+            applyToCurrent.run();
+            if (pendingUpdates != null) {
+                pendingUpdates.add(update);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 新しい表を構築して差し替え
+     *
+     * @param build  新しい表の構築（ロックの外で実行する）
+     * @param replay 構築中に届いた更新の新しい表への再適用
+     * @param swap   今の表の差し替え（書き込みロック内で実行する）
+     */
+    public Result<T> rebuild(Supplier<T> build, BiConsumer<T, U> replay, Consumer<T> swap) {
+        writeLock.lock();
+        try {
+            pendingUpdates = new ArrayList<>();
+        } finally {
+            writeLock.unlock();
+        }
+
+        T built;
+        try {
+            built = build.get();
+        } catch (RuntimeException e) {
+            writeLock.lock();
+            try {
+                pendingUpdates = null;
+            } finally {
+                writeLock.unlock();
+            }
+            throw e;
+        }
+
+        writeLock.lock();
+        try {
+            int replayed = pendingUpdates.size();
+            for (U update : pendingUpdates) {
+                replay.accept(built, update);
+            }
+            pendingUpdates = null;
+            swap.accept(built);
+            return new Result<>(built, replayed);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.backend.util;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * 一覧のページ位置（キーセット方式）
+ *
+ * OFFSET ではなく「前のページの最後の行の並び順キー」を渡し、その続きから取得します。
+ * 件数が増えても2ページ目以降の取得コストが変わりません。
+ *
+ * 文字列表現: {@code <日時>,<ID>} または {@code <日時>,<ID>,<フラグ>}（例: 2026-01-01T10:00,123）
+ *
+ * @param at   並び順の日時
+ * @param id   同じ日時の行を区別するID
+ * @param flag 日時より前に並べる真偽値（使用済みかどうか等。使わない場合はnull）
+ */
+public record KeysetCursor(LocalDateTime at, long id, Boolean flag) {
+
+    /**
+     * レスポンスヘッダー名: 次のページの位置（最後のページでは付けない）
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * レスポンスヘッダー名: 全体の件数の概算
+     */
+    public static final String TOTAL_ESTIMATE_HEADER = "X-Total-Count-Estimate";
+
+    public KeysetCursor(LocalDateTime at, long id) {
+        this(at, id, null);
+    }
+
+    /**
+     * 文字列から復元
+     *
+     * @return ページ位置（値がない場合はnull = 先頭ページ）
+     * @throws IllegalArgumentException 形式が不正な場合
+     */
+    public static KeysetCursor parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String[] parts = value.split(",");
+        if (parts.length != 2 && parts.length != 3) {
+            throw new IllegalArgumentException("Invalid cursor: " + value);
+        }
+        try {
+            LocalDateTime at = LocalDateTime.parse(parts[0].trim());
+            long id = Long.parseLong(parts[1].trim());
+            Boolean flag = parts.length == 3 ? Boolean.valueOf(parts[2].trim()) : null;
+            return new KeysetCursor(at, id, flag);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + value, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return flag == null ? at + "," + id : at + "," + id + "," + flag;
+    }
+}
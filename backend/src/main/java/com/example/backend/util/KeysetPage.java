@@ -0,0 +1,61 @@
+package com.example.backend.util;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * キーセット方式のページングのレスポンス生成
+ *
+ * 本文は従来どおり一覧の配列のままとし、次のページの位置と総件数の概算はヘッダーで返します。
+ */
+public final class KeysetPage {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 500;
+
+    private KeysetPage() {
+    }
+
+    /**
+     * 1ページの件数を上限内に収める
+     */
+    public static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * ページのレスポンスを生成
+     *
+     * @param rows          limit + 1 件を上限に取得した行（limit を超えていれば次のページがある）
+     * @param limit         1ページの件数
+     * @param cursorOf      行から次のページの位置を求める関数
+     * @param totalEstimate 総件数の概算（不明な場合はnull）
+     */
+    public static <T> ResponseEntity<List<T>> response(List<T> rows, int limit,
+                                                       Function<T, KeysetCursor> cursorOf, Long totalEstimate) {
+        return response(rows, limit, cursorOf, totalEstimate, Function.identity());
+    }
+
+    /**
+     * ページのレスポンスを生成（本文はページの行を変換したもの）
+     *
+     * @param toBody ページの行（limit 件まで）を本文に変換する関数
+     */
+    public static <T, R> ResponseEntity<List<R>> response(List<T> rows, int limit,
+                                                          Function<T, KeysetCursor> cursorOf, Long totalEstimate,
+                                                          Function<List<T>, List<R>> toBody) {
+        boolean hasNext = rows.size() > limit;
+        List<T> page = hasNext ? rows.subList(0, limit) : rows;
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (hasNext) {
+            builder.header(KeysetCursor.NEXT_CURSOR_HEADER, cursorOf.apply(page.get(page.size() - 1)).toString());
+        }
+        if (totalEstimate != null) {
+            builder.header(KeysetCursor.TOTAL_ESTIMATE_HEADER, String.valueOf(totalEstimate));
+        }
+        return builder.body(toBody.apply(page));
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.backend.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * long値のハッシュセット（オープンアドレス法）
+ *
+ * 要素をボクシングせずに long[] 1本で保持するため、HashSet&lt;String&gt; に比べて1要素あたり
+ * 数十バイト程度のメモリで済みます。文字列の重複判定は {@link #hash64(String)} の値で行います。
+ * スレッドセーフではありません。
+ */
+public class LongHashSet {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    // 0 は空きスロットの印として使うため、値 0 は別に管理する
+    private long[] table;
+    private boolean containsZero;
+    private int size;
+    private int resizeAt;
+
+    /**
+     * @param expectedSize 想定する要素数
+     */
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * 値を追加
+     *
+     * @return 追加した場合はtrue（既に含まれていた場合はfalse）
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        if (!insert(table, value)) {
+            return false;
+        }
+        if (++size >= resizeAt) {
+            rehash(table.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == 0) {
+            return containsZero;
+        }
+        int mask = table.length - 1;
+        for (int i = mix(value) & mask; ; i = (i + 1) & mask) {
+            long current = table[i];
+            if (current == 0) {
+                return false;
+            }
+            if (current == value) {
+                return true;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 文字列の64bitハッシュ（FNV-1a）
+     * 64bitあれば100万件規模でも衝突の確率は無視できる
+     */
+    public static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private boolean insert(long[] target, long value) {
+        int mask = target.length - 1;
+        for (int i = mix(value) & mask; ; i = (i + 1) & mask) {
+            long current = target[i];
+            if (current == 0) {
+                target[i] = value;
+                return true;
+            }
+            if (current == value) {
+                return false;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] old = table;
+        allocate(capacity);
+        for (long value : old) {
+            if (value != 0) {
+                insert(table, value);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        table = new long[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    // 下位ビットに偏りが出ないよう混ぜる（MurmurHash3 の fmix64）
+    private static int mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.backend.util;
+
+import java.util.function.LongConsumer;
+
+/**
+ * long → int のハッシュマップ（オープンアドレス法）
+ *
+ * {@link LongHashSet} と同じく、キーと値をボクシングせずに配列で保持します。
+ * キー 0 は空きスロットの印として使うため別に管理します。スレッドセーフではありません。
+ */
+public class LongIntHashMap {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int[] values;
+    private boolean containsZero;
+    private int zeroValue;
+    private int size;
+    private int resizeAt;
+
+    /**
+     * @param expectedSize 想定する要素数
+     */
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * 値を登録（既にある場合は上書き）
+     */
+    public void put(long key, int value) {
+        if (key == 0) {
+            if (!containsZero) {
+                containsZero = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+        if (insert(keys, values, key, value) && ++size >= resizeAt) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    /**
+     * @return 値（キーがない場合は defaultValue）
+     */
+    public int get(long key, int defaultValue) {
+        if (key == 0) {
+            return containsZero ? zeroValue : defaultValue;
+        }
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            long current = keys[i];
+            if (current == 0) {
+                return defaultValue;
+            }
+            if (current == key) {
+                return values[i];
+            }
+        }
+    }
+
+    /**
+     * @return 削除した場合はtrue
+     */
+    public boolean remove(long key) {
+        if (key == 0) {
+            if (!containsZero) {
+                return false;
+            }
+            containsZero = false;
+            size--;
+            return true;
+        }
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (keys[i] != key) {
+            if (keys[i] == 0) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        // 後ろに続く要素を詰め直す（線形探査のため削除の印は使わない）
+        int gap = i;
+        for (int j = (i + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+            int home = mix(keys[j]) & mask;
+            // home が (gap, j] の範囲外なら gap に移せる
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = 0;
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 登録されているキーを順に渡す（0 は除く。呼び出し中の変更は不可）
+     */
+    public void forEachKey(LongConsumer action) {
+        for (long key : keys) {
+            if (key != 0) {
+                action.accept(key);
+            }
+        }
+    }
+
+    /**
+     * @return 追加した場合はtrue（上書きの場合はfalse）
+     */
+    private static boolean insert(long[] targetKeys, int[] targetValues, long key, int value) {
+        int mask = targetKeys.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            long current = targetKeys[i];
+            if (current == 0) {
+                targetKeys[i] = key;
+                targetValues[i] = value;
+                return true;
+            }
+            if (current == key) {
+                targetValues[i] = value;
+                return false;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                insert(keys, values, oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    // 下位ビットに偏りが出ないよう混ぜる（MurmurHash3 の fmix64）
+    private static int mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.backend.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * トークンバケット
+ *
+ * 一定の速度でトークンが補充され、容量までは一度に消費できます（バースト許容）。
+ * スレッドセーフです。
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * @param capacity        バケットの容量（バースト上限）
+     * @param refillPerSecond 1秒あたりの補充量
+     */
+    public TokenBucket(double capacity, double refillPerSecond) {
+        if (capacity <= 0 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("capacity and refillPerSecond must be positive");
+        }
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * トークンを1つ消費
+     *
+     * @return 消費できた場合はtrue
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * トークンを1つ消費（補充されるまで待つ）
+     *
+     * @throws InterruptedException 待機中に割り込まれた場合
+     */
+    public void acquire() throws InterruptedException {
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return;
+                }
+                waitNanos = (long) Math.ceil((1 - tokens) / refillPerNano);
+            }
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * 次のトークンが補充されるまでの待ち時間
+     *
+     * @return 待ち時間（ナノ秒）。すぐに消費できる場合は0
+     */
+    public synchronized long nanosUntilAvailable() {
+        refill();
+        return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / refillPerNano);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+        lastRefill = now;
+    }
+}
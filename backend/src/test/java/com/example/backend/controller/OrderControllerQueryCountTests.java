@@ -0,0 +1,179 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.OrderResponse;
+import com.example.backend.entity.Order;
+import com.example.backend.entity.Ticket;
+import com.example.backend.entity.Ticket.TicketType;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.service.OrderSearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 注文・チケットAPIの発行クエリ数のテスト
+ * 
+ * 一覧の件数に関わらずクエリ数が一定であること（注文ごとにチケットを読み込んでいないこと）と、
+ * レスポンスのシリアライズで追加のクエリが発生しないことを確認します。
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.backend.controller.OrderControllerQueryCountTests$QueryCounter")
+@ActiveProfiles("test")
+class OrderControllerQueryCountTests {
+
+    /**
+     * Hibernateが発行したSQLをスレッドごとに数える
+     * （送信待ちメールの取り出しなど、別スレッドのクエリは数えない）
+     */
+    public static class QueryCounter implements StatementInspector {
+
+        private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+        @Override
+        public String inspect(String sql) {
+            COUNT.get()[0]++;
+            return sql;
+        }
+
+        static void reset() {
+            COUNT.get()[0] = 0;
+        }
+
+        static int count() {
+            return COUNT.get()[0];
+        }
+    }
+
+    @Autowired
+    private OrderController orderController;
+
+    @Autowired
+    private TicketController ticketController;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderSearchIndex orderSearchIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String marker;
+    private List<Order> orders;
+
+    @BeforeEach
+    void createOrders() {
+        marker = UUID.randomUUID().toString().substring(0, 8);
+        orders = List.of(createPaidOrder(), createPaidOrder(), createPaidOrder());
+    }
+
+    @Test
+    void orderListLoadsTicketsInOneQuery() throws Exception {
+        QueryCounter.reset();
+        ResponseEntity<List<OrderResponse>> response = orderController.getAllOrders(null, 100);
+
+        // 注文の一覧 + チケットの一括取得
+        assertQueries(response.getBody(), 2);
+        for (Order order : orders) {
+            OrderResponse found = response.getBody().stream()
+                    .filter(o -> o.id().equals(order.getId()))
+                    .findFirst()
+                    .orElseThrow();
+            assertThat(found.tickets()).hasSize(2);
+        }
+    }
+
+    @Test
+    void ordersByStatusLoadTicketsInOneQuery() throws Exception {
+        QueryCounter.reset();
+        ResponseEntity<List<OrderResponse>> response = orderController.getOrdersByStatus("PAID");
+
+        assertQueries(response.getBody(), 2);
+    }
+
+    @Test
+    void orderDetailIsFetchedWithTicketsInOneQuery() throws Exception {
+        QueryCounter.reset();
+        ResponseEntity<OrderResponse> response = orderController.getOrderById(orders.get(0).getId());
+
+        assertQueries(response.getBody(), 1);
+        assertThat(response.getBody().tickets()).hasSize(2);
+    }
+
+    @Test
+    void orderBySessionIsFetchedWithTicketsInOneQuery() throws Exception {
+        QueryCounter.reset();
+        ResponseEntity<OrderResponse> response =
+                orderController.getOrderWithTicketsBySessionId(orders.get(0).getStripeSessionId());
+
+        assertQueries(response.getBody(), 1);
+        assertThat(response.getBody().tickets()).hasSize(2);
+    }
+
+    @Test
+    void orderSearchLoadsTicketsInOneQuery() throws Exception {
+        assertThat(orderSearchIndex.isReady()).isTrue();
+
+        QueryCounter.reset();
+        ResponseEntity<List<OrderResponse>> response = orderController.searchOrders(marker, 50);
+
+        assertQueries(response.getBody(), 2);
+        assertThat(response.getBody()).hasSize(orders.size());
+    }
+
+    @Test
+    void ticketVerificationFetchesOrderInOneQuery() throws Exception {
+        Order order = orderRepository.findWithTicketsById(orders.get(0).getId()).orElseThrow();
+        TicketController.VerifyRequest request = new TicketController.VerifyRequest();
+        request.setTicketCode(order.getTickets().get(0).getTicketCode());
+
+        QueryCounter.reset();
+        ResponseEntity<Map<String, Object>> response = ticketController.verifyTicket(request);
+
+        assertQueries(response.getBody(), 1);
+        assertThat(response.getBody()).containsEntry("valid", true);
+    }
+
+    // ============================================
+    // ヘルパーメソッド
+    // ============================================
+
+    /**
+     * 取得時のクエリ数を確認し、シリアライズで追加のクエリが発生しないことを確認
+     */
+    private void assertQueries(Object body, int expected) throws Exception {
+        assertThat(QueryCounter.count()).isEqualTo(expected);
+        objectMapper.writeValueAsString(body);
+        assertThat(QueryCounter.count()).isEqualTo(expected);
+    }
+
+    private Order createPaidOrder() {
+        Order order = new Order();
+        order.setStripeSessionId("cs_test_" + UUID.randomUUID());
+        order.setCustomerName("クエリ 計測");
+        order.setCustomerEmail(marker + "@example.com");
+        order.setPerformanceDate("2025-01-01-14");
+        order.setPerformanceLabel("2025年1月1日 14:00");
+        order.setGeneralQuantity(1);
+        order.setReservedQuantity(1);
+        order.setGeneralPrice(4500);
+        order.setReservedPrice(5500);
+        order.setTotalAmount(10000);
+        order.markAsPaid("pi_test");
+        order.addTicket(new Ticket(order, TicketType.GENERAL));
+        order.addTicket(new Ticket(order, TicketType.RESERVED));
+        return orderRepository.save(order);
+    }
+}
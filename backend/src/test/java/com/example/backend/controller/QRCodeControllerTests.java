@@ -0,0 +1,47 @@
+package com.example.backend.controller;
+
+import com.example.backend.service.QRCodeCache;
+import com.example.backend.service.QRCodeFormat;
+import com.example.backend.service.QRCodeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * チケットのQRコード画像APIの条件付きリクエストのテスト
+ *
+ * ETagが一致すれば画像を読まずに304を返し、「If-None-Match: *」では存在しないコードに304を返さないことを確認します。
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class QRCodeControllerTests {
+
+    private static final String MISSING_CODE = "00000000-0000-0000-0000-000000000000";
+    private static final String TICKET_CODE = "3f2b8c1e-6d4a-4e8f-9b7a-2c5d1e0f9a84";
+
+    @Autowired
+    private QRCodeController qrCodeController;
+
+    @Autowired
+    private QRCodeCache qrCodeCache;
+
+    @Test
+    void wildcardDoesNotHideMissingTicket() {
+        assertThat(qrCodeController.getQRCodeByTicketCode(MISSING_CODE, "png", null, "*").getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void matchingETagIsNotModified() {
+        String etag = qrCodeCache.etag(TICKET_CODE, QRCodeFormat.PNG, QRCodeService.DEFAULT_SIZE);
+
+        assertThat(qrCodeController.getQRCodeByTicketCode(TICKET_CODE, "png", null, "W/" + etag).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(qrCodeController.getQRCodeByTicketCode(TICKET_CODE, "png", null, "\"other\"").getStatusCode())
+                .isNotEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.backend.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * QRコード画像URLの署名のテスト
+ *
+ * 署名したURLだけが期限内に検証を通り、コード・期限・署名のどれかを書き換えると通らないことを確認します。
+ */
+class QRCodeLinkSignerTests {
+
+    private static final String TICKET_CODE = "3f2b8c1e-6d4a-4e8f-9b7a-2c5d1e0f9a84";
+
+    private final QRCodeLinkSigner signer = new QRCodeLinkSigner("test-secret-key-for-qr-code-links-0123456789");
+
+    @Test
+    void signedLinkVerifies() {
+        long expires = inOneHour();
+        String signature = signer.sign(TICKET_CODE, expires);
+
+        assertThat(signature).doesNotContain("=", "+", "/");
+        assertThat(signer.verify(TICKET_CODE, expires, signature)).isTrue();
+    }
+
+    @Test
+    void tamperedSignatureIsRejected() {
+        long expires = inOneHour();
+        String signature = signer.sign(TICKET_CODE, expires);
+
+        byte[] bytes = Base64.getUrlDecoder().decode(signature);
+        bytes[0] ^= 1;
+        String flipped = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        assertThat(signer.verify(TICKET_CODE, expires, flipped)).isFalse();
+        assertThat(signer.verify(TICKET_CODE, expires, signature.substring(1))).isFalse();
+        assertThat(signer.verify(TICKET_CODE, expires, "not base64!")).isFalse();
+        assertThat(signer.verify(TICKET_CODE, expires, "")).isFalse();
+        assertThat(signer.verify(TICKET_CODE, expires, null)).isFalse();
+    }
+
+    @Test
+    void signatureDoesNotCarryOverToAnotherCode() {
+        long expires = inOneHour();
+        String signature = signer.sign(TICKET_CODE, expires);
+
+        assertThat(signer.verify("00000000-0000-0000-0000-000000000000", expires, signature)).isFalse();
+    }
+
+    @Test
+    void extendingTheExpiryInvalidatesTheSignature() {
+        long expires = inOneHour();
+        String signature = signer.sign(TICKET_CODE, expires);
+
+        assertThat(signer.verify(TICKET_CODE, expires + 86_400, signature)).isFalse();
+    }
+
+    @Test
+    void expiredLinkIsRejected() {
+        long expired = Instant.now().getEpochSecond() - 1;
+        String signature = signer.sign(TICKET_CODE, expired);
+
+        assertThat(signer.verify(TICKET_CODE, expired, signature)).isFalse();
+    }
+
+    @Test
+    void signatureFromAnotherSecretIsRejected() {
+        long expires = inOneHour();
+        String signature = new QRCodeLinkSigner("another-secret-key-for-qr-code-links-987654").sign(TICKET_CODE, expires);
+
+        assertThat(signer.verify(TICKET_CODE, expires, signature)).isFalse();
+    }
+
+    private static long inOneHour() {
+        return Instant.now().getEpochSecond() + 3600;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.EmailOutbox;
+import com.example.backend.entity.Order;
+import com.example.backend.repository.EmailOutboxRepository;
+import com.example.backend.repository.OrderRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 購入完了メールのアウトボックス送信テスト
+ * 
+ * ローカルのSMTPサーバー（GreenMail）に対して、登録 → 送信 → 再送の流れを確認します。
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class EmailOutboxServiceTests {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private OrderFulfillmentService orderFulfillmentService;
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Test
+    void purchaseConfirmationIsSentThroughOutbox() throws Exception {
+        Order order = createPendingOrder("buyer@example.com");
+
+        orderFulfillmentService.fulfill(order.getStripeSessionId(), "pi_test");
+
+        assertThat(greenMail.waitForIncomingEmail(10_000, 1)).isTrue();
+        MimeMessage message = greenMail.getReceivedMessages()[0];
+        assertThat(message.getAllRecipients()[0].toString()).isEqualTo("buyer@example.com");
+        assertThat(message.getSubject()).contains("チケット購入完了");
+
+        EmailOutbox entry = awaitEntry(order.getId(), e -> e.getStatus() == EmailOutbox.Status.SENT);
+        assertThat(entry.getAttempts()).isEqualTo(1);
+        assertThat(entry.getSentAt()).isNotNull();
+    }
+
+    @Test
+    void failedSendIsRetriedAfterBackoff() throws Exception {
+        greenMail.stop();
+        Order order = createPendingOrder("retry@example.com");
+
+        orderFulfillmentService.fulfill(order.getStripeSessionId(), "pi_test");
+
+        // SMTPが停止中は送信に失敗し、再送待ちとして残る
+        EmailOutbox failed = awaitEntry(order.getId(), e -> e.getAttempts() >= 1);
+        assertThat(failed.getStatus()).isIn(EmailOutbox.Status.PENDING, EmailOutbox.Status.SENDING);
+        assertThat(failed.getLastError()).isNotBlank();
+
+        // 復旧後の再送で届く
+        greenMail.start();
+        assertThat(greenMail.waitForIncomingEmail(10_000, 1)).isTrue();
+        awaitEntry(order.getId(), e -> e.getStatus() == EmailOutbox.Status.SENT);
+    }
+
+    @Test
+    void sentEmailCanBeReplayed() throws Exception {
+        Order order = createPendingOrder("replay@example.com");
+        orderFulfillmentService.fulfill(order.getStripeSessionId(), "pi_test");
+        EmailOutbox sent = awaitEntry(order.getId(), e -> e.getStatus() == EmailOutbox.Status.SENT);
+
+        assertThat(emailOutboxService.replay(sent.getId())).isPresent();
+
+        assertThat(greenMail.waitForIncomingEmail(10_000, 2)).isTrue();
+    }
+
+    // ============================================
+    // ヘルパーメソッド
+    // ============================================
+
+    private Order createPendingOrder(String email) {
+        Order order = new Order();
+        order.setStripeSessionId("cs_test_" + UUID.randomUUID());
+        order.setCustomerName("テスト 太郎");
+        order.setCustomerEmail(email);
+        order.setPerformanceDate("2025-01-01-14");
+        order.setPerformanceLabel("2025年1月1日 14:00");
+        order.setGeneralQuantity(2);
+        order.setReservedQuantity(1);
+        order.setGeneralPrice(4500);
+        order.setReservedPrice(5500);
+        order.setTotalAmount(14500);
+        return orderRepository.save(order);
+    }
+
+    /**
+     * 注文のメールが条件を満たすまで待つ
+     */
+    private EmailOutbox awaitEntry(Long orderId, Predicate<EmailOutbox> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            List<EmailOutbox> entries = emailOutboxRepository.findByOrderIdOrderByIdDesc(orderId);
+            if (!entries.isEmpty() && condition.test(entries.get(0))) {
+                return entries.get(0);
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Email outbox entry for order " + orderId + " did not reach the expected state");
+    }
+}
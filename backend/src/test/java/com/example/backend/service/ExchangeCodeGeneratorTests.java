@@ -0,0 +1,49 @@
+package com.example.backend.service;
+
+import com.example.backend.util.ExchangeCodeChecksum;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 引換券コード ⇔ 40ビット整数の変換のテスト
+ */
+class ExchangeCodeGeneratorTests {
+
+    private static final long MAX_VALUE = (1L << 40) - 1;
+
+    @Test
+    void decodeThenEncodeRoundTrips() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            long value = random.nextLong() & MAX_VALUE;
+            String code = ExchangeCodeGenerator.decode(value);
+
+            assertThat(code).hasSize(ExchangeCodeChecksum.CODE_LENGTH);
+            assertThat(ExchangeCodeChecksum.isValid(code)).as(code).isTrue();
+            assertThat(ExchangeCodeGenerator.encode(code)).as(code).isEqualTo(value);
+        }
+    }
+
+    @Test
+    void roundTripsTheBoundaries() {
+        assertThat(ExchangeCodeGenerator.decode(0)).isEqualTo("AAAAAAAAA");
+        assertThat(ExchangeCodeGenerator.encode("AAAAAAAAA")).isZero();
+        assertThat(ExchangeCodeGenerator.encode(ExchangeCodeGenerator.decode(MAX_VALUE))).isEqualTo(MAX_VALUE);
+    }
+
+    @Test
+    void encodeThenDecodeRoundTrips() {
+        assertThat(ExchangeCodeGenerator.decode(ExchangeCodeGenerator.encode("ABCDEFGHW"))).isEqualTo("ABCDEFGHW");
+        assertThat(ExchangeCodeGenerator.decode(ExchangeCodeGenerator.encode("EASEL2345"))).isEqualTo("EASEL2345");
+    }
+
+    @Test
+    void encodeRejectsCodesWithoutAValidCheckCharacter() {
+        assertThat(ExchangeCodeGenerator.encode("ABCDEFGHX")).isEqualTo(-1);
+        assertThat(ExchangeCodeGenerator.encode("TEST001")).isEqualTo(-1);
+        assertThat(ExchangeCodeGenerator.encode(null)).isEqualTo(-1);
+    }
+}
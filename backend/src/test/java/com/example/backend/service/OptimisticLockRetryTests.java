@@ -0,0 +1,139 @@
+package com.example.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 楽観ロックの競合時の再実行のテスト
+ *
+ * 再実行の回数・待ち時間の上限と、既存のトランザクション内では再実行しないことを確認します。
+ */
+class OptimisticLockRetryTests {
+
+    private final CountingTransactionManager transactionManager = new CountingTransactionManager();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OptimisticLockRetry retry = new OptimisticLockRetry(transactionManager, meterRegistry);
+
+    @BeforeEach
+    void configure() {
+        ReflectionTestUtils.setField(retry, "maxAttempts", 4);
+        ReflectionTestUtils.setField(retry, "backoffMillis", 1L);
+        ReflectionTestUtils.setField(retry, "maxBackoffMillis", 5L);
+    }
+
+    @Test
+    void retriesInNewTransactionsUntilTheConflictClears() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = retry.execute("test-op", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw conflict();
+            }
+            return "done";
+        });
+
+        assertThat(result).isEqualTo("done");
+        assertThat(calls).hasValue(3);
+        assertThat(transactionManager.begun).hasValue(3);
+        assertThat(transactionManager.committed).hasValue(1);
+        assertThat(transactionManager.rolledBack).hasValue(2);
+        assertThat(conflicts("test-op")).isEqualTo(2.0);
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> retry.execute("test-op", () -> {
+            calls.incrementAndGet();
+            throw conflict();
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(calls).hasValue(4);
+        assertThat(conflicts("test-op")).isEqualTo(4.0);
+    }
+
+    @Test
+    void backoffIsCappedByMaxBackoff() {
+        // 上限がなければ 10秒 → 20秒 → 40秒 待つ設定
+        ReflectionTestUtils.setField(retry, "backoffMillis", 10_000L);
+        ReflectionTestUtils.setField(retry, "maxBackoffMillis", 20L);
+
+        long startedAt = System.nanoTime();
+        assertThatThrownBy(() -> retry.execute("test-op", () -> {
+            throw conflict();
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(System.nanoTime() - startedAt).isLessThan(2_000_000_000L);
+    }
+
+    @Test
+    void runsOnceWithoutRetryInsideAnExistingTransaction() {
+        AtomicInteger calls = new AtomicInteger();
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThatThrownBy(() -> retry.execute("test-op", () -> {
+                calls.incrementAndGet();
+                throw conflict();
+            })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        assertThat(calls).hasValue(1);
+        assertThat(transactionManager.begun).hasValue(0);
+        assertThat(conflicts("test-op")).isEqualTo(1.0);
+    }
+
+    private double conflicts(String operation) {
+        return meterRegistry.get("optimistic.lock.conflicts")
+                .tag("entity", "Performance")
+                .tag("operation", operation)
+                .counter()
+                .count();
+    }
+
+    private static ObjectOptimisticLockingFailureException conflict() {
+        return new ObjectOptimisticLockingFailureException("com.example.backend.entity.Performance", 1L);
+    }
+
+    /**
+     * 開始・コミット・ロールバックの回数だけを数えるトランザクションマネージャー
+     */
+    private static class CountingTransactionManager implements PlatformTransactionManager {
+
+        final AtomicInteger begun = new AtomicInteger();
+        final AtomicInteger committed = new AtomicInteger();
+        final AtomicInteger rolledBack = new AtomicInteger();
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            begun.incrementAndGet();
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            committed.incrementAndGet();
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            rolledBack.incrementAndGet();
+        }
+    }
+}
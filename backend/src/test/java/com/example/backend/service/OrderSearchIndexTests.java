@@ -0,0 +1,118 @@
+package com.example.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 注文検索用インメモリ索引のテスト
+ *
+ * 正規化（NFKC・カタカナ→ひらがな・空白とハイフンの除去）と、n文字組が項目の区切りをまたがないことを確認します。
+ */
+class OrderSearchIndexTests {
+
+    private static final char SEPARATOR = OrderSearchIndex.FIELD_SEPARATOR;
+
+    @Test
+    void normalizeFoldsFullWidthAndCase() {
+        assertThat(OrderSearchIndex.normalize("ＹＡＭＡＤＡ＠Ｅｘａｍｐｌｅ．ｃｏｍ")).isEqualTo("yamada@example.com");
+        assertThat(OrderSearchIndex.normalize("Taro１２３")).isEqualTo("taro123");
+    }
+
+    @Test
+    void normalizeConvertsKatakanaToHiragana() {
+        assertThat(OrderSearchIndex.normalize("ヤマダ")).isEqualTo("やまだ");
+        assertThat(OrderSearchIndex.normalize("ｻﾄｳ")).isEqualTo("さとう");
+        assertThat(OrderSearchIndex.normalize("ヴァイオリン")).isEqualTo("ゔぁいおりん");
+        // 長音記号はカタカナの範囲外なのでそのまま残す
+        assertThat(OrderSearchIndex.normalize("ルーシー")).isEqualTo("るーしー");
+    }
+
+    @Test
+    void normalizeDropsWhitespaceAndHyphens() {
+        assertThat(OrderSearchIndex.normalize("山田　太郎")).isEqualTo("山田太郎");
+        assertThat(OrderSearchIndex.normalize(" yamada taro ")).isEqualTo("yamadataro");
+        assertThat(OrderSearchIndex.normalize("090-1234‐5678−9‑0")).isEqualTo("0901234567890");
+        assertThat(OrderSearchIndex.normalize("０９０－１２３４")).isEqualTo("0901234");
+    }
+
+    @Test
+    void normalizeHandlesNullAndEmpty() {
+        assertThat(OrderSearchIndex.normalize(null)).isEmpty();
+        assertThat(OrderSearchIndex.normalize("")).isEmpty();
+        assertThat(OrderSearchIndex.normalize("\u0001")).isEmpty();
+    }
+
+    @Test
+    void gramsSkipTheFieldSeparator() {
+        String document = "abc" + SEPARATOR + "de" + SEPARATOR + "f";
+
+        assertThat(OrderSearchIndex.grams(document, 2))
+                .containsExactly(union(OrderSearchIndex.grams("abc", 2), OrderSearchIndex.grams("de", 2)));
+        assertThat(OrderSearchIndex.grams(document, 3))
+                .containsExactly(OrderSearchIndex.grams("abc", 3));
+    }
+
+    @Test
+    void gramsAreSortedAndUnique() {
+        assertThat(OrderSearchIndex.grams("aaaa", 2)).hasSize(1);
+        assertThat(OrderSearchIndex.grams("abab", 2)).hasSize(2);
+        assertThat(OrderSearchIndex.grams("a", 2)).isEmpty();
+
+        long[] grams = OrderSearchIndex.grams("やまだたろう", 2);
+        assertThat(grams).hasSize(5).isSorted();
+    }
+
+    @Test
+    void bigramsAndTrigramsDoNotCollide() {
+        long[] bigrams = OrderSearchIndex.grams("abc", 2);
+        long[] trigrams = OrderSearchIndex.grams("abc", 3);
+        assertThat(trigrams).hasSize(1);
+        assertThat(bigrams).doesNotContain(trigrams[0]);
+    }
+
+    @Test
+    void searchFindsNormalizedSubstringsNewestFirst() {
+        OrderSearchIndex index = new OrderSearchIndex(null);
+        index.put(1, "山田 太郎", "taro@example.com", "090-1234-5678");
+        index.put(2, "ヤマダ ハナコ", "hanako@example.com", "080-0000-1111");
+        index.put(3, "やまだ じろう", "jiro@example.com", null);
+
+        assertThat(index.search("やまだ", 10)).containsExactly(3L, 2L);
+        assertThat(index.search("ヤマダ", 10)).containsExactly(3L, 2L);
+        assertThat(index.search("12345678", 10)).containsExactly(1L);
+        assertThat(index.search("ＴＡＲＯ＠", 10)).containsExactly(1L);
+        assertThat(index.search("やまだ", 1)).containsExactly(3L);
+        assertThat(index.search("や", 10)).isEmpty();
+    }
+
+    @Test
+    void searchDoesNotMatchAcrossFields() {
+        OrderSearchIndex index = new OrderSearchIndex(null);
+        index.put(1, "ab", "cd@example.com", null);
+
+        assertThat(index.search("bc", 10)).isEmpty();
+        assertThat(index.search("abc", 10)).isEmpty();
+    }
+
+    @Test
+    void putReplacesAndRemoveDeletesPostings() {
+        OrderSearchIndex index = new OrderSearchIndex(null);
+        index.put(1, "佐藤", "sato@example.com", null);
+        index.put(1, "鈴木", "suzuki@example.com", null);
+
+        assertThat(index.search("佐藤", 10)).isEmpty();
+        assertThat(index.search("鈴木", 10)).containsExactly(1L);
+
+        index.remove(1);
+        assertThat(index.search("鈴木", 10)).isEmpty();
+        assertThat(index.search("suzuki", 10)).isEmpty();
+    }
+
+    private static long[] union(long[] a, long[] b) {
+        return LongStream.concat(Arrays.stream(a), Arrays.stream(b)).sorted().distinct().toArray();
+    }
+}
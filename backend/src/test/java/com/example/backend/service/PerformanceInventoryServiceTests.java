@@ -0,0 +1,146 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.Order;
+import com.example.backend.entity.Order.OrderStatus;
+import com.example.backend.entity.Performance;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.PerformanceRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 公演の販売済み数のテスト
+ *
+ * 行がない公演は支払い済みの注文だけから数え直して作り、その後は増減で更新されることを確認します。
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PerformanceInventoryServiceTests {
+
+    @Autowired
+    private PerformanceRepository performanceRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PerformanceInventoryService performanceInventoryService;
+
+    @Test
+    void seedCountsOnlyPaidOrders() {
+        Performance performance = createPerformance();
+        createOrder(performance, OrderStatus.PAID, 2, 1);
+        createOrder(performance, OrderStatus.PAID, 3, 0);
+        createOrder(performance, OrderStatus.PENDING, 5, 5);
+        createOrder(performance, OrderStatus.CANCELLED, 4, 4);
+        createOrder(performance, OrderStatus.REFUNDED, 1, 1);
+        Performance empty = createPerformance();
+
+        performanceInventoryService.seedMissing();
+
+        assertSold(performance, 5, 1);
+        assertSold(empty, 0, 0);
+    }
+
+    @Test
+    void seedDoesNotOverwriteExistingRows() {
+        Performance performance = createPerformance();
+        createOrder(performance, OrderStatus.PAID, 2, 1);
+        performanceInventoryService.seedMissing();
+
+        // 行ができた後の注文は、seedMissing ではなく adjust で反映される
+        createOrder(performance, OrderStatus.PAID, 4, 0);
+        performanceInventoryService.seedMissing();
+
+        assertSold(performance, 2, 1);
+    }
+
+    @Test
+    void firstAdjustmentSeedsFromPaidOrdersWithoutCountingTwice() {
+        Performance performance = createPerformance();
+        createOrder(performance, OrderStatus.PAID, 1, 0);
+        // 決済完了でDBに反映済みの注文（adjust の前提どおり）
+        createOrder(performance, OrderStatus.PAID, 2, 1);
+
+        performanceInventoryService.adjust(performance.getId(), 2, 1);
+
+        assertSold(performance, 3, 1);
+    }
+
+    @Test
+    void adjustmentsAddAndRelease() {
+        Performance performance = createPerformance();
+        performanceInventoryService.seedMissing();
+
+        performanceInventoryService.adjust(performance.getId(), 2, 1);
+        performanceInventoryService.adjust(performance.getId(), 3, 2);
+        assertSold(performance, 5, 3);
+
+        // キャンセル・返金で解放
+        performanceInventoryService.adjust(performance.getId(), -2, -1);
+        assertSold(performance, 3, 2);
+
+        performanceInventoryService.adjust(performance.getId(), 0, 0);
+        assertSold(performance, 3, 2);
+    }
+
+    @Test
+    void adjustingDoesNotBumpThePerformanceVersion() {
+        Performance performance = createPerformance();
+        Long version = performance.getVersion();
+
+        performanceInventoryService.adjust(performance.getId(), 2, 0);
+
+        assertThat(performanceRepository.findById(performance.getId()).orElseThrow().getVersion())
+                .isEqualTo(version);
+    }
+
+    // ============================================
+    // ヘルパーメソッド
+    // ============================================
+
+    private void assertSold(Performance performance, int general, int reserved) {
+        Performance filled = performanceInventoryService.fill(
+                performanceRepository.findById(performance.getId()).orElseThrow());
+        assertThat(filled.getGeneralSold()).as("generalSold").isEqualTo(general);
+        assertThat(filled.getReservedSold()).as("reservedSold").isEqualTo(reserved);
+    }
+
+    private Performance createPerformance() {
+        Performance performance = new Performance();
+        performance.setTitle("テスト公演");
+        performance.setPerformanceDate(LocalDate.of(2025, 1, 1));
+        performance.setPerformanceTime(LocalTime.of(14, 0));
+        performance.setVenueName("テスト会場");
+        performance.setGeneralPrice(4500);
+        performance.setReservedPrice(5500);
+        performance.setGeneralCapacity(100);
+        performance.setReservedCapacity(30);
+        return performanceRepository.save(performance);
+    }
+
+    private void createOrder(Performance performance, OrderStatus status, int general, int reserved) {
+        Order order = new Order();
+        order.setStripeSessionId("cs_test_" + UUID.randomUUID());
+        order.setCustomerName("テスト 太郎");
+        order.setCustomerEmail("inventory@example.com");
+        order.setPerformance(performance);
+        order.setPerformanceDate("2025-01-01-14");
+        order.setPerformanceLabel("2025年1月1日 14:00");
+        order.setGeneralQuantity(general);
+        order.setReservedQuantity(reserved);
+        order.setGeneralPrice(4500);
+        order.setReservedPrice(5500);
+        order.setTotalAmount(general * 4500 + reserved * 5500);
+        order.setStatus(status);
+        orderRepository.save(order);
+    }
+}
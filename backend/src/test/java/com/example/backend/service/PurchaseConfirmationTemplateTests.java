@@ -0,0 +1,164 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.Order;
+import com.example.backend.entity.Ticket;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 購入完了メールのテンプレートのテスト
+ *
+ * 差し込み位置がすべて埋まること、顧客名・公演名がHTMLエスケープされること、
+ * QRコードが cid: では画像のみ、URLではリンク付きで埋め込まれることを確認します。
+ */
+class PurchaseConfirmationTemplateTests {
+
+    private final PurchaseConfirmationTemplate template = new PurchaseConfirmationTemplate("https://easel.example");
+
+    @Test
+    void fillsEverySlot() {
+        Order order = order("山田 太郎", "2025年1月1日 14:00");
+        order.setDiscountAmount(4500);
+        Ticket general = ticket(order, Ticket.TicketType.GENERAL, "general-code", false);
+        Ticket reserved = ticket(order, Ticket.TicketType.RESERVED, "reserved-code", true);
+
+        String html = template.render(order, List.of(general, reserved), Map.of());
+
+        assertThat(html)
+                .doesNotContain("{{")
+                .doesNotContain("}}")
+                .contains("山田 太郎 様")
+                .contains("#42")
+                .contains("2025年1月1日 09:05")
+                .contains("2025年1月1日 14:00")
+                .contains("¥1,234,500")
+                .contains("（引換券適用: -¥4,500）")
+                .contains("href=\"https://easel.example\"")
+                .contains("一般席（自由席） (1枚)")
+                .contains("指定席 (1枚)")
+                .contains("general-code")
+                .contains("reserved-code")
+                .contains("引換券使用");
+        assertThat(html.indexOf("general-code")).isLessThan(html.indexOf("reserved-code"));
+    }
+
+    @Test
+    void omitsEmptySectionsAndDiscount() {
+        Order order = order("山田 太郎", "2025年1月1日 14:00");
+        Ticket general = ticket(order, Ticket.TicketType.GENERAL, "general-code", false);
+
+        String html = template.render(order, List.of(general), Map.of());
+
+        assertThat(html)
+                .contains("一般席（自由席） (1枚)")
+                .doesNotContain("指定席 (")
+                .doesNotContain("引換券適用")
+                .doesNotContain("引換券使用");
+    }
+
+    @Test
+    void fallsBackToPerformanceDateWithoutLabel() {
+        Order order = order("山田 太郎", null);
+
+        assertThat(template.render(order, List.of(), Map.of())).contains("2025-01-01-14");
+    }
+
+    @Test
+    void escapesCustomerNameAndPerformanceLabel() {
+        Order order = order("<script>alert('x')</script>", "A & B \"Live\"");
+
+        String html = template.render(order, List.of(), Map.of());
+
+        assertThat(html)
+                .doesNotContain("<script>")
+                .contains("&lt;script&gt;alert(&#39;x&#39;)&lt;/script&gt; 様")
+                .contains("A &amp; B &quot;Live&quot;");
+    }
+
+    @Test
+    void embedsInlineQRCodeAsImageOnly() {
+        Order order = order("山田 太郎", null);
+        Ticket ticket = ticket(order, Ticket.TicketType.GENERAL, "inline-code", false);
+
+        String html = template.render(order, List.of(ticket), Map.of("inline-code", "cid:qr-inline-code"));
+
+        assertThat(html)
+                .contains("<img src=\"cid:qr-inline-code\"")
+                .doesNotContain("<a href=\"cid:");
+    }
+
+    @Test
+    void wrapsLinkedQRCodeInAnEscapedLink() {
+        Order order = order("山田 太郎", null);
+        Ticket ticket = ticket(order, Ticket.TicketType.GENERAL, "link-code", false);
+        String url = "https://easel.example/api/qrcode/link/link-code?expires=1&signature=a&b";
+
+        String html = template.render(order, List.of(ticket), Map.of("link-code", url));
+
+        String escaped = "https://easel.example/api/qrcode/link/link-code?expires=1&amp;signature=a&amp;b";
+        assertThat(html)
+                .contains("<a href=\"" + escaped + "\"><img src=\"" + escaped + "\"")
+                .contains("</a>");
+    }
+
+    @Test
+    void skipsQRCodeForTicketsWithoutImage() {
+        Order order = order("山田 太郎", null);
+        Ticket ticket = ticket(order, Ticket.TicketType.GENERAL, "no-image", false);
+
+        assertThat(template.render(order, List.of(ticket), Map.of())).doesNotContain("<img");
+    }
+
+    @Test
+    void groupsDigitsLikeStringFormat() {
+        for (long value : new long[] {0, 7, 999, 1000, 12345, 999999, 1000000, -4500, Long.MAX_VALUE}) {
+            StringBuilder out = new StringBuilder();
+            PurchaseConfirmationTemplate.appendGrouped(out, value);
+            assertThat(out.toString()).isEqualTo(String.format("%,d", value));
+        }
+    }
+
+    @Test
+    void templateParsingRejectsUnknownAndMissingSlots() {
+        assertThatThrownBy(() -> EmailTemplate.parse("test", "{{ticketCode}} {{unknown}}",
+                PurchaseConfirmationTemplate.TicketSlot.class))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("unknown");
+        assertThatThrownBy(() -> EmailTemplate.parse("test", "{{ticketCode}}",
+                PurchaseConfirmationTemplate.TicketSlot.class))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("missing slots");
+        assertThatThrownBy(() -> EmailTemplate.parse("test", "{{ticketCode",
+                PurchaseConfirmationTemplate.TicketSlot.class))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Unclosed");
+    }
+
+    // ============================================
+    // ヘルパーメソッド
+    // ============================================
+
+    private static Order order(String customerName, String performanceLabel) {
+        Order order = new Order();
+        order.setId(42L);
+        order.setCustomerName(customerName);
+        order.setCustomerEmail("buyer@example.com");
+        order.setPerformanceDate("2025-01-01-14");
+        order.setPerformanceLabel(performanceLabel);
+        order.setTotalAmount(1234500);
+        order.setCreatedAt(LocalDateTime.of(2025, 1, 1, 9, 5));
+        return order;
+    }
+
+    private static Ticket ticket(Order order, Ticket.TicketType type, String code, boolean exchanged) {
+        Ticket ticket = new Ticket(order, type, exchanged);
+        ticket.setTicketCode(code);
+        return ticket;
+    }
+}
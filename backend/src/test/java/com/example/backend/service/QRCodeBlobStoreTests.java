@@ -0,0 +1,114 @@
+package com.example.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * QRコード保存領域のテスト
+ *
+ * 保存・再起動後の読み出しと、圧縮で不要なチケットの分だけが取り除かれることを確認します。
+ */
+class QRCodeBlobStoreTests {
+
+    private static final String KEEP = "11111111-1111-1111-1111-111111111111";
+    private static final String DROP = "22222222-2222-2222-2222-222222222222";
+
+    @TempDir
+    Path directory;
+
+    private final QRCodeService qrCodeService = new QRCodeService();
+    private Path file;
+    private QRCodeBlobStore store;
+
+    @BeforeEach
+    void open() throws Exception {
+        file = directory.resolve("qrcode-blobs.dat");
+        store = new QRCodeBlobStore(qrCodeService, file.toString());
+        store.open();
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        store.close();
+    }
+
+    @Test
+    void storedImagesSurviveReopen() throws Exception {
+        byte[] png = store.getOrRender(KEEP, QRCodeFormat.PNG, QRCodeService.DEFAULT_SIZE);
+        byte[] svg = store.getOrRender(KEEP, QRCodeFormat.SVG, QRCodeService.DEFAULT_SIZE);
+
+        reopen();
+
+        assertThat(store.read(KEEP, QRCodeFormat.PNG, QRCodeService.DEFAULT_SIZE)).isEqualTo(png);
+        assertThat(store.read(KEEP, QRCodeFormat.SVG, QRCodeService.DEFAULT_SIZE)).isEqualTo(svg);
+        assertThat(store.read(DROP, QRCodeFormat.PNG, QRCodeService.DEFAULT_SIZE)).isNull();
+    }
+
+    @Test
+    void compactionDropsOnlyUnlistedTickets() throws Exception {
+        byte[] keptPng = store.getOrRender(KEEP, QRCodeFormat.PNG, QRCodeService.DEFAULT_SIZE);
+        byte[] keptEmail = store.getOrRender(KEEP, QRCodeFormat.PNG, QRCodeService.EMAIL_SIZE);
+        store.getOrRender(DROP, QRCodeFormat.PNG, QRCodeService.DEFAULT_SIZE);
+        store.getOrRender(DROP, QRCodeFormat.SVG, QRCodeService.DEFAULT_SIZE);
+        long before = Files.size(file);
+
+        assertThat(store.compact(Set.of(KEEP))).isEqualTo(2);
+
+        assertThat(Files.size(file)).isLessThan(before);
+        assertThat(store.read(KEEP, QRCodeFormat.PNG, QRCodeService.DEFAULT_SIZE)).isEqualTo(keptPng);
+        assertThat(store.read(KEEP, QRCodeFormat.PNG, QRCodeService.EMAIL_SIZE)).isEqualTo(keptEmail);
+        assertThat(store.read(DROP, QRCodeFormat.PNG, QRCodeService.DEFAULT_SIZE)).isNull();
+
+        reopen();
+        assertThat(store.read(KEEP, QRCodeFormat.PNG, QRCodeService.DEFAULT_SIZE)).isEqualTo(keptPng);
+        assertThat(store.read(DROP, QRCodeFormat.SVG, QRCodeService.DEFAULT_SIZE)).isNull();
+        assertThat(Files.exists(directory.resolve("qrcode-blobs.dat.compact"))).isFalse();
+    }
+
+    @Test
+    void compactionWithNothingToDropKeepsTheFile() throws Exception {
+        store.getOrRender(KEEP, QRCodeFormat.PNG, QRCodeService.DEFAULT_SIZE);
+        long before = Files.size(file);
+
+        assertThat(store.compact(Set.of(KEEP))).isZero();
+        assertThat(Files.size(file)).isEqualTo(before);
+    }
+
+    @Test
+    void locationTakenBeforeCompactionStillTransfers() throws Exception {
+        byte[] png = store.getOrRender(KEEP, QRCodeFormat.PNG, QRCodeService.DEFAULT_SIZE);
+        store.getOrRender(DROP, QRCodeFormat.PNG, QRCodeService.DEFAULT_SIZE);
+        QRCodeBlobStore.Location location = store.locate(KEEP, QRCodeFormat.PNG, QRCodeService.DEFAULT_SIZE);
+
+        store.compact(Set.of(KEEP));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        store.transferTo(location, Channels.newChannel(out));
+        assertThat(out.toByteArray()).isEqualTo(png);
+    }
+
+    @Test
+    void droppedTicketIsRenderedAgainOnDemand() throws Exception {
+        byte[] png = store.getOrRender(DROP, QRCodeFormat.PNG, QRCodeService.DEFAULT_SIZE);
+        store.compact(Set.of());
+
+        assertThat(store.getOrRender(DROP, QRCodeFormat.PNG, QRCodeService.DEFAULT_SIZE)).isEqualTo(png);
+        assertThat(store.read(DROP, QRCodeFormat.PNG, QRCodeService.DEFAULT_SIZE)).isEqualTo(png);
+    }
+
+    private void reopen() throws Exception {
+        store.close();
+        store = new QRCodeBlobStore(qrCodeService, file.toString());
+        store.open();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.backend.service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * QRコード専用PNGエンコーダーのテスト
+ *
+ * 出力を ImageIO で読み込み、ZXing の QRCodeWriter が作る BitMatrix と1ピクセルずつ一致することを確認します。
+ */
+class QRCodePngEncoderTests {
+
+    private static final String TICKET_CODE = "3f2b8c1e-6d4a-4e8f-9b7a-2c5d1e0f9a84";
+
+    private final QRCodeService qrCodeService = new QRCodeService();
+
+    @Test
+    void matchesQRCodeWriterAtDefaultAndEmailSizes() throws Exception {
+        assertMatchesWriter(TICKET_CODE, QRCodeService.DEFAULT_SIZE, QRCodeService.DEFAULT_SIZE);
+        assertMatchesWriter(TICKET_CODE, QRCodeService.EMAIL_SIZE, QRCodeService.EMAIL_SIZE);
+    }
+
+    @Test
+    void matchesQRCodeWriterWhenSizeIsNotAMultipleOfModules() throws Exception {
+        assertMatchesWriter(TICKET_CODE, 301, 301);
+        assertMatchesWriter(TICKET_CODE, 300, 200);
+        assertMatchesWriter("https://example.com/tickets/" + TICKET_CODE, 257, 333);
+    }
+
+    @Test
+    void growsToQuietZoneWhenRequestedSizeIsTooSmall() throws Exception {
+        assertMatchesWriter(TICKET_CODE, 1, 1);
+    }
+
+    @Test
+    void chunksHaveValidLengthsAndCrcs() throws Exception {
+        byte[] png = qrCodeService.generateQRCodeImage(TICKET_CODE);
+        ByteBuffer buffer = ByteBuffer.wrap(png);
+
+        byte[] signature = new byte[8];
+        buffer.get(signature);
+        assertThat(signature).containsExactly(0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n');
+
+        List<String> types = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            int length = buffer.getInt();
+            byte[] typeAndData = new byte[4 + length];
+            buffer.get(typeAndData);
+            CRC32 crc = new CRC32();
+            crc.update(typeAndData);
+            assertThat(buffer.getInt()).isEqualTo((int) crc.getValue());
+
+            String type = new String(typeAndData, 0, 4, StandardCharsets.US_ASCII);
+            types.add(type);
+            if (type.equals("IHDR")) {
+                assertThat(typeAndData[4 + 8]).isEqualTo((byte) 1);  // ビット深度
+                assertThat(typeAndData[4 + 9]).isEqualTo((byte) 0);  // グレースケール
+            }
+        }
+        assertThat(types).containsExactly("IHDR", "IDAT", "IEND");
+    }
+
+    private void assertMatchesWriter(String text, int width, int height) throws Exception {
+        BitMatrix expected = new QRCodeWriter().encode(text, BarcodeFormat.QR_CODE, width, height);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(
+                qrCodeService.generateQRCodeImage(text, width, height)));
+
+        assertThat(image.getWidth()).isEqualTo(expected.getWidth());
+        assertThat(image.getHeight()).isEqualTo(expected.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                boolean dark = (image.getRGB(x, y) & 0xFFFFFF) == 0;
+                assertThat(dark)
+                        .as("pixel (%d, %d) of %dx%d", x, y, width, height)
+                        .isEqualTo(expected.get(x, y));
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * ブルームフィルターのテスト
+ *
+ * 追加した要素は必ず「含まれている」と答えること（偽陰性なし）と、想定件数での偽陽性率を確認します。
+ */
+class BloomFilterTests {
+
+    @Test
+    void neverReportsAnAddedHashAsMissing() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        SplittableRandom random = new SplittableRandom(1);
+        long[] hashes = new long[10_000];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = random.nextLong();
+            filter.put(hashes[i]);
+        }
+
+        for (long hash : hashes) {
+            assertThat(filter.mightContain(hash)).isTrue();
+        }
+    }
+
+    @Test
+    void keepsTheFalsePositiveRateAtExpectedInsertions() {
+        int expected = 100_000;
+        BloomFilter filter = new BloomFilter(expected, 0.01);
+        for (int i = 0; i < expected; i++) {
+            filter.put(LongHashSet.hash64("CODE" + i));
+        }
+
+        int trials = 200_000;
+        int falsePositives = 0;
+        for (int i = 0; i < trials; i++) {
+            if (filter.mightContain(LongHashSet.hash64("MISSING" + i))) {
+                falsePositives++;
+            }
+        }
+        // 想定 1%。ばらつきを見込んで 1.5% までを許容する
+        assertThat((double) falsePositives / trials).isLessThan(0.015);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        assertThat(filter.mightContain(LongHashSet.hash64("ABCDEFGHW"))).isFalse();
+        assertThat(filter.mightContain(0)).isFalse();
+        assertThat(filter.expectedInsertions()).isEqualTo(100);
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThatThrownBy(() -> new BloomFilter(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BloomFilter(100, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BloomFilter(100, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
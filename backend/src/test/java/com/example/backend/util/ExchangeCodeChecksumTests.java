@@ -0,0 +1,79 @@
+package com.example.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 引換券コードのチェック文字（Luhn mod 32）のテスト
+ *
+ * 正しいコードを受け付け、1文字の打ち間違いはすべて弾くこと、旧形式のコードは設定どおりに扱うことを確認します。
+ */
+class ExchangeCodeChecksumTests {
+
+    private static final String KNOWN_GOOD = "ABCDEFGHW";
+
+    @Test
+    void acceptsKnownGoodCodes() {
+        assertThat(ExchangeCodeChecksum.isValid(KNOWN_GOOD)).isTrue();
+        assertThat(ExchangeCodeChecksum.isValid("EASEL2345")).isTrue();
+        assertThat(ExchangeCodeChecksum.isValid("AAAAAAAAA")).isTrue();
+        assertThat(ExchangeCodeChecksum.isPlausible(KNOWN_GOOD, false)).isTrue();
+        assertThat(ExchangeCodeChecksum.isPlausible(KNOWN_GOOD, true)).isTrue();
+    }
+
+    @Test
+    void appendProducesTheCheckCharacter() {
+        assertThat(ExchangeCodeChecksum.append("ABCDEFGH")).isEqualTo(KNOWN_GOOD);
+        assertThat(ExchangeCodeChecksum.append("EASEL234")).isEqualTo("EASEL2345");
+        assertThat(ExchangeCodeChecksum.isValid(ExchangeCodeChecksum.append("ZZZZZZZZ"))).isTrue();
+    }
+
+    @Test
+    void rejectsEverySingleCharacterSubstitution() {
+        for (int position = 0; position < KNOWN_GOOD.length(); position++) {
+            for (char c : ExchangeCodeChecksum.ALPHABET.toCharArray()) {
+                if (c == KNOWN_GOOD.charAt(position)) {
+                    continue;
+                }
+                String typo = KNOWN_GOOD.substring(0, position) + c + KNOWN_GOOD.substring(position + 1);
+                assertThat(ExchangeCodeChecksum.isValid(typo)).as(typo).isFalse();
+                // チェック文字付きの形式なので、旧形式を受け付ける設定でも弾く
+                assertThat(ExchangeCodeChecksum.isPlausible(typo, true)).as(typo).isFalse();
+            }
+        }
+    }
+
+    @Test
+    void excludesConfusableCharacters() {
+        for (char c : new char[] {'I', 'O', '0', '1', 'a'}) {
+            assertThat(ExchangeCodeChecksum.indexOf(c)).isEqualTo(-1);
+        }
+        assertThat(ExchangeCodeChecksum.indexOf('あ')).isEqualTo(-1);
+        assertThat(ExchangeCodeChecksum.hasChecksumFormat("ABCDEFGH0")).isFalse();
+        assertThat(ExchangeCodeChecksum.isValid("ABCDEFGH0")).isFalse();
+    }
+
+    @Test
+    void legacyCodesDependOnAllowLegacy() {
+        assertThat(ExchangeCodeChecksum.hasChecksumFormat("TEST001")).isFalse();
+        assertThat(ExchangeCodeChecksum.isValid("TEST001")).isFalse();
+        assertThat(ExchangeCodeChecksum.isPlausible("TEST001", true)).isTrue();
+        assertThat(ExchangeCodeChecksum.isPlausible("TEST001", false)).isFalse();
+
+        // 長さが違えば、使える文字だけでも旧形式として扱う
+        assertThat(ExchangeCodeChecksum.isPlausible("ABCDEFGH", true)).isTrue();
+        assertThat(ExchangeCodeChecksum.isPlausible("ABCDEFGH", false)).isFalse();
+    }
+
+    @Test
+    void rejectsEmptyAndTooLongCodesRegardlessOfAllowLegacy() {
+        String tooLong = "A".repeat(ExchangeCodeChecksum.MAX_LENGTH + 1);
+        for (boolean allowLegacy : new boolean[] {true, false}) {
+            assertThat(ExchangeCodeChecksum.isPlausible(null, allowLegacy)).isFalse();
+            assertThat(ExchangeCodeChecksum.isPlausible("", allowLegacy)).isFalse();
+            assertThat(ExchangeCodeChecksum.isPlausible(tooLong, allowLegacy)).isFalse();
+        }
+        assertThat(ExchangeCodeChecksum.isPlausible("A".repeat(ExchangeCodeChecksum.MAX_LENGTH), true)).isTrue();
+    }
+}
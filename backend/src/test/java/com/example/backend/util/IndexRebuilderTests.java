@@ -0,0 +1,67 @@
+package com.example.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * インメモリ索引の再構築のテスト
+ *
+ * 構築中に届いた更新が新しい表に再適用されること、構築に失敗したら記録をやめることを確認します。
+ */
+class IndexRebuilderTests {
+
+    private final IndexRebuilder<List<String>, String> rebuilder = new IndexRebuilder<>(new ReentrantReadWriteLock());
+    private List<String> current = new ArrayList<>();
+
+    @Test
+    void updatesDuringBuildAreReplayedBeforeSwap() {
+        IndexRebuilder.Result<List<String>> result = rebuilder.rebuild(() -> {
+            List<String> built = new ArrayList<>(List.of("db"));
+            update("during");
+            return built;
+        }, List::add, built -> current = built);
+
+        assertThat(result.replayed()).isEqualTo(1);
+        assertThat(result.table()).isSameAs(current);
+        assertThat(current).containsExactly("db", "during");
+    }
+
+    @Test
+    void updatesOutsideBuildAreNotRecorded() {
+        update("before");
+        IndexRebuilder.Result<List<String>> result = rebuilder.rebuild(ArrayList::new, List::add,
+                built -> current = built);
+        update("after");
+
+        assertThat(result.replayed()).isZero();
+        assertThat(current).containsExactly("after");
+    }
+
+    @Test
+    void failedBuildKeepsCurrentTableAndStopsRecording() {
+        update("kept");
+
+        assertThatThrownBy(() -> rebuilder.rebuild(() -> {
+            update("during");
+            throw new IllegalStateException("db down");
+        }, List::add, built -> current = built)).hasMessage("db down");
+
+        IndexRebuilder.Result<List<String>> result = rebuilder.rebuild(ArrayList::new, List::add,
+                built -> current = built);
+        assertThat(result.replayed()).isZero();
+    }
+
+    // ============================================
+    // ヘルパーメソッド
+    // ============================================
+
+    private void update(String value) {
+        rebuilder.update(value, () -> current.add(value));
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * long → int ハッシュマップのテスト
+ *
+ * 追加・上書き・削除・拡張を {@link HashMap} と突き合わせて確認します。
+ */
+class LongIntHashMapTests {
+
+    private static final int MISSING = -1;
+
+    @Test
+    void putGetAndOverwrite() {
+        LongIntHashMap map = new LongIntHashMap(16);
+        map.put(42L, 1);
+        map.put(-7L, 2);
+
+        assertThat(map.get(42L, MISSING)).isEqualTo(1);
+        assertThat(map.get(-7L, MISSING)).isEqualTo(2);
+        assertThat(map.get(43L, MISSING)).isEqualTo(MISSING);
+
+        map.put(42L, 3);
+        assertThat(map.get(42L, MISSING)).isEqualTo(3);
+        assertThat(map.size()).isEqualTo(2);
+    }
+
+    @Test
+    void zeroKeyIsStoredSeparately() {
+        LongIntHashMap map = new LongIntHashMap(16);
+        assertThat(map.get(0L, MISSING)).isEqualTo(MISSING);
+        assertThat(map.remove(0L)).isFalse();
+
+        map.put(0L, 5);
+        map.put(0L, 6);
+        assertThat(map.get(0L, MISSING)).isEqualTo(6);
+        assertThat(map.size()).isEqualTo(1);
+
+        Set<Long> keys = new HashSet<>();
+        map.forEachKey(keys::add);
+        assertThat(keys).isEmpty();
+
+        assertThat(map.remove(0L)).isTrue();
+        assertThat(map.get(0L, MISSING)).isEqualTo(MISSING);
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    void growsBeyondTheExpectedSize() {
+        LongIntHashMap map = new LongIntHashMap(16);
+        for (int i = 1; i <= 100_000; i++) {
+            map.put(i * 31L, i);
+        }
+
+        assertThat(map.size()).isEqualTo(100_000);
+        for (int i = 1; i <= 100_000; i++) {
+            assertThat(map.get(i * 31L, MISSING)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void removeKeepsProbeChainsIntact() {
+        LongIntHashMap map = new LongIntHashMap(16);
+        for (int i = 1; i <= 1_000; i++) {
+            map.put(i, i);
+        }
+        for (int i = 1; i <= 1_000; i += 2) {
+            assertThat(map.remove(i)).isTrue();
+        }
+
+        assertThat(map.size()).isEqualTo(500);
+        for (int i = 1; i <= 1_000; i++) {
+            assertThat(map.get(i, MISSING)).isEqualTo(i % 2 == 0 ? i : MISSING);
+        }
+        assertThat(map.remove(1)).isFalse();
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        LongIntHashMap map = new LongIntHashMap(16);
+        Map<Long, Integer> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(7);
+
+        for (int i = 0; i < 200_000; i++) {
+            // キーの範囲を狭くして、上書き・削除・衝突が起きやすいようにする
+            long key = random.nextLong(-2_000, 2_000);
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key) != null);
+            } else {
+                int value = random.nextInt();
+                map.put(key, value);
+                expected.put(key, value);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = -2_000; key < 2_000; key++) {
+            assertThat(map.get(key, MISSING)).isEqualTo(expected.getOrDefault(key, MISSING));
+        }
+
+        Set<Long> keys = new HashSet<>();
+        map.forEachKey(keys::add);
+        Set<Long> expectedKeys = new HashSet<>(expected.keySet());
+        expectedKeys.remove(0L);
+        assertThat(keys).isEqualTo(expectedKeys);
+    }
+}
@@ -46,6 +46,8 @@ import PerformancesAdmin from './pages/admin/PerformancesAdmin';
 import ExchangeCodesAdmin from './pages/admin/ExchangeCodesAdmin';
 import TicketsAdmin from './pages/admin/TicketsAdmin';
 import CheckIn from './pages/admin/CheckIn';
+import EmailOutboxAdmin from './pages/admin/EmailOutboxAdmin';
+import MailCampaignAdmin from './pages/admin/MailCampaignAdmin';
 
 function App() {
   return (
@@ -96,6 +98,8 @@ function App() {
         <Route path="/admin/performances" element={<AdminLayout><PerformancesAdmin /></AdminLayout>} />
         <Route path="/admin/exchange-codes" element={<AdminLayout><ExchangeCodesAdmin /></AdminLayout>} />
         <Route path="/admin/tickets" element={<AdminLayout><TicketsAdmin /></AdminLayout>} />
+        <Route path="/admin/email-outbox" element={<AdminLayout><EmailOutboxAdmin /></AdminLayout>} />
+        <Route path="/admin/mail-campaigns" element={<AdminLayout><MailCampaignAdmin /></AdminLayout>} />
         
         {/* Check-in (standalone, no layout) */}
         <Route path="/admin/check-in" element={<CheckIn />} />
@@ -1,6 +1,6 @@
 import { useState, useEffect } from 'react';
 import { Link } from 'react-router-dom';
-import { Newspaper, Calendar, Ticket, ShoppingCart, TrendingUp, LogOut, User, Scan } from 'lucide-react';
+import { Newspaper, Calendar, Ticket, ShoppingCart, TrendingUp, LogOut, User, Scan, Mail, Send } from 'lucide-react';
 import { adminFetch, logout, getCurrentUser } from '../../utils/adminApi';
 
 interface Stats {
@@ -72,6 +72,20 @@ export default function Dashboard() {
       path: '/admin/tickets',
       color: 'bg-orange-500',
     },
+    {
+      title: 'メール送信状況',
+      description: '購入完了メールの送信状況確認・再送',
+      icon: Mail,
+      path: '/admin/email-outbox',
+      color: 'bg-slate-500',
+    },
+    {
+      title: 'お知らせメール配信',
+      description: '購入者へのお知らせメールの一斉配信',
+      icon: Send,
+      path: '/admin/mail-campaigns',
+      color: 'bg-teal-500',
+    },
   ];
 
   return (
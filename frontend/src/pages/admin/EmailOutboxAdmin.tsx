@@ -0,0 +1,255 @@
+import { useState, useEffect } from 'react';
+import { Link } from 'react-router-dom';
+import { ArrowLeft, Mail, RefreshCw, RotateCcw } from 'lucide-react';
+import { adminFetch } from '../../utils/adminApi';
+
+// ============================================
+// 型定義
+// ============================================
+
+type OutboxStatus = 'PENDING' | 'SENDING' | 'SENT' | 'FAILED';
+
+interface OutboxEntry {
+  id: number;
+  type: string;
+  orderId: number;
+  recipient: string;
+  status: OutboxStatus;
+  attempts: number;
+  nextAttemptAt: string;
+  lastError: string | null;
+  createdAt: string;
+  sentAt: string | null;
+}
+
+const STATUS_LABELS: Record<OutboxStatus, string> = {
+  PENDING: '送信待ち',
+  SENDING: '送信中',
+  SENT: '送信済み',
+  FAILED: '失敗',
+};
+
+const STATUS_COLORS: Record<OutboxStatus, string> = {
+  PENDING: 'bg-yellow-100 text-yellow-700',
+  SENDING: 'bg-blue-100 text-blue-700',
+  SENT: 'bg-green-100 text-green-700',
+  FAILED: 'bg-red-100 text-red-700',
+};
+
+// ============================================
+// メインコンポーネント
+// ============================================
+
+export default function EmailOutboxAdmin() {
+  const [entries, setEntries] = useState<OutboxEntry[]>([]);
+  const [counts, setCounts] = useState<Record<string, number>>({});
+  const [loading, setLoading] = useState(true);
+  const [filter, setFilter] = useState<string>('FAILED');
+  const [replayingId, setReplayingId] = useState<number | null>(null);
+
+  useEffect(() => {
+    fetchEntries();
+  }, [filter]);
+
+  const fetchEntries = async () => {
+    setLoading(true);
+    try {
+      const query = filter === 'ALL' ? '' : `?status=${filter}`;
+      const response = await adminFetch(`/api/admin/email-outbox${query}`);
+      if (response.ok) {
+        const data = await response.json();
+        setEntries(data.entries);
+        setCounts(data.counts);
+      }
+    } catch (error) {
+      console.error('Failed to fetch email outbox:', error);
+    } finally {
+      setLoading(false);
+    }
+  };
+
+  const handleReplay = async (id: number) => {
+    setReplayingId(id);
+    try {
+      const response = await adminFetch(`/api/admin/email-outbox/${id}/replay`, {
+        method: 'POST',
+      });
+      if (response.ok) {
+        fetchEntries();
+      } else {
+        alert('再送に失敗しました');
+      }
+    } catch (error) {
+      console.error('Failed to replay email:', error);
+    } finally {
+      setReplayingId(null);
+    }
+  };
+
+  const handleReplayFailed = async () => {
+    if (!confirm('失敗したメールをすべて再送しますか？')) return;
+    try {
+      const response = await adminFetch('/api/admin/email-outbox/replay-failed', {
+        method: 'POST',
+      });
+      if (response.ok) {
+        const data = await response.json();
+        alert(`${data.count}件を再送待ちにしました`);
+        fetchEntries();
+      }
+    } catch (error) {
+      console.error('Failed to replay failed emails:', error);
+    }
+  };
+
+  const formatDate = (dateString: string | null) => {
+    if (!dateString) return '-';
+    const date = new Date(dateString);
+    return date.toLocaleString('ja-JP', {
+      month: '2-digit',
+      day: '2-digit',
+      hour: '2-digit',
+      minute: '2-digit',
+    });
+  };
+
+  return (
+    <div className="min-h-screen bg-slate-50">
+      {/* Header */}
+      <header className="bg-white border-b border-slate-200">
+        <div className="max-w-7xl mx-auto px-6 py-4">
+          <div className="flex items-center justify-between">
+            <div className="flex items-center gap-4">
+              <Link to="/admin" className="text-slate-400 hover:text-slate-600 transition-colors">
+                <ArrowLeft size={20} />
+              </Link>
+              <div className="flex items-center gap-2">
+                <Mail size={20} className="text-slate-600" />
+                <h1 className="text-xl font-medium text-slate-800">メール送信状況</h1>
+              </div>
+            </div>
+            <button
+              onClick={fetchEntries}
+              className="p-2 text-slate-400 hover:text-slate-600 transition-colors"
+              title="更新"
+            >
+              <RefreshCw size={20} className={loading ? 'animate-spin' : ''} />
+            </button>
+          </div>
+        </div>
+      </header>
+
+      {/* Content */}
+      <main className="max-w-7xl mx-auto px-6 py-8">
+        {/* Stats */}
+        <div className="grid grid-cols-2 md:grid-cols-4 gap-4 mb-8">
+          {(Object.keys(STATUS_LABELS) as OutboxStatus[]).map((status) => (
+            <div key={status} className="bg-white p-4 rounded-lg border border-slate-200">
+              <p className="text-sm text-slate-500">{STATUS_LABELS[status]}</p>
+              <p className={`text-xl font-medium ${status === 'FAILED' && counts[status] > 0 ? 'text-red-500' : 'text-slate-800'}`}>
+                {counts[status] ?? 0}件
+              </p>
+            </div>
+          ))}
+        </div>
+
+        {/* Filter */}
+        <div className="flex items-center justify-between mb-4">
+          <div className="flex gap-2">
+            {['FAILED', 'PENDING', 'SENT', 'ALL'].map((status) => (
+              <button
+                key={status}
+                onClick={() => setFilter(status)}
+                className={`px-4 py-2 text-sm rounded-lg transition-colors ${
+                  filter === status
+                    ? 'bg-slate-800 text-white'
+                    : 'bg-white text-slate-600 border border-slate-200 hover:bg-slate-50'
+                }`}
+              >
+                {status === 'ALL' ? 'すべて' : STATUS_LABELS[status as OutboxStatus]}
+              </button>
+            ))}
+          </div>
+          {(counts.FAILED ?? 0) > 0 && (
+            <button
+              onClick={handleReplayFailed}
+              className="flex items-center gap-2 px-4 py-2 text-sm bg-red-500 text-white rounded-lg hover:bg-red-600 transition-colors"
+            >
+              <RotateCcw size={16} />
+              失敗をすべて再送
+            </button>
+          )}
+        </div>
+
+        {/* Table */}
+        <div className="bg-white rounded-lg border border-slate-200 overflow-hidden">
+          {loading ? (
+            <div className="p-6 text-center text-slate-400">読み込み中...</div>
+          ) : entries.length === 0 ? (
+            <div className="p-6 text-center text-slate-400">メールがありません</div>
+          ) : (
+            <div className="overflow-x-auto">
+              <table className="w-full">
+                <thead>
+                  <tr className="bg-slate-50 border-b border-slate-200">
+                    <th className="px-4 py-3 text-left text-xs font-medium text-slate-500 uppercase tracking-wider">注文ID</th>
+                    <th className="px-4 py-3 text-left text-xs font-medium text-slate-500 uppercase tracking-wider">宛先</th>
+                    <th className="px-4 py-3 text-left text-xs font-medium text-slate-500 uppercase tracking-wider">ステータス</th>
+                    <th className="px-4 py-3 text-left text-xs font-medium text-slate-500 uppercase tracking-wider">試行回数</th>
+                    <th className="px-4 py-3 text-left text-xs font-medium text-slate-500 uppercase tracking-wider">登録日時</th>
+                    <th className="px-4 py-3 text-left text-xs font-medium text-slate-500 uppercase tracking-wider">次回送信 / 送信日時</th>
+                    <th className="px-4 py-3 text-left text-xs font-medium text-slate-500 uppercase tracking-wider">エラー</th>
+                    <th className="px-4 py-3 text-center text-xs font-medium text-slate-500 uppercase tracking-wider">操作</th>
+                  </tr>
+                </thead>
+                <tbody className="divide-y divide-slate-100">
+                  {entries.map((entry) => (
+                    <tr key={entry.id} className="hover:bg-slate-50 transition-colors">
+                      <td className="px-4 py-4 whitespace-nowrap">
+                        <span className="text-sm font-medium text-slate-700">#{entry.orderId}</span>
+                      </td>
+                      <td className="px-4 py-4 whitespace-nowrap">
+                        <span className="text-sm text-slate-600">{entry.recipient}</span>
+                      </td>
+                      <td className="px-4 py-4 whitespace-nowrap">
+                        <span className={`text-xs px-2 py-1 rounded ${STATUS_COLORS[entry.status]}`}>
+                          {STATUS_LABELS[entry.status]}
+                        </span>
+                      </td>
+                      <td className="px-4 py-4 whitespace-nowrap">
+                        <span className="text-sm text-slate-600">{entry.attempts}</span>
+                      </td>
+                      <td className="px-4 py-4 whitespace-nowrap">
+                        <span className="text-sm text-slate-600">{formatDate(entry.createdAt)}</span>
+                      </td>
+                      <td className="px-4 py-4 whitespace-nowrap">
+                        <span className="text-sm text-slate-600">
+                          {entry.status === 'SENT' ? formatDate(entry.sentAt) : formatDate(entry.nextAttemptAt)}
+                        </span>
+                      </td>
+                      <td className="px-4 py-4">
+                        <span className="text-xs text-red-500 break-all">{entry.lastError || ''}</span>
+                      </td>
+                      <td className="px-4 py-4 whitespace-nowrap text-center">
+                        {entry.status !== 'SENDING' && (
+                          <button
+                            onClick={() => handleReplay(entry.id)}
+                            disabled={replayingId === entry.id}
+                            className="inline-flex items-center gap-1 px-3 py-1 text-xs text-slate-600 border border-slate-200 rounded hover:bg-slate-50 disabled:opacity-50"
+                          >
+                            <RotateCcw size={12} />
+                            再送
+                          </button>
+                        )}
+                      </td>
+                    </tr>
+                  ))}
+                </tbody>
+              </table>
+            </div>
+          )}
+        </div>
+      </main>
+    </div>
+  );
+}
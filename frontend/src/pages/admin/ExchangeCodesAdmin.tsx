@@ -1,7 +1,11 @@
 import { useState, useEffect } from 'react';
 import { Link } from 'react-router-dom';
 import { ArrowLeft, Plus, Check, X, Copy } from 'lucide-react';
-import { adminFetch } from '../../utils/adminApi';
+import { adminDownload, adminFetch, adminFetchPage } from '../../utils/adminApi';
+
+// これより多い件数はCSVでダウンロードする（/api/exchange-codes/generate）
+const BATCH_JSON_MAX = 50;
+const GENERATE_MAX = 100000;
 
 interface ExchangeCode {
   id: number;
@@ -13,9 +17,23 @@ interface ExchangeCode {
   createdAt: string;
 }
 
+interface PerformerSummary {
+  performerName: string | null;
+  issuedCodes: number;
+  usedCodes: number;
+  unusedCodes: number;
+  paidOrders: number;
+  // 出演者のコードで無料にした一般席の枚数と、その定価の合計（注文の他の席は含まない）
+  tickets: number;
+  discountAmount: number;
+}
+
 export default function ExchangeCodesAdmin() {
   const [codes, setCodes] = useState<ExchangeCode[]>([]);
   const [loading, setLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
+  const [performers, setPerformers] = useState<PerformerSummary[]>([]);
   const [formData, setFormData] = useState({
     code: '',
     performerName: '',
@@ -30,12 +48,25 @@ export default function ExchangeCodesAdmin() {
     fetchCodes();
   }, []);
 
-  const fetchCodes = async () => {
+  const fetchReport = async () => {
     try {
-      const response = await adminFetch('/api/exchange-codes');
+      const response = await adminFetch('/api/admin/reports/performers');
       if (response.ok) {
         const data = await response.json();
-        setCodes(data);
+        setPerformers(data.performers);
+      }
+    } catch (error) {
+      console.error('Failed to fetch report:', error);
+    }
+  };
+
+  const fetchCodes = async () => {
+    fetchReport();
+    try {
+      const page = await adminFetchPage<ExchangeCode>('/api/exchange-codes');
+      if (page) {
+        setCodes(page.items);
+        setNextCursor(page.nextCursor);
       }
     } catch (error) {
       console.error('Failed to fetch codes:', error);
@@ -44,6 +75,22 @@ export default function ExchangeCodesAdmin() {
     }
   };
 
+  const fetchMoreCodes = async () => {
+    if (!nextCursor) return;
+    setLoadingMore(true);
+    try {
+      const page = await adminFetchPage<ExchangeCode>('/api/exchange-codes', nextCursor);
+      if (page) {
+        setCodes((prev) => [...prev, ...page.items]);
+        setNextCursor(page.nextCursor);
+      }
+    } catch (error) {
+      console.error('Failed to fetch more codes:', error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handleSubmit = async (e: React.FormEvent) => {
     e.preventDefault();
 
@@ -67,6 +114,20 @@ export default function ExchangeCodesAdmin() {
     setGeneratingBatch(true);
 
     try {
+      if (batchData.count > BATCH_JSON_MAX) {
+        const ok = await adminDownload('/api/exchange-codes/generate', 'exchange-codes.csv', {
+          method: 'POST',
+          body: JSON.stringify(batchData),
+        });
+        if (!ok) {
+          alert('コードの生成に失敗しました');
+          return;
+        }
+        fetchCodes();
+        setBatchData({ performerName: '', count: 5 });
+        return;
+      }
+
       const response = await adminFetch('/api/exchange-codes/batch', {
         method: 'POST',
         body: JSON.stringify(batchData),
@@ -93,8 +154,9 @@ export default function ExchangeCodesAdmin() {
     return date.toLocaleDateString('ja-JP');
   };
 
-  const unusedCodes = codes.filter((c) => !c.used);
-  const usedCodes = codes.filter((c) => c.used);
+  const totalIssued = performers.reduce((sum, p) => sum + p.issuedCodes, 0);
+  const totalUnused = performers.reduce((sum, p) => sum + p.unusedCodes, 0);
+  const totalUsed = performers.reduce((sum, p) => sum + p.usedCodes, 0);
 
   return (
     <div className="min-h-screen bg-slate-50">
@@ -173,9 +235,14 @@ export default function ExchangeCodesAdmin() {
                     value={batchData.count}
                     onChange={(e) => setBatchData({ ...batchData, count: parseInt(e.target.value) || 1 })}
                     min={1}
-                    max={50}
+                    max={GENERATE_MAX}
                     className="w-full p-3 border border-slate-200 rounded-lg focus:outline-none focus:border-slate-400"
                   />
+                  {batchData.count > BATCH_JSON_MAX && (
+                    <p className="text-xs text-slate-500 mt-1">
+                      {BATCH_JSON_MAX}件を超える場合は生成したコードをCSVでダウンロードします
+                    </p>
+                  )}
                 </div>
                 <button
                   type="submit"
@@ -193,18 +260,49 @@ export default function ExchangeCodesAdmin() {
               <div className="space-y-3">
                 <div className="flex justify-between">
                   <span className="text-slate-500">総コード数</span>
-                  <span className="font-medium text-slate-700">{codes.length}</span>
+                  <span className="font-medium text-slate-700">{totalIssued.toLocaleString()}</span>
                 </div>
                 <div className="flex justify-between">
                   <span className="text-slate-500">未使用</span>
-                  <span className="font-medium text-green-600">{unusedCodes.length}</span>
+                  <span className="font-medium text-green-600">{totalUnused.toLocaleString()}</span>
                 </div>
                 <div className="flex justify-between">
                   <span className="text-slate-500">使用済み</span>
-                  <span className="font-medium text-slate-400">{usedCodes.length}</span>
+                  <span className="font-medium text-slate-400">{totalUsed.toLocaleString()}</span>
                 </div>
               </div>
             </div>
+
+            {/* Performers */}
+            <div className="bg-white rounded-lg border border-slate-200 p-6">
+              <h2 className="font-medium text-slate-800 mb-4">出演者別</h2>
+              {performers.length === 0 ? (
+                <p className="text-sm text-slate-400">データがありません</p>
+              ) : (
+                <table className="w-full text-sm">
+                  <thead>
+                    <tr className="border-b border-slate-100">
+                      <th className="text-left text-xs text-slate-500 font-medium py-2">出演者</th>
+                      <th className="text-right text-xs text-slate-500 font-medium py-2">使用/発行</th>
+                      <th className="text-right text-xs text-slate-500 font-medium py-2">引換枚数</th>
+                      <th className="text-right text-xs text-slate-500 font-medium py-2">引換額</th>
+                    </tr>
+                  </thead>
+                  <tbody className="divide-y divide-slate-100">
+                    {performers.map((p) => (
+                      <tr key={p.performerName ?? ''}>
+                        <td className="py-2 text-slate-700">{p.performerName ?? '（なし）'}</td>
+                        <td className="py-2 text-right text-slate-600">
+                          {p.usedCodes.toLocaleString()}/{p.issuedCodes.toLocaleString()}
+                        </td>
+                        <td className="py-2 text-right text-slate-600">{p.tickets.toLocaleString()}</td>
+                        <td className="py-2 text-right text-slate-600">¥{p.discountAmount.toLocaleString()}</td>
+                      </tr>
+                    ))}
+                  </tbody>
+                </table>
+              )}
+            </div>
           </div>
 
           {/* List */}
@@ -263,6 +361,17 @@ export default function ExchangeCodesAdmin() {
                   </table>
                 </div>
               )}
+              {nextCursor && (
+                <div className="px-6 py-4 border-t border-slate-200 text-center">
+                  <button
+                    onClick={fetchMoreCodes}
+                    disabled={loadingMore}
+                    className="px-4 py-2 text-sm text-slate-600 bg-white border border-slate-200 rounded-lg hover:bg-slate-50 disabled:opacity-50"
+                  >
+                    {loadingMore ? '読み込み中...' : 'さらに読み込む'}
+                  </button>
+                </div>
+              )}
             </div>
           </div>
         </div>
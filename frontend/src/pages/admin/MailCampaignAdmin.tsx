@@ -0,0 +1,349 @@
+import { useState, useEffect } from 'react';
+import { Link } from 'react-router-dom';
+import { ArrowLeft, Send, RefreshCw, RotateCcw, XCircle } from 'lucide-react';
+import { adminFetch } from '../../utils/adminApi';
+
+// ============================================
+// 型定義
+// ============================================
+
+type CampaignStatus = 'PENDING' | 'RUNNING' | 'COMPLETED' | 'CANCELLED' | 'FAILED';
+
+interface Campaign {
+  id: number;
+  subject: string;
+  newsId: number | null;
+  performanceId: number | null;
+  status: CampaignStatus;
+  sentCount: number;
+  duplicateCount: number;
+  failedCount: number;
+  lastError: string | null;
+  createdAt: string;
+  startedAt: string | null;
+  completedAt: string | null;
+}
+
+interface NewsItem {
+  id: number;
+  title: string;
+}
+
+interface PerformanceItem {
+  id: number;
+  title: string;
+  performanceDate: string;
+  performanceTime: string;
+}
+
+const STATUS_LABELS: Record<CampaignStatus, string> = {
+  PENDING: '配信待ち',
+  RUNNING: '配信中',
+  COMPLETED: '完了',
+  CANCELLED: '中止',
+  FAILED: '停止',
+};
+
+const STATUS_COLORS: Record<CampaignStatus, string> = {
+  PENDING: 'bg-yellow-100 text-yellow-700',
+  RUNNING: 'bg-blue-100 text-blue-700',
+  COMPLETED: 'bg-green-100 text-green-700',
+  CANCELLED: 'bg-slate-100 text-slate-600',
+  FAILED: 'bg-red-100 text-red-700',
+};
+
+// ============================================
+// メインコンポーネント
+// ============================================
+
+export default function MailCampaignAdmin() {
+  const [campaigns, setCampaigns] = useState<Campaign[]>([]);
+  const [newsList, setNewsList] = useState<NewsItem[]>([]);
+  const [performances, setPerformances] = useState<PerformanceItem[]>([]);
+  const [loading, setLoading] = useState(true);
+  const [submitting, setSubmitting] = useState(false);
+  const [formData, setFormData] = useState({
+    newsId: '',
+    performanceId: '',
+    subject: '',
+    body: '',
+  });
+
+  useEffect(() => {
+    fetchCampaigns();
+    fetchOptions();
+  }, []);
+
+  const fetchCampaigns = async () => {
+    setLoading(true);
+    try {
+      const response = await adminFetch('/api/admin/mail-campaigns');
+      if (response.ok) {
+        const data = await response.json();
+        setCampaigns(data.campaigns);
+      }
+    } catch (error) {
+      console.error('Failed to fetch mail campaigns:', error);
+    } finally {
+      setLoading(false);
+    }
+  };
+
+  const fetchOptions = async () => {
+    try {
+      const [newsResponse, performancesResponse] = await Promise.all([
+        adminFetch('/api/news'),
+        adminFetch('/api/performances'),
+      ]);
+      if (newsResponse.ok) {
+        setNewsList(await newsResponse.json());
+      }
+      if (performancesResponse.ok) {
+        setPerformances(await performancesResponse.json());
+      }
+    } catch (error) {
+      console.error('Failed to fetch news or performances:', error);
+    }
+  };
+
+  const handleSubmit = async (e: React.FormEvent) => {
+    e.preventDefault();
+    const target = formData.performanceId ? '選択した公演の購入者' : 'すべての購入者';
+    if (!confirm(`${target}にメールを配信しますか？`)) return;
+
+    setSubmitting(true);
+    try {
+      const payload = formData.newsId
+        ? { newsId: Number(formData.newsId), performanceId: formData.performanceId ? Number(formData.performanceId) : null }
+        : {
+            subject: formData.subject,
+            body: formData.body,
+            performanceId: formData.performanceId ? Number(formData.performanceId) : null,
+          };
+      const response = await adminFetch('/api/admin/mail-campaigns', {
+        method: 'POST',
+        body: JSON.stringify(payload),
+      });
+      if (response.ok) {
+        setFormData({ newsId: '', performanceId: '', subject: '', body: '' });
+        fetchCampaigns();
+      } else {
+        const data = await response.json();
+        alert(data.error || '配信の作成に失敗しました');
+      }
+    } catch (error) {
+      console.error('Failed to create mail campaign:', error);
+    } finally {
+      setSubmitting(false);
+    }
+  };
+
+  const handleAction = async (id: number, action: 'cancel' | 'resume') => {
+    if (action === 'cancel' && !confirm('配信を中止しますか？')) return;
+    try {
+      const response = await adminFetch(`/api/admin/mail-campaigns/${id}/${action}`, {
+        method: 'POST',
+      });
+      if (response.ok) {
+        fetchCampaigns();
+      } else {
+        alert(action === 'cancel' ? '中止に失敗しました' : '再開に失敗しました');
+      }
+    } catch (error) {
+      console.error(`Failed to ${action} mail campaign:`, error);
+    }
+  };
+
+  const formatDate = (dateString: string | null) => {
+    if (!dateString) return '-';
+    const date = new Date(dateString);
+    return date.toLocaleString('ja-JP', {
+      month: '2-digit',
+      day: '2-digit',
+      hour: '2-digit',
+      minute: '2-digit',
+    });
+  };
+
+  return (
+    <div className="min-h-screen bg-slate-50">
+      {/* Header */}
+      <header className="bg-white border-b border-slate-200">
+        <div className="max-w-7xl mx-auto px-6 py-4">
+          <div className="flex items-center justify-between">
+            <div className="flex items-center gap-4">
+              <Link to="/admin" className="text-slate-400 hover:text-slate-600 transition-colors">
+                <ArrowLeft size={20} />
+              </Link>
+              <div className="flex items-center gap-2">
+                <Send size={20} className="text-slate-600" />
+                <h1 className="text-xl font-medium text-slate-800">お知らせメール配信</h1>
+              </div>
+            </div>
+            <button
+              onClick={fetchCampaigns}
+              className="p-2 text-slate-400 hover:text-slate-600 transition-colors"
+              title="更新"
+            >
+              <RefreshCw size={20} className={loading ? 'animate-spin' : ''} />
+            </button>
+          </div>
+        </div>
+      </header>
+
+      {/* Content */}
+      <main className="max-w-7xl mx-auto px-6 py-8">
+        {/* Form */}
+        <form onSubmit={handleSubmit} className="bg-white p-6 rounded-lg border border-slate-200 mb-8 space-y-4">
+          <div className="grid grid-cols-1 md:grid-cols-2 gap-4">
+            <div>
+              <label className="block text-sm text-slate-600 mb-1">お知らせ</label>
+              <select
+                value={formData.newsId}
+                onChange={(e) => setFormData({ ...formData, newsId: e.target.value })}
+                className="w-full px-3 py-2 border border-slate-200 rounded-lg text-sm"
+              >
+                <option value="">お知らせを使わずに入力する</option>
+                {newsList.map((news) => (
+                  <option key={news.id} value={news.id}>{news.title}</option>
+                ))}
+              </select>
+            </div>
+            <div>
+              <label className="block text-sm text-slate-600 mb-1">配信対象</label>
+              <select
+                value={formData.performanceId}
+                onChange={(e) => setFormData({ ...formData, performanceId: e.target.value })}
+                className="w-full px-3 py-2 border border-slate-200 rounded-lg text-sm"
+              >
+                <option value="">すべての購入者</option>
+                {performances.map((performance) => (
+                  <option key={performance.id} value={performance.id}>
+                    {performance.title}（{performance.performanceDate} {performance.performanceTime}）
+                  </option>
+                ))}
+              </select>
+            </div>
+          </div>
+
+          {!formData.newsId && (
+            <>
+              <div>
+                <label className="block text-sm text-slate-600 mb-1">件名</label>
+                <input
+                  type="text"
+                  value={formData.subject}
+                  onChange={(e) => setFormData({ ...formData, subject: e.target.value })}
+                  className="w-full px-3 py-2 border border-slate-200 rounded-lg text-sm"
+                  required
+                />
+              </div>
+              <div>
+                <label className="block text-sm text-slate-600 mb-1">本文</label>
+                <textarea
+                  value={formData.body}
+                  onChange={(e) => setFormData({ ...formData, body: e.target.value })}
+                  rows={6}
+                  className="w-full px-3 py-2 border border-slate-200 rounded-lg text-sm"
+                  required
+                />
+              </div>
+            </>
+          )}
+
+          <div className="flex justify-end">
+            <button
+              type="submit"
+              disabled={submitting}
+              className="flex items-center gap-2 px-4 py-2 text-sm bg-slate-800 text-white rounded-lg hover:bg-slate-700 transition-colors disabled:opacity-50"
+            >
+              <Send size={16} />
+              配信する
+            </button>
+          </div>
+        </form>
+
+        {/* Table */}
+        <div className="bg-white rounded-lg border border-slate-200 overflow-hidden">
+          {loading ? (
+            <div className="p-6 text-center text-slate-400">読み込み中...</div>
+          ) : campaigns.length === 0 ? (
+            <div className="p-6 text-center text-slate-400">配信がありません</div>
+          ) : (
+            <div className="overflow-x-auto">
+              <table className="w-full">
+                <thead>
+                  <tr className="bg-slate-50 border-b border-slate-200">
+                    <th className="px-4 py-3 text-left text-xs font-medium text-slate-500 uppercase tracking-wider">件名</th>
+                    <th className="px-4 py-3 text-left text-xs font-medium text-slate-500 uppercase tracking-wider">ステータス</th>
+                    <th className="px-4 py-3 text-left text-xs font-medium text-slate-500 uppercase tracking-wider">送信済み</th>
+                    <th className="px-4 py-3 text-left text-xs font-medium text-slate-500 uppercase tracking-wider">重複</th>
+                    <th className="px-4 py-3 text-left text-xs font-medium text-slate-500 uppercase tracking-wider">失敗</th>
+                    <th className="px-4 py-3 text-left text-xs font-medium text-slate-500 uppercase tracking-wider">作成日時</th>
+                    <th className="px-4 py-3 text-left text-xs font-medium text-slate-500 uppercase tracking-wider">完了日時</th>
+                    <th className="px-4 py-3 text-left text-xs font-medium text-slate-500 uppercase tracking-wider">エラー</th>
+                    <th className="px-4 py-3 text-center text-xs font-medium text-slate-500 uppercase tracking-wider">操作</th>
+                  </tr>
+                </thead>
+                <tbody className="divide-y divide-slate-100">
+                  {campaigns.map((campaign) => (
+                    <tr key={campaign.id} className="hover:bg-slate-50 transition-colors">
+                      <td className="px-4 py-4">
+                        <span className="text-sm font-medium text-slate-700">{campaign.subject}</span>
+                      </td>
+                      <td className="px-4 py-4 whitespace-nowrap">
+                        <span className={`text-xs px-2 py-1 rounded ${STATUS_COLORS[campaign.status]}`}>
+                          {STATUS_LABELS[campaign.status]}
+                        </span>
+                      </td>
+                      <td className="px-4 py-4 whitespace-nowrap">
+                        <span className="text-sm text-slate-600">{campaign.sentCount}</span>
+                      </td>
+                      <td className="px-4 py-4 whitespace-nowrap">
+                        <span className="text-sm text-slate-600">{campaign.duplicateCount}</span>
+                      </td>
+                      <td className="px-4 py-4 whitespace-nowrap">
+                        <span className={`text-sm ${campaign.failedCount > 0 ? 'text-red-500' : 'text-slate-600'}`}>
+                          {campaign.failedCount}
+                        </span>
+                      </td>
+                      <td className="px-4 py-4 whitespace-nowrap">
+                        <span className="text-sm text-slate-600">{formatDate(campaign.createdAt)}</span>
+                      </td>
+                      <td className="px-4 py-4 whitespace-nowrap">
+                        <span className="text-sm text-slate-600">{formatDate(campaign.completedAt)}</span>
+                      </td>
+                      <td className="px-4 py-4">
+                        <span className="text-xs text-red-500 break-all">{campaign.lastError || ''}</span>
+                      </td>
+                      <td className="px-4 py-4 whitespace-nowrap text-center">
+                        {(campaign.status === 'PENDING' || campaign.status === 'RUNNING') && (
+                          <button
+                            onClick={() => handleAction(campaign.id, 'cancel')}
+                            className="inline-flex items-center gap-1 px-3 py-1 text-xs text-slate-600 border border-slate-200 rounded hover:bg-slate-50"
+                          >
+                            <XCircle size={12} />
+                            中止
+                          </button>
+                        )}
+                        {campaign.status === 'FAILED' && (
+                          <button
+                            onClick={() => handleAction(campaign.id, 'resume')}
+                            className="inline-flex items-center gap-1 px-3 py-1 text-xs text-slate-600 border border-slate-200 rounded hover:bg-slate-50"
+                          >
+                            <RotateCcw size={12} />
+                            再開
+                          </button>
+                        )}
+                      </td>
+                    </tr>
+                  ))}
+                </tbody>
+              </table>
+            </div>
+          )}
+        </div>
+      </main>
+    </div>
+  );
+}
@@ -10,9 +10,11 @@ import {
   ChevronUp,
   Ticket,
   Gift,
-  Eye
+  Eye,
+  Download,
+  Search
 } from 'lucide-react';
-import { adminFetch } from '../../utils/adminApi';
+import { adminFetch, adminFetchPage, adminDownload } from '../../utils/adminApi';
 
 // ============================================
 // 型定義
@@ -56,6 +58,14 @@ interface Order {
   exchangeCodeList?: string[];
 }
 
+// 支払い済み注文の集計（一覧のページではなく全件から、サーバー側で集計）
+interface OrderStats {
+  totalOrders: number;
+  totalRevenue: number;
+  totalTickets: number;
+  refundedOrders: number;
+}
+
 // ============================================
 // メインコンポーネント
 // ============================================
@@ -63,20 +73,60 @@ interface Order {
 export default function TicketsAdmin() {
   const [orders, setOrders] = useState<Order[]>([]);
   const [loading, setLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [totalEstimate, setTotalEstimate] = useState<number | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
+  const [stats, setStats] = useState<OrderStats | null>(null);
   const [filter, setFilter] = useState<string>('PAID');
   const [expandedOrderId, setExpandedOrderId] = useState<number | null>(null);
+  const [exporting, setExporting] = useState(false);
+  const [searchQuery, setSearchQuery] = useState('');
+  const [searchResults, setSearchResults] = useState<Order[] | null>(null);
 
   useEffect(() => {
     fetchOrders();
   }, []);
 
+  // 名前・かな・メール・電話番号で検索（入力が止まってから問い合わせる）
+  useEffect(() => {
+    const query = searchQuery.trim();
+    if (query.length < 2) {
+      setSearchResults(null);
+      return;
+    }
+    const timer = setTimeout(async () => {
+      try {
+        const response = await adminFetch(`/api/orders/search?q=${encodeURIComponent(query)}`);
+        if (response.ok) {
+          setSearchResults(await response.json());
+        }
+      } catch (error) {
+        console.error('Failed to search orders:', error);
+      }
+    }, 250);
+    return () => clearTimeout(timer);
+  }, [searchQuery]);
+
+  const fetchStats = async () => {
+    try {
+      const response = await adminFetch('/api/orders/stats');
+      if (response.ok) {
+        setStats(await response.json());
+      }
+    } catch (error) {
+      console.error('Failed to fetch stats:', error);
+    }
+  };
+
   const fetchOrders = async () => {
     setLoading(true);
+    fetchStats();
     try {
-      const response = await adminFetch('/api/orders');
-      if (response.ok) {
-        const data = await response.json();
-        setOrders(data);
+      const page = await adminFetchPage<Order>('/api/orders');
+      if (page) {
+        setOrders(page.items);
+        setNextCursor(page.nextCursor);
+        setTotalEstimate(page.totalEstimate);
       }
     } catch (error) {
       console.error('Failed to fetch orders:', error);
@@ -85,6 +135,36 @@ export default function TicketsAdmin() {
     }
   };
 
+  const fetchMoreOrders = async () => {
+    if (!nextCursor) return;
+    setLoadingMore(true);
+    try {
+      const page = await adminFetchPage<Order>('/api/orders', nextCursor);
+      if (page) {
+        setOrders((prev) => [...prev, ...page.items]);
+        setNextCursor(page.nextCursor);
+      }
+    } catch (error) {
+      console.error('Failed to fetch more orders:', error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
+  // 表示中の絞り込み（ステータス）でチケット一覧をダウンロード
+  const handleExport = async () => {
+    setExporting(true);
+    try {
+      const query = filter === 'ALL' ? '' : `?status=${filter}`;
+      const ok = await adminDownload(`/api/admin/export/tickets${query}`, 'tickets.csv');
+      if (!ok) alert('エクスポートに失敗しました');
+    } catch (error) {
+      console.error('Failed to export tickets:', error);
+    } finally {
+      setExporting(false);
+    }
+  };
+
   const handleStatusChange = async (id: number, newStatus: string) => {
     try {
       const response = await adminFetch(`/api/orders/${id}/status`, {
@@ -160,24 +240,11 @@ export default function TicketsAdmin() {
     }
   };
 
-  const filteredOrders = orders.filter((order) => {
+  const filteredOrders = (searchResults ?? orders).filter((order) => {
     if (filter === 'ALL') return true;
     return order.status === filter;
   });
 
-  const stats = {
-    total: orders.length,
-    paid: orders.filter((o) => o.status === 'PAID').length,
-    pending: orders.filter((o) => o.status === 'PENDING').length,
-    cancelled: orders.filter((o) => o.status === 'CANCELLED').length,
-    revenue: orders
-      .filter((o) => o.status === 'PAID')
-      .reduce((sum, o) => sum + o.totalAmount, 0),
-    totalTickets: orders
-      .filter((o) => o.status === 'PAID')
-      .reduce((sum, o) => sum + o.generalQuantity + o.reservedQuantity, 0),
-  };
-
   return (
     <div className="min-h-screen bg-slate-50">
       {/* Header */}
@@ -193,13 +260,23 @@ export default function TicketsAdmin() {
                 <h1 className="text-xl font-medium text-slate-800">チケット管理</h1>
               </div>
             </div>
-            <button
-              onClick={fetchOrders}
-              className="p-2 text-slate-400 hover:text-slate-600 transition-colors"
-              title="更新"
-            >
-              <RefreshCw size={20} className={loading ? 'animate-spin' : ''} />
-            </button>
+            <div className="flex items-center gap-1">
+              <button
+                onClick={handleExport}
+                disabled={exporting}
+                className="p-2 text-slate-400 hover:text-slate-600 transition-colors disabled:opacity-50"
+                title="チケット一覧をCSVでダウンロード"
+              >
+                <Download size={20} className={exporting ? 'animate-pulse' : ''} />
+              </button>
+              <button
+                onClick={fetchOrders}
+                className="p-2 text-slate-400 hover:text-slate-600 transition-colors"
+                title="更新"
+              >
+                <RefreshCw size={20} className={loading ? 'animate-spin' : ''} />
+              </button>
+            </div>
           </div>
         </div>
       </header>
@@ -210,26 +287,26 @@ export default function TicketsAdmin() {
         <div className="grid grid-cols-2 md:grid-cols-4 gap-4 mb-8">
           <div className="bg-white p-4 rounded-lg border border-slate-200">
             <p className="text-sm text-slate-500">売上合計</p>
-            <p className="text-xl font-medium text-slate-800">¥{stats.revenue.toLocaleString()}</p>
+            <p className="text-xl font-medium text-slate-800">{stats ? `¥${stats.totalRevenue.toLocaleString()}` : '-'}</p>
           </div>
           <div className="bg-white p-4 rounded-lg border border-slate-200">
             <p className="text-sm text-slate-500">発行済みチケット</p>
-            <p className="text-xl font-medium text-slate-800">{stats.totalTickets}枚</p>
+            <p className="text-xl font-medium text-slate-800">{stats ? `${stats.totalTickets}枚` : '-'}</p>
           </div>
           <div className="bg-white p-4 rounded-lg border border-slate-200">
             <p className="text-sm text-slate-500">決済完了</p>
-            <p className="text-xl font-medium text-green-600">{stats.paid}件</p>
+            <p className="text-xl font-medium text-green-600">{stats ? `${stats.totalOrders}件` : '-'}</p>
           </div>
           <div className="bg-white p-4 rounded-lg border border-slate-200">
             <p className="text-sm text-slate-500">返金済</p>
             <p className="text-xl font-medium text-red-500">
-              {orders.filter((o) => o.status === 'REFUNDED').length}件
+              {stats ? `${stats.refundedOrders}件` : '-'}
             </p>
           </div>
         </div>
 
         {/* Filter */}
-        <div className="flex gap-2 mb-4">
+        <div className="flex flex-wrap gap-2 mb-4">
           {['PAID', 'ALL', 'REFUNDED'].map((status) => (
             <button
               key={status}
@@ -245,6 +322,16 @@ export default function TicketsAdmin() {
                status === 'REFUNDED' ? '返金済' : status}
             </button>
           ))}
+          <div className="relative ml-auto">
+            <Search size={16} className="absolute left-3 top-1/2 -translate-y-1/2 text-slate-400" />
+            <input
+              type="search"
+              value={searchQuery}
+              onChange={(e) => setSearchQuery(e.target.value)}
+              placeholder="名前・かな・メール・電話番号"
+              className="pl-9 pr-3 py-2 text-sm bg-white border border-slate-200 rounded-lg w-64 focus:outline-none focus:ring-2 focus:ring-slate-300"
+            />
+          </div>
         </div>
 
         {/* Orders Table */}
@@ -524,9 +611,29 @@ export default function TicketsAdmin() {
           )}
         </div>
 
+        {/* Load More */}
+        {nextCursor && searchResults === null && (
+          <div className="mt-4 text-center">
+            <button
+              onClick={fetchMoreOrders}
+              disabled={loadingMore}
+              className="px-4 py-2 text-sm text-slate-600 bg-white border border-slate-200 rounded-lg hover:bg-slate-50 disabled:opacity-50"
+            >
+              {loadingMore ? '読み込み中...' : 'さらに読み込む'}
+            </button>
+          </div>
+        )}
+
         {/* Footer Stats */}
         <div className="mt-4 text-sm text-slate-500 text-right">
-          表示中: {filteredOrders.length}件 / 全{orders.length}件
+          {searchResults !== null ? (
+            `検索結果: ${filteredOrders.length}件`
+          ) : (
+            <>
+              表示中: {filteredOrders.length}件 / 読み込み済み{orders.length}件
+              {totalEstimate !== null && nextCursor && ` / 全約${totalEstimate.toLocaleString()}件`}
+            </>
+          )}
         </div>
       </main>
     </div>
@@ -19,12 +19,15 @@ interface Performance {
   saleStatus: string;
   generalRemaining: number;
   reservedRemaining: number;
+  version: number;
 }
 
 export default function PerformancesAdmin() {
   const [performances, setPerformances] = useState<Performance[]>([]);
   const [loading, setLoading] = useState(true);
   const [editingId, setEditingId] = useState<number | null>(null);
+  // 編集開始時の版（他の管理者の更新を上書きしないよう、更新時に送る）
+  const [editingVersion, setEditingVersion] = useState<number | null>(null);
   const [formData, setFormData] = useState({
     title: '',
     volume: '',
@@ -67,12 +70,18 @@ export default function PerformancesAdmin() {
         body: JSON.stringify({
           ...formData,
           saleStatus: 'NOT_ON_SALE',
+          ...(editingId ? { version: editingVersion } : {}),
         }),
       });
 
       if (response.ok) {
         fetchPerformances();
         resetForm();
+      } else if (response.status === 409) {
+        if (confirm('編集中に他の管理者がこの公演を更新しました。最新の内容を読み込み直しますか？（入力中の変更は破棄されます）')) {
+          resetForm();
+          fetchPerformances();
+        }
       }
     } catch (error) {
       console.error('Failed to save performance:', error);
@@ -81,6 +90,7 @@ export default function PerformancesAdmin() {
 
   const handleEdit = (perf: Performance) => {
     setEditingId(perf.id);
+    setEditingVersion(perf.version);
     setFormData({
       title: perf.title,
       volume: perf.volume || '',
@@ -124,6 +134,7 @@ export default function PerformancesAdmin() {
 
   const resetForm = () => {
     setEditingId(null);
+    setEditingVersion(null);
     setFormData({
       title: '',
       volume: '',
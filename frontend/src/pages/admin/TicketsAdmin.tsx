@@ -12,7 +12,7 @@ import {
   Gift,
   Eye
 } from 'lucide-react';
-import { adminFetch } from '../../utils/adminApi';
+import { adminFetch, adminFetchPage } from '../../utils/adminApi';
 
 // ============================================
 // 型定義
@@ -56,6 +56,14 @@ interface Order {
   exchangeCodeList?: string[];
 }
 
+// 支払い済み注文の集計（一覧のページではなく全件から、サーバー側で集計）
+interface OrderStats {
+  totalOrders: number;
+  totalRevenue: number;
+  totalTickets: number;
+  refundedOrders: number;
+}
+
 // ============================================
 // メインコンポーネント
 // ============================================
@@ -63,6 +71,10 @@ interface Order {
 export default function TicketsAdmin() {
   const [orders, setOrders] = useState<Order[]>([]);
   const [loading, setLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [totalEstimate, setTotalEstimate] = useState<number | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
+  const [stats, setStats] = useState<OrderStats | null>(null);
   const [filter, setFilter] = useState<string>('PAID');
   const [expandedOrderId, setExpandedOrderId] = useState<number | null>(null);
 
@@ -70,13 +82,26 @@ export default function TicketsAdmin() {
     fetchOrders();
   }, []);
 
+  const fetchStats = async () => {
+    try {
+      const response = await adminFetch('/api/orders/stats');
+      if (response.ok) {
+        setStats(await response.json());
+      }
+    } catch (error) {
+      console.error('Failed to fetch stats:', error);
+    }
+  };
+
   const fetchOrders = async () => {
     setLoading(true);
+    fetchStats();
     try {
-      const response = await adminFetch('/api/orders');
-      if (response.ok) {
-        const data = await response.json();
-        setOrders(data);
+      const page = await adminFetchPage<Order>('/api/orders');
+      if (page) {
+        setOrders(page.items);
+        setNextCursor(page.nextCursor);
+        setTotalEstimate(page.totalEstimate);
       }
     } catch (error) {
       console.error('Failed to fetch orders:', error);
@@ -85,6 +110,22 @@ export default function TicketsAdmin() {
     }
   };
 
+  const fetchMoreOrders = async () => {
+    if (!nextCursor) return;
+    setLoadingMore(true);
+    try {
+      const page = await adminFetchPage<Order>('/api/orders', nextCursor);
+      if (page) {
+        setOrders((prev) => [...prev, ...page.items]);
+        setNextCursor(page.nextCursor);
+      }
+    } catch (error) {
+      console.error('Failed to fetch more orders:', error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handleStatusChange = async (id: number, newStatus: string) => {
     try {
       const response = await adminFetch(`/api/orders/${id}/status`, {
@@ -165,19 +206,6 @@ export default function TicketsAdmin() {
     return order.status === filter;
   });
 
-  const stats = {
-    total: orders.length,
-    paid: orders.filter((o) => o.status === 'PAID').length,
-    pending: orders.filter((o) => o.status === 'PENDING').length,
-    cancelled: orders.filter((o) => o.status === 'CANCELLED').length,
-    revenue: orders
-      .filter((o) => o.status === 'PAID')
-      .reduce((sum, o) => sum + o.totalAmount, 0),
-    totalTickets: orders
-      .filter((o) => o.status === 'PAID')
-      .reduce((sum, o) => sum + o.generalQuantity + o.reservedQuantity, 0),
-  };
-
   return (
     <div className="min-h-screen bg-slate-50">
       {/* Header */}
@@ -210,20 +238,20 @@ export default function TicketsAdmin() {
         <div className="grid grid-cols-2 md:grid-cols-4 gap-4 mb-8">
           <div className="bg-white p-4 rounded-lg border border-slate-200">
             <p className="text-sm text-slate-500">売上合計</p>
-            <p className="text-xl font-medium text-slate-800">¥{stats.revenue.toLocaleString()}</p>
+            <p className="text-xl font-medium text-slate-800">{stats ? `¥${stats.totalRevenue.toLocaleString()}` : '-'}</p>
           </div>
           <div className="bg-white p-4 rounded-lg border border-slate-200">
             <p className="text-sm text-slate-500">発行済みチケット</p>
-            <p className="text-xl font-medium text-slate-800">{stats.totalTickets}枚</p>
+            <p className="text-xl font-medium text-slate-800">{stats ? `${stats.totalTickets}枚` : '-'}</p>
           </div>
           <div className="bg-white p-4 rounded-lg border border-slate-200">
             <p className="text-sm text-slate-500">決済完了</p>
-            <p className="text-xl font-medium text-green-600">{stats.paid}件</p>
+            <p className="text-xl font-medium text-green-600">{stats ? `${stats.totalOrders}件` : '-'}</p>
           </div>
           <div className="bg-white p-4 rounded-lg border border-slate-200">
             <p className="text-sm text-slate-500">返金済</p>
             <p className="text-xl font-medium text-red-500">
-              {orders.filter((o) => o.status === 'REFUNDED').length}件
+              {stats ? `${stats.refundedOrders}件` : '-'}
             </p>
           </div>
         </div>
@@ -543,9 +571,23 @@ export default function TicketsAdmin() {
           )}
         </div>
 
+        {/* Load More */}
+        {nextCursor && (
+          <div className="mt-4 text-center">
+            <button
+              onClick={fetchMoreOrders}
+              disabled={loadingMore}
+              className="px-4 py-2 text-sm text-slate-600 bg-white border border-slate-200 rounded-lg hover:bg-slate-50 disabled:opacity-50"
+            >
+              {loadingMore ? '読み込み中...' : 'さらに読み込む'}
+            </button>
+          </div>
+        )}
+
         {/* Footer Stats */}
         <div className="mt-4 text-sm text-slate-500 text-right">
-          表示中: {filteredOrders.length}件 / 全{orders.length}件
+          表示中: {filteredOrders.length}件 / 読み込み済み{orders.length}件
+          {totalEstimate !== null && nextCursor && ` / 全約${totalEstimate.toLocaleString()}件`}
         </div>
       </main>
     </div>
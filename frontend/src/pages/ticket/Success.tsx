@@ -28,17 +28,33 @@ export default function Success() {
   const sessionId = searchParams.get('session_id');
   
   const [orderInfo, setOrderInfo] = useState<OrderInfo | null>(null);
+  const [qrCodes, setQrCodes] = useState<Record<string, string>>({});
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
 
   useEffect(() => {
     if (sessionId) {
-      fetchOrderInfo(sessionId);
+      // QRコードも揃ってから表示し、チケットごとの画像リクエストを発生させない
+      Promise.all([fetchOrderInfo(sessionId), fetchQrCodes(sessionId)]).finally(() => setLoading(false));
     } else {
       setLoading(false);
     }
   }, [sessionId]);
 
+  const fetchQrCodes = async (sessionId: string) => {
+    try {
+      // 注文の全チケットのQRコードを1リクエストで取得
+      const response = await fetch(`/api/qrcode/order/${sessionId}?format=svg`);
+      if (response.ok) {
+        const data: { tickets: { ticketCode: string; qrCode: string }[] } = await response.json();
+        setQrCodes(Object.fromEntries(data.tickets.map((t) => [t.ticketCode, t.qrCode])));
+      }
+    } catch (err) {
+      // 取得できない場合はチケットごとの画像URLにフォールバック
+      console.error('Failed to fetch QR codes:', err);
+    }
+  };
+
   const fetchOrderInfo = async (sessionId: string) => {
     try {
       // Session IDから注文情報を取得
@@ -52,8 +68,6 @@ export default function Success() {
     } catch (err) {
       console.error('Failed to fetch order info:', err);
       setError('注文情報の取得に失敗しました');
-    } finally {
-      setLoading(false);
     }
   };
 
@@ -156,7 +170,7 @@ export default function Success() {
                     {/* QR Code */}
                     <div className="bg-slate-50 rounded-lg p-4 mb-4 flex items-center justify-center">
                       <img
-                        src={`/api/qrcode/ticket/${ticket.ticketCode}`}
+                        src={qrCodes[ticket.ticketCode] ?? `/api/qrcode/ticket/${ticket.ticketCode}`}
                         alt="QRコード"
                         className="w-48 h-48"
                         onError={(e) => {
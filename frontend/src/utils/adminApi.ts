@@ -22,6 +22,59 @@ export async function adminFetch(url: string, options: RequestInit = {}): Promis
   });
 }
 
+/**
+ * ページングされた一覧の1ページ
+ */
+export interface Page<T> {
+  items: T[];
+  nextCursor: string | null;
+  totalEstimate: number | null;
+}
+
+/**
+ * 一覧を1ページ取得（キーセット方式）
+ * 次のページの位置と総件数の概算はレスポンスヘッダーから取り出す
+ */
+export async function adminFetchPage<T>(url: string, after: string | null = null): Promise<Page<T> | null> {
+  const separator = url.includes('?') ? '&' : '?';
+  const response = await adminFetch(after ? `${url}${separator}after=${encodeURIComponent(after)}` : url);
+  if (!response.ok) return null;
+
+  const totalEstimate = response.headers.get('X-Total-Count-Estimate');
+  return {
+    items: await response.json(),
+    nextCursor: response.headers.get('X-Next-Cursor'),
+    totalEstimate: totalEstimate !== null ? Number(totalEstimate) : null,
+  };
+}
+
+/**
+ * ファイルをダウンロード（エクスポート等）
+ * ファイル名はレスポンスの Content-Disposition から取り出す
+ */
+export async function adminDownload(
+  url: string,
+  fallbackName: string,
+  options: RequestInit = {}
+): Promise<boolean> {
+  const response = await adminFetch(url, options);
+  if (!response.ok) return false;
+
+  const disposition = response.headers.get('Content-Disposition') || '';
+  const match = disposition.match(/filename="?([^";]+)"?/);
+  const blob = await response.blob();
+  const objectUrl = URL.createObjectURL(blob);
+
+  const link = document.createElement('a');
+  link.href = objectUrl;
+  link.download = match ? match[1] : fallbackName;
+  document.body.appendChild(link);
+  link.click();
+  link.remove();
+  URL.revokeObjectURL(objectUrl);
+  return true;
+}
+
 /**
  * ログアウト処理
  */